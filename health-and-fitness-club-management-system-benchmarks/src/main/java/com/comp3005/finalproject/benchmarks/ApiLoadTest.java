@@ -0,0 +1,223 @@
+package com.comp3005.finalproject.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.comp3005.finalproject.Json;
+import com.comp3005.finalproject.LatencyHistogram;
+
+/**
+ * Load test for the API server.
+ *
+ * Hundreds of clients, each on a virtual thread, send a mix of the read requests members,
+ * trainers, and front desks make most (profiles, health history, PT sessions, upcoming
+ * classes, trainer schedules, and rooms) for a fixed time, reusing kept-alive
+ * connections. The IDs come from the server itself, so the test runs against any loaded
+ * dataset. It reports the achieved requests per second and the latency percentiles and
+ * error counts of each endpoint, followed by the server's own service and pool
+ * statistics. Nothing is written, so it is safe to run against a live server.
+ *
+ * Start the server first. To run from this module, after mvn package:
+ *     java -cp target/benchmarks.jar com.comp3005.finalproject.benchmarks.ApiLoadTest \
+ *         --url http://localhost:8080 --clients 300 --seconds 30
+ */
+public class ApiLoadTest {
+    private static final int WARM_UP_SECONDS = 5;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] NAME_PREFIXES = {"a", "e", "i", "j", "m", "s"};
+
+    private record Endpoint(String name, Function<ThreadLocalRandom, String> path) {
+    }
+
+    private static final class EndpointStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        String url = options.getOrDefault("url", "http://localhost:8080").replaceFirst("/$", "");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "300"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // HTTP/1.1 so every client keeps reusing its own connection, as browsers and desks would
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+
+            List<Endpoint> endpoints = discoverEndpoints(client, url);
+            if (endpoints.isEmpty()) {
+                System.out.println("The server at " + url + " returned no members, trainers, or rooms to query. " +
+                    "Load DDL.sql and DML.sql, or run the DataGenerator, before running the load test.");
+                return;
+            }
+
+            System.out.println("Warming up for " + WARM_UP_SECONDS + " s...");
+            run(client, url, endpoints, clients, WARM_UP_SECONDS);
+
+            System.out.println("Running " + clients + " clients for " + seconds + " s...");
+            long start = System.nanoTime();
+            Map<String, EndpointStats> stats = run(client, url, endpoints, clients, seconds);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            report(stats, clients, elapsed);
+            System.out.println(fetchServerStats(client, url));
+
+            long errors = stats.values().stream().mapToLong(s -> s.serverErrors.sum() + s.failures.sum()).sum();
+            if (errors != 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static Map<String, EndpointStats> run(HttpClient client, String url, List<Endpoint> endpoints, int clients,
+                                                  int seconds) throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            stats.put(endpoint.name(), new EndpointStats());
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            threads.add(Thread.ofVirtual().name("load-client-", c).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Endpoint endpoint = endpoints.get(random.nextInt(endpoints.size()));
+                    EndpointStats endpointStats = stats.get(endpoint.name());
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url + endpoint.path().apply(random)))
+                        .timeout(REQUEST_TIMEOUT)
+                        .GET()
+                        .build();
+
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        endpointStats.latency.record(System.nanoTime() - sent);
+                        if (response.statusCode() >= 500) {
+                            endpointStats.serverErrors.increment();
+                        } else if (response.statusCode() >= 400) {
+                            endpointStats.clientErrors.increment();
+                        }
+                    } catch (IOException e) {
+                        endpointStats.failures.increment();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return stats;
+    }
+
+    private static List<Endpoint> discoverEndpoints(HttpClient client, String url) throws InterruptedException {
+        List<Integer> memberIds = new ArrayList<>();
+        for (String prefix : NAME_PREFIXES) {
+            memberIds.addAll(ids(client, url + "/member-suggestions?name=" + prefix + "&limit=50", "memberId"));
+        }
+        List<Integer> trainerIds = ids(client, url + "/classes?pageSize=500", "trainerId");
+        List<Integer> roomIds = ids(client, url + "/rooms", "roomId");
+
+        List<Endpoint> endpoints = new ArrayList<>();
+        if (!memberIds.isEmpty()) {
+            List<Integer> members = memberIds.stream().distinct().toList();
+            endpoints.add(new Endpoint("GET /members/{memberId}", r -> "/members/" + pick(members, r)));
+            endpoints.add(new Endpoint("GET /members/{memberId}/metrics", r -> "/members/" + pick(members, r) + "/metrics"));
+            endpoints.add(new Endpoint("GET /members/{memberId}/pt-sessions",
+                r -> "/members/" + pick(members, r) + "/pt-sessions"));
+            endpoints.add(new Endpoint("GET /classes/upcoming", r -> "/classes/upcoming"));
+        }
+        if (!trainerIds.isEmpty()) {
+            List<Integer> trainers = trainerIds.stream().distinct().toList();
+            endpoints.add(new Endpoint("GET /trainers/{trainerId}/schedule",
+                r -> "/trainers/" + pick(trainers, r) + "/schedule"));
+        }
+        if (!roomIds.isEmpty()) {
+            endpoints.add(new Endpoint("GET /rooms", r -> "/rooms"));
+        }
+        return endpoints;
+    }
+
+    private static List<Integer> ids(HttpClient client, String uri, String field) throws InterruptedException {
+        List<Integer> ids = new ArrayList<>();
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+            Object body = response.statusCode() == 200 ? Json.parse(response.body()) : null;
+            // Paged listings wrap their rows in a page object
+            if (body instanceof Map<?, ?> page) {
+                body = page.get("items");
+            }
+            if (body instanceof List<?> items) {
+                for (Object item : items) {
+                    if (item instanceof Map<?, ?> row && row.get(field) instanceof Number id) {
+                        ids.add(id.intValue());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error contacting the server at " + uri + ": ");
+            e.printStackTrace();
+        }
+        return ids;
+    }
+
+    private static int pick(List<Integer> ids, ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static void report(Map<String, EndpointStats> stats, int clients, double elapsed) {
+        long total = 0;
+        System.out.println(String.format("%-38s %9s %8s %8s %8s %8s %6s %6s %6s", "Endpoint", "Requests", "p50 ms",
+            "p90 ms", "p99 ms", "max ms", "4xx", "5xx", "failed"));
+        for (Map.Entry<String, EndpointStats> e : stats.entrySet()) {
+            EndpointStats s = e.getValue();
+            LatencyHistogram.Snapshot latency = s.latency.snapshot();
+            total += latency.count() + s.failures.sum();
+            System.out.println(String.format("%-38s %9d %8.1f %8.1f %8.1f %8.1f %6d %6d %6d", e.getKey(), latency.count(),
+                latency.p50() / 1000.0, latency.p90() / 1000.0, latency.p99() / 1000.0, latency.max() / 1000.0,
+                s.clientErrors.sum(), s.serverErrors.sum(), s.failures.sum()));
+        }
+        System.out.println("Clients: " + clients + ", requests: " + total + ", elapsed: " + String.format("%.2f s", elapsed));
+        System.out.println(String.format("Throughput: %.0f requests/s", total / elapsed));
+    }
+
+    private static String fetchServerStats(HttpClient client, String url) throws InterruptedException {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url + "/metrics")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+            if (Json.parse(response.body()) instanceof Map<?, ?> metrics) {
+                return "Server services: " + Json.write(metrics.get("services")) + "\nServer pool: " + Json.write(metrics.get("pool"));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error fetching server metrics: ");
+            e.printStackTrace();
+        }
+        return "";
+    }
+}
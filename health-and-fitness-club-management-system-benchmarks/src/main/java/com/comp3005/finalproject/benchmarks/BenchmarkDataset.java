@@ -0,0 +1,258 @@
+package com.comp3005.finalproject.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import com.comp3005.finalproject.DatabaseConnection;
+
+/**
+ * Seeds and resets the data the JMH benchmarks run against.
+ *
+ * Every benchmark row is marked so it never mixes with real data: members and trainers
+ * have emails ending in EMAIL_DOMAIN, rooms are named ROOM_PREFIX plus a number, and
+ * classes are named CLASS_NAME. Members, their health metrics, trainers, and rooms are
+ * kept between runs and only topped up to the requested scale, since seeding a large
+ * member table takes far longer than a benchmark. Classes are recreated on every seed so
+ * they are always upcoming.
+ *
+ * To remove the benchmark data:
+ *     DELETE FROM member WHERE email LIKE '%@jmh-bench.invalid';
+ *     DELETE FROM group_class WHERE name = 'JMH Benchmark';
+ *     DELETE FROM pt_session WHERE session_start >= '2100-01-01';
+ *     DELETE FROM trainer WHERE email LIKE '%@jmh-bench.invalid';
+ *     DELETE FROM room WHERE name LIKE 'JMH Room %';
+ */
+final class BenchmarkDataset {
+    static final String EMAIL_DOMAIN = "@jmh-bench.invalid";
+    static final String ROOM_PREFIX = "JMH Room ";
+    static final String CLASS_NAME = "JMH Benchmark";
+
+    // Sessions booked by the benchmarks fall in this window, clear of any real schedule
+    static final LocalDateTime PT_WINDOW_START = LocalDateTime.of(2100, 1, 1, 0, 0);
+    static final int PT_WINDOW_DAYS = 365;
+
+    // Member n is named FIRST_NAMES[n % 50] LAST_NAMES[a]-LAST_NAMES[b], giving 500,000
+    // distinct names, so a name lookup matches a handful of members even at a million
+    private static final String[] FIRST_NAMES = {
+        "Aaron", "Abigail", "Adam", "Aisha", "Alex", "Alice", "Amir", "Amy", "Andrew", "Anna",
+        "Ben", "Bianca", "Brian", "Carlos", "Chen", "Chloe", "Daniel", "Diana", "Eli", "Emily",
+        "Ethan", "Fatima", "Grace", "Hannah", "Hiro", "Isaac", "Jacob", "Jasmine", "Jin", "Julia",
+        "Kevin", "Laura", "Leo", "Lucas", "Maya", "Mei", "Mohamed", "Nadia", "Noah", "Olivia",
+        "Omar", "Priya", "Rachel", "Ravi", "Sarah", "Sofia", "Tom", "Victor", "Yara", "Zoe"
+    };
+    private static final String[] LAST_NAMES = {
+        "Abbott", "Ahmed", "Alvarez", "Anderson", "Bailey", "Baker", "Bennett", "Brooks", "Brown", "Campbell",
+        "Chen", "Clark", "Collins", "Cooper", "Diaz", "Dubois", "Edwards", "Evans", "Fischer", "Fraser",
+        "Garcia", "Gill", "Gordon", "Green", "Gupta", "Hall", "Harris", "Hughes", "Ito", "Jackson",
+        "Johnson", "Jones", "Kaur", "Kelly", "Khan", "Kim", "King", "Lam", "Lee", "Lewis",
+        "Li", "Lopez", "MacDonald", "Martin", "Martinez", "Mitchell", "Moore", "Morris", "Murphy", "Nguyen",
+        "Novak", "O'Brien", "Okafor", "Park", "Patel", "Perez", "Phillips", "Reid", "Roberts", "Robinson",
+        "Rossi", "Roy", "Russell", "Sanchez", "Santos", "Scott", "Shah", "Silva", "Singh", "Smith",
+        "Stewart", "Stone", "Sullivan", "Sy", "Tanaka", "Taylor", "Thomas", "Thompson", "Tremblay", "Turner",
+        "Walker", "Wang", "Watson", "White", "Williams", "Wilson", "Wong", "Wood", "Wright", "Wu",
+        "Xu", "Yamamoto", "Yang", "Young", "Zhang", "Zhao", "Zimmerman", "Nakamura", "Ivanov", "Haddad"
+    };
+
+    private BenchmarkDataset() {
+    }
+
+    /**
+     * Tops the benchmark data up to the given scale and recreates the benchmark classes.
+     *
+     * @param members          the number of benchmark members
+     * @param metricsPerMember the health metrics recorded for each newly seeded member
+     * @param trainers         the number of benchmark trainers
+     * @param rooms            the number of benchmark rooms
+     * @param classes          the number of upcoming benchmark classes, one per hour from tomorrow
+     * @throws SQLException    if the data could not be seeded
+     */
+    static void seed(int members, int metricsPerMember, int trainers, int rooms, int classes) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            seedMembers(conn, members);
+            seedHealthMetrics(conn, metricsPerMember);
+            seedTrainers(conn, trainers);
+            seedRooms(conn, rooms);
+            seedClasses(conn, classes, members);
+        }
+    }
+
+    /**
+     * Removes the sessions and registrations the benchmarks booked, so every measurement
+     * iteration starts from the same state.
+     *
+     * @throws SQLException if the bookings could not be removed
+     */
+    static void resetBookings() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM pt_session WHERE session_start >= ?")) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(PT_WINDOW_START));
+                pstmt.executeUpdate();
+            }
+            // The class_registration delete trigger gives the seats back
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "DELETE FROM class_registration WHERE class_id IN (SELECT class_id FROM group_class WHERE name = ?)")) {
+                pstmt.setString(1, CLASS_NAME);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    static int[] memberIds(int limit) throws SQLException {
+        return ids("SELECT member_id FROM member WHERE email LIKE '%" + EMAIL_DOMAIN + "' ORDER BY member_id LIMIT " + limit);
+    }
+
+    static int[] trainerIds(int limit) throws SQLException {
+        return ids("SELECT trainer_id FROM trainer WHERE email LIKE '%" + EMAIL_DOMAIN + "' ORDER BY trainer_id LIMIT " + limit);
+    }
+
+    static int[] roomIds(int limit) throws SQLException {
+        return ids("SELECT room_id FROM room WHERE name LIKE '" + ROOM_PREFIX + "%' ORDER BY room_id LIMIT " + limit);
+    }
+
+    static int[] classIds() throws SQLException {
+        return ids("SELECT class_id FROM group_class WHERE name = '" + CLASS_NAME + "' ORDER BY class_id");
+    }
+
+    /**
+     * Returns the full name the seed gives benchmark member n, for name lookups that are
+     * known to match.
+     *
+     * @param n the member's number in the seed, starting at 1
+     * @return  the member's full name
+     */
+    static String memberName(int n) {
+        int first = FIRST_NAMES.length;
+        int last = LAST_NAMES.length;
+        return FIRST_NAMES[n % first] + " " + LAST_NAMES[(n / first) % last] + "-" + LAST_NAMES[(n / (first * last)) % last];
+    }
+
+    private static void seedMembers(Connection conn, int members) throws SQLException {
+        int existing = ids("SELECT COUNT(*) FROM member WHERE email LIKE '%" + EMAIL_DOMAIN + "'", conn)[0];
+        if (existing >= members) {
+            return;
+        }
+
+        // Mirrors memberName; the arrays are 1-based in SQL
+        String sql =
+            "WITH names AS (SELECT ?::text[] AS firsts, ?::text[] AS lasts) " +
+            "INSERT INTO member (first_name, last_name, dob, gender, email, phone) " +
+            "SELECT firsts[1 + n % cardinality(firsts)], " +
+            "       lasts[1 + (n / cardinality(firsts)) % cardinality(lasts)] || '-' || " +
+            "       lasts[1 + (n / (cardinality(firsts) * cardinality(lasts))) % cardinality(lasts)], " +
+            "       DATE '1950-01-01' + ((n::bigint * 7919) % 20000)::int, " +
+            "       (ARRAY['Male', 'Female', 'Other'])[1 + n % 3], " +
+            "       'member' || n || ?, " +
+            "       '613-555-' || lpad((n % 10000)::text, 4, '0') " +
+            "FROM names, generate_series(?, ?) n";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setArray(1, conn.createArrayOf("text", FIRST_NAMES));
+            pstmt.setArray(2, conn.createArrayOf("text", LAST_NAMES));
+            pstmt.setString(3, EMAIL_DOMAIN);
+            pstmt.setInt(4, existing + 1);
+            pstmt.setInt(5, members);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void seedHealthMetrics(Connection conn, int metricsPerMember) throws SQLException {
+        // One reading a day, going back from today, for members that have none yet
+        String sql =
+            "INSERT INTO health_metric (member_id, measure_time, height, weight, heart_rate, body_fat) " +
+            "SELECT m.member_id, " +
+            "       date_trunc('day', LOCALTIMESTAMP) - k * INTERVAL '1 day' + (m.member_id % 720) * INTERVAL '1 minute', " +
+            "       150 + m.member_id % 50, " +
+            "       50 + (m.member_id + k) % 60, " +
+            "       55 + (m.member_id * 31 + k) % 50, " +
+            "       10 + (m.member_id + k * 7) % 30 " +
+            "FROM member m CROSS JOIN generate_series(1, ?) k " +
+            "WHERE m.email LIKE ? " +
+            "  AND NOT EXISTS (SELECT 1 FROM health_metric h WHERE h.member_id = m.member_id)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, metricsPerMember);
+            pstmt.setString(2, "%" + EMAIL_DOMAIN);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void seedTrainers(Connection conn, int trainers) throws SQLException {
+        String sql =
+            "INSERT INTO trainer (first_name, last_name, email, phone) " +
+            "SELECT 'Bench', 'Trainer ' || n, 'trainer' || n || ?, NULL " +
+            "FROM generate_series(1, ?) n " +
+            "ON CONFLICT (email) DO NOTHING";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, EMAIL_DOMAIN);
+            pstmt.setInt(2, trainers);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void seedRooms(Connection conn, int rooms) throws SQLException {
+        String sql =
+            "INSERT INTO room (name, capacity) " +
+            "SELECT ? || n, 30 FROM generate_series(1, ?) n " +
+            "ON CONFLICT (name) DO NOTHING";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, ROOM_PREFIX);
+            pstmt.setInt(2, rooms);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void seedClasses(Connection conn, int classes, int capacity) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM group_class WHERE name = ?")) {
+            pstmt.setString(1, CLASS_NAME);
+            pstmt.executeUpdate();
+        }
+
+        // One class an hour, so no two overlap; trainers and rooms take turns. Every member
+        // fits in every class, so registrations measure the registration path, not FULL.
+        String sql =
+            "INSERT INTO group_class (trainer_id, room_id, name, description, start_time, end_time, capacity) " +
+            "SELECT t.ids[1 + g % cardinality(t.ids)], r.ids[1 + g % cardinality(r.ids)], ?, NULL, " +
+            "       date_trunc('hour', LOCALTIMESTAMP) + (24 + g) * INTERVAL '1 hour', " +
+            "       date_trunc('hour', LOCALTIMESTAMP) + (25 + g) * INTERVAL '1 hour', ? " +
+            "FROM generate_series(0, ?) g, " +
+            "     (SELECT array_agg(trainer_id ORDER BY trainer_id) AS ids FROM trainer WHERE email LIKE ?) t, " +
+            "     (SELECT array_agg(room_id ORDER BY room_id) AS ids FROM room WHERE name LIKE ?) r";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, CLASS_NAME);
+            pstmt.setInt(2, capacity);
+            pstmt.setInt(3, classes - 1);
+            pstmt.setString(4, "%" + EMAIL_DOMAIN);
+            pstmt.setString(5, ROOM_PREFIX + "%");
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static int[] ids(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return ids(sql, conn);
+        }
+    }
+
+    private static int[] ids(String sql, Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            int[] ids = new int[16];
+            int count = 0;
+            while (rs.next()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = rs.getInt(1);
+            }
+            return Arrays.copyOf(ids, count);
+        }
+    }
+}
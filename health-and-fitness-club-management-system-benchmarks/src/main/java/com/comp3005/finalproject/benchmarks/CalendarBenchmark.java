@@ -0,0 +1,149 @@
+package com.comp3005.finalproject.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.comp3005.finalproject.CalendarRepository;
+import com.comp3005.finalproject.DatabaseConnection;
+import com.comp3005.finalproject.Member;
+import com.comp3005.finalproject.MemberRepository;
+import com.comp3005.finalproject.Room;
+import com.comp3005.finalproject.RoomRepository;
+import com.comp3005.finalproject.Trainer;
+import com.comp3005.finalproject.TrainerRepository;
+
+/**
+ * Conflict check latency against a large calendar history.
+ *
+ * Fills a window far in the past with half-hour PT sessions on the hour, one per hour,
+ * for one seeded member, trainer, and room, and puts a half-hour group class on the
+ * half hour every tenth hour. It then times CalendarRepository.findConflict() for random
+ * half-hour ranges in the window, reports the latency percentiles, and deletes its rows.
+ *
+ * Requires the DDL and DML scripts to have been loaded. To run from this module, after
+ * mvn package:
+ *     java -cp target/benchmarks.jar com.comp3005.finalproject.benchmarks.CalendarBenchmark 1000000 10000
+ */
+public class CalendarBenchmark {
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(1800, 1, 1, 0, 0);
+    private static final int CLASS_EVERY_HOURS = 10;
+
+    public static void main(String[] args) {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int checks = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        LocalDateTime windowEnd = WINDOW_START.plusHours(sessions);
+
+        List<Member> members = new MemberRepository().getAllMembers();
+        List<Trainer> trainers = new TrainerRepository().getAllTrainers();
+        List<Room> rooms = new RoomRepository().getAllRooms();
+        if (members.isEmpty() || trainers.isEmpty() || rooms.isEmpty()) {
+            System.out.println("Load DDL.sql and DML.sql before running the benchmark.");
+            return;
+        }
+        int memberId = members.get(0).memberId();
+        int trainerId = trainers.get(0).trainerId();
+        int roomId = rooms.get(0).roomId();
+
+        cleanUp(windowEnd);
+        try {
+            long loadStart = System.nanoTime();
+            load(memberId, trainerId, roomId, sessions);
+            System.out.println(String.format("Loaded %d sessions and %d classes in %.1f s",
+                sessions, sessions / CLASS_EVERY_HOURS, (System.nanoTime() - loadStart) / 1e9));
+
+            CalendarRepository calendar = new CalendarRepository();
+            long[] nanos = new long[checks];
+            int conflicts = 0;
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < checks; i++) {
+                    LocalDateTime start = WINDOW_START.plusMinutes(30L * random.nextInt(2 * sessions));
+                    long t0 = System.nanoTime();
+                    boolean clash = calendar.findConflict(conn, trainerId, roomId, start, start.plusMinutes(30), null, null).isPresent();
+                    nanos[i] = System.nanoTime() - t0;
+                    if (clash) {
+                        conflicts++;
+                    }
+                }
+            }
+
+            Arrays.sort(nanos);
+            System.out.println("Checks: " + checks + ", conflicts found: " + conflicts);
+            System.out.println(String.format("Latency: avg %.3f ms, p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms",
+                Arrays.stream(nanos).average().orElse(0) / 1e6,
+                percentile(nanos, 0.50) / 1e6, percentile(nanos, 0.95) / 1e6,
+                percentile(nanos, 0.99) / 1e6, nanos[nanos.length - 1] / 1e6));
+        } catch (SQLException e) {
+            System.out.println("Error running calendar benchmark: ");
+            e.printStackTrace();
+        } finally {
+            cleanUp(windowEnd);
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    private static void load(int memberId, int trainerId, int roomId, int sessions) throws SQLException {
+        String sessionSql =
+            "INSERT INTO pt_session (member_id, trainer_id, room_id, session_start, session_end, status) " +
+            "SELECT ?, ?, ?, ?::timestamp + h * interval '1 hour', ?::timestamp + h * interval '1 hour' + interval '30 minutes', 'Completed' " +
+            "FROM generate_series(0, ? - 1) AS h";
+        String classSql =
+            "INSERT INTO group_class (trainer_id, room_id, name, start_time, end_time, capacity, status) " +
+            "SELECT ?, ?, 'Benchmark class', ?::timestamp + h * interval '1 hour' + interval '30 minutes', " +
+            "       ?::timestamp + h * interval '1 hour' + interval '1 hour', 10, 'Completed' " +
+            "FROM generate_series(0, ? - 1, ?) AS h";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sessionSql)) {
+                pstmt.setInt(1, memberId);
+                pstmt.setInt(2, trainerId);
+                pstmt.setInt(3, roomId);
+                pstmt.setTimestamp(4, Timestamp.valueOf(WINDOW_START));
+                pstmt.setTimestamp(5, Timestamp.valueOf(WINDOW_START));
+                pstmt.setInt(6, sessions);
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(classSql)) {
+                pstmt.setInt(1, trainerId);
+                pstmt.setInt(2, roomId);
+                pstmt.setTimestamp(3, Timestamp.valueOf(WINDOW_START));
+                pstmt.setTimestamp(4, Timestamp.valueOf(WINDOW_START));
+                pstmt.setInt(5, sessions);
+                pstmt.setInt(6, CLASS_EVERY_HOURS);
+                pstmt.executeUpdate();
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ANALYZE pt_session, group_class");
+            }
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static void cleanUp(LocalDateTime windowEnd) {
+        String sessionSql = "DELETE FROM pt_session WHERE session_start >= ? AND session_start < ?";
+        String classSql = "DELETE FROM group_class WHERE start_time >= ? AND start_time < ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (String sql : new String[] {sessionSql, classSql}) {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setTimestamp(1, Timestamp.valueOf(WINDOW_START));
+                    pstmt.setTimestamp(2, Timestamp.valueOf(windowEnd));
+                    pstmt.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error removing benchmark calendar entries: ");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.comp3005.finalproject.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.comp3005.finalproject.ClassRepository;
+import com.comp3005.finalproject.DatabaseConnection;
+import com.comp3005.finalproject.RegistrationResult;
+import com.comp3005.finalproject.Room;
+import com.comp3005.finalproject.RoomRepository;
+import com.comp3005.finalproject.Trainer;
+import com.comp3005.finalproject.TrainerRepository;
+
+/**
+ * High-contention registration run for a single group fitness class.
+ *
+ * Creates temporary members and one class, then releases every client at once on
+ * virtual threads. Each client registers its member and immediately tries again, so
+ * the run exercises the full, duplicate, and registered paths together. Afterwards it
+ * checks that the class holds exactly min(capacity, clients) registrations and that
+ * seats_taken matches, reports the throughput, and removes its data.
+ *
+ * Requires the DDL and DML scripts to have been loaded. To run from this module, after
+ * mvn package:
+ *     java -cp target/benchmarks.jar com.comp3005.finalproject.benchmarks.ClassRegistrationBenchmark 500 100
+ */
+public class ClassRegistrationBenchmark {
+    private static final String EMAIL_DOMAIN = "@registration-bench.invalid";
+
+    public static void main(String[] args) throws InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        List<Trainer> trainers = new TrainerRepository().getAllTrainers();
+        List<Room> rooms = new RoomRepository().getAllRooms();
+        if (trainers.isEmpty() || rooms.isEmpty()) {
+            System.out.println("Load DDL.sql and DML.sql before running the benchmark.");
+            return;
+        }
+
+        cleanUp();
+        List<Integer> members = createMembers(clients);
+        int classId = createClass(trainers.get(0).trainerId(), rooms.get(0).roomId(), capacity);
+        if (members.size() != clients || classId < 0) {
+            cleanUp();
+            return;
+        }
+
+        ClassRepository repository = new ClassRepository();
+        Map<RegistrationResult, LongAdder> outcomes = new EnumMap<>(RegistrationResult.class);
+        for (RegistrationResult result : RegistrationResult.values()) {
+            outcomes.put(result, new LongAdder());
+        }
+        CountDownLatch startGate = new CountDownLatch(1);
+
+        // The repositories report every registration on stdout; silence them for the run
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long start;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int memberId : members) {
+                executor.submit(() -> {
+                    startGate.await();
+                    outcomes.get(repository.registerMemberForClass(memberId, classId)).increment();
+                    outcomes.get(repository.registerMemberForClass(memberId, classId)).increment();
+                    return null;
+                });
+            }
+            start = System.nanoTime();
+            startGate.countDown();
+        } finally {
+            System.setOut(console);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long requests = 2L * clients;
+        System.out.println("Clients: " + clients + ", capacity: " + capacity + ", requests: " + requests +
+            ", elapsed: " + String.format("%.2f s", seconds));
+        for (Map.Entry<RegistrationResult, LongAdder> e : outcomes.entrySet()) {
+            System.out.println("  " + e.getKey() + ": " + e.getValue().sum());
+        }
+        System.out.println(String.format("Throughput: %.0f registration requests/s", requests / seconds));
+        System.out.println(DatabaseConnection.getPoolStats());
+
+        boolean ok = verify(classId, Math.min(capacity, clients));
+        cleanUp();
+        DatabaseConnection.shutdown();
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean verify(int classId, int expected) {
+        String sql =
+            "SELECT gc.capacity, gc.seats_taken, " +
+            "       (SELECT COUNT(*) FROM class_registration cr WHERE cr.class_id = gc.class_id) AS registrations " +
+            "FROM group_class gc WHERE gc.class_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, classId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                int capacity = rs.getInt("capacity");
+                int seatsTaken = rs.getInt("seats_taken");
+                int registrations = rs.getInt("registrations");
+                boolean ok = registrations == expected && seatsTaken == registrations && registrations <= capacity;
+                System.out.println("Registrations: " + registrations + ", seats_taken: " + seatsTaken +
+                    ", capacity: " + capacity + (ok ? " (OK)" : " (OVERBOOKED OR COUNTER DRIFT)"));
+                return ok;
+            }
+        } catch (SQLException e) {
+            System.out.println("Error verifying class registrations: ");
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    private static List<Integer> createMembers(int count) {
+        List<Integer> ids = new ArrayList<>();
+        String sql =
+            "INSERT INTO member (first_name, last_name, dob, gender, email) " +
+            "SELECT 'Bench', 'Client ' || g, DATE '1990-01-01', 'Other', 'client' || g || ? " +
+            "FROM generate_series(1, ?) g " +
+            "RETURNING member_id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, EMAIL_DOMAIN);
+            pstmt.setInt(2, count);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error creating benchmark members: ");
+            e.printStackTrace();
+        }
+
+        return ids;
+    }
+
+    private static int createClass(int trainerId, int roomId, int capacity) {
+        String sql =
+            "INSERT INTO group_class (trainer_id, room_id, name, description, start_time, end_time, capacity) " +
+            "VALUES (?, ?, 'Registration Benchmark', NULL, TIMESTAMP '2099-06-01 09:00', TIMESTAMP '2099-06-01 10:00', ?) " +
+            "RETURNING class_id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, trainerId);
+            pstmt.setInt(2, roomId);
+            pstmt.setInt(3, capacity);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error creating benchmark class: ");
+            e.printStackTrace();
+        }
+
+        return -1;
+    }
+
+    private static void cleanUp() {
+        String[] statements = {
+            "DELETE FROM group_class WHERE name = 'Registration Benchmark'",
+            "DELETE FROM member WHERE email LIKE '%" + EMAIL_DOMAIN + "'"
+        };
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (String sql : statements) {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error removing benchmark data: ");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.comp3005.finalproject.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.SQLException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.comp3005.finalproject.CalendarRepository;
+import com.comp3005.finalproject.ClassRepository;
+import com.comp3005.finalproject.DatabaseConnection;
+import com.comp3005.finalproject.HealthMetricIngestor;
+import com.comp3005.finalproject.MemberCache;
+import com.comp3005.finalproject.MemberRepository;
+import com.comp3005.finalproject.MemberService;
+import com.comp3005.finalproject.PtSessionRepository;
+import com.comp3005.finalproject.ReferenceDataCache;
+import com.comp3005.finalproject.RoomRepository;
+import com.comp3005.finalproject.ScheduleIndex;
+import com.comp3005.finalproject.TrainerAvailabilityEngine;
+import com.comp3005.finalproject.TrainerRepository;
+import com.comp3005.finalproject.TrainerService;
+import com.comp3005.finalproject.UpcomingClassFeed;
+
+/**
+ * The seeded database and the services under test, wired the way App wires them.
+ *
+ * The scale is set with JMH parameters, e.g. -p members=1000000 -p metricsPerMember=50.
+ * Bookings made by the benchmarks are removed after every iteration.
+ */
+@State(Scope.Benchmark)
+public class ClubState {
+    @Param("10000")
+    public int members;
+
+    @Param("50")
+    public int metricsPerMember;
+
+    @Param("20")
+    public int trainers;
+
+    @Param("10")
+    public int rooms;
+
+    @Param("200")
+    public int classes;
+
+    MemberRepository memberRepository;
+    ClassRepository classRepository;
+    PtSessionRepository ptSessionRepository;
+    UpcomingClassFeed classFeed;
+    MemberService memberService;
+    TrainerService trainerService;
+
+    int[] memberIds;
+    int[] trainerIds;
+    int[] roomIds;
+    int[] classIds;
+
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDataset.seed(members, metricsPerMember, trainers, rooms, classes);
+        BenchmarkDataset.resetBookings();
+        memberIds = BenchmarkDataset.memberIds(members);
+        trainerIds = BenchmarkDataset.trainerIds(trainers);
+        roomIds = BenchmarkDataset.roomIds(rooms);
+        classIds = BenchmarkDataset.classIds();
+
+        TrainerRepository trainerRepository = new TrainerRepository();
+        ScheduleIndex scheduleIndex = new ScheduleIndex();
+        TrainerAvailabilityEngine availabilityEngine =
+            new TrainerAvailabilityEngine(trainerRepository, new CalendarRepository(scheduleIndex));
+        ReferenceDataCache referenceData = new ReferenceDataCache(new RoomRepository(), trainerRepository);
+        memberRepository = new MemberRepository();
+        classRepository = new ClassRepository();
+        ptSessionRepository = new PtSessionRepository(scheduleIndex);
+        ptSessionRepository.rebuildScheduleIndex();
+        classFeed = new UpcomingClassFeed(classRepository, referenceData);
+        memberService = new MemberService(memberRepository, ptSessionRepository, classRepository, availabilityEngine,
+            referenceData, new MemberCache(memberRepository), classFeed, new HealthMetricIngestor());
+        trainerService = new TrainerService(trainerRepository, ptSessionRepository, classRepository, memberRepository,
+            availabilityEngine, referenceData);
+
+        // The services report every booking and conflict on stdout; silence them for the run
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetBookings() throws SQLException {
+        BenchmarkDataset.resetBookings();
+        ptSessionRepository.rebuildScheduleIndex();
+        classFeed.invalidate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+        DatabaseConnection.shutdown();
+    }
+}
@@ -0,0 +1,140 @@
+package com.comp3005.finalproject.benchmarks;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.comp3005.finalproject.DatabaseConnection;
+
+/**
+ * Checks that the repository queries are served by indexes.
+ *
+ * Runs EXPLAIN on the shape of every keyed repository query, with sample values in
+ * place of the parameters, and fails if any plan contains a sequential scan. Full-table
+ * listings such as getAllMembers are left out since they read every row anyway.
+ *
+ * The planner rightly prefers sequential scans on small tables, so run this against a
+ * large dataset. On the small seed data, pass --force to turn sequential scans off for the
+ * session; a query that still gets one has no usable index at all.
+ *
+ * It needs a loaded database, so it is run by hand rather than as part of the build.
+ * Requires the DDL script and migrations to have been applied. To run from this module,
+ * after mvn package:
+ *     java -cp target/benchmarks.jar com.comp3005.finalproject.benchmarks.IndexUsageCheck --force
+ */
+public class IndexUsageCheck {
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("MemberRepository.getMemberById",
+            "SELECT * FROM member WHERE member_id = 1");
+        QUERIES.put("MemberRepository.getMembersPage",
+            "SELECT * FROM member WHERE member_id > 100 ORDER BY member_id LIMIT 21");
+        QUERIES.put("MemberRepository.findMembersByName",
+            "SELECT * FROM member WHERE full_name_normalized = 'jane doe' ORDER BY member_id");
+        QUERIES.put("MemberRepository.searchMembersByNamePrefix",
+            "SELECT * FROM member WHERE full_name_normalized LIKE 'jan%' ORDER BY full_name_normalized, member_id LIMIT 10");
+        QUERIES.put("MemberRepository.searchMembersByNameFuzzy",
+            "SELECT *, similarity(full_name_normalized, 'jane doe') AS score FROM member " +
+            "WHERE full_name_normalized % 'jane doe' ORDER BY score DESC, member_id LIMIT 10");
+        QUERIES.put("MemberRepository.getFitnessGoalsForMember",
+            "SELECT * FROM fitness_goal WHERE member_id = 1 ORDER BY start_date DESC");
+        QUERIES.put("MemberRepository.getHealthMetricsForMember",
+            "SELECT * FROM health_metric WHERE member_id = 1 ORDER BY measure_time DESC");
+        QUERIES.put("MemberRepository.getLatestHealthMetric",
+            "SELECT * FROM health_metric WHERE member_id = 1 ORDER BY measure_time DESC LIMIT 1");
+        QUERIES.put("MemberRepository.getMemberBusyTimes (sessions)",
+            "SELECT session_start, session_end FROM pt_session " +
+            "WHERE member_id = 1 AND status <> 'Cancelled' AND session_start < '2030-01-15' AND session_end > '2030-01-01'");
+        QUERIES.put("ClassRepository.getRegistrationsForMember",
+            "SELECT gc.* FROM class_registration cr JOIN group_class gc ON cr.class_id = gc.class_id " +
+            "WHERE cr.member_id = 1 ORDER BY gc.start_time");
+        QUERIES.put("PtSessionRepository.getPtSessionsForMember",
+            "SELECT * FROM pt_session WHERE member_id = 1 ORDER BY session_start");
+        QUERIES.put("PtSessionRepository.getPtSessionsForTrainer",
+            "SELECT * FROM pt_session WHERE trainer_id = 1 AND session_start >= NOW() ORDER BY session_start");
+        QUERIES.put("PtSessionRepository.rebuildScheduleIndex",
+            "SELECT * FROM pt_session WHERE status <> 'Cancelled' AND session_end > NOW()");
+        QUERIES.put("PtSessionRepository.getPtSessionById",
+            "SELECT * FROM pt_session WHERE pt_session_id = 1");
+        QUERIES.put("CalendarRepository.findConflict (trainer sessions)",
+            "SELECT 1 FROM pt_session WHERE trainer_id = 1 AND status <> 'Cancelled' " +
+            "AND tsrange(session_start, session_end) && tsrange('2030-01-01 10:00', '2030-01-01 11:00') LIMIT 1");
+        QUERIES.put("CalendarRepository.findConflict (room classes)",
+            "SELECT 1 FROM group_class WHERE room_id = 1 AND status <> 'Cancelled' " +
+            "AND tsrange(start_time, end_time) && tsrange('2030-01-01 10:00', '2030-01-01 11:00') LIMIT 1");
+        QUERIES.put("CalendarRepository.findConflict (member classes)",
+            "SELECT 1 FROM group_class WHERE class_id IN (SELECT class_id FROM class_registration WHERE member_id = 1) " +
+            "AND status <> 'Cancelled' AND tsrange(start_time, end_time) && tsrange('2030-01-01 10:00', '2030-01-01 11:00') LIMIT 1");
+        QUERIES.put("ClassRepository.getClassesPage",
+            "SELECT * FROM group_class WHERE (start_time, class_id) > ('2030-01-01', 1) ORDER BY start_time, class_id LIMIT 21");
+        QUERIES.put("ClassRepository.getUpcomingClasses",
+            "SELECT * FROM group_class WHERE start_time >= NOW() AND status = 'Scheduled' ORDER BY start_time, class_id");
+        QUERIES.put("ClassRepository.getClassesForTrainer",
+            "SELECT * FROM group_class WHERE trainer_id = 1 ORDER BY start_time");
+        QUERIES.put("TrainerRepository.getTrainerAvailability",
+            "SELECT * FROM trainer_availability WHERE trainer_id = 1 ORDER BY start_time");
+        QUERIES.put("TrainerRepository.getTrainersPage",
+            "SELECT * FROM trainer WHERE trainer_id > 100 ORDER BY trainer_id LIMIT 21");
+        QUERIES.put("RoomRepository.getRoomsPage",
+            "SELECT * FROM room WHERE room_id > 100 ORDER BY room_id LIMIT 21");
+        QUERIES.put("EquipmentRepository.getEquipmentPage",
+            "SELECT * FROM equipment WHERE equipment_id > 100 ORDER BY equipment_id LIMIT 21");
+        QUERIES.put("EquipmentRepository.getOpenEquipmentIssues",
+            "SELECT * FROM equipment_issue WHERE status <> 'Resolved' ORDER BY reported_at DESC");
+        QUERIES.put("EquipmentRepository.getIssuesForEquipment",
+            "SELECT * FROM equipment_issue WHERE equipment_id = 1 ORDER BY reported_at DESC");
+    }
+
+    public static void main(String[] args) {
+        boolean force = args.length > 0 && args[0].equals("--force");
+        List<String> failures = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            if (force) {
+                stmt.execute("SET enable_seqscan = off");
+            }
+            try {
+                for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+                    String plan = explain(stmt, query.getValue());
+                    boolean ok = !plan.contains("Seq Scan");
+                    System.out.println((ok ? "OK    " : "FAIL  ") + query.getKey());
+                    if (!ok) {
+                        failures.add(query.getKey() + "\n" + plan);
+                    }
+                }
+            } finally {
+                stmt.execute("RESET enable_seqscan");
+            }
+        } catch (SQLException e) {
+            System.out.println("Error checking query plans: ");
+            e.printStackTrace();
+            failures.add("(the check could not run)");
+        }
+
+        for (String failure : failures) {
+            System.out.println("\nSequential scan in " + failure);
+        }
+        System.out.println("\n" + (QUERIES.size() - failures.size()) + " of " + QUERIES.size() + " queries use an index.");
+        DatabaseConnection.shutdown();
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private static String explain(Statement stmt, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rs = stmt.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.comp3005.finalproject.benchmarks;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.comp3005.finalproject.GroupClass;
+import com.comp3005.finalproject.HealthMetric;
+import com.comp3005.finalproject.PtBookingResult;
+import com.comp3005.finalproject.RegistrationResult;
+
+/**
+ * Member-facing hot paths: booking a session, registering for a class, browsing the
+ * upcoming classes, and reading a member's health history.
+ *
+ * Every operation picks a random seeded member, trainer, room, or class, so each
+ * measurement mixes the success and conflict paths the way real traffic does.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class MemberServiceBenchmark {
+    private static final int SESSION_SLOTS = BenchmarkDataset.PT_WINDOW_DAYS * 48;     // half-hour slots
+
+    @Benchmark
+    public PtBookingResult schedulePtSession(ClubState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime start = BenchmarkDataset.PT_WINDOW_START.plusMinutes(30L * random.nextInt(SESSION_SLOTS));
+        return state.memberService.schedulePtSession(
+            pick(state.memberIds, random), pick(state.trainerIds, random), pick(state.roomIds, random),
+            Timestamp.valueOf(start).toString(), Timestamp.valueOf(start.plusHours(1)).toString());
+    }
+
+    @Benchmark
+    public RegistrationResult registerForClass(ClubState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return state.memberService.registerForClass(pick(state.memberIds, random), pick(state.classIds, random));
+    }
+
+    @Benchmark
+    public List<GroupClass> getUpcomingClasses(ClubState state) {
+        return state.memberService.getUpcomingClasses();
+    }
+
+    // The query the feed is loaded with, for comparison with the in-memory path above
+    @Benchmark
+    public List<GroupClass> getUpcomingClassesFromDatabase(ClubState state) {
+        return state.classRepository.getUpcomingClasses();
+    }
+
+    @Benchmark
+    public List<HealthMetric> getHealthMetricsForMember(ClubState state) {
+        return state.memberRepository.getHealthMetricsForMember(pick(state.memberIds, ThreadLocalRandom.current()));
+    }
+
+    private static int pick(int[] ids, ThreadLocalRandom random) {
+        return ids[random.nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,154 @@
+package com.comp3005.finalproject.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.comp3005.finalproject.DatabaseConnection;
+import com.comp3005.finalproject.Member;
+import com.comp3005.finalproject.MemberRepository;
+import com.comp3005.finalproject.PtBookingResult;
+import com.comp3005.finalproject.PtSessionRepository;
+import com.comp3005.finalproject.Room;
+import com.comp3005.finalproject.RoomRepository;
+import com.comp3005.finalproject.Trainer;
+import com.comp3005.finalproject.TrainerRepository;
+
+/**
+ * Concurrent booking stress run for personal training sessions.
+ *
+ * Many clients book random one-hour sessions for the seeded members, trainers, and
+ * rooms inside a short window far in the future, so most attempts collide. Afterwards
+ * the run checks that no two active sessions in the window overlap for the same member,
+ * trainer, or room, reports the achieved bookings per second and the mean time of one
+ * attempt, which is dominated by its database round trips, and deletes its sessions.
+ *
+ * Requires the DDL and DML scripts to have been loaded. To run from this module, after
+ * mvn package:
+ *     java -cp target/benchmarks.jar com.comp3005.finalproject.benchmarks.PtBookingBenchmark 200 50
+ */
+public class PtBookingBenchmark {
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2099, 1, 1, 6, 0);
+    private static final int WINDOW_SLOTS = 48;           // half-hour slots, i.e. one day
+    private static final int SESSION_MINUTES = 60;
+
+    public static void main(String[] args) throws InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int attemptsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        List<Integer> members = new MemberRepository().getAllMembers().stream().map(Member::memberId).toList();
+        List<Integer> trainers = new TrainerRepository().getAllTrainers().stream().map(Trainer::trainerId).toList();
+        List<Integer> rooms = new RoomRepository().getAllRooms().stream().map(Room::roomId).toList();
+        if (members.isEmpty() || trainers.isEmpty() || rooms.isEmpty()) {
+            System.out.println("Load DDL.sql and DML.sql before running the benchmark.");
+            return;
+        }
+
+        cleanUp();
+
+        PtSessionRepository repository = new PtSessionRepository();
+        Map<PtBookingResult.Status, LongAdder> outcomes = new EnumMap<>(PtBookingResult.Status.class);
+        LongAdder attemptNanos = new LongAdder();
+        for (PtBookingResult.Status status : PtBookingResult.Status.values()) {
+            outcomes.put(status, new LongAdder());
+        }
+
+        // The repositories report every booking on stdout; silence them for the run
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < attemptsPerClient; i++) {
+                        LocalDateTime sessionStart = WINDOW_START.plusMinutes(30L * random.nextInt(WINDOW_SLOTS));
+                        LocalDateTime sessionEnd = sessionStart.plusMinutes(SESSION_MINUTES);
+                        long attemptStart = System.nanoTime();
+                        PtBookingResult result = repository.addPtSession(
+                            members.get(random.nextInt(members.size())),
+                            trainers.get(random.nextInt(trainers.size())),
+                            rooms.get(random.nextInt(rooms.size())),
+                            Timestamp.valueOf(sessionStart).toString(),
+                            Timestamp.valueOf(sessionEnd).toString());
+                        attemptNanos.add(System.nanoTime() - attemptStart);
+                        outcomes.get(result.status()).increment();
+                    }
+                });
+            }
+        } finally {
+            System.setOut(console);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long attempts = (long) clients * attemptsPerClient;
+        long booked = outcomes.get(PtBookingResult.Status.BOOKED).sum();
+        System.out.println("Clients: " + clients + ", attempts: " + attempts + ", elapsed: " + String.format("%.2f s", seconds));
+        for (Map.Entry<PtBookingResult.Status, LongAdder> e : outcomes.entrySet()) {
+            System.out.println("  " + e.getKey() + ": " + e.getValue().sum());
+        }
+        System.out.println(String.format("Throughput: %.0f attempts/s, %.0f bookings/s", attempts / seconds, booked / seconds));
+        System.out.println(String.format("Mean attempt latency: %.2f ms", attemptNanos.sum() / 1e6 / attempts));
+        System.out.println(DatabaseConnection.getPoolStats());
+
+        long overlaps = countOverlaps();
+        System.out.println("Overlapping active sessions: " + overlaps + (overlaps == 0 ? " (OK)" : " (DOUBLE-BOOKED)"));
+
+        cleanUp();
+        DatabaseConnection.shutdown();
+        if (overlaps != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static long countOverlaps() {
+        String sql =
+            "SELECT COUNT(*) FROM pt_session a " +
+            "JOIN pt_session b ON a.pt_session_id < b.pt_session_id " +
+            " AND (a.member_id = b.member_id OR a.trainer_id = b.trainer_id OR a.room_id = b.room_id) " +
+            " AND a.session_start < b.session_end AND b.session_start < a.session_end " +
+            "WHERE a.status <> 'Cancelled' AND b.status <> 'Cancelled' " +
+            "  AND a.session_start >= ? AND b.session_start >= ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(WINDOW_START));
+            pstmt.setTimestamp(2, Timestamp.valueOf(WINDOW_START));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error checking for overlapping sessions: ");
+            e.printStackTrace();
+        }
+
+        return -1;
+    }
+
+    private static void cleanUp() {
+        String sql = "DELETE FROM pt_session WHERE session_start >= ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(WINDOW_START));
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error removing benchmark sessions: ");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.comp3005.finalproject.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.comp3005.finalproject.MemberProfile;
+
+/**
+ * Trainer-facing hot paths.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class TrainerServiceBenchmark {
+    // Looks up the name of a random seeded member, so every lookup finds at least one profile
+    @Benchmark
+    public List<MemberProfile> lookupMemberByName(ClubState state) {
+        int n = 1 + ThreadLocalRandom.current().nextInt(state.members);
+        return state.trainerService.lookupMemberByName(BenchmarkDataset.memberName(n));
+    }
+}
@@ -13,6 +13,7 @@
     Date: December 1, 2025
 */
 
+DROP TABLE IF EXISTS schema_migration CASCADE;
 DROP TABLE IF EXISTS class_registration CASCADE;
 DROP TABLE IF EXISTS group_class CASCADE;
 DROP TABLE IF EXISTS pt_session CASCADE;
@@ -26,6 +27,11 @@ DROP TABLE IF EXISTS trainer CASCADE;
 DROP TABLE IF EXISTS room CASCADE;
 DROP TABLE IF EXISTS admin_user CASCADE;
 
+-- Allows plain equality columns in the GiST exclusion constraints and calendar indexes.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+-- Trigram operators for fuzzy member name search.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- Members: Stores personal information for members.
 CREATE TABLE member (
     member_id    SERIAL PRIMARY KEY,
@@ -35,9 +41,15 @@ CREATE TABLE member (
     gender       TEXT NOT NULL CHECK (gender IN ('Male', 'Female', 'Other')),
     email        TEXT NOT NULL UNIQUE,
     phone        TEXT,
-    join_date    DATE NOT NULL DEFAULT CURRENT_DATE
+    join_date    DATE NOT NULL DEFAULT CURRENT_DATE,
+    -- Lower-cased full name with runs of whitespace collapsed, used for name search
+    full_name_normalized TEXT GENERATED ALWAYS AS
+        (lower(btrim(regexp_replace(first_name || ' ' || last_name, '\s+', ' ', 'g')))) STORED
 );
 
+CREATE INDEX idx_member_full_name ON member (full_name_normalized text_pattern_ops);
+CREATE INDEX idx_member_full_name_trgm ON member USING gin (full_name_normalized gin_trgm_ops);
+
 -- Trainers: Stores personal information for trainers.
 CREATE TABLE trainer (
     trainer_id SERIAL PRIMARY KEY,
@@ -79,6 +91,9 @@ CREATE TABLE health_metric (
     body_fat     NUMERIC(4,2) CHECK (body_fat BETWEEN 0 AND 100)
 );
 
+-- Health history is read per member, newest first; the index lets that stream without a sort
+CREATE INDEX idx_health_metric_member_time ON health_metric (member_id, measure_time DESC);
+
 -- Rooms: Represents physical rooms available for sessions and classes.
 CREATE TABLE room (
     room_id   SERIAL PRIMARY KEY,
@@ -125,7 +140,17 @@ CREATE TABLE pt_session (
     session_start TIMESTAMP NOT NULL,
     session_end   TIMESTAMP NOT NULL,
     status        TEXT NOT NULL DEFAULT 'Booked' CHECK (status IN ('Booked', 'Cancelled', 'Completed')),
-    CHECK (session_end > session_start)
+    CHECK (session_end > session_start),
+    -- No member, trainer, or room can have two active sessions that overlap.
+    CONSTRAINT pt_session_member_no_overlap
+        EXCLUDE USING gist (member_id WITH =, tsrange(session_start, session_end) WITH &&)
+        WHERE (status <> 'Cancelled'),
+    CONSTRAINT pt_session_trainer_no_overlap
+        EXCLUDE USING gist (trainer_id WITH =, tsrange(session_start, session_end) WITH &&)
+        WHERE (status <> 'Cancelled'),
+    CONSTRAINT pt_session_room_no_overlap
+        EXCLUDE USING gist (room_id WITH =, tsrange(session_start, session_end) WITH &&)
+        WHERE (status <> 'Cancelled')
 );
 
 CREATE INDEX idx_pt_session_trainer_time ON pt_session (trainer_id, session_start);
@@ -140,10 +165,21 @@ CREATE TABLE group_class (
     start_time  TIMESTAMP NOT NULL,
     end_time    TIMESTAMP NOT NULL,
     capacity    INTEGER NOT NULL CHECK (capacity > 0),
+    seats_taken INTEGER NOT NULL DEFAULT 0 CHECK (seats_taken >= 0),  -- Kept equal to the class's registration count
     status      TEXT NOT NULL DEFAULT 'Scheduled' CHECK (status IN ('Scheduled', 'Cancelled', 'Completed')),
     CHECK (end_time > start_time)
 );
 
+-- Admin listings page through classes in (start_time, class_id) order
+CREATE INDEX idx_group_class_start ON group_class (start_time, class_id);
+
+-- Calendar conflict checks look up a trainer's or room's active classes by time range,
+-- the same way the pt_session exclusion constraints do for sessions
+CREATE INDEX idx_group_class_trainer_time ON group_class USING gist (trainer_id, tsrange(start_time, end_time))
+    WHERE status <> 'Cancelled';
+CREATE INDEX idx_group_class_room_time ON group_class USING gist (room_id, tsrange(start_time, end_time))
+    WHERE status <> 'Cancelled';
+
 -- Class Registrations: Tracks member enrollments in group classes.
 CREATE TABLE class_registration (
     registration_id SERIAL PRIMARY KEY,
@@ -152,3 +188,16 @@ CREATE TABLE class_registration (
     registered_at   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     UNIQUE (class_id, member_id)
 );
+
+-- Registering takes a seat in the application; deleting a registration, including through
+-- the member and group_class cascades, gives it back here
+CREATE OR REPLACE FUNCTION release_class_seat() RETURNS trigger AS $$
+BEGIN
+    UPDATE group_class SET seats_taken = seats_taken - 1 WHERE class_id = OLD.class_id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER class_registration_release_seat
+    AFTER DELETE ON class_registration
+    FOR EACH ROW EXECUTE FUNCTION release_class_seat();
@@ -110,3 +110,7 @@ INSERT INTO class_registration (class_id, member_id, registered_at) VALUES
 (4, 2, '2025-11-30 15:00'),
 (4, 3, '2025-11-30 15:05'),
 (4, 5, '2025-11-30 15:10');
+
+-- Seat counters for the registrations above
+UPDATE group_class gc
+SET seats_taken = (SELECT COUNT(*) FROM class_registration cr WHERE cr.class_id = gc.class_id);
@@ -1,6 +1,11 @@
 package com.comp3005.finalproject;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Handles admin-facing operations using the admin-related repositories.
@@ -9,33 +14,50 @@ public class AdminService {
     private final EquipmentRepository equipmentRepository;
     private final RoomRepository roomRepository;
     private final ClassRepository classRepository;
+    private final MemberImporter memberImporter;
+    private final TrainerAvailabilityEngine availabilityEngine;
+    private final ReferenceDataCache referenceData;
+    private final UpcomingClassFeed classFeed;
 
     public AdminService() {
         this.equipmentRepository = new EquipmentRepository();
         this.roomRepository = new RoomRepository();
         this.classRepository = new ClassRepository();
+        this.memberImporter = new MemberImporter();
+        this.availabilityEngine = new TrainerAvailabilityEngine();
+        this.referenceData = new ReferenceDataCache(roomRepository, new TrainerRepository());
+        this.classFeed = new UpcomingClassFeed(classRepository, referenceData);
     }
 
-    public AdminService(EquipmentRepository equipmentRepository, RoomRepository roomRepository, ClassRepository classRepository) {
+    public AdminService(EquipmentRepository equipmentRepository, RoomRepository roomRepository, ClassRepository classRepository, MemberImporter memberImporter,
+                        TrainerAvailabilityEngine availabilityEngine, ReferenceDataCache referenceData, UpcomingClassFeed classFeed) {
         this.equipmentRepository = equipmentRepository;
         this.roomRepository = roomRepository;
         this.classRepository = classRepository;
+        this.memberImporter = memberImporter;
+        this.availabilityEngine = availabilityEngine;
+        this.referenceData = referenceData;
+        this.classFeed = classFeed;
     }
     
     /**
-     * Displays all rooms in the facility.
+     * Retrieves all rooms in the facility.
+     * 
+     * @return the rooms
      */
-    public void showAllRooms() {
-        List<String> rooms = roomRepository.getAllRooms();
-        if (rooms.isEmpty()) {
-            System.out.println("No rooms found.");
-            return;
-        }
+    public List<Room> getAllRooms() {
+        return referenceData.getAllRooms();
+    }
 
-        System.out.println("\nRooms:");
-        for (String r : rooms) {
-            System.out.println(r);
-        }
+    /**
+     * Retrieves one page of rooms.
+     * 
+     * @param after    the cursor from the previous page, or null for the first page
+     * @param pageSize the maximum number of rooms on the page
+     * @return the page of rooms
+     */
+    public Page<Room> getRoomsPage(PageCursor after, int pageSize) {
+        return roomRepository.getRoomsPage(after, pageSize);
     }
 
     /**
@@ -43,9 +65,12 @@ public class AdminService {
      * 
      * @param name     the room name
      * @param capacity the room capacity
+     * @return         the result
      */
-    public void addRoom(String name, int capacity) {
-        roomRepository.addRoom(name, capacity);
+    public WriteResult addRoom(String name, int capacity) {
+        WriteResult result = roomRepository.addRoom(name, capacity);
+        referenceData.invalidateRooms();
+        return result;
     }
 
     /**
@@ -53,9 +78,12 @@ public class AdminService {
      * 
      * @param roomId  the room ID
      * @param newName the new name of the room
+     * @return        the result
      */
-    public void updateRoomName(int roomId, String newName) {
-        roomRepository.updateRoomName(roomId, newName);
+    public WriteResult updateRoomName(int roomId, String newName) {
+        WriteResult result = roomRepository.updateRoomName(roomId, newName);
+        referenceData.invalidateRoom(roomId);
+        return result;
     }
 
     /**
@@ -63,25 +91,32 @@ public class AdminService {
      * 
      * @param roomId      the room ID
      * @param newCapacity the new capacity of the room
+     * @return            the result
      */
-    public void updateRoomCapacity(int roomId, int newCapacity) {
-        roomRepository.updateRoomCapacity(roomId, newCapacity);
+    public WriteResult updateRoomCapacity(int roomId, int newCapacity) {
+        WriteResult result = roomRepository.updateRoomCapacity(roomId, newCapacity);
+        referenceData.invalidateRoom(roomId);
+        return result;
     }
 
     /**
-     * Displays all equipment items.
+     * Retrieves all equipment items.
+     * 
+     * @return the equipment items
      */
-    public void showEquipment() {
-        List<String> equipment = equipmentRepository.getAllEquipment();
-        if (equipment.isEmpty()) {
-            System.out.println("No equipment found.");
-            return;
-        }
+    public List<Equipment> getEquipment() {
+        return equipmentRepository.getAllEquipment().stream().map(referenceData::withNames).toList();
+    }
 
-        System.out.println("\nEquipment:");
-        for (String e : equipment) {
-            System.out.println(e);
-        }
+    /**
+     * Retrieves one page of equipment items.
+     * 
+     * @param after    the cursor from the previous page, or null for the first page
+     * @param pageSize the maximum number of equipment items on the page
+     * @return the page of equipment items
+     */
+    public Page<Equipment> getEquipmentPage(PageCursor after, int pageSize) {
+        return equipmentRepository.getEquipmentPage(after, pageSize).map(referenceData::withNames);
     }
 
     /**
@@ -90,9 +125,10 @@ public class AdminService {
      * @param roomId the room ID
      * @param name   the equipment name
      * @param type   the equipment type
+     * @return       the result
      */
-    public void addEquipment(Integer roomId, String name, String type) {
-        equipmentRepository.addEquipment(roomId, name, type);
+    public WriteResult addEquipment(Integer roomId, String name, String type) {
+        return equipmentRepository.addEquipment(roomId, name, type);
     }
 
     /**
@@ -100,9 +136,10 @@ public class AdminService {
      * 
      * @param equipmentId the equipement ID
      * @param status      the equipement's operational status
+     * @return            the result
      */
-    public void updateEquipmentStatus(int equipmentId, String status) {
-        equipmentRepository.updateEquipmentStatus(equipmentId, status);
+    public WriteResult updateEquipmentStatus(int equipmentId, String status) {
+        return equipmentRepository.updateEquipmentStatus(equipmentId, status);
     }
 
     /**
@@ -111,9 +148,10 @@ public class AdminService {
      * @param equipmentId the equipment ID
      * @param adminId     the admin ID reporting the issue
      * @param description a description of the issue
+     * @return            the result
      */
-    public void logEquipmentIssue(int equipmentId, int adminId, String description) {
-        equipmentRepository.addEquipmentIssue(equipmentId, adminId, description);
+    public WriteResult logEquipmentIssue(int equipmentId, int adminId, String description) {
+        return equipmentRepository.addEquipmentIssue(equipmentId, adminId, description);
     }
 
     /**
@@ -122,59 +160,49 @@ public class AdminService {
      * @param issueId    the issue ID
      * @param status     the new status (Open, InProgress, Resolved)
      * @param resolvedAt the timestamp of resolution (YYYY-MM-DD HH:MM:SS), or null if unresolved
+     * @return           the result
      */
-    public void updateEquipmentIssueStatus(int issueId, String status, String resolvedAt) {
-        equipmentRepository.updateEquipmentIssueStatus(issueId, status, resolvedAt);
+    public WriteResult updateEquipmentIssueStatus(int issueId, String status, String resolvedAt) {
+        return equipmentRepository.updateEquipmentIssueStatus(issueId, status, resolvedAt);
     }
 
     /**
-     * Displays a list of all open equipment issues.
+     * Retrieves all open equipment issues.
+     * 
+     * @return the open equipment issues, most recent first
      */
-    public void showOpenEquipmentIssues() {
-        List<String> issues = equipmentRepository.getOpenEquipmentIssues();
-        if (issues.isEmpty()) {
-            System.out.println("No open equipment issues.");
-            return;
-        }
-
-        System.out.println("\nOpen Equipment Issues:");
-        for (String issue : issues) {
-            System.out.println(issue);
-        }
+    public List<EquipmentIssue> getOpenEquipmentIssues() {
+        return equipmentRepository.getOpenEquipmentIssues();
     }
 
     /**
-     * Displays all issues related to a specific equipment.
+     * Retrieves all issues related to a specific equipment.
      * 
      * @param equipmentId the equipment ID
+     * @return            the equipment's issues, most recent first
      */
-    public void showIssuesForEquipment(int equipmentId) {
-        List<String> issues = equipmentRepository.getIssuesForEquipment(equipmentId);
-        if (issues.isEmpty()) {
-            System.out.println("No issues found for equipment " + equipmentId);
-            return;
-        }
-
-        System.out.println("\nIssues for equipment " + equipmentId + ":");
-        for (String issue : issues) {
-            System.out.println(issue);
-        }
+    public List<EquipmentIssue> getIssuesForEquipment(int equipmentId) {
+        return equipmentRepository.getIssuesForEquipment(equipmentId);
     }
 
     /**
-     * Displays all group fitness classes.
+     * Retrieves all group fitness classes.
+     * 
+     * @return the group fitness classes
      */
-    public void showAllClasses() {
-        List<String> classes = classRepository.getAllClasses();
-        if (classes.isEmpty()) {
-            System.out.println("No classes found.");
-            return;
-        }
+    public List<GroupClass> getAllClasses() {
+        return classRepository.getAllClasses().stream().map(referenceData::withNames).toList();
+    }
 
-        System.out.println("\nGroup Fitness Classes:");
-        for (String c : classes) {
-            System.out.println(c);
-        }
+    /**
+     * Retrieves one page of group fitness classes, ordered by start time.
+     * 
+     * @param after    the cursor from the previous page, or null for the first page
+     * @param pageSize the maximum number of classes on the page
+     * @return the page of group fitness classes
+     */
+    public Page<GroupClass> getClassesPage(PageCursor after, int pageSize) {
+        return classRepository.getClassesPage(after, pageSize).map(referenceData::withNames);
     }
 
     /**
@@ -185,9 +213,15 @@ public class AdminService {
      * @param roomId    the room ID
      * @param startTime the start time (YYYY-MM-DD HH:MM:SS)
      * @param capacity  the class capacity
+     * @return          the result, including the resource that conflicted if any
      */
-    public void addGroupClass(String className, int trainerId, int roomId, String startTime, int capacity) {
-        classRepository.addGroupClass(className, trainerId, roomId, startTime, capacity);
+    public ClassScheduleResult addGroupClass(String className, int trainerId, int roomId, String startTime, int capacity) {
+        ClassScheduleResult result = classRepository.addGroupClass(className, trainerId, roomId, startTime, capacity);
+        if (result == ClassScheduleResult.SCHEDULED) {
+            availabilityEngine.invalidate(trainerId);
+            classFeed.invalidate();
+        }
+        return result;
     }
 
     /**
@@ -199,17 +233,46 @@ public class AdminService {
      * @param roomId    the room ID
      * @param startTime the start time (YYYY-MM-DD HH:MM:SS)
      * @param capacity  the class capacity
+     * @return          the result, including the resource that conflicted if any
      */
-    public void updateGroupClass(int classId, String className, int trainerId, int roomId, String startTime, int capacity) {
-        classRepository.updateGroupClass(classId, className, trainerId, roomId, startTime, capacity);
+    public ClassScheduleResult updateGroupClass(int classId, String className, int trainerId, int roomId, String startTime, int capacity) {
+        ClassScheduleResult result = classRepository.updateGroupClass(classId, className, trainerId, roomId, startTime, capacity);
+        if (result == ClassScheduleResult.SCHEDULED) {
+            // The class may have been taken over from another trainer
+            availabilityEngine.invalidateAll();
+            classFeed.classChanged(classId);
+        }
+        return result;
     }
 
     /**
      * Cancels a group fitness class.
      * 
      * @param classId the group fitness class ID
+     * @return        the result
      */
-    public void cancelGroupClass(int classId) {
-        classRepository.cancelGroupClass(classId);
+    public WriteResult cancelGroupClass(int classId) {
+        WriteResult result = classRepository.cancelGroupClass(classId);
+        if (result == WriteResult.SAVED) {
+            classFeed.classChanged(classId);
+            availabilityEngine.invalidateAll();
+        }
+        return result;
+    }
+
+    /**
+     * Imports members in bulk from a CSV file.
+     * 
+     * @param csvPath the path to a CSV file with the header first_name,last_name,dob,gender,email,phone
+     * @return        the import result, or empty if the file could not be imported
+     */
+    public Optional<MemberImportResult> importMembers(String csvPath) {
+        try (Reader reader = Files.newBufferedReader(Path.of(csvPath))) {
+            return memberImporter.importMembers(reader);
+        } catch (IOException e) {
+            System.out.println("Error reading member import file: " + e.getMessage());
+        }
+
+        return Optional.empty();
     }
 }
@@ -0,0 +1,782 @@
+package com.comp3005.finalproject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP server exposing the member, trainer, and admin operations as JSON endpoints, so
+ * many front desks and apps can use the system at once instead of the single console.
+ *
+ * Built on the JDK's HttpServer with every request handled on a virtual thread of its
+ * own. Handlers go through the async services, so however many requests arrive at once,
+ * only as many service calls run as the pool has connections and the rest wait their
+ * turn in order. Every response carries an exact Content-Length, which lets clients keep
+ * their connection open between requests, and the idle connection limit is raised so
+ * hundreds of clients can each keep one. GET /metrics reports the latency percentiles
+ * and error counts of every route alongside the pool, service, and slow query statistics.
+ *
+ * Request bodies are JSON objects. Times are accepted as "YYYY-MM-DD HH:MM:SS" or in
+ * ISO-8601 form, and dates as "YYYY-MM-DD". A malformed request gets 400, a missing row
+ * 404, a booking or registration conflict 409, and a database failure 500.
+ *
+ * There is no authentication, so the server only listens on the loopback interface
+ * unless --host names another address; put it behind a proxy that authenticates
+ * callers before exposing it.
+ *
+ * Requires the DDL script to have been loaded. To run:
+ *     mvn exec:java -Dexec.mainClass=com.comp3005.finalproject.ApiServer -Dexec.args="--port 8080"
+ */
+public class ApiServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final long MEMBER_CACHE_MAX_BYTES = 8L * 1024 * 1024;
+    private static final long SLOW_QUERY_THRESHOLD_MS = 200;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final AsyncMemberService memberService;
+    private final AsyncTrainerService trainerService;
+    private final AsyncAdminService adminService;
+    private final ServiceExecutor serviceExecutor = new ServiceExecutor();
+    private final PtSessionRepository ptSessionRepository;
+    private final HealthMetricIngestor metricIngestor = new HealthMetricIngestor();
+
+    private final List<Route> routes = new ArrayList<>();
+    private final RouteStats unmatched = new RouteStats();
+    private final long startedAt = System.currentTimeMillis();
+    private ExecutorService requestExecutor;
+    private HttpServer server;
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(Request request);
+    }
+
+    private record Response(int status, Object body) {
+    }
+
+    /**
+     * Latency and outcome counts of one route, as reported by GET /metrics.
+     *
+     * @param route         the method and path template
+     * @param requests      requests handled since startup
+     * @param clientErrors  requests answered with a 4xx status
+     * @param serverErrors  requests answered with a 5xx status
+     * @param latencyMicros the time from receiving the request to sending the response
+     */
+    record RouteMetrics(String route, long requests, long clientErrors, long serverErrors,
+                        LatencyHistogram.Snapshot latencyMicros) {
+    }
+
+    private static final class RouteStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+
+        void record(int status, long elapsedNanos) {
+            latency.record(elapsedNanos);
+            if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+        }
+
+        RouteMetrics metrics(String route) {
+            LatencyHistogram.Snapshot snapshot = latency.snapshot();
+            return new RouteMetrics(route, snapshot.count(), clientErrors.sum(), serverErrors.sum(), snapshot);
+        }
+    }
+
+    private static final class Route {
+        private final String method;
+        private final String template;
+        private final String[] segments;
+        private final Handler handler;
+        private final RouteStats stats = new RouteStats();
+
+        Route(String method, String template, Handler handler) {
+            this.method = method;
+            this.template = template;
+            this.segments = template.substring(1).split("/");
+            this.handler = handler;
+        }
+
+        boolean matches(String[] pathSegments, Map<String, String> pathParams) {
+            if (pathSegments.length != segments.length) {
+                return false;
+            }
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].startsWith("{")) {
+                    pathParams.put(segments[i].substring(1, segments[i].length() - 1),
+                        URLDecoder.decode(pathSegments[i], StandardCharsets.UTF_8));
+                } else if (!segments[i].equals(pathSegments[i])) {
+                    pathParams.clear();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * One incoming request, with typed access to its path parameters, query parameters,
+     * and JSON body fields. A missing or malformed value throws IllegalArgumentException,
+     * which the server answers with 400.
+     */
+    private static final class Request {
+        private final Map<String, String> pathParams;
+        private final Map<String, String> query;
+        private final String rawBody;
+        private Map<?, ?> body;
+
+        Request(Map<String, String> pathParams, Map<String, String> query, String rawBody) {
+            this.pathParams = pathParams;
+            this.query = query;
+            this.rawBody = rawBody;
+        }
+
+        private Request(Map<?, ?> body) {
+            this(Map.of(), Map.of(), "");
+            this.body = body;
+        }
+
+        int pathInt(String name) {
+            return parseInt(name, pathParams.get(name));
+        }
+
+        String query(String name) {
+            String value = query.get(name);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("Missing query parameter: " + name);
+            }
+            return value;
+        }
+
+        Integer queryInt(String name) {
+            String value = query.get(name);
+            return value == null || value.isBlank() ? null : parseInt(name, value);
+        }
+
+        int queryInt(String name, int defaultValue) {
+            Integer value = queryInt(name);
+            return value == null ? defaultValue : value;
+        }
+
+        LocalDateTime queryTime(String name) {
+            String value = query.get(name);
+            return value == null || value.isBlank() ? null : parseTime(value);
+        }
+
+        String string(String field) {
+            String value = optionalString(field);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing field: " + field);
+            }
+            return value;
+        }
+
+        String optionalString(String field) {
+            Object value = body().get(field);
+            if (value == null) {
+                return null;
+            }
+            if (!(value instanceof String s)) {
+                throw new IllegalArgumentException("Field " + field + " must be a string");
+            }
+            return s;
+        }
+
+        int integer(String field) {
+            Integer value = optionalInteger(field);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing field: " + field);
+            }
+            return value;
+        }
+
+        Integer optionalInteger(String field) {
+            BigDecimal value = optionalNumber(field);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return value.intValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Field " + field + " must be a whole number");
+            }
+        }
+
+        double decimal(String field) {
+            Double value = optionalDecimal(field);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing field: " + field);
+            }
+            return value;
+        }
+
+        Double optionalDecimal(String field) {
+            BigDecimal value = optionalNumber(field);
+            return value == null ? null : value.doubleValue();
+        }
+
+        boolean bool(String field, boolean defaultValue) {
+            Object value = body().get(field);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!(value instanceof Boolean b)) {
+                throw new IllegalArgumentException("Field " + field + " must be true or false");
+            }
+            return b;
+        }
+
+        /**
+         * Reads a time field in the "YYYY-MM-DD HH:MM:SS" form the services expect.
+         */
+        String time(String field) {
+            String value = optionalTime(field);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing field: " + field);
+            }
+            return value;
+        }
+
+        String optionalTime(String field) {
+            String value = optionalString(field);
+            return value == null ? null : parseTime(value).format(TIME_FORMAT);
+        }
+
+        LocalDateTime optionalDateTime(String field) {
+            String value = optionalString(field);
+            return value == null ? null : parseTime(value);
+        }
+
+        /**
+         * Reads an array of objects, each with the same typed field access as the request body.
+         */
+        List<Request> objects(String field) {
+            Object value = body().get(field);
+            if (!(value instanceof List<?> items)) {
+                throw new IllegalArgumentException("Field " + field + " must be an array");
+            }
+            List<Request> objects = new ArrayList<>();
+            for (Object item : items) {
+                if (!(item instanceof Map<?, ?> map)) {
+                    throw new IllegalArgumentException("Every item of " + field + " must be an object");
+                }
+                objects.add(new Request(map));
+            }
+            return objects;
+        }
+
+        private BigDecimal optionalNumber(String field) {
+            Object value = body().get(field);
+            if (value == null) {
+                return null;
+            }
+            if (!(value instanceof BigDecimal n)) {
+                throw new IllegalArgumentException("Field " + field + " must be a number");
+            }
+            return n;
+        }
+
+        private Map<?, ?> body() {
+            if (body == null) {
+                Object parsed = rawBody.isBlank() ? Map.of() : Json.parse(rawBody);
+                if (!(parsed instanceof Map<?, ?> map)) {
+                    throw new IllegalArgumentException("Request body must be a JSON object");
+                }
+                body = map;
+            }
+            return body;
+        }
+
+        private static int parseInt(String name, String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a whole number");
+            }
+        }
+
+        private static LocalDateTime parseTime(String value) {
+            return LocalDateTime.parse(value.trim().replace(' ', 'T'));
+        }
+    }
+
+    /**
+     * Creates a server over the shared services, wired the same way as the console.
+     */
+    public ApiServer() {
+        ScheduleIndex scheduleIndex = new ScheduleIndex();
+        ptSessionRepository = new PtSessionRepository(scheduleIndex);
+        TrainerRepository trainerRepository = new TrainerRepository();
+        TrainerAvailabilityEngine availabilityEngine =
+            new TrainerAvailabilityEngine(trainerRepository, new CalendarRepository(scheduleIndex));
+        RoomRepository roomRepository = new RoomRepository();
+        ReferenceDataCache referenceData = new ReferenceDataCache(roomRepository, trainerRepository);
+        ClassRepository classRepository = new ClassRepository();
+        UpcomingClassFeed classFeed = new UpcomingClassFeed(classRepository, referenceData);
+        MemberRepository memberRepository = new MemberRepository();
+        MemberCache memberCache = new MemberCache(memberRepository, MEMBER_CACHE_MAX_BYTES);
+
+        memberService = new AsyncMemberService(
+            new MemberService(memberRepository, ptSessionRepository, classRepository, availabilityEngine, referenceData,
+                memberCache, classFeed, metricIngestor),
+            serviceExecutor);
+        trainerService = new AsyncTrainerService(
+            new TrainerService(trainerRepository, ptSessionRepository, classRepository, memberRepository,
+                availabilityEngine, referenceData),
+            serviceExecutor);
+        adminService = new AsyncAdminService(
+            new AdminService(new EquipmentRepository(), roomRepository, classRepository, new MemberImporter(),
+                availabilityEngine, referenceData, classFeed),
+            serviceExecutor);
+
+        addMemberRoutes();
+        addTrainerRoutes();
+        addAdminRoutes();
+        route("GET", "/metrics", request -> new Response(200, getMetrics()));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int port = Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT)));
+        InetAddress host = options.containsKey("host")
+            ? InetAddress.getByName(options.get("host"))
+            : InetAddress.getLoopbackAddress();
+
+        SlowQueryLog.setThreshold(Duration.ofMillis(SLOW_QUERY_THRESHOLD_MS));
+        if (!new SchemaMigrator().migrate()) {
+            System.out.println("The database schema could not be brought up to date. Exiting.");
+            DatabaseConnection.shutdown();
+            System.exit(1);
+        }
+
+        ApiServer apiServer = new ApiServer();
+        apiServer.ptSessionRepository.rebuildScheduleIndex();
+        apiServer.start(host, port);
+        System.out.println("Sy Fitness Club API listening on http://" + host.getHostAddress() + ":" + apiServer.getPort());
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.stop();
+            stopped.countDown();
+        }, "api-server-shutdown"));
+        stopped.await();
+    }
+
+    /**
+     * Starts listening on the loopback interface.
+     *
+     * @param port         the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Starts listening.
+     *
+     * @param host         the address to listen on
+     * @param port         the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public void start(InetAddress host, int port) throws IOException {
+        configureKeepAlive();
+        requestExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("api-", 0).factory());
+        server = HttpServer.create(new InetSocketAddress(host, port), BACKLOG);
+        server.setExecutor(requestExecutor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, lets those in progress finish, and closes the services,
+     * writing any queued wearable readings.
+     */
+    public void stop() {
+        server.stop(1);
+        requestExecutor.close();
+        serviceExecutor.close();
+        metricIngestor.close();
+    }
+
+    private void addMemberRoutes() {
+        route("POST", "/members", request -> written(await(memberService.registerMember(
+            request.string("firstName"), request.string("lastName"), request.string("dob"), request.string("gender"),
+            request.string("email"), request.optionalString("phone"))), 201));
+        route("GET", "/members/{memberId}", request ->
+            found(await(memberService.getProfile(request.pathInt("memberId")))));
+        route("PUT", "/members/{memberId}", request -> written(await(memberService.updateProfile(
+            request.pathInt("memberId"), request.string("firstName"), request.string("lastName"), request.string("dob"),
+            request.string("gender"), request.string("email"), request.optionalString("phone"))), 200));
+
+        route("POST", "/members/{memberId}/goals", request -> written(await(memberService.addFitnessGoal(
+            request.pathInt("memberId"), request.string("goalType"), request.optionalDecimal("targetValue"),
+            request.optionalString("unit"), request.optionalString("targetDate"))), 201));
+        route("PUT", "/goals/{goalId}", request -> written(await(memberService.updateFitnessGoalStatus(
+            request.pathInt("goalId"), request.string("status"))), 200));
+
+        route("GET", "/members/{memberId}/metrics", request ->
+            ok(await(memberService.getHealthHistory(request.pathInt("memberId")))));
+        route("POST", "/members/{memberId}/metrics", request -> written(await(memberService.addHealthMetric(
+            request.pathInt("memberId"), request.decimal("height"), request.decimal("weight"),
+            request.integer("heartRate"), request.decimal("bodyFat"))), 201));
+
+        // Wearable syncs, queued and written in batches; 202 because they are not in the database yet
+        route("POST", "/members/{memberId}/readings", request -> {
+            int memberId = request.pathInt("memberId");
+            List<HealthMetricReading> readings = new ArrayList<>();
+            for (Request reading : request.objects("readings")) {
+                readings.add(new HealthMetricReading(memberId, reading.optionalDateTime("measureTime"),
+                    reading.optionalDecimal("height"), reading.optionalDecimal("weight"),
+                    reading.optionalInteger("heartRate"), reading.optionalDecimal("bodyFat")));
+            }
+            return new Response(202, Map.of("queued", await(memberService.syncHealthMetrics(readings))));
+        });
+
+        route("GET", "/members/{memberId}/pt-sessions", request ->
+            ok(await(memberService.getPtSessions(request.pathInt("memberId")))));
+        route("POST", "/members/{memberId}/pt-sessions", request -> booked(await(memberService.schedulePtSession(
+            request.pathInt("memberId"), request.integer("trainerId"), request.integer("roomId"),
+            request.time("start"), request.time("end"))), 201));
+        route("PUT", "/pt-sessions/{sessionId}", request -> booked(await(memberService.reschedulePtSession(
+            request.pathInt("sessionId"), request.integer("memberId"), request.integer("trainerId"),
+            request.integer("roomId"), request.time("start"), request.time("end"))), 200));
+        route("DELETE", "/pt-sessions/{sessionId}", request ->
+            written(await(memberService.cancelPtSession(request.pathInt("sessionId"))), 200));
+        route("GET", "/members/{memberId}/pt-slots", request -> {
+            LocalDateTime from = Optional.ofNullable(request.queryTime("from")).orElse(LocalDateTime.now());
+            LocalDateTime to = Optional.ofNullable(request.queryTime("to")).orElse(from.plusDays(7));
+            return ok(await(memberService.findPtSlots(request.pathInt("memberId"), request.queryInt("trainerId"),
+                request.queryInt("roomId"), Duration.ofMinutes(request.queryInt("minutes", 60)), from, to,
+                request.queryInt("limit", 5))));
+        });
+
+        route("GET", "/classes/upcoming", request -> ok(await(memberService.getUpcomingClasses())));
+        route("GET", "/members/{memberId}/registrations", request ->
+            ok(await(memberService.getClassRegistrations(request.pathInt("memberId")))));
+        route("POST", "/members/{memberId}/registrations", request -> {
+            RegistrationResult result = await(memberService.registerForClass(request.pathInt("memberId"),
+                request.integer("classId")));
+            int status = switch (result) {
+                case REGISTERED -> 201;
+                case FULL, DUPLICATE, NOT_SCHEDULED -> 409;
+                case NOT_FOUND -> 404;
+                case ERROR -> 500;
+            };
+            return new Response(status, Map.of("result", result));
+        });
+    }
+
+    private void addTrainerRoutes() {
+        route("GET", "/trainers/{trainerId}/availability", request ->
+            ok(await(trainerService.getAvailability(request.pathInt("trainerId")))));
+        route("POST", "/trainers/{trainerId}/availability", request -> {
+            AvailabilityResult result = await(trainerService.addAvailability(request.pathInt("trainerId"),
+                request.time("start"), request.time("end"), request.bool("recurring", false)));
+            return result.isOverlap()
+                ? new Response(409, Map.of("result", "OVERLAP", "overlapping", result.overlapping()))
+                : written(result.writeResult(), 201);
+        });
+        route("DELETE", "/availability/{availabilityId}", request ->
+            written(await(trainerService.removeAvailability(request.pathInt("availabilityId"))), 200));
+        route("GET", "/trainers/{trainerId}/schedule", request ->
+            ok(await(trainerService.getSchedule(request.pathInt("trainerId")))));
+        route("GET", "/trainers/{trainerId}/free-times", request -> {
+            LocalDateTime from = Optional.ofNullable(request.queryTime("from")).orElse(LocalDateTime.now());
+            LocalDateTime to = Optional.ofNullable(request.queryTime("to")).orElse(from.plusDays(7));
+            return ok(await(trainerService.getFreeTimes(request.pathInt("trainerId"), from, to)));
+        });
+        route("GET", "/member-profiles", request -> ok(await(trainerService.lookupMemberByName(request.query("name")))));
+        route("GET", "/member-suggestions", request ->
+            ok(await(trainerService.suggestMembers(request.query("name"), request.queryInt("limit", 10)))));
+    }
+
+    private void addAdminRoutes() {
+        route("GET", "/rooms", request -> {
+            Integer pageSize = pageSize(request);
+            if (pageSize == null) {
+                return ok(await(adminService.getAllRooms()));
+            }
+            Integer afterId = request.queryInt("afterId");
+            return ok(await(adminService.getRoomsPage(afterId == null ? null : PageCursor.afterId(afterId), pageSize)));
+        });
+        route("POST", "/rooms", request ->
+            written(await(adminService.addRoom(request.string("name"), request.integer("capacity"))), 201));
+        route("PUT", "/rooms/{roomId}", request -> {
+            int roomId = request.pathInt("roomId");
+            String name = request.optionalString("name");
+            Integer capacity = request.optionalInteger("capacity");
+            if (name == null && capacity == null) {
+                throw new IllegalArgumentException("Nothing to update: give a name, a capacity, or both");
+            }
+            WriteResult result = WriteResult.SAVED;
+            if (name != null) {
+                result = await(adminService.updateRoomName(roomId, name));
+            }
+            if (capacity != null && result == WriteResult.SAVED) {
+                result = await(adminService.updateRoomCapacity(roomId, capacity));
+            }
+            return written(result, 200);
+        });
+
+        route("GET", "/equipment", request -> {
+            Integer pageSize = pageSize(request);
+            if (pageSize == null) {
+                return ok(await(adminService.getEquipment()));
+            }
+            Integer afterId = request.queryInt("afterId");
+            return ok(await(adminService.getEquipmentPage(afterId == null ? null : PageCursor.afterId(afterId), pageSize)));
+        });
+        route("POST", "/equipment", request -> written(await(adminService.addEquipment(
+            request.optionalInteger("roomId"), request.string("name"), request.string("type"))), 201));
+        route("PUT", "/equipment/{equipmentId}", request -> written(await(adminService.updateEquipmentStatus(
+            request.pathInt("equipmentId"), request.string("status"))), 200));
+        route("GET", "/equipment/{equipmentId}/issues", request ->
+            ok(await(adminService.getIssuesForEquipment(request.pathInt("equipmentId")))));
+        route("POST", "/equipment/{equipmentId}/issues", request -> written(await(adminService.logEquipmentIssue(
+            request.pathInt("equipmentId"), request.integer("adminId"), request.string("description"))), 201));
+        route("GET", "/equipment-issues", request -> ok(await(adminService.getOpenEquipmentIssues())));
+        route("PUT", "/equipment-issues/{issueId}", request -> written(await(adminService.updateEquipmentIssueStatus(
+            request.pathInt("issueId"), request.string("status"), request.optionalTime("resolvedAt"))), 200));
+
+        route("GET", "/classes", request -> {
+            Integer pageSize = pageSize(request);
+            if (pageSize == null) {
+                return ok(await(adminService.getAllClasses()));
+            }
+            Integer afterId = request.queryInt("afterId");
+            PageCursor after = afterId == null ? null : new PageCursor(request.queryTime("afterTime"), afterId);
+            return ok(await(adminService.getClassesPage(after, pageSize)));
+        });
+        route("POST", "/classes", request -> scheduled(await(adminService.addGroupClass(
+            request.string("name"), request.integer("trainerId"), request.integer("roomId"), request.time("start"),
+            request.integer("capacity"))), 201));
+        route("PUT", "/classes/{classId}", request -> scheduled(await(adminService.updateGroupClass(
+            request.pathInt("classId"), request.string("name"), request.integer("trainerId"), request.integer("roomId"),
+            request.time("start"), request.integer("capacity"))), 200));
+        route("DELETE", "/classes/{classId}", request ->
+            written(await(adminService.cancelGroupClass(request.pathInt("classId"))), 200));
+    }
+
+    private void route(String method, String template, Handler handler) {
+        routes.add(new Route(method, template, handler));
+    }
+
+    private void handle(HttpExchange exchange) {
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getRawPath();
+        RouteStats stats = unmatched;
+        Response response;
+
+        try (exchange) {
+            try {
+                // Read the whole body even if the route ignores it, so the connection can be reused
+                String rawBody = readBody(exchange.getRequestBody());
+                String[] pathSegments = path.substring(1).split("/");
+                Map<String, String> pathParams = new HashMap<>();
+                Route route = null;
+                boolean pathMatched = false;
+                for (Route candidate : routes) {
+                    if (candidate.matches(pathSegments, pathParams)) {
+                        pathMatched = true;
+                        if (candidate.method.equals(method)) {
+                            route = candidate;
+                            break;
+                        }
+                        pathParams.clear();
+                    }
+                }
+
+                if (route == null) {
+                    response = pathMatched ? error(405, "Method not allowed") : error(404, "No such endpoint");
+                } else {
+                    stats = route.stats;
+                    response = route.handler.handle(new Request(pathParams,
+                        parseQuery(exchange.getRequestURI().getRawQuery()), rawBody));
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                response = error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                System.out.println("Error handling " + method + " " + path + ": ");
+                e.printStackTrace();
+                response = error(500, "Internal server error");
+            }
+
+            send(exchange, response);
+        } catch (IOException e) {
+            // The client went away before the response was sent
+            response = new Response(499, null);
+        }
+
+        stats.record(response.status(), System.nanoTime() - start);
+    }
+
+    private Map<String, Object> getMetrics() {
+        // Only the routes that have been used, so the report stays readable
+        List<RouteMetrics> routeMetrics = new ArrayList<>();
+        for (Route route : routes) {
+            routeMetrics.add(route.stats.metrics(route.method + " " + route.template));
+        }
+        routeMetrics.add(unmatched.metrics("unmatched"));
+        routeMetrics.removeIf(m -> m.requests() == 0);
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("uptimeSeconds", (System.currentTimeMillis() - startedAt) / 1000);
+        metrics.put("routes", routeMetrics);
+        metrics.put("services", serviceExecutor.getStats());
+        metrics.put("pool", DatabaseConnection.getPoolStats());
+        metrics.put("slowQueries", SlowQueryLog.getStats());
+        metrics.put("healthMetricSync", metricIngestor.getStats());
+        return metrics;
+    }
+
+    private static Integer pageSize(Request request) {
+        Integer pageSize = request.queryInt("pageSize");
+        if (pageSize != null && pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        return pageSize;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Surface what the service threw, so a bad argument still maps to 400
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Response ok(Object body) {
+        return new Response(200, body);
+    }
+
+    private static Response found(Optional<?> value) {
+        return value.<Response>map(ApiServer::ok).orElseGet(() -> error(404, "Not found"));
+    }
+
+    private static Response written(WriteResult result, int savedStatus) {
+        int status = switch (result) {
+            case SAVED -> savedStatus;
+            case NOT_FOUND -> 404;
+            case ERROR -> 500;
+        };
+        return new Response(status, Map.of("result", result));
+    }
+
+    private static Response booked(PtBookingResult result, int bookedStatus) {
+        int status = switch (result.status()) {
+            case BOOKED -> bookedStatus;
+            case MEMBER_CONFLICT, TRAINER_CONFLICT, ROOM_CONFLICT -> 409;
+            case NOT_FOUND -> 404;
+            case ERROR -> 500;
+        };
+        return new Response(status, result);
+    }
+
+    private static Response scheduled(ClassScheduleResult result, int scheduledStatus) {
+        int status = switch (result) {
+            case SCHEDULED -> scheduledStatus;
+            case TRAINER_CONFLICT, ROOM_CONFLICT, CAPACITY_BELOW_SEATS_TAKEN -> 409;
+            case NOT_FOUND -> 404;
+            case ERROR -> 500;
+        };
+        return new Response(status, Map.of("result", result));
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, Map.of("error", message == null ? "Bad request" : message));
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = Json.write(response.body()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // HttpServer reads these once, when the first server is created
+    private static void configureKeepAlive() {
+        // Keep an idle connection for every client of a large load, not just the default 200
+        setDefault("sun.net.httpserver.maxIdleConnections", "1000");
+        setDefault("sun.net.httpserver.idleInterval", "60");
+        // Small responses on a reused connection otherwise wait on Nagle's algorithm
+        setDefault("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static void setDefault(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.comp3005.finalproject;
 
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Function;
 
 /**
  * Fall 2025 - Final Project
@@ -27,12 +32,50 @@ import java.util.Scanner;
  */
 public class App {
     private static final Scanner scanner = new Scanner(System.in);
-
-    private static final MemberService memberService = new MemberService();
-    private static final TrainerService trainerService = new TrainerService();
-    private static final AdminService adminService = new AdminService();
+    private static final int PAGE_SIZE = 20;    // Rows shown per page in admin listings
+    private static final int SLOT_SUGGESTIONS = 5;
+    private static final int SLOT_SEARCH_DAYS = 14;
+    private static final long MEMBER_CACHE_MAX_BYTES = 8L * 1024 * 1024;
+    private static final long SLOW_QUERY_THRESHOLD_MS = 200;    // Statements slower than this go to logs/slow-queries.log
+
+    // Upcoming sessions are indexed in memory, so known clashes and busy times need no database round trip
+    private static final ScheduleIndex scheduleIndex = new ScheduleIndex();
+    private static final PtSessionRepository ptSessionRepository = new PtSessionRepository(scheduleIndex);
+
+    // Shared so that bookings and class changes from any menu invalidate the cached trainer availability
+    private static final TrainerRepository trainerRepository = new TrainerRepository();
+    private static final TrainerAvailabilityEngine availabilityEngine =
+        new TrainerAvailabilityEngine(trainerRepository, new CalendarRepository(scheduleIndex));
+
+    // Shared so that room changes made from the admin menu are seen by every listing
+    private static final RoomRepository roomRepository = new RoomRepository();
+    private static final ReferenceDataCache referenceData = new ReferenceDataCache(roomRepository, trainerRepository);
+
+    // Shared so that class edits from the admin menu update the feed members register from
+    private static final ClassRepository classRepository = new ClassRepository();
+    private static final UpcomingClassFeed classFeed = new UpcomingClassFeed(classRepository, referenceData);
+
+    private static final MemberRepository memberRepository = new MemberRepository();
+    private static final MemberCache memberCache = new MemberCache(memberRepository, MEMBER_CACHE_MAX_BYTES);
+    private static final MemberService memberService =
+        new MemberService(memberRepository, ptSessionRepository, classRepository, availabilityEngine, referenceData,
+            memberCache, classFeed, new HealthMetricIngestor());
+    private static final TrainerService trainerService =
+        new TrainerService(trainerRepository, ptSessionRepository, new ClassRepository(), new MemberRepository(), availabilityEngine,
+            referenceData);
+    private static final AdminService adminService =
+        new AdminService(new EquipmentRepository(), roomRepository, classRepository, new MemberImporter(), availabilityEngine,
+            referenceData, classFeed);
 
     public static void main(String[] args) {
+        SlowQueryLog.setThreshold(Duration.ofMillis(SLOW_QUERY_THRESHOLD_MS));
+        if (!new SchemaMigrator().migrate()) {
+            System.out.println("The database schema could not be brought up to date. Exiting.");
+            DatabaseConnection.shutdown();
+            System.exit(1);
+        }
+        ptSessionRepository.rebuildScheduleIndex();
+
         System.out.println("==================================================");
         System.out.println("            WELCOME TO SY FITNESS CLUB");
         System.out.println("             Member Experience Portal");
@@ -99,13 +142,13 @@ public class App {
                 case 3 -> addFitnessGoal(memberId);
                 case 4 -> updateGoalStatus();
                 case 5 -> addHealthMetric(memberId);
-                case 6 -> memberService.showHealthHistory(memberId);
+                case 6 -> showHealthHistory(memberId);
                 case 7 -> bookPt(memberId);
                 case 8 -> reschedulePt(memberId);
                 case 9 -> cancelPt();
-                case 10 -> memberService.showPtSessions(memberId);
+                case 10 -> showPtSessions(memberId);
                 case 11 -> registerForClass(memberId);
-                case 12 -> memberService.showClassRegistrations(memberId);
+                case 12 -> showClassRegistrations(memberId);
                 case 0 -> { return; }
                 default -> System.out.println("Invalid selection. Please select a valid option.\n");
             }
@@ -135,14 +178,14 @@ public class App {
             int choice = readInt();
 
             switch (choice) {
-                case 1 -> trainerService.showAvailability(trainerId);
+                case 1 -> showAvailability(trainerId);
                 case 2 -> addTrainerAvailability(trainerId);
                 case 3 -> removeTrainerAvailability();
-                case 4 -> trainerService.showSchedule(trainerId);
+                case 4 -> showSchedule(trainerId);
                 case 5 -> {
                     System.out.print("Enter member full name: ");
                     String name = scanner.nextLine();
-                    trainerService.lookupMemberByName(name);
+                    lookupMemberByName(name);
                 }
                 case 0 -> { return; }
                 default -> System.out.println("Invalid selection. Please select a valid option.\n");
@@ -162,6 +205,8 @@ public class App {
             System.out.println("  [1] Manage Rooms");
             System.out.println("  [2] Manage Equipment");
             System.out.println("  [3] Manage Group Fitness Classes");
+            System.out.println("  [4] Import Members from CSV");
+            System.out.println("  [5] Diagnostics");
             System.out.println("  [0] Return to Main Menu\n");
 
             System.out.print("Selection: ");
@@ -171,6 +216,8 @@ public class App {
                 case 1 -> roomMenu();
                 case 2 -> equipmentMenu(adminId);
                 case 3 -> classMenu();
+                case 4 -> importMembers();
+                case 5 -> diagnosticsMenu();
                 case 0 -> { return; }
                 default -> System.out.println("Invalid selection. Please select a valid option.\n");
             }
@@ -193,27 +240,27 @@ public class App {
             int choice = readInt();
 
             switch (choice) {
-                case 1 -> adminService.showAllRooms();
+                case 1 -> showAllRooms();
                 case 2 -> {
                     System.out.print("Enter room name: ");
                     String name = scanner.nextLine();
                     System.out.print("Enter capacity: ");
                     int cap = readInt();
-                    adminService.addRoom(name, cap);
+                    printResult(adminService.addRoom(name, cap), "Room added successfully!", null);
                 }
                 case 3 -> {
                     System.out.print("Enter room ID: ");
                     int id = readInt();
                     System.out.print("Enter new room name: ");
                     String name = scanner.nextLine();
-                    adminService.updateRoomName(id, name);
+                    printResult(adminService.updateRoomName(id, name), "Room name updated successfully!", "No room found with ID: " + id);
                 }
                 case 4 -> {
                     System.out.print("Enter room ID: ");
                     int id = readInt();
                     System.out.print("Enter new room capacity: ");
                     int cap = readInt();
-                    adminService.updateRoomCapacity(id, cap);
+                    printResult(adminService.updateRoomCapacity(id, cap), "Room capacity updated successfully!", "No room found with ID: " + id);
                 }
                 case 0 -> { return; }
                 default -> System.out.println("Invalid selection. Please select a valid option.\n");
@@ -240,7 +287,7 @@ public class App {
             int choice = readInt();
 
             switch (choice) {
-                case 1 -> adminService.showEquipment();
+                case 1 -> showEquipment();
                 case 2 -> {
                     System.out.print("Enter room ID (or 0 for none): ");
                     int room = readInt();
@@ -252,21 +299,22 @@ public class App {
                     System.out.print("Enter equipment type: ");
                     String type = scanner.nextLine();
 
-                    adminService.addEquipment(roomId, name, type);
+                    printResult(adminService.addEquipment(roomId, name, type), "Equipment added successfully!", null);
                 }
                 case 3 -> {
                     System.out.print("Enter equipment ID: ");
                     int eq = readInt();
                     System.out.print("Enter new status (Operational / OutOfService): ");
                     String status = scanner.nextLine();
-                    adminService.updateEquipmentStatus(eq, status);
+                    printResult(adminService.updateEquipmentStatus(eq, status), "Equipment status updated successfully!",
+                        "No equipment found with ID: " + eq);
                 }
                 case 4 -> {
                     System.out.print("Enter equipment ID: ");
                     int eq = readInt();
                     System.out.print("Describe the issue: ");
                     String desc = scanner.nextLine();
-                    adminService.logEquipmentIssue(eq, adminId, desc);
+                    printResult(adminService.logEquipmentIssue(eq, adminId, desc), "Equipment issue logged successfully!", null);
                 }
                 case 5 -> {
                     System.out.print("Enter issue ID: ");
@@ -279,13 +327,14 @@ public class App {
                         System.out.print("Enter resolution time (YYYY-MM-DD HH:MM:SS): ");
                         resolvedTime = scanner.nextLine();
                     }
-                    adminService.updateEquipmentIssueStatus(issue, status, resolvedTime);
+                    printResult(adminService.updateEquipmentIssueStatus(issue, status, resolvedTime),
+                        "Equipment issue status updated successfully!", "No equipment issue found with ID: " + issue);
                 }
-                case 6 -> adminService.showOpenEquipmentIssues();
+                case 6 -> showOpenEquipmentIssues();
                 case 7 -> {
                     System.out.print("Enter equipment ID: ");
                     int eq = readInt();
-                    adminService.showIssuesForEquipment(eq);
+                    showIssuesForEquipment(eq);
                 }
                 case 0 -> { return; }
                 default -> System.out.println("Invalid selection. Please select a valid option.\n");
@@ -309,13 +358,13 @@ public class App {
             int choice = readInt();
 
             switch (choice) {
-                case 1 -> adminService.showAllClasses();
+                case 1 -> showAllClasses();
                 case 2 -> addGroupClass();
                 case 3 -> updateGroupClass();
                 case 4 -> {
                     System.out.print("Enter class ID: ");
                     int id = readInt();
-                    adminService.cancelGroupClass(id);
+                    printResult(adminService.cancelGroupClass(id), "Class cancelled successfully!", "No class found with ID: " + id);
                 }
                 case 0 -> { return; }
                 default -> System.out.println("Invalid selection. Please select a valid option.\n");
@@ -323,13 +372,45 @@ public class App {
         }
     }
 
+    // Diagnostics Submenu
+    private static void diagnosticsMenu() {
+        while (true) {
+            System.out.println("\n---------------- DIAGNOSTICS ----------------\n");
+            System.out.println("  [1] Show Repository Call Metrics");
+            System.out.println("  [2] Show Connection Pool and Cache Statistics");
+            System.out.println("  [3] Reset Repository Call Metrics and Fan-out Timings");
+            System.out.println("  [4] Set Slow Query Threshold");
+            System.out.println("  [5] Show Fan-out Timings");
+            System.out.println("  [0] Back\n");
+
+            System.out.print("Selection: ");
+            int choice = readInt();
+
+            switch (choice) {
+                case 1 -> showRepositoryMetrics();
+                case 2 -> showPoolAndCacheStats();
+                case 3 -> {
+                    RepositoryMetrics.reset();
+                    FanOut.resetStats();
+                    System.out.println("Repository call metrics and fan-out timings reset.");
+                }
+                case 4 -> {
+                    System.out.print("Log statements slower than (ms): ");
+                    SlowQueryLog.setThreshold(Duration.ofMillis(readInt()));
+                    System.out.println("Slow query threshold set to " + SlowQueryLog.getThresholdMillis() + " ms.");
+                }
+                case 5 -> showFanOutTimings();
+                case 0 -> { return; }
+                default -> System.out.println("Invalid selection. Please select a valid option.\n");
+            }
+        }
+    }
+
     // Member Action Methods
     private static void showMemberProfile(int memberId) {
-        List<String> member = new MemberRepository().getMemberById(memberId);
-        if (member.isEmpty())
-            System.out.println("No member found.");
-        else
-            System.out.println(member.get(0));
+        memberService.getProfile(memberId).ifPresentOrElse(
+            member -> System.out.println(ConsoleRenderer.memberDetails(member)),
+            () -> System.out.println("No member found."));
     }
 
     private static void updateMemberProfile(int memberId) {
@@ -345,8 +426,8 @@ public class App {
         String em = scanner.nextLine();
         System.out.print("Phone: ");
         String ph = scanner.nextLine();
-        memberService.updateProfile(memberId, fn, ln, dob, g, em, ph);
-
+        printResult(memberService.updateProfile(memberId, fn, ln, dob, g, em, ph),
+            "Member details updated successfully!", "No member found with ID: " + memberId);
     }
 
     private static void addFitnessGoal(int memberId) {
@@ -359,7 +440,7 @@ public class App {
         System.out.print("Target date (YYYY-MM-DD or blank): ");
         String date = scanner.nextLine();
         if (date.isBlank()) date = null;
-        memberService.addFitnessGoal(memberId, type, val, unit, date);
+        printResult(memberService.addFitnessGoal(memberId, type, val, unit, date), "Fitness goal added successfully!", null);
     }
 
     private static void updateGoalStatus() {
@@ -367,7 +448,8 @@ public class App {
         int id = readInt();
         System.out.print("New Status (Active / Completed / Cancelled): ");
         String status = scanner.nextLine();
-        memberService.updateFitnessGoalStatus(id, status);
+        printResult(memberService.updateFitnessGoalStatus(id, status), "Fitness goal status updated successfully!",
+            "No fitness goal found with ID: " + id);
     }
 
     private static void addHealthMetric(int memberId) {
@@ -379,10 +461,16 @@ public class App {
         int hr = readInt();
         System.out.print("Body fat %: ");
         double bf = readDouble();
-        memberService.addHealthMetric(memberId, h, w, hr, bf);
+        printResult(memberService.addHealthMetric(memberId, h, w, hr, bf), "Health metric added successfully!", null);
     }
 
     private static void bookPt(int memberId) {
+        System.out.print("Find the earliest free slots instead of entering a time? (y/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            bookPtFromSuggestions(memberId);
+            return;
+        }
+
         System.out.print("Trainer ID: ");
         int trainerId = readInt();
         System.out.print("Room ID: ");
@@ -391,7 +479,43 @@ public class App {
         String start = scanner.nextLine();
         System.out.print("End (YYYY-MM-DD HH:MM:SS): ");
         String end = scanner.nextLine();
-        memberService.schedulePtSession(memberId, trainerId, roomId, start, end);
+        printBooking("PT session booked successfully!", "Cannot book session",
+            memberService.schedulePtSession(memberId, trainerId, roomId, start, end));
+    }
+
+    private static void bookPtFromSuggestions(int memberId) {
+        System.out.print("Trainer ID (blank for any): ");
+        Integer trainerId = readOptionalInt();
+        System.out.print("Room ID (blank for any): ");
+        Integer roomId = readOptionalInt();
+        System.out.print("Session length in minutes: ");
+        int minutes = readInt();
+        System.out.print("Search from date (YYYY-MM-DD or blank for now): ");
+        LocalDate fromDate = readOptionalDate();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = fromDate == null || fromDate.atStartOfDay().isBefore(now) ? now : fromDate.atStartOfDay();
+        List<PtSlot> slots = memberService.findPtSlots(memberId, trainerId, roomId, Duration.ofMinutes(minutes),
+            from, from.plusDays(SLOT_SEARCH_DAYS), SLOT_SUGGESTIONS);
+        if (slots.isEmpty()) {
+            System.out.println("No free slots found in the next " + SLOT_SEARCH_DAYS + " days.");
+            return;
+        }
+
+        System.out.println("Earliest free slots:");
+        for (int i = 0; i < slots.size(); i++) {
+            System.out.println("  [" + (i + 1) + "] " + ConsoleRenderer.ptSlot(slots.get(i)));
+        }
+        System.out.print("Slot to book (0 to cancel): ");
+        int choice = readInt();
+        if (choice < 1 || choice > slots.size()) {
+            return;
+        }
+
+        PtSlot slot = slots.get(choice - 1);
+        printBooking("PT session booked successfully!", "Cannot book session",
+            memberService.schedulePtSession(memberId, slot.trainerId(), slot.roomId(),
+                Timestamp.valueOf(slot.start()).toString(), Timestamp.valueOf(slot.end()).toString()));
     }
 
     private static void reschedulePt(int memberId) {
@@ -405,22 +529,72 @@ public class App {
         String start = scanner.nextLine();
         System.out.print("End (YYYY-MM-DD HH:MM:SS): ");
         String end = scanner.nextLine();
-        memberService.reschedulePtSession(sessionId, memberId, trainer, room, start, end);
+        PtBookingResult result = memberService.reschedulePtSession(sessionId, memberId, trainer, room, start, end);
+        if (result.status() == PtBookingResult.Status.NOT_FOUND) {
+            System.out.println("No PT session found with ID: " + sessionId);
+        }
+        printBooking("PT session rescheduled successfully!", "Cannot reschedule", result);
+    }
+
+    private static void showHealthHistory(int memberId) {
+        System.out.print("From date (YYYY-MM-DD or blank): ");
+        LocalDate from = readOptionalDate();
+        System.out.print("To date, inclusive (YYYY-MM-DD or blank): ");
+        LocalDate to = readOptionalDate();
+        LocalDateTime fromTime = from == null ? null : from.atStartOfDay();
+        LocalDateTime toTime = to == null ? null : to.plusDays(1).atStartOfDay();
+
+        // Rows are printed as they arrive rather than collected first
+        System.out.println("Health history for member ID: " + memberId);
+        long count = memberService.forEachHealthMetric(memberId, fromTime, toTime,
+            metric -> System.out.println(ConsoleRenderer.healthMetric(metric)));
+        if (count == 0) {
+            System.out.println("No health metrics found for member ID: " + memberId);
+        }
+    }
+
+    private static void showPtSessions(int memberId) {
+        printList(memberService.getPtSessions(memberId),
+            "PT sessions for member ID: " + memberId,
+            "No PT sessions found for member ID: " + memberId,
+            ConsoleRenderer::ptSessionForMember);
     }
 
     private static void cancelPt() {
         System.out.print("Session ID: ");
         int id = readInt();
-        memberService.cancelPtSession(id);
+        printResult(memberService.cancelPtSession(id), "PT session status updated successfully!", "No PT session found with ID: " + id);
     }
 
     private static void registerForClass(int memberId) {
+        printList(memberService.getUpcomingClasses(), "\nUpcoming Classes:", "No upcoming classes.", ConsoleRenderer::upcomingClass);
         System.out.print("Class ID: ");
         int id = readInt();
-        memberService.registerForClass(memberId, id);
+        switch (memberService.registerForClass(memberId, id)) {
+            case REGISTERED -> System.out.println("Member registered for group fitness class!");
+            case DUPLICATE -> System.out.println("Member is already registered for this class.");
+            case FULL -> System.out.println("Cannot register: class is already full.");
+            case NOT_FOUND -> System.out.println("No class found with ID: " + id);
+            case NOT_SCHEDULED -> System.out.println("Cannot register: class is no longer scheduled.");
+            default -> { }
+        }
+    }
+
+    private static void showClassRegistrations(int memberId) {
+        printList(memberService.getClassRegistrations(memberId),
+            "Class registrations for member ID: " + memberId,
+            "No class registrations found for member ID: " + memberId,
+            ConsoleRenderer::classRegistration);
     }
 
     // Trainer Action Methods
+    private static void showAvailability(int trainerId) {
+        printList(trainerService.getAvailability(trainerId),
+            "Availability for trainer ID: " + trainerId,
+            "No availability found for trainer ID: " + trainerId,
+            ConsoleRenderer::availability);
+    }
+
     private static void addTrainerAvailability(int trainerId) {
         System.out.print("Start (YYYY-MM-DD HH:MM:SS): ");
         String start = scanner.nextLine();
@@ -428,16 +602,136 @@ public class App {
         String end = scanner.nextLine();
         System.out.print("Recurring weekly? (true / false): ");
         boolean recurring = Boolean.parseBoolean(scanner.nextLine());
-        trainerService.addAvailability(trainerId, start, end, recurring);
+
+        AvailabilityResult result = trainerService.addAvailability(trainerId, start, end, recurring);
+        if (result.isOverlap()) {
+            System.out.println("Cannot add availability: Overlapping availability already exists.");
+            for (TrainerAvailability slot : result.overlapping()) {
+                System.out.println("  " + ConsoleRenderer.availability(slot));
+            }
+        } else {
+            printResult(result.writeResult(), "Trainer availability added successfully!", null);
+        }
     }
 
     private static void removeTrainerAvailability() {
         System.out.print("Availability ID: ");
         int id = readInt();
-        trainerService.removeAvailability(id);
+        printResult(trainerService.removeAvailability(id), "Trainer availability deleted successfully!",
+            "No availability found with ID: " + id);
+    }
+
+    private static void showSchedule(int trainerId) {
+        TrainerSchedule schedule = trainerService.getSchedule(trainerId);
+
+        System.out.println("Schedule for trainer ID: " + trainerId);
+
+        System.out.println("Personal Training Sessions:");
+        if (schedule.ptSessions().isEmpty()) {
+            System.out.println("  (none)");
+        } else {
+            for (PtSession s : schedule.ptSessions()) {
+                System.out.println("  " + ConsoleRenderer.ptSessionForTrainer(s));
+            }
+        }
+
+        System.out.println("Group Classes:");
+        if (schedule.classes().isEmpty()) {
+            System.out.println("  (none)");
+        } else {
+            for (GroupClass c : schedule.classes()) {
+                System.out.println("  " + ConsoleRenderer.trainerClass(c));
+            }
+        }
+    }
+
+    private static void lookupMemberByName(String name) {
+        List<MemberProfile> profiles = trainerService.lookupMemberByName(name);
+        if (profiles.isEmpty()) {
+            System.out.println("No members found with full name: " + name);
+
+            List<Member> suggestions = trainerService.suggestMembers(name, 5);
+            if (!suggestions.isEmpty()) {
+                System.out.println("Did you mean:");
+                for (Member m : suggestions) {
+                    System.out.println("  " + ConsoleRenderer.memberSummary(m));
+                }
+            }
+            return;
+        }
+
+        for (MemberProfile profile : profiles) {
+            System.out.println("--------------------------------------------------");
+            System.out.println("Member: " + ConsoleRenderer.memberSummary(profile.member()));
+
+            // Fitness goals (read-only)
+            if (profile.goals().isEmpty()) {
+                System.out.println("  Fitness goals: none");
+            } else {
+                System.out.println("  Fitness goals:");
+                for (FitnessGoal g : profile.goals()) {
+                    System.out.println("    " + ConsoleRenderer.fitnessGoal(g));
+                }
+            }
+
+            // Latest health metric (read-only)
+            if (profile.latestMetric() == null) {
+                System.out.println("  Latest health metric: none");
+            } else {
+                System.out.println("  Latest health metric:");
+                System.out.println("    " + ConsoleRenderer.healthMetric(profile.latestMetric()));
+            }
+        }
     }
 
     // Admin Action Methods
+    private static void importMembers() {
+        System.out.println("CSV columns (with header): first_name,last_name,dob,gender,email,phone");
+        System.out.print("Path to CSV file: ");
+        String path = scanner.nextLine().trim();
+
+        adminService.importMembers(path).ifPresent(result -> {
+            System.out.println("Rows read: " + result.rowsRead() + ", imported: " + result.rowsImported() +
+                ", rejected: " + result.errors().size());
+            System.out.println(String.format("Elapsed: %d ms (%.0f rows/s)", result.elapsedMillis(), result.rowsPerSecond()));
+
+            int shown = Math.min(result.errors().size(), 20);
+            for (MemberImportResult.RowError error : result.errors().subList(0, shown)) {
+                System.out.println("  Line " + error.line() + " (" + error.email() + "): " + error.reason());
+            }
+            if (result.errors().size() > shown) {
+                System.out.println("  ... and " + (result.errors().size() - shown) + " more rejected rows");
+            }
+        });
+    }
+
+    private static void showAllRooms() {
+        printPages(after -> adminService.getRoomsPage(after, PAGE_SIZE), "\nRooms:", "No rooms found.",
+            ConsoleRenderer::room);
+    }
+
+    private static void showEquipment() {
+        printPages(after -> adminService.getEquipmentPage(after, PAGE_SIZE), "\nEquipment:", "No equipment found.",
+            ConsoleRenderer::equipment);
+    }
+
+    private static void showOpenEquipmentIssues() {
+        printList(adminService.getOpenEquipmentIssues(), "\nOpen Equipment Issues:", "No open equipment issues.",
+            ConsoleRenderer::equipmentIssue);
+    }
+
+    private static void showIssuesForEquipment(int equipmentId) {
+        printList(adminService.getIssuesForEquipment(equipmentId),
+            "\nIssues for equipment " + equipmentId + ":",
+            "No issues found for equipment " + equipmentId,
+            ConsoleRenderer::equipmentIssue);
+    }
+
+    private static void showAllClasses() {
+        printPages(after -> adminService.getClassesPage(after, PAGE_SIZE), "\nGroup Fitness Classes:",
+            "No classes found.", ConsoleRenderer::groupClass);
+    }
+
     private static void addGroupClass() {
         System.out.print("Class name: ");
         String name = scanner.nextLine();
@@ -449,7 +743,8 @@ public class App {
         String start = scanner.nextLine();
         System.out.print("Capacity: ");
         int cap = readInt();
-        adminService.addGroupClass(name, trainer, room, start, cap);
+        printScheduling("Group fitness class added successfully!", "Cannot schedule class",
+            adminService.addGroupClass(name, trainer, room, start, cap));
     }
 
     private static void updateGroupClass() {
@@ -465,10 +760,119 @@ public class App {
         String start = scanner.nextLine();
         System.out.print("Capacity: ");
         int cap = readInt();
-        adminService.updateGroupClass(id, name, trainer, room, start, cap);
+        ClassScheduleResult result = adminService.updateGroupClass(id, name, trainer, room, start, cap);
+        if (result == ClassScheduleResult.NOT_FOUND) {
+            System.out.println("No group fitness class found with ID: " + id);
+        }
+        printScheduling("Group fitness class updated successfully!", "Cannot reschedule class", result);
+    }
+
+    private static void showRepositoryMetrics() {
+        List<RepositoryMetrics.MethodStats> methods = RepositoryMetrics.getMethodStats();
+        if (methods.isEmpty()) {
+            System.out.println("No repository calls recorded yet.");
+            return;
+        }
+
+        System.out.println("\nRepository Calls (since startup or the last reset):");
+        System.out.println(ConsoleRenderer.repositoryMethodHeader());
+        for (RepositoryMetrics.MethodStats method : methods) {
+            System.out.println(ConsoleRenderer.repositoryMethod(method));
+        }
+    }
+
+    private static void showFanOutTimings() {
+        List<FanOut.BranchStats> branches = FanOut.getBranchStats();
+        if (branches.isEmpty()) {
+            System.out.println("No parallel queries recorded yet.");
+            return;
+        }
+
+        System.out.println("\nParallel Query Branches (since startup or the last reset):");
+        System.out.println(ConsoleRenderer.fanOutBranchHeader());
+        for (FanOut.BranchStats branch : branches) {
+            System.out.println(ConsoleRenderer.fanOutBranch(branch));
+        }
+    }
+
+    private static void showPoolAndCacheStats() {
+        System.out.println("\n" + DatabaseConnection.getPoolStats());
+        System.out.println(SlowQueryLog.getStats());
+        System.out.println(String.format("Member cache: %d members, %d KB, hit ratio %.1f%%, %d evictions",
+            memberCache.size(), memberCache.getUsedBytes() / 1024, memberCache.getHitRatio() * 100, memberCache.getEvictions()));
+        System.out.println(String.format("Room and trainer cache: %d hits, %d misses, hit ratio %.1f%%",
+            referenceData.getHits(), referenceData.getMisses(), referenceData.getHitRatio() * 100));
+        System.out.println(String.format("Trainer availability cache: hit ratio %.1f%%", availabilityEngine.getHitRatio() * 100));
+        System.out.println("PT schedule index: " + scheduleIndex.size() + " upcoming sessions");
     }
 
     // Utilities
+    // Errors are not reported here; the repositories have already printed them
+    private static void printResult(WriteResult result, String savedMessage, String notFoundMessage) {
+        if (result == WriteResult.SAVED) {
+            System.out.println(savedMessage);
+        } else if (result == WriteResult.NOT_FOUND && notFoundMessage != null) {
+            System.out.println(notFoundMessage);
+        }
+    }
+
+    private static void printBooking(String bookedMessage, String action, PtBookingResult result) {
+        switch (result.status()) {
+            case BOOKED -> System.out.println(bookedMessage);
+            case MEMBER_CONFLICT -> System.out.println(action + ": Member already has a session in this time range.");
+            case TRAINER_CONFLICT -> System.out.println(action + ": Trainer already has a session in this time range.");
+            case ROOM_CONFLICT -> System.out.println(action + ": Room is already booked in this time range.");
+            default -> { }
+        }
+    }
+
+    private static void printScheduling(String scheduledMessage, String action, ClassScheduleResult result) {
+        switch (result) {
+            case SCHEDULED -> System.out.println(scheduledMessage);
+            case TRAINER_CONFLICT -> System.out.println(action + ": Trainer is already booked in this time range.");
+            case ROOM_CONFLICT -> System.out.println(action + ": Room is already booked in this time range.");
+            case CAPACITY_BELOW_SEATS_TAKEN ->
+                System.out.println(action + ": More members have already registered than the new capacity allows.");
+            default -> { }
+        }
+    }
+
+    private static <T> void printList(List<T> items, String header, String emptyMessage, Function<T, String> renderer) {
+        if (items.isEmpty()) {
+            System.out.println(emptyMessage);
+            return;
+        }
+
+        System.out.println(header);
+        for (T item : items) {
+            System.out.println(renderer.apply(item));
+        }
+    }
+
+    private static <T> void printPages(Function<PageCursor, Page<T>> fetch, String header, String emptyMessage,
+                                       Function<T, String> renderer) {
+        Page<T> page = fetch.apply(null);
+        if (page.items().isEmpty()) {
+            System.out.println(emptyMessage);
+            return;
+        }
+
+        System.out.println(header);
+        while (true) {
+            for (T item : page.items()) {
+                System.out.println(renderer.apply(item));
+            }
+            if (!page.hasNext()) {
+                return;
+            }
+            System.out.print("-- [Enter] next page, [q] stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            page = fetch.apply(page.next());
+        }
+    }
+
     private static int readInt() {
         while (true) {
             try {
@@ -490,4 +894,26 @@ public class App {
             }
         }
     }
+
+    private static Integer readOptionalInt() {
+        while (true) {
+            try {
+                String line = scanner.nextLine();
+                return line.isBlank() ? null : Integer.valueOf(line.trim());
+            } catch (Exception e) {
+                System.out.print("Invalid input. Please enter a valid integer number or leave blank: ");
+            }
+        }
+    }
+
+    private static LocalDate readOptionalDate() {
+        while (true) {
+            try {
+                String line = scanner.nextLine();
+                return line.isBlank() ? null : LocalDate.parse(line.trim());
+            } catch (Exception e) {
+                System.out.print("Invalid input. Please enter a date as YYYY-MM-DD or leave blank: ");
+            }
+        }
+    }
 }
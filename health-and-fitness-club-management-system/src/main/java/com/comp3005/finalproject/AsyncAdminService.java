@@ -0,0 +1,229 @@
+package com.comp3005.finalproject;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of AdminService. Each call runs the matching AdminService method
+ * on the ServiceExecutor.
+ */
+public class AsyncAdminService {
+    private final AdminService adminService;
+    private final ServiceExecutor executor;
+
+    public AsyncAdminService(AdminService adminService, ServiceExecutor executor) {
+        this.adminService = adminService;
+        this.executor = executor;
+    }
+
+    /**
+     * Retrieves all rooms in the facility.
+     *
+     * @return the rooms
+     */
+    public CompletableFuture<List<Room>> getAllRooms() {
+        return executor.submit(adminService::getAllRooms);
+    }
+
+    /**
+     * Retrieves one page of rooms.
+     *
+     * @param after    the cursor from the previous page, or null for the first page
+     * @param pageSize the maximum number of rooms on the page
+     * @return         the page of rooms
+     */
+    public CompletableFuture<Page<Room>> getRoomsPage(PageCursor after, int pageSize) {
+        return executor.submit(() -> adminService.getRoomsPage(after, pageSize));
+    }
+
+    /**
+     * Adds a room.
+     *
+     * @param name     the room name
+     * @param capacity the room capacity
+     * @return         the result
+     */
+    public CompletableFuture<WriteResult> addRoom(String name, int capacity) {
+        return executor.submit(() -> adminService.addRoom(name, capacity));
+    }
+
+    /**
+     * Updates the name of a room.
+     *
+     * @param roomId  the room ID
+     * @param newName the new name of the room
+     * @return        the result
+     */
+    public CompletableFuture<WriteResult> updateRoomName(int roomId, String newName) {
+        return executor.submit(() -> adminService.updateRoomName(roomId, newName));
+    }
+
+    /**
+     * Updates the room capacity.
+     *
+     * @param roomId      the room ID
+     * @param newCapacity the new capacity of the room
+     * @return            the result
+     */
+    public CompletableFuture<WriteResult> updateRoomCapacity(int roomId, int newCapacity) {
+        return executor.submit(() -> adminService.updateRoomCapacity(roomId, newCapacity));
+    }
+
+    /**
+     * Retrieves all equipment items.
+     *
+     * @return the equipment items
+     */
+    public CompletableFuture<List<Equipment>> getEquipment() {
+        return executor.submit(adminService::getEquipment);
+    }
+
+    /**
+     * Retrieves one page of equipment items.
+     *
+     * @param after    the cursor from the previous page, or null for the first page
+     * @param pageSize the maximum number of equipment items on the page
+     * @return         the page of equipment items
+     */
+    public CompletableFuture<Page<Equipment>> getEquipmentPage(PageCursor after, int pageSize) {
+        return executor.submit(() -> adminService.getEquipmentPage(after, pageSize));
+    }
+
+    /**
+     * Adds a new equipment item.
+     *
+     * @param roomId the room ID
+     * @param name   the equipment name
+     * @param type   the equipment type
+     * @return       the result
+     */
+    public CompletableFuture<WriteResult> addEquipment(Integer roomId, String name, String type) {
+        return executor.submit(() -> adminService.addEquipment(roomId, name, type));
+    }
+
+    /**
+     * Updates an equipment's operational status.
+     *
+     * @param equipmentId the equipment ID
+     * @param status      the equipment's operational status
+     * @return            the result
+     */
+    public CompletableFuture<WriteResult> updateEquipmentStatus(int equipmentId, String status) {
+        return executor.submit(() -> adminService.updateEquipmentStatus(equipmentId, status));
+    }
+
+    /**
+     * Records a new equipment issue.
+     *
+     * @param equipmentId the equipment ID
+     * @param adminId     the admin ID reporting the issue
+     * @param description a description of the issue
+     * @return            the result
+     */
+    public CompletableFuture<WriteResult> logEquipmentIssue(int equipmentId, int adminId, String description) {
+        return executor.submit(() -> adminService.logEquipmentIssue(equipmentId, adminId, description));
+    }
+
+    /**
+     * Updates the status of an equipment issue.
+     *
+     * @param issueId    the issue ID
+     * @param status     the new status (Open, InProgress, Resolved)
+     * @param resolvedAt the timestamp of resolution (YYYY-MM-DD HH:MM:SS), or null if unresolved
+     * @return           the result
+     */
+    public CompletableFuture<WriteResult> updateEquipmentIssueStatus(int issueId, String status, String resolvedAt) {
+        return executor.submit(() -> adminService.updateEquipmentIssueStatus(issueId, status, resolvedAt));
+    }
+
+    /**
+     * Retrieves all open equipment issues.
+     *
+     * @return the open equipment issues, most recent first
+     */
+    public CompletableFuture<List<EquipmentIssue>> getOpenEquipmentIssues() {
+        return executor.submit(adminService::getOpenEquipmentIssues);
+    }
+
+    /**
+     * Retrieves all issues related to a specific equipment.
+     *
+     * @param equipmentId the equipment ID
+     * @return            the equipment's issues, most recent first
+     */
+    public CompletableFuture<List<EquipmentIssue>> getIssuesForEquipment(int equipmentId) {
+        return executor.submit(() -> adminService.getIssuesForEquipment(equipmentId));
+    }
+
+    /**
+     * Retrieves all group fitness classes.
+     *
+     * @return the group fitness classes
+     */
+    public CompletableFuture<List<GroupClass>> getAllClasses() {
+        return executor.submit(adminService::getAllClasses);
+    }
+
+    /**
+     * Retrieves one page of group fitness classes, ordered by start time.
+     *
+     * @param after    the cursor from the previous page, or null for the first page
+     * @param pageSize the maximum number of classes on the page
+     * @return         the page of group fitness classes
+     */
+    public CompletableFuture<Page<GroupClass>> getClassesPage(PageCursor after, int pageSize) {
+        return executor.submit(() -> adminService.getClassesPage(after, pageSize));
+    }
+
+    /**
+     * Adds a new group fitness class.
+     *
+     * @param className the class name
+     * @param trainerId the trainer's ID
+     * @param roomId    the room ID
+     * @param startTime the start time (YYYY-MM-DD HH:MM:SS)
+     * @param capacity  the class capacity
+     * @return          the result, including the resource that conflicted if any
+     */
+    public CompletableFuture<ClassScheduleResult> addGroupClass(String className, int trainerId, int roomId, String startTime,
+                                                                int capacity) {
+        return executor.submit(() -> adminService.addGroupClass(className, trainerId, roomId, startTime, capacity));
+    }
+
+    /**
+     * Updates an existing group fitness class.
+     *
+     * @param classId   the group fitness class ID
+     * @param className the group fitness class name
+     * @param trainerId the trainer's ID
+     * @param roomId    the room ID
+     * @param startTime the start time (YYYY-MM-DD HH:MM:SS)
+     * @param capacity  the class capacity
+     * @return          the result, including the resource that conflicted if any
+     */
+    public CompletableFuture<ClassScheduleResult> updateGroupClass(int classId, String className, int trainerId, int roomId,
+                                                                   String startTime, int capacity) {
+        return executor.submit(() -> adminService.updateGroupClass(classId, className, trainerId, roomId, startTime, capacity));
+    }
+
+    /**
+     * Cancels a group fitness class.
+     *
+     * @param classId the group fitness class ID
+     * @return        the result
+     */
+    public CompletableFuture<WriteResult> cancelGroupClass(int classId) {
+        return executor.submit(() -> adminService.cancelGroupClass(classId));
+    }
+
+    /**
+     * Imports members in bulk from a CSV file.
+     *
+     * @param csvPath the path to a CSV file with the header first_name,last_name,dob,gender,email,phone
+     * @return        the import result, or empty if the file could not be imported
+     */
+    public CompletableFuture<Optional<MemberImportResult>> importMembers(String csvPath) {
+        return executor.submit(() -> adminService.importMembers(csvPath));
+    }
+}
@@ -0,0 +1,241 @@
+package com.comp3005.finalproject;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking variant of MemberService for serving many members at once. Each call runs
+ * the matching MemberService method on the ServiceExecutor.
+ */
+public class AsyncMemberService {
+    private final MemberService memberService;
+    private final ServiceExecutor executor;
+
+    public AsyncMemberService(MemberService memberService, ServiceExecutor executor) {
+        this.memberService = memberService;
+        this.executor = executor;
+    }
+
+    /**
+     * Registers a new member.
+     *
+     * @param firstName the member's first name
+     * @param lastName  the member's last name
+     * @param dob       the member's date of birth (YYYY-MM-DD)
+     * @param gender    the member's gender
+     * @param email     the member's email address
+     * @param phone     the member's phone number
+     * @return          the result
+     */
+    public CompletableFuture<WriteResult> registerMember(String firstName, String lastName, String dob, String gender,
+                                                         String email, String phone) {
+        return executor.submit(() -> memberService.registerMember(firstName, lastName, dob, gender, email, phone));
+    }
+
+    /**
+     * Retrieves a member's profile details.
+     *
+     * @param memberId the member's ID
+     * @return         the member, or empty if none exist
+     */
+    public CompletableFuture<Optional<Member>> getProfile(int memberId) {
+        return executor.submit(() -> memberService.getProfile(memberId));
+    }
+
+    /**
+     * Updates a member's profile details.
+     *
+     * @param memberId  the member's ID
+     * @param firstName the member's first name
+     * @param lastName  the member's last name
+     * @param dob       the member's date of birth (YYYY-MM-DD)
+     * @param gender    the member's gender
+     * @param email     the member's email address
+     * @param phone     the member's phone number
+     * @return          the result
+     */
+    public CompletableFuture<WriteResult> updateProfile(int memberId, String firstName, String lastName, String dob,
+                                                        String gender, String email, String phone) {
+        return executor.submit(() -> memberService.updateProfile(memberId, firstName, lastName, dob, gender, email, phone));
+    }
+
+    /**
+     * Adds a new fitness goal for a member.
+     *
+     * @param memberId    the member's ID
+     * @param goalType    the type of fitness goal
+     * @param targetValue the numeric target value
+     * @param unit        the unit of the target value
+     * @param targetDate  the target completion date (YYYY-MM-DD), or null if not set
+     * @return            the result
+     */
+    public CompletableFuture<WriteResult> addFitnessGoal(int memberId, String goalType, Double targetValue, String unit,
+                                                         String targetDate) {
+        return executor.submit(() -> memberService.addFitnessGoal(memberId, goalType, targetValue, unit, targetDate));
+    }
+
+    /**
+     * Updates the status of an existing fitness goal.
+     *
+     * @param goalId the goal ID
+     * @param status the new status (Active, Completed, Cancelled)
+     * @return       the result
+     */
+    public CompletableFuture<WriteResult> updateFitnessGoalStatus(int goalId, String status) {
+        return executor.submit(() -> memberService.updateFitnessGoalStatus(goalId, status));
+    }
+
+    /**
+     * Adds a new health metric entry for a member.
+     *
+     * @param memberId  the member's ID
+     * @param height    the member's height
+     * @param weight    the member's weight
+     * @param heartRate the member's heart rate
+     * @param bodyFat   the member's body fat percentage
+     * @return          the result
+     */
+    public CompletableFuture<WriteResult> addHealthMetric(int memberId, double height, double weight, int heartRate,
+                                                          double bodyFat) {
+        return executor.submit(() -> memberService.addHealthMetric(memberId, height, weight, heartRate, bodyFat));
+    }
+
+    /**
+     * Queues health metric readings synced from members' wearables, to be written in batches.
+     *
+     * @param readings the readings, each of which may leave out any measurement
+     * @return         the number of readings queued
+     */
+    public CompletableFuture<Integer> syncHealthMetrics(List<HealthMetricReading> readings) {
+        return executor.submit(() -> memberService.syncHealthMetrics(readings));
+    }
+
+    /**
+     * Retrieves all health metric records for a member.
+     *
+     * @param memberId the member's ID
+     * @return         the member's health metrics, most recent first
+     */
+    public CompletableFuture<List<HealthMetric>> getHealthHistory(int memberId) {
+        return executor.submit(() -> memberService.getHealthHistory(memberId));
+    }
+
+    /**
+     * Streams a member's health metrics, most recent first. The consumer is called on the
+     * thread running the query, so it must not block for long.
+     *
+     * @param memberId the member's ID
+     * @param from     the earliest measure time to include, or null for no lower bound
+     * @param to       the measure time to stop before, or null for no upper bound
+     * @param consumer receives each health metric in order
+     * @return         the number of health metrics delivered, or -1 if the query failed
+     */
+    public CompletableFuture<Long> forEachHealthMetric(int memberId, LocalDateTime from, LocalDateTime to,
+                                                       Consumer<HealthMetric> consumer) {
+        return executor.submit(() -> memberService.forEachHealthMetric(memberId, from, to, consumer));
+    }
+
+    /**
+     * Schedules a personal training session for a member.
+     *
+     * @param memberId     the member's ID
+     * @param trainerId    the trainer's ID
+     * @param roomId       the room ID
+     * @param sessionStart the start time (YYYY-MM-DD HH:MM:SS)
+     * @param sessionEnd   the end time (YYYY-MM-DD HH:MM:SS)
+     * @return             the booking result
+     */
+    public CompletableFuture<PtBookingResult> schedulePtSession(int memberId, int trainerId, int roomId, String sessionStart,
+                                                                String sessionEnd) {
+        return executor.submit(() -> memberService.schedulePtSession(memberId, trainerId, roomId, sessionStart, sessionEnd));
+    }
+
+    /**
+     * Finds the earliest times a member could book a personal training session.
+     *
+     * @param memberId  the member's ID
+     * @param trainerId the preferred trainer, or null for any trainer
+     * @param roomId    the preferred room, or null for any room
+     * @param duration  the session length
+     * @param from      the start of the search window
+     * @param to        the end of the search window
+     * @param limit     the maximum number of slots to return
+     * @return          the bookable slots, earliest first
+     */
+    public CompletableFuture<List<PtSlot>> findPtSlots(int memberId, Integer trainerId, Integer roomId, Duration duration,
+                                                       LocalDateTime from, LocalDateTime to, int limit) {
+        return executor.submit(() -> memberService.findPtSlots(memberId, trainerId, roomId, duration, from, to, limit));
+    }
+
+    /**
+     * Reschedules an existing personal training session.
+     *
+     * @param sessionId    the session ID
+     * @param memberId     the member's ID
+     * @param trainerId    the trainer's ID
+     * @param roomId       the room ID
+     * @param sessionStart the start time (YYYY-MM-DD HH:MM:SS)
+     * @param sessionEnd   the end time (YYYY-MM-DD HH:MM:SS)
+     * @return             the booking result
+     */
+    public CompletableFuture<PtBookingResult> reschedulePtSession(int sessionId, int memberId, int trainerId, int roomId,
+                                                                  String sessionStart, String sessionEnd) {
+        return executor.submit(() ->
+            memberService.reschedulePtSession(sessionId, memberId, trainerId, roomId, sessionStart, sessionEnd));
+    }
+
+    /**
+     * Cancels a personal training session.
+     *
+     * @param sessionId the session ID
+     * @return          the result
+     */
+    public CompletableFuture<WriteResult> cancelPtSession(int sessionId) {
+        return executor.submit(() -> memberService.cancelPtSession(sessionId));
+    }
+
+    /**
+     * Retrieves all PT sessions for a member.
+     *
+     * @param memberId the member's ID
+     * @return         the member's PT sessions
+     */
+    public CompletableFuture<List<PtSession>> getPtSessions(int memberId) {
+        return executor.submit(() -> memberService.getPtSessions(memberId));
+    }
+
+    /**
+     * Retrieves the scheduled group classes that have not started yet, with their
+     * remaining seats.
+     *
+     * @return the upcoming classes in start time order
+     */
+    public CompletableFuture<List<GroupClass>> getUpcomingClasses() {
+        return executor.submit(memberService::getUpcomingClasses);
+    }
+
+    /**
+     * Registers a member for a group class.
+     *
+     * @param memberId the member's ID
+     * @param classId  the class ID
+     * @return         the registration result
+     */
+    public CompletableFuture<RegistrationResult> registerForClass(int memberId, int classId) {
+        return executor.submit(() -> memberService.registerForClass(memberId, classId));
+    }
+
+    /**
+     * Retrieves all class registrations for a member.
+     *
+     * @param memberId the member's ID
+     * @return         the group fitness classes the member is registered for
+     */
+    public CompletableFuture<List<GroupClass>> getClassRegistrations(int memberId) {
+        return executor.submit(() -> memberService.getClassRegistrations(memberId));
+    }
+}
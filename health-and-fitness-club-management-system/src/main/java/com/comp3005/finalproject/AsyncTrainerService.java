@@ -0,0 +1,109 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of TrainerService. Each call runs the matching TrainerService
+ * method on the ServiceExecutor.
+ */
+public class AsyncTrainerService {
+    private final TrainerService trainerService;
+    private final ServiceExecutor executor;
+
+    public AsyncTrainerService(TrainerService trainerService, ServiceExecutor executor) {
+        this.trainerService = trainerService;
+        this.executor = executor;
+    }
+
+    /**
+     * Adds an availability time slot for a trainer, unless it overlaps an existing one.
+     *
+     * @param trainerId   the trainer's ID
+     * @param startTime   the start time (YYYY-MM-DD HH:MM:SS)
+     * @param endTime     the end time (YYYY-MM-DD HH:MM:SS)
+     * @param isRecurring true if this availability repeats, or false otherwise
+     * @return            the result of the add, including the overlapping time slots that prevented it
+     */
+    public CompletableFuture<AvailabilityResult> addAvailability(int trainerId, String startTime, String endTime,
+                                                                 boolean isRecurring) {
+        return executor.submit(() -> trainerService.addAvailability(trainerId, startTime, endTime, isRecurring));
+    }
+
+    /**
+     * Removes an availability time slot for a trainer.
+     *
+     * @param availabilityId the availability ID
+     * @return               the result
+     */
+    public CompletableFuture<WriteResult> removeAvailability(int availabilityId) {
+        return executor.submit(() -> trainerService.removeAvailability(availabilityId));
+    }
+
+    /**
+     * Checks whether a trainer is available, and not already booked, for a whole time range.
+     *
+     * @param trainerId the trainer's ID
+     * @param start     the start of the range
+     * @param end       the end of the range
+     * @return          true if the trainer is free throughout, or false otherwise
+     */
+    public CompletableFuture<Boolean> isAvailable(int trainerId, LocalDateTime start, LocalDateTime end) {
+        return executor.submit(() -> trainerService.isAvailable(trainerId, start, end));
+    }
+
+    /**
+     * Retrieves the times a trainer is available and not booked within a window.
+     *
+     * @param trainerId the trainer's ID
+     * @param from      the start of the window
+     * @param to        the end of the window
+     * @return          the free times in order, or empty if there are none
+     */
+    public CompletableFuture<List<TimeRange>> getFreeTimes(int trainerId, LocalDateTime from, LocalDateTime to) {
+        return executor.submit(() -> trainerService.getFreeTimes(trainerId, from, to));
+    }
+
+    /**
+     * Retrieves all availability windows for a trainer.
+     *
+     * @param trainerId the trainer's ID
+     * @return          the trainer's availability time slots
+     */
+    public CompletableFuture<List<TrainerAvailability>> getAvailability(int trainerId) {
+        return executor.submit(() -> trainerService.getAvailability(trainerId));
+    }
+
+    /**
+     * Retrieves the upcoming schedule for a trainer.
+     *
+     * @param trainerId the trainer's ID
+     * @return          the trainer's upcoming PT sessions and group classes
+     */
+    public CompletableFuture<TrainerSchedule> getSchedule(int trainerId) {
+        return executor.submit(() -> trainerService.getSchedule(trainerId));
+    }
+
+    /**
+     * Looks up members by their full name along with their fitness goals and latest
+     * health metric.
+     *
+     * @param name the member's full name
+     * @return     the profiles of every member with that name, or empty if none exist
+     */
+    public CompletableFuture<List<MemberProfile>> lookupMemberByName(String name) {
+        return executor.submit(() -> trainerService.lookupMemberByName(name));
+    }
+
+    /**
+     * Suggests members whose names start with or closely resemble the given name.
+     *
+     * @param name  the approximate member name
+     * @param limit the maximum number of suggestions
+     * @return      the suggested members, or empty if none exist
+     */
+    public CompletableFuture<List<Member>> suggestMembers(String name, int limit) {
+        return executor.submit(() -> trainerService.suggestMembers(name, limit));
+    }
+}
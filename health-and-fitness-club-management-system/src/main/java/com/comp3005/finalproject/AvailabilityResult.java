@@ -0,0 +1,28 @@
+package com.comp3005.finalproject;
+
+import java.util.List;
+
+/**
+ * The outcome of adding an availability time slot for a trainer.
+ *
+ * @param writeResult the result of saving the slot, or null if overlapping slots prevented it
+ * @param overlapping the existing slots the new one overlaps, or empty if it was saved
+ */
+public record AvailabilityResult(WriteResult writeResult, List<TrainerAvailability> overlapping) {
+    public static AvailabilityResult written(WriteResult writeResult) {
+        return new AvailabilityResult(writeResult, List.of());
+    }
+
+    public static AvailabilityResult overlapping(List<TrainerAvailability> overlapping) {
+        return new AvailabilityResult(null, List.copyOf(overlapping));
+    }
+
+    /**
+     * Returns whether the slot was rejected because it overlaps existing availability.
+     *
+     * @return true if overlapping slots prevented the add, or false otherwise
+     */
+    public boolean isOverlap() {
+        return !overlapping.isEmpty();
+    }
+}
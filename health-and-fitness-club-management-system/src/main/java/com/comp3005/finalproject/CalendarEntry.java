@@ -0,0 +1,30 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+
+/**
+ * Something that occupies a trainer and a room for a period: either a personal training
+ * session or a group fitness class.
+ *
+ * @param kind      whether the entry is a PT session or a group class
+ * @param id        the session or class ID
+ * @param trainerId the trainer's ID
+ * @param roomId    the room ID
+ * @param start     the start time
+ * @param end       the end time
+ */
+public record CalendarEntry(Kind kind, int id, int trainerId, int roomId, LocalDateTime start, LocalDateTime end) {
+    public enum Kind {
+        PT_SESSION,
+        GROUP_CLASS
+    }
+
+    /**
+     * Returns the time this entry occupies.
+     *
+     * @return the time range
+     */
+    public TimeRange range() {
+        return new TimeRange(start, end);
+    }
+}
@@ -0,0 +1,440 @@
+package com.comp3005.finalproject;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+/**
+ * Handles database operations on the combined trainer and room calendar, which spans
+ * both personal training sessions and group fitness classes.
+ *
+ * Every query overlaps tsrange(start, end) against the requested range. This matches the
+ * GiST indexes behind the pt_session exclusion constraints and the group_class calendar
+ * indexes (see DDL.sql), so a check touches only the rows near the requested time,
+ * however much history there is.
+ *
+ * Exclusion constraints cannot span two tables, so writers that put something on the
+ * calendar take lockResources() first and check findConflict() in the same transaction.
+ * Writers that cannot afford the extra round trips send LOCK_QUERY and CONFLICT_QUERY
+ * together with their own write instead.
+ *
+ * Given a schedule index, busy time lookups take PT sessions from it whenever it covers
+ * the requested range, and only query group classes.
+ */
+public class CalendarRepository {
+    // Advisory lock namespaces for pg_advisory_xact_lock(namespace, id)
+    private static final int TRAINER_LOCK = 1;
+    private static final int ROOM_LOCK = 2;
+
+    private static final String PT_SELECT =
+        "SELECT 'PT_SESSION' AS kind, pt_session_id AS id, trainer_id, room_id, session_start AS start_time, session_end AS end_time";
+    private static final String CLASS_SELECT =
+        "SELECT 'GROUP_CLASS' AS kind, class_id AS id, trainer_id, room_id, start_time, end_time";
+    private static final String PT_COLUMNS = PT_SELECT + " FROM pt_session ";
+    private static final String CLASS_COLUMNS = CLASS_SELECT + " FROM group_class ";
+    private static final String PT_ACTIVE_OVERLAPPING =
+        "status <> 'Cancelled' AND tsrange(session_start, session_end) && tsrange(?::timestamp, ?::timestamp) ";
+    private static final String CLASS_ACTIVE_OVERLAPPING =
+        "status <> 'Cancelled' AND tsrange(start_time, end_time) && tsrange(?::timestamp, ?::timestamp) ";
+
+    /**
+     * Takes the locks of lockResources(). Bind with setLockParameters(), so that writers
+     * can send it in the same round trip as the rest of their transaction.
+     */
+    static final String LOCK_QUERY =
+        "SELECT pg_advisory_xact_lock(" + TRAINER_LOCK + ", ?), pg_advisory_xact_lock(" + ROOM_LOCK + ", ?)";
+
+    /**
+     * The query behind findConflict(), returning at most one row of CalendarEntry columns
+     * plus a priority. Bind with setConflictParameters(), so that writers can use it as a
+     * CTE in front of their own insert or update.
+     *
+     * There is one branch per table and resource, so each can use its own index, and the
+     * priority column makes the pick deterministic when more than one branch finds a clash.
+     */
+    static final String CONFLICT_QUERY =
+        "(" + PT_SELECT + ", 1 AS priority FROM pt_session " +
+        "WHERE trainer_id = ? AND " + PT_ACTIVE_OVERLAPPING + "AND pt_session_id IS DISTINCT FROM ? LIMIT 1) " +
+        "UNION ALL " +
+        "(" + CLASS_SELECT + ", 2 AS priority FROM group_class " +
+        "WHERE trainer_id = ? AND " + CLASS_ACTIVE_OVERLAPPING + "AND class_id IS DISTINCT FROM ? LIMIT 1) " +
+        "UNION ALL " +
+        "(" + PT_SELECT + ", 3 AS priority FROM pt_session " +
+        "WHERE room_id = ? AND " + PT_ACTIVE_OVERLAPPING + "AND pt_session_id IS DISTINCT FROM ? LIMIT 1) " +
+        "UNION ALL " +
+        "(" + CLASS_SELECT + ", 4 AS priority FROM group_class " +
+        "WHERE room_id = ? AND " + CLASS_ACTIVE_OVERLAPPING + "AND class_id IS DISTINCT FROM ? LIMIT 1) " +
+        "UNION ALL " +
+        "(" + CLASS_SELECT + ", 5 AS priority FROM group_class " +
+        "WHERE class_id IN (SELECT class_id FROM class_registration WHERE member_id = ?) AND " +
+        CLASS_ACTIVE_OVERLAPPING + "AND class_id IS DISTINCT FROM ? LIMIT 1) " +
+        "ORDER BY priority LIMIT 1";
+
+    private final ScheduleIndex scheduleIndex;
+
+    public CalendarRepository() {
+        this(null);
+    }
+
+    /**
+     * Creates a repository that reads PT session busy times from an in-memory index. The
+     * index only sees sessions booked through this process, so a time it reports free can
+     * still be turned down when booked; bookings are always checked by the database.
+     *
+     * @param scheduleIndex the index to use, or null to always go to the database
+     */
+    public CalendarRepository(ScheduleIndex scheduleIndex) {
+        this.scheduleIndex = scheduleIndex;
+    }
+
+    /**
+     * Serializes calendar writes for a trainer and a room until the transaction ends.
+     * Locks are always taken trainer first, so two writers cannot deadlock.
+     *
+     * @param conn      a connection with autocommit off
+     * @param trainerId the trainer's ID
+     * @param roomId    the room ID
+     * @throws SQLException if the locks cannot be taken
+     */
+    public void lockResources(Connection conn, int trainerId, int roomId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(LOCK_QUERY)) {
+            setLockParameters(pstmt, 1, trainerId, roomId);
+            pstmt.executeQuery().close();
+        }
+    }
+
+    /**
+     * Binds the parameters of LOCK_QUERY.
+     *
+     * @param pstmt     the statement containing the query
+     * @param index     the index of the query's first parameter
+     * @param trainerId the trainer's ID
+     * @param roomId    the room ID
+     * @return          the index of the next parameter after the query's
+     * @throws SQLException if a parameter cannot be set
+     */
+    static int setLockParameters(PreparedStatement pstmt, int index, int trainerId, int roomId) throws SQLException {
+        pstmt.setInt(index, trainerId);
+        pstmt.setInt(index + 1, roomId);
+        return index + 2;
+    }
+
+    /**
+     * Finds a PT session or group class that would clash with the given trainer or room
+     * over a time range.
+     *
+     * @param conn             the connection to query on
+     * @param trainerId        the trainer's ID
+     * @param roomId           the room ID
+     * @param start            the start of the range
+     * @param end              the end of the range
+     * @param excludeSessionId a PT session to ignore, such as one being rescheduled, or null
+     * @param excludeClassId   a group class to ignore, such as one being updated, or null
+     * @return                 a clashing entry, preferring trainer clashes, or empty if none exist
+     * @throws SQLException if the query fails
+     */
+    public Optional<CalendarEntry> findConflict(Connection conn, int trainerId, int roomId, LocalDateTime start,
+                                                LocalDateTime end, Integer excludeSessionId, Integer excludeClassId)
+            throws SQLException {
+        return findConflict(conn, null, trainerId, roomId, start, end, excludeSessionId, excludeClassId);
+    }
+
+    /**
+     * Finds a PT session or group class that would clash with the given trainer or room
+     * over a time range, or a group class the given member is registered for. The member's
+     * own PT sessions are not checked here; the pt_session exclusion constraint covers them.
+     *
+     * @param conn             the connection to query on
+     * @param memberId         the member's ID, or null to skip the member's classes
+     * @param trainerId        the trainer's ID
+     * @param roomId           the room ID
+     * @param start            the start of the range
+     * @param end              the end of the range
+     * @param excludeSessionId a PT session to ignore, such as one being rescheduled, or null
+     * @param excludeClassId   a group class to ignore, such as one being updated, or null
+     * @return                 a clashing entry, preferring trainer clashes, then room clashes,
+     *                         then the member's classes, or empty if none exist
+     * @throws SQLException if the query fails
+     */
+    public Optional<CalendarEntry> findConflict(Connection conn, Integer memberId, int trainerId, int roomId,
+                                                LocalDateTime start, LocalDateTime end, Integer excludeSessionId,
+                                                Integer excludeClassId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CONFLICT_QUERY)) {
+            setConflictParameters(pstmt, 1, memberId, trainerId, roomId, start, end, excludeSessionId, excludeClassId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapEntry(rs));
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Binds the parameters of CONFLICT_QUERY. See findConflict() for their meaning.
+     *
+     * @param pstmt            the statement containing the query
+     * @param index            the index of the query's first parameter
+     * @param memberId         the member's ID, or null to skip the member's classes
+     * @param trainerId        the trainer's ID
+     * @param roomId           the room ID
+     * @param start            the start of the range
+     * @param end              the end of the range
+     * @param excludeSessionId a PT session to ignore, or null
+     * @param excludeClassId   a group class to ignore, or null
+     * @return                 the index of the next parameter after the query's
+     * @throws SQLException if a parameter cannot be set
+     */
+    static int setConflictParameters(PreparedStatement pstmt, int index, Integer memberId, int trainerId, int roomId,
+                                     LocalDateTime start, LocalDateTime end, Integer excludeSessionId,
+                                     Integer excludeClassId) throws SQLException {
+        // A null member ID matches no registrations, so the last branch finds nothing
+        Integer[] ids = {trainerId, trainerId, roomId, roomId, memberId};
+        Integer[] excludes = {excludeSessionId, excludeClassId, excludeSessionId, excludeClassId, excludeClassId};
+        for (int i = 0; i < 5; i++) {
+            setNullableInt(pstmt, index++, ids[i]);
+            pstmt.setTimestamp(index++, Timestamp.valueOf(start));
+            pstmt.setTimestamp(index++, Timestamp.valueOf(end));
+            setNullableInt(pstmt, index++, excludes[i]);
+        }
+        return index;
+    }
+
+    /**
+     * Finds a PT session or group class that would clash with the given trainer or room
+     * over a time range.
+     *
+     * @param trainerId the trainer's ID
+     * @param roomId    the room ID
+     * @param start     the start of the range
+     * @param end       the end of the range
+     * @return          a clashing entry, preferring trainer clashes, or empty if none exist
+     */
+    public Optional<CalendarEntry> findConflict(int trainerId, int roomId, LocalDateTime start, LocalDateTime end) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return findConflict(conn, trainerId, roomId, start, end, null, null);
+        } catch (SQLException e) {
+            System.out.println("Error checking calendar conflicts: ");
+            e.printStackTrace();
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Retrieves the times a trainer is booked, from both PT sessions and group classes,
+     * that overlap a time range.
+     *
+     * @param trainerId the trainer's ID
+     * @param from      the start of the range
+     * @param to        the end of the range
+     * @return          the busy times sorted by start time, or empty if none exist
+     */
+    public List<TimeRange> getTrainerBusyTimes(int trainerId, LocalDateTime from, LocalDateTime to) {
+        if (indexCovers(from)) {
+            return getTrainerBusyTimes(List.of(trainerId), from, to).getOrDefault(trainerId, new ArrayList<>());
+        }
+
+        List<TimeRange> busy = new ArrayList<>();
+        String sql =
+            PT_COLUMNS + "WHERE trainer_id = ? AND " + PT_ACTIVE_OVERLAPPING +
+            "UNION ALL " +
+            CLASS_COLUMNS + "WHERE trainer_id = ? AND " + CLASS_ACTIVE_OVERLAPPING +
+            "ORDER BY start_time, end_time";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < 2; i++) {
+                pstmt.setInt(3 * i + 1, trainerId);
+                pstmt.setTimestamp(3 * i + 2, Timestamp.valueOf(from));
+                pstmt.setTimestamp(3 * i + 3, Timestamp.valueOf(to));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    busy.add(mapEntry(rs).range());
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving trainer busy times: ");
+            e.printStackTrace();
+        }
+
+        return busy;
+    }
+
+    /**
+     * Retrieves the times each of several trainers is booked, from both PT sessions and
+     * group classes, that overlap a time range.
+     *
+     * @param trainerIds the trainers' IDs
+     * @param from       the start of the range
+     * @param to         the end of the range
+     * @return           the busy times of each trainer sorted by start time; trainers with none are absent
+     */
+    public Map<Integer, List<TimeRange>> getTrainerBusyTimes(Collection<Integer> trainerIds, LocalDateTime from,
+                                                             LocalDateTime to) {
+        if (indexCovers(from)) {
+            return addIndexedSessions(getClassBusyTimes("trainer_id", trainerIds, from, to), trainerIds,
+                trainerId -> scheduleIndex.getTrainerSessions(trainerId, from, to));
+        }
+
+        Map<Integer, List<TimeRange>> busy = new HashMap<>();
+        String sql =
+            PT_COLUMNS + "WHERE trainer_id = ANY(?) AND " + PT_ACTIVE_OVERLAPPING +
+            "UNION ALL " +
+            CLASS_COLUMNS + "WHERE trainer_id = ANY(?) AND " + CLASS_ACTIVE_OVERLAPPING +
+            "ORDER BY trainer_id, start_time, end_time";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Array ids = conn.createArrayOf("integer", trainerIds.toArray());
+            for (int i = 0; i < 2; i++) {
+                pstmt.setArray(3 * i + 1, ids);
+                pstmt.setTimestamp(3 * i + 2, Timestamp.valueOf(from));
+                pstmt.setTimestamp(3 * i + 3, Timestamp.valueOf(to));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    CalendarEntry entry = mapEntry(rs);
+                    busy.computeIfAbsent(entry.trainerId(), k -> new ArrayList<>()).add(entry.range());
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving trainer busy times: ");
+            e.printStackTrace();
+        }
+
+        return busy;
+    }
+
+    /**
+     * Retrieves the times each of several rooms is booked, from both PT sessions and
+     * group classes, that overlap a time range.
+     *
+     * @param roomIds the room IDs
+     * @param from    the start of the range
+     * @param to      the end of the range
+     * @return        the busy times of each room sorted by start time; rooms with none are absent
+     */
+    public Map<Integer, List<TimeRange>> getRoomBusyTimes(Collection<Integer> roomIds, LocalDateTime from, LocalDateTime to) {
+        if (indexCovers(from)) {
+            return addIndexedSessions(getClassBusyTimes("room_id", roomIds, from, to), roomIds,
+                roomId -> scheduleIndex.getRoomSessions(roomId, from, to));
+        }
+
+        Map<Integer, List<TimeRange>> busy = new HashMap<>();
+        String sql =
+            PT_COLUMNS + "WHERE room_id = ANY(?) AND " + PT_ACTIVE_OVERLAPPING +
+            "UNION ALL " +
+            CLASS_COLUMNS + "WHERE room_id = ANY(?) AND " + CLASS_ACTIVE_OVERLAPPING +
+            "ORDER BY room_id, start_time, end_time";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Array ids = conn.createArrayOf("integer", roomIds.toArray());
+            for (int i = 0; i < 2; i++) {
+                pstmt.setArray(3 * i + 1, ids);
+                pstmt.setTimestamp(3 * i + 2, Timestamp.valueOf(from));
+                pstmt.setTimestamp(3 * i + 3, Timestamp.valueOf(to));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    CalendarEntry entry = mapEntry(rs);
+                    busy.computeIfAbsent(entry.roomId(), k -> new ArrayList<>()).add(entry.range());
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving room busy times: ");
+            e.printStackTrace();
+        }
+
+        return busy;
+    }
+
+    private boolean indexCovers(LocalDateTime from) {
+        return scheduleIndex != null && scheduleIndex.covers(from);
+    }
+
+    /**
+     * Retrieves the times group classes keep each of several trainers or rooms busy.
+     *
+     * @param column the column the IDs are matched against, trainer_id or room_id
+     * @param ids    the trainer or room IDs
+     * @param from   the start of the range
+     * @param to     the end of the range
+     * @return       the busy times of each ID; IDs with none are absent
+     */
+    private Map<Integer, List<TimeRange>> getClassBusyTimes(String column, Collection<Integer> ids, LocalDateTime from,
+                                                           LocalDateTime to) {
+        Map<Integer, List<TimeRange>> busy = new HashMap<>();
+        String sql = CLASS_COLUMNS + "WHERE " + column + " = ANY(?) AND " + CLASS_ACTIVE_OVERLAPPING;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            pstmt.setTimestamp(2, Timestamp.valueOf(from));
+            pstmt.setTimestamp(3, Timestamp.valueOf(to));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    busy.computeIfAbsent(rs.getInt(column), k -> new ArrayList<>()).add(mapEntry(rs).range());
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving class busy times: ");
+            e.printStackTrace();
+        }
+
+        return busy;
+    }
+
+    /**
+     * Adds indexed PT sessions to class busy times and sorts each list by start time.
+     *
+     * @param busy     the class busy times, keyed by trainer or room ID
+     * @param ids      the trainer or room IDs
+     * @param sessions the indexed sessions of one ID
+     * @return         busy, with every list sorted by start time
+     */
+    private static Map<Integer, List<TimeRange>> addIndexedSessions(Map<Integer, List<TimeRange>> busy,
+                                                                    Collection<Integer> ids,
+                                                                    IntFunction<List<PtSession>> sessions) {
+        for (int id : ids) {
+            for (PtSession s : sessions.apply(id)) {
+                busy.computeIfAbsent(id, k -> new ArrayList<>()).add(new TimeRange(s.sessionStart(), s.sessionEnd()));
+            }
+        }
+        busy.values().forEach(ranges -> ranges.sort(TimeRange.BY_START));
+        return busy;
+    }
+
+    private static void setNullableInt(PreparedStatement pstmt, int index, Integer value) throws SQLException {
+        if (value != null) {
+            pstmt.setInt(index, value);
+        } else {
+            pstmt.setNull(index, Types.INTEGER);
+        }
+    }
+
+    static CalendarEntry mapEntry(ResultSet rs) throws SQLException {
+        return new CalendarEntry(
+            CalendarEntry.Kind.valueOf(rs.getString("kind")),
+            rs.getInt("id"),
+            rs.getInt("trainer_id"),
+            rs.getInt("room_id"),
+            rs.getObject("start_time", LocalDateTime.class),
+            rs.getObject("end_time", LocalDateTime.class));
+    }
+}
@@ -9,41 +9,34 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.IntConsumer;
 
 /**
  * Handles database operations related to group fitness classes.
  */
 public class ClassRepository {
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final CalendarRepository calendarRepository = new CalendarRepository();
+
     /**
      * Retrieves all group fitness classes.
      * 
-     * @return a list of group fitness class records, or empty if none exist
+     * @return a list of group fitness classes, or empty if none exist
      */
-    public List<String> getAllClasses() {
-        List<String> classes = new ArrayList<>();
+    public List<GroupClass> getAllClasses() {
+        List<GroupClass> classes = new ArrayList<>();
         String sql =
-            "SELECT gc.class_id, gc.name, gc.description, gc.start_time, gc.end_time, " +
-            "gc.capacity, gc.status, t.first_name AS trainer_first, " +
-            "t.last_name AS trainer_last, r.name AS room_name " +
+            "SELECT gc.*, NULL AS trainer_name, NULL AS room_name " +
             "FROM \"group_class\" gc " +
-            "JOIN trainer t ON gc.trainer_id = t.trainer_id " +
-            "JOIN room r ON gc.room_id = r.room_id " +
             "ORDER BY gc.start_time";
 
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                String row =
-                    "Class " + rs.getInt("class_id") + " - " +
-                    rs.getString("name") + " - " +
-                    rs.getTimestamp("start_time") + " to " +
-                    rs.getTimestamp("end_time") + " - " +
-                    "capacity: " + rs.getInt("capacity") + " - " +
-                    "status: " + rs.getString("status") + " - " +
-                    "trainer: " + rs.getString("trainer_first") + " " + rs.getString("trainer_last") + " - " +
-                    "room: " + rs.getString("room_name");
-                classes.add(row);
+                classes.add(mapGroupClass(rs));
             }
         } catch (SQLException e) {
             System.out.println("Error retrieving group fitness classes: ");
@@ -52,31 +45,66 @@ public class ClassRepository {
 
         return classes;
     }
+
+    /**
+     * Retrieves one page of group fitness classes, ordered by start time and then ID.
+     * Each page seeks past the previous page's last (start_time, class_id) on the
+     * matching index instead of sorting the whole table.
+     *
+     * @param after    the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of classes on the page
+     * @return         the page of classes, empty if none remain
+     */
+    public Page<GroupClass> getClassesPage(PageCursor after, int pageSize) {
+        List<GroupClass> rows = new ArrayList<>();
+        String sql =
+            "SELECT gc.*, NULL AS trainer_name, NULL AS room_name " +
+            "FROM group_class gc " +
+            (after == null ? "" : "WHERE (gc.start_time, gc.class_id) > (?, ?) ") +
+            "ORDER BY gc.start_time, gc.class_id " +
+            "LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (after != null) {
+                pstmt.setTimestamp(index++, Timestamp.valueOf(after.lastTime()));
+                pstmt.setInt(index++, after.lastId());
+            }
+            // One extra row tells us whether there is another page
+            pstmt.setInt(index, pageSize + 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapGroupClass(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving group fitness classes page: ");
+            e.printStackTrace();
+        }
+
+        return Page.of(rows, pageSize, row -> new PageCursor(row.startTime(), row.classId()));
+    }
     
     /**
-     * Retrieves upcoming group fitness classes.
+     * Retrieves upcoming group fitness classes, including their seat counts. The range
+     * scan runs on the (start_time, class_id) index.
      * 
-     * @return a list of upcoming group fitness class records, or empty if none exist
+     * @return a list of upcoming group fitness classes, or empty if none exist
      */
-    public List<String> getUpcomingClasses() {
-        List<String> classes = new ArrayList<>();
+    public List<GroupClass> getUpcomingClasses() {
+        List<GroupClass> classes = new ArrayList<>();
         String sql =
-            "SELECT gc.class_id, gc.name, gc.start_time, gc.end_time, r.name AS room_name " +
+            "SELECT gc.*, NULL AS trainer_name, NULL AS room_name " +
             "FROM group_class gc " +
-            "JOIN room r ON gc.room_id = r.room_id " +
             "WHERE gc.start_time >= NOW() AND gc.status = 'Scheduled' " +
-            "ORDER BY gc.start_time";
+            "ORDER BY gc.start_time, gc.class_id";
 
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                String row =
-                    "ID: " + rs.getInt("class_id") +
-                    " | " + rs.getString("name") +
-                    " | " + rs.getTimestamp("start_time") + " to " + rs.getTimestamp("end_time") +
-                    " | Room: " + rs.getString("room_name");
-                classes.add(row);
+                classes.add(mapGroupClass(rs));
             }
         } catch (SQLException e) {
             System.out.println("Error retrieving upcoming group fitness classes: ");
@@ -86,18 +114,42 @@ public class ClassRepository {
         return classes;
     }
     
+    /**
+     * Retrieves a group fitness class by ID.
+     * 
+     * @param classId the group fitness class ID
+     * @return        the group fitness class, or empty if none exist
+     */
+    public Optional<GroupClass> getClassById(int classId) {
+        String sql = "SELECT gc.*, NULL AS trainer_name, NULL AS room_name FROM group_class gc WHERE gc.class_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, classId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapGroupClass(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving group fitness class by ID: ");
+            e.printStackTrace();
+        }
+
+        return Optional.empty();
+    }
+    
     /**
      * Retrieves group fitness classes assigned to a specific trainer.
      * 
      * @param trainerId the trainer's ID
-     * @return          a list of group fitness class records for that trainer, or empty if none exist
+     * @return          a list of group fitness classes for that trainer, or empty if none exist
      */
-    public List<String> getClassesForTrainer(int trainerId) {
-        List<String> classes = new ArrayList<>();
+    public List<GroupClass> getClassesForTrainer(int trainerId) {
+        List<GroupClass> classes = new ArrayList<>();
         String sql =
-            "SELECT gc.class_id, gc.name, gc.start_time, gc.end_time, gc.status, r.name AS room_name " +
+            "SELECT gc.*, NULL AS trainer_name, NULL AS room_name " +
             "FROM group_class gc " +
-            "JOIN room r ON gc.room_id = r.room_id " +
             "WHERE gc.trainer_id = ? " +
             "ORDER BY gc.start_time";
 
@@ -106,13 +158,7 @@ public class ClassRepository {
             pstmt.setInt(1, trainerId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String row =
-                        "Class " + rs.getInt("class_id") +
-                        " | " + rs.getString("name") +
-                        " | " + rs.getTimestamp("start_time") + " to " + rs.getTimestamp("end_time") +
-                        " | Room: " + rs.getString("room_name") +
-                        " | Status: " + rs.getString("status");
-                    classes.add(row);
+                    classes.add(mapGroupClass(rs));
                 }
             }
         } catch (SQLException e) {
@@ -124,40 +170,59 @@ public class ClassRepository {
     }
 
     /**
-     * Adds a new group fitness class.
+     * Adds a new group fitness class. The trainer's and room's PT sessions and other
+     * classes are checked for overlaps in the same transaction.
      * 
      * @param className the class name
      * @param trainerId the trainer's ID
      * @param roomId    the room ID
      * @param startTime the start time (YYYY-MM-DD HH:MM:SS)
      * @param capacity  the class capacity
+     * @return          the result, including the resource that conflicted if any
      */
-    public void addGroupClass(String className, int trainerId, int roomId, String startTime, int capacity) {
+    public ClassScheduleResult addGroupClass(String className, int trainerId, int roomId, String startTime, int capacity) {
         String sql = "INSERT INTO group_class (trainer_id, room_id, name, description, start_time, end_time, capacity) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            // Assume a default duration of 1 hour and compute end time
-            LocalDateTime start = Timestamp.valueOf(startTime).toLocalDateTime();
-            LocalDateTime end   = start.plusHours(1);
+        // Assume a default duration of 1 hour and compute end time
+        LocalDateTime start = Timestamp.valueOf(startTime).toLocalDateTime();
+        LocalDateTime end   = start.plusHours(1);
 
-            pstmt.setInt(1, trainerId);
-            pstmt.setInt(2, roomId);
-            pstmt.setString(3, className);
-            pstmt.setString(4, null);
-            pstmt.setTimestamp(5, Timestamp.valueOf(start));
-            pstmt.setTimestamp(6, Timestamp.valueOf(end));
-            pstmt.setInt(7, capacity);
-            pstmt.executeUpdate();
-            System.out.println("Group fitness class added successfully!");
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Optional<CalendarEntry> clash = lockAndCheckCalendar(conn, trainerId, roomId, start, end, null);
+                if (clash.isPresent()) {
+                    conn.rollback();
+                    return toConflict(clash.get(), trainerId);
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, trainerId);
+                    pstmt.setInt(2, roomId);
+                    pstmt.setString(3, className);
+                    pstmt.setString(4, null);
+                    pstmt.setTimestamp(5, Timestamp.valueOf(start));
+                    pstmt.setTimestamp(6, Timestamp.valueOf(end));
+                    pstmt.setInt(7, capacity);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                return ClassScheduleResult.SCHEDULED;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.out.println("Error adding group fitness class: ");
             e.printStackTrace();
         }
+
+        return ClassScheduleResult.ERROR;
     }
 
     /**
-     * Updates a group fitness class.
+     * Updates a group fitness class. The trainer's and room's PT sessions and other
+     * classes are checked for overlaps in the same transaction.
      * 
      * @param classId   the group fitness class ID
      * @param className the group fitness class name
@@ -165,93 +230,197 @@ public class ClassRepository {
      * @param roomId    the room ID
      * @param startTime the start time (YYYY-MM-DD HH:MM:SS)
      * @param capacity  the class capacity
+     * @return          the result, including the resource that conflicted if any
      */
-    public void updateGroupClass(int classId, String className, int trainerId, int roomId, String startTime, int capacity) {
+    public ClassScheduleResult updateGroupClass(int classId, String className, int trainerId, int roomId, String startTime, int capacity) {
         String sql =
             "UPDATE group_class " +
             "SET name = ?, trainer_id = ?, room_id = ?, start_time = ?, end_time = ?, capacity = ? " +
-            "WHERE class_id = ?";
+            "WHERE class_id = ? AND ? >= seats_taken";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            // Assume a default duration of 1 hour and compute end time
-            LocalDateTime start = Timestamp.valueOf(startTime).toLocalDateTime();
-            LocalDateTime end   = start.plusHours(1);
-
-            pstmt.setString(1, className);
-            pstmt.setInt(2, trainerId);
-            pstmt.setInt(3, roomId);
-            pstmt.setTimestamp(4, Timestamp.valueOf(start));
-            pstmt.setTimestamp(5, Timestamp.valueOf(end));
-            pstmt.setInt(6, capacity);
-            pstmt.setInt(7, classId);
+        // Assume a default duration of 1 hour and compute end time
+        LocalDateTime start = Timestamp.valueOf(startTime).toLocalDateTime();
+        LocalDateTime end   = start.plusHours(1);
 
-            int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("Group fitness class updated successfully!");
-            } else {
-                System.out.println("No group fitness class found with ID: " + classId);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            int rows;
+            try {
+                Optional<CalendarEntry> clash = lockAndCheckCalendar(conn, trainerId, roomId, start, end, classId);
+                if (clash.isPresent()) {
+                    conn.rollback();
+                    return toConflict(clash.get(), trainerId);
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, className);
+                    pstmt.setInt(2, trainerId);
+                    pstmt.setInt(3, roomId);
+                    pstmt.setTimestamp(4, Timestamp.valueOf(start));
+                    pstmt.setTimestamp(5, Timestamp.valueOf(end));
+                    pstmt.setInt(6, capacity);
+                    pstmt.setInt(7, classId);
+                    pstmt.setInt(8, capacity);
+                    rows = pstmt.executeUpdate();
+                }
+                if (rows == 0) {
+                    // Either the class does not exist or more members have registered than the new capacity allows
+                    conn.rollback();
+                    return classExists(conn, classId) ? ClassScheduleResult.CAPACITY_BELOW_SEATS_TAKEN
+                        : ClassScheduleResult.NOT_FOUND;
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
+
+            return ClassScheduleResult.SCHEDULED;
         } catch (SQLException e) {
             System.out.println("Error updating group fitness class: ");
             e.printStackTrace();
         }
+
+        return ClassScheduleResult.ERROR;
+    }
+
+    /**
+     * Locks the trainer's and room's calendars for the rest of the transaction and looks
+     * for a PT session or other class already there.
+     */
+    private Optional<CalendarEntry> lockAndCheckCalendar(Connection conn, int trainerId, int roomId, LocalDateTime start,
+                                                         LocalDateTime end, Integer excludeClassId) throws SQLException {
+        calendarRepository.lockResources(conn, trainerId, roomId);
+        return calendarRepository.findConflict(conn, trainerId, roomId, start, end, null, excludeClassId);
+    }
+
+    private static boolean classExists(Connection conn, int classId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM group_class WHERE class_id = ?")) {
+            pstmt.setInt(1, classId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static ClassScheduleResult toConflict(CalendarEntry clash, int trainerId) {
+        return clash.trainerId() == trainerId ? ClassScheduleResult.TRAINER_CONFLICT : ClassScheduleResult.ROOM_CONFLICT;
     }
     
     /**
      * Cancels a group fitness class.
      * 
      * @param classId the group fitness class ID 
+     * @return        the result
      */
-    public void cancelGroupClass(int classId) {
+    public WriteResult cancelGroupClass(int classId) {
         String sql = "UPDATE group_class SET status = 'Cancelled' WHERE class_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, classId);
             int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("Class cancelled successfully!");
-            } else {
-                System.out.println("No class found with ID: " + classId);
-            }
+            return rows > 0 ? WriteResult.SAVED : WriteResult.NOT_FOUND;
         } catch (SQLException e) {
             System.out.println("Error cancelling group class: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
     
     /**
-     * Registers a member for a group fitness class.
+     * Registers a member for a group fitness class in a single statement. The seat is
+     * claimed by incrementing seats_taken under the class row's lock, so concurrent
+     * registrations can never push a class past its capacity. A trigger on
+     * class_registration gives the seat back when the registration is deleted.
      * 
      * @param memberId the member's ID
      * @param classId  the group fitness class ID
+     * @return         the registration result
      */
-    public void registerMemberForClass(int memberId, int classId) {
-        String sql = "INSERT INTO class_registration (member_id, class_id) VALUES (?, ?)";
+    public RegistrationResult registerMemberForClass(int memberId, int classId) {
+        return registerMemberForClass(memberId, classId, seatsTaken -> { });
+    }
+
+    /**
+     * Registers a member for a group fitness class, reporting the class's seat count as it
+     * stands right after this registration took its seat.
+     * 
+     * @param memberId    the member's ID
+     * @param classId     the group fitness class ID
+     * @param onSeatTaken called with the class's new seats_taken if the member was registered
+     * @return            the registration result
+     */
+    public RegistrationResult registerMemberForClass(int memberId, int classId, IntConsumer onSeatTaken) {
+        String sql =
+            "WITH seat AS ( " +
+            "    UPDATE group_class SET seats_taken = seats_taken + 1 " +
+            "    WHERE class_id = ? AND status = 'Scheduled' AND seats_taken < capacity " +
+            "      AND NOT EXISTS (SELECT 1 FROM class_registration WHERE class_id = ? AND member_id = ?) " +
+            "    RETURNING class_id, seats_taken " +
+            "), reg AS ( " +
+            "    INSERT INTO class_registration (class_id, member_id) " +
+            "    SELECT class_id, ? FROM seat " +
+            "    RETURNING registration_id " +
+            ") " +
+            "SELECT (SELECT registration_id FROM reg) AS registration_id, (SELECT seats_taken FROM seat) AS seats_taken, gc.status, " +
+            "       EXISTS (SELECT 1 FROM class_registration WHERE class_id = ? AND member_id = ?) AS registered " +
+            "FROM (SELECT 1) req " +
+            "LEFT JOIN group_class gc ON gc.class_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, memberId);
+            pstmt.setInt(1, classId);
             pstmt.setInt(2, classId);
-            pstmt.executeUpdate();
-            System.out.println("Member registered for group fitness class!");
+            pstmt.setInt(3, memberId);
+            pstmt.setInt(4, memberId);
+            pstmt.setInt(5, classId);
+            pstmt.setInt(6, memberId);
+            pstmt.setInt(7, classId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                if (rs.getObject("registration_id") != null) {
+                    onSeatTaken.accept(rs.getInt("seats_taken"));
+                    return RegistrationResult.REGISTERED;
+                }
+
+                String status = rs.getString("status");
+                if (status == null) {
+                    return RegistrationResult.NOT_FOUND;
+                }
+                if (rs.getBoolean("registered")) {
+                    return RegistrationResult.DUPLICATE;
+                }
+                if (!status.equals("Scheduled")) {
+                    return RegistrationResult.NOT_SCHEDULED;
+                }
+                return RegistrationResult.FULL;
+            }
         } catch (SQLException e) {
+            // A concurrent duplicate slipped past the NOT EXISTS check; the whole statement,
+            // including the seat increment, has been rolled back
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                return RegistrationResult.DUPLICATE;
+            }
             System.out.println("Error registering member for group fitness class: ");
             e.printStackTrace();
         }
+
+        return RegistrationResult.ERROR;
     }
 
     /**
      * Retrieves all class registrations for a member.
      * 
      * @param memberId the member's ID
-     * @return         a list of class registration records, or empty if none exist
+     * @return         a list of the group fitness classes the member is registered for, or empty if none exist
      */
-    public List<String> getRegistrationsForMember(int memberId) {
-        List<String> registrations = new ArrayList<>();
+    public List<GroupClass> getRegistrationsForMember(int memberId) {
+        List<GroupClass> registrations = new ArrayList<>();
         String sql =
-            "SELECT gc.name, gc.start_time, gc.end_time, gc.room_id " +
+            "SELECT gc.*, NULL AS trainer_name, NULL AS room_name " +
             "FROM class_registration cr " +
             "JOIN group_class gc ON cr.class_id = gc.class_id " +
             "WHERE cr.member_id = ? " +
@@ -262,11 +431,7 @@ public class ClassRepository {
             pstmt.setInt(1, memberId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String row =
-                        rs.getString("name") +
-                        " | " + rs.getTimestamp("start_time") + " to " + rs.getTimestamp("end_time") +
-                        " | Room: " + rs.getInt("room_id");
-                    registrations.add(row);
+                    registrations.add(mapGroupClass(rs));
                 }
             }
         } catch (SQLException e) {
@@ -277,55 +442,19 @@ public class ClassRepository {
         return registrations;
     }
     
-    /**
-     * Checks if a member is already registered for a group fitness class.
-     * 
-     * @param memberId the member's ID
-     * @param classId  the group fitness class ID
-     * @return         true if already registered, or false otherwise
-     */
-    public boolean isMemberRegisteredForClass(int memberId, int classId) {
-        String sql = "SELECT 1 FROM class_registration WHERE member_id = ? AND class_id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, memberId);
-            pstmt.setInt(2, classId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next();
-            }
-        } catch (SQLException e) {
-            System.out.println("Error checking class registration: ");
-            e.printStackTrace();
-        }
-
-        return false;
-    }
-
-    /**
-     * Checks whether a class is full.
-     * 
-     * @param classId the group fitness class ID
-     * @return        true if full, or false otherwise
-     */
-    public boolean isClassFull(int classId) {
-        String sql = "SELECT capacity <= (SELECT COUNT(*) FROM class_registration WHERE class_id = ?) AS full FROM group_class WHERE class_id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, classId);
-            pstmt.setInt(2, classId);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getBoolean("full");
-                }
-            }
-        } catch (SQLException e) {
-            System.out.println("Error checking class capacity: ");
-            e.printStackTrace();
-        }
-
-        return false;
+    private static GroupClass mapGroupClass(ResultSet rs) throws SQLException {
+        return new GroupClass(
+            rs.getInt("class_id"),
+            rs.getInt("trainer_id"),
+            rs.getInt("room_id"),
+            rs.getString("name"),
+            rs.getString("description"),
+            rs.getObject("start_time", LocalDateTime.class),
+            rs.getObject("end_time", LocalDateTime.class),
+            rs.getInt("capacity"),
+            rs.getInt("seats_taken"),
+            rs.getString("status"),
+            rs.getString("trainer_name"),
+            rs.getString("room_name"));
     }
 }
@@ -0,0 +1,14 @@
+package com.comp3005.finalproject;
+
+/**
+ * The outcome of adding or updating a group fitness class. CAPACITY_BELOW_SEATS_TAKEN
+ * means the new capacity is lower than the number of members already registered.
+ */
+public enum ClassScheduleResult {
+    SCHEDULED,
+    TRAINER_CONFLICT,
+    ROOM_CONFLICT,
+    CAPACITY_BELOW_SEATS_TAKEN,
+    NOT_FOUND,
+    ERROR
+}
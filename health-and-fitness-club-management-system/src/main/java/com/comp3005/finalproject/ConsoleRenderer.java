@@ -0,0 +1,263 @@
+package com.comp3005.finalproject;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Formats domain records as the single-line text shown in the console menus.
+ */
+public final class ConsoleRenderer {
+    private ConsoleRenderer() {
+    }
+
+    /**
+     * Formats a member as a list entry.
+     *
+     * @param m the member
+     * @return  the formatted member
+     */
+    public static String memberSummary(Member m) {
+        return m.memberId() + " - " + m.fullName() + " - " + m.email() + " - " + m.dob() + " - " + m.gender();
+    }
+
+    /**
+     * Formats a member's full profile details.
+     *
+     * @param m the member
+     * @return  the formatted member
+     */
+    public static String memberDetails(Member m) {
+        return memberSummary(m) + " - " + m.phone();
+    }
+
+    /**
+     * Formats a trainer.
+     *
+     * @param t the trainer
+     * @return  the formatted trainer
+     */
+    public static String trainer(Trainer t) {
+        return t.trainerId() + " - " + t.fullName() + " - " + t.email() + " - " + t.phone();
+    }
+
+    /**
+     * Formats a fitness goal.
+     *
+     * @param g the fitness goal
+     * @return  the formatted fitness goal
+     */
+    public static String fitnessGoal(FitnessGoal g) {
+        return "Goal " + g.goalId() + " - " +
+               g.goalType() + " " + g.targetValue() + " " + g.unit() + " - " +
+               "status: " + g.status() + " - " +
+               "start: " + g.startDate() + ", target: " + g.targetDate();
+    }
+
+    /**
+     * Formats a health metric reading.
+     *
+     * @param m the health metric
+     * @return  the formatted health metric
+     */
+    public static String healthMetric(HealthMetric m) {
+        return time(m.measureTime()) + " - " +
+               "H: " + m.height() +
+               ", W: " + m.weight() +
+               ", HR: " + m.heartRate() +
+               ", BF: " + m.bodyFat();
+    }
+
+    /**
+     * Formats a PT session as seen by a member.
+     *
+     * @param s the PT session
+     * @return  the formatted PT session
+     */
+    public static String ptSessionForMember(PtSession s) {
+        return "Session " + s.sessionId() + " - " +
+               time(s.sessionStart()) + " to " + time(s.sessionEnd()) + " - " +
+               s.status() + " - " +
+               "Trainer: " + s.trainerName() + " - " +
+               "Room: " + s.roomName();
+    }
+
+    /**
+     * Formats a PT session as seen by a trainer.
+     *
+     * @param s the PT session
+     * @return  the formatted PT session
+     */
+    public static String ptSessionForTrainer(PtSession s) {
+        return "Session " + s.sessionId() + " - " +
+               time(s.sessionStart()) + " to " + time(s.sessionEnd()) + " - " +
+               s.status() + " - " +
+               "Member: " + s.memberName();
+    }
+
+    /**
+     * Formats a group fitness class for the admin class listing.
+     *
+     * @param c the group fitness class
+     * @return  the formatted class
+     */
+    public static String groupClass(GroupClass c) {
+        return "Class " + c.classId() + " - " +
+               c.name() + " - " +
+               time(c.startTime()) + " to " + time(c.endTime()) + " - " +
+               "capacity: " + c.capacity() + " - " +
+               "status: " + c.status() + " - " +
+               "trainer: " + c.trainerName() + " - " +
+               "room: " + c.roomName();
+    }
+
+    /**
+     * Formats a group fitness class on a trainer's schedule.
+     *
+     * @param c the group fitness class
+     * @return  the formatted class
+     */
+    public static String trainerClass(GroupClass c) {
+        return "Class " + c.classId() +
+               " | " + c.name() +
+               " | " + time(c.startTime()) + " to " + time(c.endTime()) +
+               " | Room: " + c.roomName() +
+               " | Status: " + c.status();
+    }
+
+    /**
+     * Formats an upcoming group fitness class with its remaining seats.
+     *
+     * @param c the group fitness class
+     * @return  the formatted class
+     */
+    public static String upcomingClass(GroupClass c) {
+        return "ID: " + c.classId() +
+               " | " + c.name() +
+               " | " + time(c.startTime()) + " to " + time(c.endTime()) +
+               " | Room: " + c.roomName() +
+               " | Seats left: " + c.seatsRemaining();
+    }
+
+    /**
+     * Formats a class a member is registered for.
+     *
+     * @param c the group fitness class
+     * @return  the formatted registration
+     */
+    public static String classRegistration(GroupClass c) {
+        return c.name() +
+               " | " + time(c.startTime()) + " to " + time(c.endTime()) +
+               " | Room: " + c.roomId();
+    }
+
+    /**
+     * Formats a trainer availability time slot.
+     *
+     * @param a the availability time slot
+     * @return  the formatted time slot
+     */
+    public static String availability(TrainerAvailability a) {
+        return "Availability " + a.availabilityId() + " - " +
+               time(a.startTime()) + " to " + time(a.endTime()) + " - " +
+               "recurring: " + a.recurring();
+    }
+
+    /**
+     * Formats a suggested personal training slot.
+     *
+     * @param s the slot
+     * @return  the formatted slot
+     */
+    public static String ptSlot(PtSlot s) {
+        return time(s.start()) + " to " + time(s.end()) + " - " +
+               "Trainer ID: " + s.trainerId() + " - " +
+               "Room ID: " + s.roomId();
+    }
+
+    /**
+     * Formats a room.
+     *
+     * @param r the room
+     * @return  the formatted room
+     */
+    public static String room(Room r) {
+        return "Room " + r.roomId() + " - " + r.name() + " - " + "Capacity: " + r.capacity();
+    }
+
+    /**
+     * Formats an equipment item.
+     *
+     * @param e the equipment item
+     * @return  the formatted equipment item
+     */
+    public static String equipment(Equipment e) {
+        return "Equipment " + e.equipmentId() + " - " +
+               e.name() + " (" + e.equipmentType() + ") - " +
+               "Status: " + e.status() + " - " +
+               "Room: " + (e.roomId() == null ? "Unassigned" : e.roomId() + " (" + e.roomName() + ")");
+    }
+
+    /**
+     * Formats an equipment issue, including the equipment it belongs to when known.
+     *
+     * @param i the equipment issue
+     * @return  the formatted issue
+     */
+    public static String equipmentIssue(EquipmentIssue i) {
+        return "Issue " + i.issueId() + " - " +
+               (i.equipmentName() == null ? "" : "Equipment " + i.equipmentId() + " (" + i.equipmentName() + ") - ") +
+               "Reported: " + time(i.reportedAt()) + " - " +
+               "Status: " + i.status() + " - " +
+               "Description: " + i.description() + " - " +
+               "Resolved at: " + time(i.resolvedAt());
+    }
+
+    /**
+     * Formats the header line for repository method metrics.
+     *
+     * @return the formatted header
+     */
+    public static String repositoryMethodHeader() {
+        return String.format("%-52s %9s %7s %9s %9s %9s %9s %9s", "Method", "Calls", "Errors",
+            "Mean us", "p50 us", "p99 us", "p99.9 us", "Max us");
+    }
+
+    /**
+     * Formats the call count, error count, and latency of a repository method.
+     *
+     * @param m the method's metrics
+     * @return  the formatted metrics
+     */
+    public static String repositoryMethod(RepositoryMetrics.MethodStats m) {
+        LatencyHistogram.Snapshot l = m.getLatency();
+        return String.format("%-52s %9d %7d %9d %9d %9d %9d %9d", m.getRepository() + "." + m.getMethod(),
+            l.count(), m.getErrors(), l.mean(), l.p50(), l.p99(), l.p999(), l.max());
+    }
+
+    /**
+     * Formats the header line for fan-out branch timings.
+     *
+     * @return the formatted header
+     */
+    public static String fanOutBranchHeader() {
+        return String.format("%-52s %9s %9s %9s %9s %9s %9s", "Branch", "Runs", "Cancelled",
+            "Mean us", "p50 us", "p99 us", "Max us");
+    }
+
+    /**
+     * Formats the run count, cancellations, and latency of a fan-out branch.
+     *
+     * @param b the branch's timings
+     * @return  the formatted timings
+     */
+    public static String fanOutBranch(FanOut.BranchStats b) {
+        LatencyHistogram.Snapshot l = b.getLatency();
+        return String.format("%-52s %9d %9d %9d %9d %9d %9d", b.getScope() + "/" + b.getBranch(),
+            l.count(), b.getCancellations(), l.mean(), l.p50(), l.p99(), l.max());
+    }
+
+    // Matches the JDBC Timestamp format the console has always shown
+    private static String time(LocalDateTime t) {
+        return t == null ? "null" : Timestamp.valueOf(t).toString();
+    }
+}
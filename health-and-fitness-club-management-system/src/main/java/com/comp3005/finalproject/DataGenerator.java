@@ -0,0 +1,699 @@
+package com.comp3005.finalproject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Generates a large, referentially valid dataset and bulk-loads it with COPY.
+ *
+ * Members join over the years before the load date and record health metrics and
+ * fitness goals from then on. Trainers work every day from FIRST_HOUR in one-hour slots,
+ * running PT sessions in PT rooms and group classes in studios, over the requested
+ * number of past years plus FUTURE_DAYS of upcoming bookings. Slots are handed out so no
+ * trainer, room, or member is ever booked twice at once, which the pt_session exclusion
+ * constraints verify as the rows go in. Classes come with their registrations and a
+ * matching seats_taken, and rooms with their equipment and its maintenance history.
+ *
+ * Every value is derived from the seed and the row's position alone, so the same
+ * arguments always produce the same data whatever the thread count. Pass --today as
+ * well to reproduce a load on a later date. Generated rows take IDs above the highest
+ * existing ones, so the generator can run on top of DML.sql or an earlier load.
+ *
+ * Requires the DDL script to have been loaded. For a production-sized dataset:
+ *     mvn exec:java -Dexec.mainClass=com.comp3005.finalproject.DataGenerator \
+ *         -Dexec.args="--members 1000000 --trainers 500 --metrics 50000000 --years 3 --seed 42 --threads 8"
+ */
+public class DataGenerator {
+    private static final int FIRST_HOUR = 6;
+    private static final int HOURS_PER_DAY = 15;
+    private static final int FUTURE_DAYS = 90;
+    private static final int EQUIPMENT_PER_ROOM = 4;
+
+    // Work is split into chunks of this size so every thread stays busy until the end
+    private static final int MEMBERS_PER_CHUNK = 10_000;
+    private static final int DAYS_PER_CHUNK = 7;
+    private static final int MAX_THREADS = 8;     // leaves pool connections for housekeeping
+
+    // Separate random streams per kind of row, so adding a column to one table does not
+    // change the values generated for another
+    private static final long MEMBER = 1;
+    private static final long METRIC = 2;
+    private static final long GOAL = 3;
+    private static final long TRAINER = 4;
+    private static final long ROOM = 5;
+    private static final long HOUR = 6;
+    private static final long SLOT = 7;
+    private static final long EQUIPMENT = 8;
+    private static final long ADMIN = 9;
+
+    private static final List<String> TABLES = List.of("admin_user", "trainer", "room", "member", "health_metric",
+        "fitness_goal", "trainer_availability", "equipment", "pt_session", "group_class", "class_registration",
+        "equipment_issue");
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] FIRST_NAMES = {
+        "Aaron", "Abigail", "Adam", "Aisha", "Alex", "Alice", "Amir", "Amy", "Andrew", "Anna",
+        "Ben", "Bianca", "Brian", "Carlos", "Chen", "Chloe", "Daniel", "Diana", "Eli", "Emily",
+        "Ethan", "Fatima", "Grace", "Hannah", "Hiro", "Isaac", "Jacob", "Jasmine", "Jin", "Julia",
+        "Kevin", "Laura", "Leo", "Lucas", "Maya", "Mei", "Mohamed", "Nadia", "Noah", "Olivia",
+        "Omar", "Priya", "Rachel", "Ravi", "Sarah", "Sofia", "Tom", "Victor", "Yara", "Zoe"
+    };
+    private static final String[] LAST_NAMES = {
+        "Abbott", "Ahmed", "Alvarez", "Anderson", "Bailey", "Baker", "Bennett", "Brooks", "Brown", "Campbell",
+        "Chen", "Clark", "Collins", "Cooper", "Diaz", "Dubois", "Edwards", "Evans", "Fischer", "Fraser",
+        "Garcia", "Gill", "Gordon", "Green", "Gupta", "Hall", "Harris", "Hughes", "Ito", "Jackson",
+        "Johnson", "Jones", "Kaur", "Kelly", "Khan", "Kim", "King", "Lam", "Lee", "Lewis",
+        "Li", "Lopez", "MacDonald", "Martin", "Martinez", "Mitchell", "Moore", "Morris", "Murphy", "Nguyen",
+        "Novak", "O'Brien", "Okafor", "Park", "Patel", "Perez", "Phillips", "Reid", "Roberts", "Robinson",
+        "Rossi", "Roy", "Russell", "Sanchez", "Santos", "Scott", "Shah", "Silva", "Singh", "Smith",
+        "Stewart", "Stone", "Sullivan", "Sy", "Tanaka", "Taylor", "Thomas", "Thompson", "Tremblay", "Turner"
+    };
+    private static final String[] CLASS_NAMES = {
+        "Morning Yoga", "Spin", "HIIT", "Pilates", "Zumba", "Boxing Fundamentals", "Strength Circuit",
+        "Core Blast", "Stretch and Mobility", "Bootcamp"
+    };
+    private static final String[][] GOALS = {
+        {"Weight Loss", "kg"}, {"Muscle Gain", "kg"}, {"Body Fat", "%"}, {"Resting Heart Rate", "bpm"}, {"Endurance", "km"}
+    };
+    private static final String[] STUDIO_EQUIPMENT = {"Spin Bike", "Yoga Mat Set", "Kettlebell Set", "Rowing Machine"};
+    private static final String[] PT_EQUIPMENT = {"Squat Rack", "Bench Press", "Treadmill", "Cable Machine"};
+
+    private final long seed;
+    private final int members;
+    private final int trainers;
+    private final int rooms;
+    private final int admins;
+    private final long metrics;
+    private final int years;
+    private final LocalDate today;
+    private final int threads;
+
+    private final LocalDate firstDay;
+    private final int days;
+    private final int registrationStride;
+
+    // Generated IDs start above these
+    private int memberBase;
+    private int trainerBase;
+    private int roomBase;
+    private int adminBase;
+    private int equipmentBase;
+    private int classBase;
+
+    private final Map<String, LongAdder> rowCounts = new ConcurrentHashMap<>();
+
+    /**
+     * What one trainer does in one room for one hour.
+     */
+    private enum SlotKind { FREE, SESSION, CLASS }
+
+    private record Slot(SlotKind kind, int trainer, int room, int member, LocalDateTime start, SplittableRandom random) {
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        /**
+         * Appends the rows for one position, in COPY text format, to the buffer. May append none.
+         */
+        void write(long index, StringBuilder out);
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed     the seed every value is derived from
+     * @param members  the number of members
+     * @param trainers the number of trainers
+     * @param rooms    the number of rooms, at most the number of trainers and members
+     * @param admins   the number of administrative staff
+     * @param metrics  the total number of health metrics, spread evenly over the members
+     * @param years    the years of history before today
+     * @param today    the date the data is generated as of
+     * @param threads  the number of parallel COPY streams
+     */
+    public DataGenerator(long seed, int members, int trainers, int rooms, int admins, long metrics, int years,
+                         LocalDate today, int threads) {
+        if (members < 1 || trainers < 1 || admins < 1) {
+            throw new IllegalArgumentException("Need at least one member, trainer, and admin");
+        }
+        this.seed = seed;
+        this.members = members;
+        this.trainers = trainers;
+        // A room is worked by a different trainer and, for PT, a different member every hour
+        this.rooms = Math.max(1, Math.min(rooms, Math.min(trainers, members)));
+        this.admins = admins;
+        this.metrics = metrics;
+        this.years = years;
+        this.today = today;
+        this.threads = Math.max(1, Math.min(threads, MAX_THREADS));
+        this.firstDay = today.minusYears(years);
+        this.days = (int) (today.toEpochDay() - firstDay.toEpochDay()) + FUTURE_DAYS;
+        this.registrationStride = coprimeStride(members);
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+
+        int members = Integer.parseInt(options.getOrDefault("members", "10000"));
+        int trainers = Integer.parseInt(options.getOrDefault("trainers", "50"));
+        DataGenerator generator = new DataGenerator(
+            Long.parseLong(options.getOrDefault("seed", "42")),
+            members,
+            trainers,
+            Integer.parseInt(options.getOrDefault("rooms", String.valueOf(Math.max(1, trainers / 5)))),
+            Integer.parseInt(options.getOrDefault("admins", "5")),
+            Long.parseLong(options.getOrDefault("metrics", String.valueOf(members * 20L))),
+            Integer.parseInt(options.getOrDefault("years", "2")),
+            LocalDate.parse(options.getOrDefault("today", LocalDate.now().toString())),
+            Integer.parseInt(options.getOrDefault("threads", "4")));
+
+        boolean ok = generator.generate();
+        DatabaseConnection.shutdown();
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Generates and loads the dataset, then resets the ID sequences and refreshes the
+     * planner statistics.
+     *
+     * @return true if every row was loaded, or false otherwise
+     */
+    public boolean generate() {
+        long start = System.nanoTime();
+        System.out.println("Generating " + members + " members, " + trainers + " trainers, " + rooms + " rooms, " +
+            metrics + " health metrics, and " + days + " days of schedule with seed " + seed + " on " + threads + " threads");
+
+        try {
+            readIdBases();
+
+            // Each phase only references rows loaded by the phases before it
+            List<Callable<Void>> people = new ArrayList<>();
+            people.add(copy("admin_user", "admin_id, first_name, last_name, email, phone", 0, admins, this::writeAdmin));
+            people.add(copy("trainer", "trainer_id, first_name, last_name, email, phone", 0, trainers, this::writeTrainer));
+            people.add(copy("room", "room_id, name, capacity", 0, rooms, this::writeRoom));
+            for (int from = 0; from < members; from += MEMBERS_PER_CHUNK) {
+                people.add(copy("member", "member_id, first_name, last_name, dob, gender, email, phone, join_date",
+                    from, Math.min(members, from + MEMBERS_PER_CHUNK), this::writeMember));
+            }
+            run("members, trainers, rooms, and staff", people);
+
+            List<Callable<Void>> activity = new ArrayList<>();
+            activity.add(copy("trainer_availability", "trainer_id, start_time, end_time, is_recurring",
+                0, trainers, this::writeAvailability));
+            activity.add(copy("equipment", "equipment_id, room_id, name, equipment_type, status",
+                0, (long) rooms * EQUIPMENT_PER_ROOM, this::writeEquipment));
+            for (int from = 0; from < members; from += MEMBERS_PER_CHUNK) {
+                int to = Math.min(members, from + MEMBERS_PER_CHUNK);
+                activity.add(copy("health_metric", "member_id, measure_time, height, weight, heart_rate, body_fat",
+                    from, to, this::writeHealthMetrics));
+                activity.add(copy("fitness_goal", "member_id, goal_type, target_value, unit, start_date, target_date, status",
+                    from, to, this::writeFitnessGoals));
+            }
+            long slotsPerDay = (long) HOURS_PER_DAY * rooms;
+            for (int from = 0; from < days; from += DAYS_PER_CHUNK) {
+                long first = from * slotsPerDay;
+                long last = Math.min(days, from + DAYS_PER_CHUNK) * slotsPerDay;
+                activity.add(sequence(
+                    copy("pt_session", "member_id, trainer_id, room_id, session_start, session_end, status",
+                        first, last, this::writePtSession),
+                    copy("group_class", "class_id, trainer_id, room_id, name, description, start_time, end_time, capacity, seats_taken, status",
+                        first, last, this::writeGroupClass),
+                    copy("class_registration", "class_id, member_id, registered_at",
+                        first, last, this::writeRegistrations)));
+            }
+            run("schedules, health history, and equipment", activity);
+
+            run("equipment issues", List.of(copy("equipment_issue",
+                "equipment_id, reported_by_admin_id, reported_at, description, status, resolved_at",
+                0, (long) rooms * EQUIPMENT_PER_ROOM, this::writeEquipmentIssues)));
+
+            finish();
+        } catch (SQLException | InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            System.out.println("Error generating data: ");
+            e.printStackTrace();
+            return false;
+        }
+
+        for (String table : TABLES) {
+            LongAdder rows = rowCounts.get(table);
+            System.out.println(String.format("  %-22s %,14d rows", table, rows == null ? 0 : rows.sum()));
+        }
+        System.out.println(String.format("Loaded in %.1f s", (System.nanoTime() - start) / 1e9));
+        return true;
+    }
+
+    private void readIdBases() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            memberBase = maxId(conn, "member", "member_id");
+            trainerBase = maxId(conn, "trainer", "trainer_id");
+            roomBase = maxId(conn, "room", "room_id");
+            adminBase = maxId(conn, "admin_user", "admin_id");
+            equipmentBase = maxId(conn, "equipment", "equipment_id");
+            classBase = maxId(conn, "group_class", "class_id");
+        }
+    }
+
+    private static int maxId(Connection conn, String table, String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private void finish() throws SQLException {
+        String[][] sequences = {
+            {"member", "member_id"}, {"trainer", "trainer_id"}, {"room", "room_id"}, {"admin_user", "admin_id"},
+            {"equipment", "equipment_id"}, {"group_class", "class_id"}
+        };
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            // The generated IDs were supplied explicitly, so move the sequences past them
+            for (String[] s : sequences) {
+                stmt.execute("SELECT setval(pg_get_serial_sequence('" + s[0] + "', '" + s[1] + "'), " +
+                    "(SELECT COALESCE(MAX(" + s[1] + "), 0) + 1 FROM " + s[0] + "), false)");
+            }
+            stmt.execute("ANALYZE");
+        }
+    }
+
+    private void run(String phase, List<Callable<Void>> tasks) throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> results = executor.invokeAll(tasks);
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.println(String.format("Loaded %s in %.1f s", phase, (System.nanoTime() - start) / 1e9));
+    }
+
+    @SafeVarargs
+    private static Callable<Void> sequence(Callable<Void>... steps) {
+        return () -> {
+            for (Callable<Void> step : steps) {
+                step.call();
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Creates a task that streams the rows for positions [from, to) into a table with one
+     * COPY, generating them as COPY reads so memory use does not depend on the row count.
+     */
+    private Callable<Void> copy(String table, String columns, long from, long to, RowWriter writer) {
+        return () -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                CopyManager copy = conn.unwrap(PGConnection.class).getCopyAPI();
+                long rows = copy.copyIn("COPY " + table + " (" + columns + ") FROM STDIN", new GeneratedRows(writer, from, to));
+                rowCounts.computeIfAbsent(table, t -> new LongAdder()).add(rows);
+            } catch (SQLException | IOException e) {
+                throw new SQLException("Loading " + table + " rows " + from + " to " + to + " failed", e);
+            }
+            return null;
+        };
+    }
+
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index);
+    }
+
+    // People
+
+    private void writeAdmin(long index, StringBuilder out) {
+        SplittableRandom r = random(ADMIN, index);
+        int id = adminBase + (int) index + 1;
+        person(out, id, r, "staff.example.com");
+        out.append('\n');
+    }
+
+    private void writeTrainer(long index, StringBuilder out) {
+        SplittableRandom r = random(TRAINER, index);
+        int id = trainerBase + (int) index + 1;
+        person(out, id, r, "trainers.example.com");
+        out.append('\n');
+    }
+
+    private void writeMember(long index, StringBuilder out) {
+        SplittableRandom r = random(MEMBER, index);
+        int id = memberBase + (int) index + 1;
+        String first = FIRST_NAMES[r.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[r.nextInt(LAST_NAMES.length)];
+        out.append(id).append('\t').append(first).append('\t').append(last).append('\t')
+            .append(LocalDate.of(1950, 1, 1).plusDays(r.nextInt(57 * 365))).append('\t')
+            .append(r.nextInt(100) < 48 ? "Female" : r.nextInt(100) < 96 ? "Male" : "Other").append('\t');
+        email(out, first, last, id, "members.example.com");
+        out.append('\t').append("613-555-").append(String.format("%04d", r.nextInt(10_000))).append('\t')
+            .append(joinDate(index)).append('\n');
+    }
+
+    private void person(StringBuilder out, int id, SplittableRandom r, String domain) {
+        String first = FIRST_NAMES[r.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[r.nextInt(LAST_NAMES.length)];
+        out.append(id).append('\t').append(first).append('\t').append(last).append('\t');
+        email(out, first, last, id, domain);
+        out.append('\t').append("613-555-").append(String.format("%04d", r.nextInt(10_000)));
+    }
+
+    // The ID keeps emails unique however often a name repeats
+    private static void email(StringBuilder out, String first, String last, int id, String domain) {
+        out.append(first.toLowerCase()).append('.').append(last.toLowerCase().replace("'", ""))
+            .append(id).append('@').append(domain);
+    }
+
+    // Most members joined before the generated schedule starts; the rest joined since
+    private LocalDate joinDate(long memberIndex) {
+        SplittableRandom r = random(MEMBER, memberIndex).split();
+        return today.minusDays(r.nextInt((years + 5) * 365));
+    }
+
+    // Member activity
+
+    private void writeHealthMetrics(long index, StringBuilder out) {
+        SplittableRandom r = random(METRIC, index);
+        long count = metrics / members + (index < metrics % members ? 1 : 0);
+        if (count == 0) {
+            return;
+        }
+
+        int id = memberBase + (int) index + 1;
+        LocalDateTime joined = joinDate(index).atTime(7, 0);
+        long spanMinutes = Math.max(1, Duration.between(joined, today.atStartOfDay()).toMinutes());
+
+        // Each member has a baseline that drifts a little between readings
+        int height = 1500 + r.nextInt(450);
+        int weight = 500 + r.nextInt(600);
+        int heartRate = 55 + r.nextInt(35);
+        int bodyFat = 80 + r.nextInt(270);
+        for (long k = 0; k < count; k++) {
+            long minute = (long) ((k + r.nextDouble()) * spanMinutes / count);
+            weight = Math.max(400, Math.min(1500, weight + r.nextInt(21) - 10));
+            bodyFat = Math.max(50, Math.min(450, bodyFat + r.nextInt(11) - 5));
+            out.append(id).append('\t');
+            TIMESTAMP.formatTo(joined.plusMinutes(minute), out);
+            out.append('\t');
+            tenths(out, height).append('\t');
+            tenths(out, weight).append('\t');
+            out.append(heartRate + r.nextInt(11) - 5).append('\t');
+            tenths(out, bodyFat).append('\n');
+        }
+    }
+
+    private void writeFitnessGoals(long index, StringBuilder out) {
+        SplittableRandom r = random(GOAL, index);
+        int id = memberBase + (int) index + 1;
+        LocalDate joined = joinDate(index);
+        long sinceJoining = Math.max(1, today.toEpochDay() - joined.toEpochDay());
+
+        int goals = r.nextInt(3);
+        for (int g = 0; g < goals; g++) {
+            String[] goal = GOALS[r.nextInt(GOALS.length)];
+            LocalDate start = joined.plusDays(r.nextLong(sinceJoining));
+            LocalDate target = start.plusDays(60 + r.nextInt(300));
+            String status = "Active";
+            if (target.isBefore(today)) {
+                int outcome = r.nextInt(10);
+                status = outcome < 6 ? "Completed" : outcome < 8 ? "Cancelled" : "Active";
+            }
+            out.append(id).append('\t').append(goal[0]).append('\t').append(10 + r.nextInt(90)).append(".0\t")
+                .append(goal[1]).append('\t').append(start).append('\t').append(target).append('\t')
+                .append(status).append('\n');
+        }
+    }
+
+    // Facilities
+
+    private void writeRoom(long index, StringBuilder out) {
+        int id = roomBase + (int) index + 1;
+        out.append(id).append('\t').append(isStudio((int) index) ? "Studio " : "PT Room ").append(id).append('\t')
+            .append(roomCapacity((int) index)).append('\n');
+    }
+
+    private static boolean isStudio(int roomIndex) {
+        return roomIndex % 4 == 0;
+    }
+
+    private int roomCapacity(int roomIndex) {
+        SplittableRandom r = random(ROOM, roomIndex);
+        return isStudio(roomIndex) ? 20 + 5 * r.nextInt(5) : 2 + r.nextInt(3);
+    }
+
+    private void writeAvailability(long index, StringBuilder out) {
+        int id = trainerBase + (int) index + 1;
+
+        // A recurring slot per weekday covers every hour the schedule can use
+        for (int day = 0; day < 7; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            out.append(id).append('\t');
+            TIMESTAMP.formatTo(date.atTime(FIRST_HOUR, 0), out);
+            out.append('\t');
+            TIMESTAMP.formatTo(date.atTime(FIRST_HOUR + HOURS_PER_DAY, 0), out);
+            out.append("\tt\n");
+        }
+    }
+
+    private void writeEquipment(long index, StringBuilder out) {
+        SplittableRandom r = random(EQUIPMENT, index);
+        int roomIndex = (int) (index / EQUIPMENT_PER_ROOM);
+        int item = (int) (index % EQUIPMENT_PER_ROOM);
+        String name = (isStudio(roomIndex) ? STUDIO_EQUIPMENT : PT_EQUIPMENT)[item];
+        out.append(equipmentBase + index + 1).append('\t').append(roomBase + roomIndex + 1).append('\t')
+            .append(name).append(" #").append(roomBase + roomIndex + 1).append('\t')
+            .append(equipmentType(roomIndex, item))
+            .append('\t').append(outOfOrder(r) ? "OutOfOrder" : "Operational").append('\n');
+    }
+
+    private static String equipmentType(int roomIndex, int item) {
+        if (isStudio(roomIndex)) {
+            return item == 1 ? "Flexibility" : item == 2 ? "Strength" : "Cardio";
+        }
+        return item == 2 ? "Cardio" : "Strength";
+    }
+
+    private static boolean outOfOrder(SplittableRandom equipmentRandom) {
+        return equipmentRandom.split().nextInt(100) < 5;
+    }
+
+    private void writeEquipmentIssues(long index, StringBuilder out) {
+        SplittableRandom r = random(EQUIPMENT, index);
+        long id = equipmentBase + index + 1;
+        boolean broken = outOfOrder(r);
+
+        // Out-of-order equipment has an open issue; some other equipment was repaired before
+        if (r.nextInt(100) < 20) {
+            LocalDateTime reported = firstDay.atTime(9, 0).plusDays(r.nextInt(Math.max(1, days - FUTURE_DAYS)));
+            issue(out, id, r, reported, "Reported worn and serviced.", "Resolved", reported.plusDays(1 + r.nextInt(14)));
+        }
+        if (broken) {
+            LocalDateTime reported = today.atTime(9, 0).minusDays(r.nextInt(30));
+            issue(out, id, r, reported, "Not working; taken out of use.", r.nextBoolean() ? "Open" : "InProgress", null);
+        }
+    }
+
+    private void issue(StringBuilder out, long equipmentId, SplittableRandom r, LocalDateTime reported,
+                       String description, String status, LocalDateTime resolved) {
+        out.append(equipmentId).append('\t').append(adminBase + 1 + r.nextInt(admins)).append('\t');
+        TIMESTAMP.formatTo(reported, out);
+        out.append('\t').append(description).append('\t').append(status).append('\t');
+        if (resolved == null) {
+            out.append("\\N");
+        } else {
+            TIMESTAMP.formatTo(resolved, out);
+        }
+        out.append('\n');
+    }
+
+    // Schedule
+
+    /**
+     * Decides what happens in one room for one hour. Slot positions run day by day, hour
+     * by hour, room by room.
+     *
+     * Within an hour, room r goes to trainer (r + offset) mod trainers and, for a PT
+     * session, member (base + r) mod members. Both are distinct across rooms because there
+     * are no more rooms than trainers or members, so nobody is booked twice in an hour.
+     */
+    private Slot slot(long position) {
+        int room = (int) (position % rooms);
+        long hourOfSchedule = position / rooms;
+        int day = (int) (hourOfSchedule / HOURS_PER_DAY);
+        int hour = (int) (hourOfSchedule % HOURS_PER_DAY);
+
+        SplittableRandom hourRandom = random(HOUR, hourOfSchedule);
+        int trainer = (int) ((room + (long) hourRandom.nextInt(trainers)) % trainers);
+        int member = (int) ((room + (long) hourRandom.nextInt(members)) % members);
+
+        SplittableRandom r = random(SLOT, position);
+        int busy = r.nextInt(100);
+        SlotKind kind = isStudio(room)
+            ? (busy < 60 ? SlotKind.CLASS : SlotKind.FREE)
+            : (busy < 50 ? SlotKind.SESSION : SlotKind.FREE);
+        return new Slot(kind, trainer, room, member, firstDay.plusDays(day).atTime(FIRST_HOUR + hour, 0), r);
+    }
+
+    private boolean isPast(LocalDateTime time) {
+        return time.isBefore(today.atStartOfDay());
+    }
+
+    private void writePtSession(long position, StringBuilder out) {
+        Slot s = slot(position);
+        if (s.kind() != SlotKind.SESSION) {
+            return;
+        }
+
+        boolean cancelled = s.random().nextInt(100) < 5;
+        out.append(memberBase + s.member() + 1).append('\t').append(trainerBase + s.trainer() + 1).append('\t')
+            .append(roomBase + s.room() + 1).append('\t');
+        TIMESTAMP.formatTo(s.start(), out);
+        out.append('\t');
+        TIMESTAMP.formatTo(s.start().plusHours(1), out);
+        out.append('\t').append(cancelled ? "Cancelled" : isPast(s.start()) ? "Completed" : "Booked").append('\n');
+    }
+
+    private void writeGroupClass(long position, StringBuilder out) {
+        Slot s = slot(position);
+        if (s.kind() != SlotKind.CLASS) {
+            return;
+        }
+
+        int capacity = roomCapacity(s.room());
+        SplittableRandom r = s.random();
+        boolean cancelled = r.nextInt(100) < 3;
+        String name = CLASS_NAMES[r.nextInt(CLASS_NAMES.length)];
+        out.append(classBase + position + 1).append('\t').append(trainerBase + s.trainer() + 1).append('\t')
+            .append(roomBase + s.room() + 1).append('\t').append(name).append("\t\\N\t");
+        TIMESTAMP.formatTo(s.start(), out);
+        out.append('\t');
+        TIMESTAMP.formatTo(s.start().plusHours(1), out);
+        out.append('\t').append(capacity).append('\t').append(cancelled ? 0 : seatsTaken(r, capacity)).append('\t')
+            .append(cancelled ? "Cancelled" : isPast(s.start()) ? "Completed" : "Scheduled").append('\n');
+    }
+
+    private void writeRegistrations(long position, StringBuilder out) {
+        Slot s = slot(position);
+        if (s.kind() != SlotKind.CLASS) {
+            return;
+        }
+
+        // Replays the draws writeGroupClass made, so seats_taken matches the rows written here
+        int capacity = roomCapacity(s.room());
+        SplittableRandom r = s.random();
+        if (r.nextInt(100) < 3) {
+            return;
+        }
+        r.nextInt(CLASS_NAMES.length);
+        int seats = seatsTaken(r, capacity);
+
+        // A stride coprime with the member count visits distinct members
+        long first = r.nextInt(members);
+        for (int i = 0; i < seats; i++) {
+            long member = (first + (long) i * registrationStride) % members;
+            out.append(classBase + position + 1).append('\t').append(memberBase + member + 1).append('\t');
+            TIMESTAMP.formatTo(s.start().minusMinutes(60 + r.nextInt(14 * 24 * 60)), out);
+            out.append('\n');
+        }
+    }
+
+    private int seatsTaken(SplittableRandom r, int capacity) {
+        return Math.min(members, capacity * (30 + r.nextInt(71)) / 100);
+    }
+
+    private static int coprimeStride(int members) {
+        for (int stride : new int[] {7919, 104_729, 1_299_709}) {
+            if (gcd(stride, members) == 1) {
+                return stride % members == 0 ? 1 : stride;
+            }
+        }
+        return 1;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static StringBuilder tenths(StringBuilder out, int tenths) {
+        return out.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    /**
+     * Produces COPY input on demand from a RowWriter, a few kilobytes at a time.
+     */
+    private static final class GeneratedRows extends Reader {
+        private static final int BUFFER_CHARS = 8192;
+
+        private final RowWriter writer;
+        private final long end;
+        private final StringBuilder buffer = new StringBuilder(BUFFER_CHARS * 2);
+        private long next;
+        private int position;
+
+        GeneratedRows(RowWriter writer, long from, long to) {
+            this.writer = writer;
+            this.next = from;
+            this.end = to;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position == buffer.length()) {
+                buffer.setLength(0);
+                position = 0;
+                while (buffer.length() < BUFFER_CHARS && next < end) {
+                    writer.write(next++, buffer);
+                }
+                if (buffer.length() == 0) {
+                    return -1;
+                }
+            }
+
+            int count = Math.min(len, buffer.length() - position);
+            buffer.getChars(position, position + count, cbuf, off);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
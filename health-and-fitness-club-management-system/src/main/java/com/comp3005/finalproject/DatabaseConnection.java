@@ -1,31 +1,514 @@
 package com.comp3005.finalproject;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  *  Handles PostgreSQL database connections for the Health and Fitness Club Management System.
+ *
+ *  Connections are served from a bounded pool. Callers borrow a connection with
+ *  {@link #getConnection()} and return it by closing it, so the existing
+ *  try-with-resources blocks in the repositories hand the connection back to the
+ *  pool instead of tearing down the physical connection. A borrow that times out
+ *  throws SQLException, which those blocks already catch, rather than returning null.
+ *
+ *  Every borrow is also timed for {@link RepositoryMetrics}, from the start of the wait
+ *  for a connection to its return, and attributed to the repository method that asked
+ *  for it. Connections held past the leak threshold are reported with that method; call
+ *  {@link #setRecordBorrowSites(boolean)} to have the report include the full stack. Statements are handed out as {@link WatchedStatement}s, which count failures
+ *  and report slow executions to the {@link SlowQueryLog}.
  */
 public class DatabaseConnection {
-    private static final String URL = "jdbc:postgresql://localhost:5432/postgres";
+    // reWriteBatchedInserts turns JDBC insert batches into multi-row INSERT statements
+    private static final String URL = "jdbc:postgresql://localhost:5432/postgres?reWriteBatchedInserts=true";
     private static final String USER = "postgres";
     private static final String PASSWORD = "password";
-    
+
+    // Pool settings
+    private static final int MIN_POOL_SIZE = 2;
+    private static final int MAX_POOL_SIZE = 10;
+    private static final long BORROW_TIMEOUT_MS = 5_000;
+    private static final long IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long LEAK_DETECTION_THRESHOLD_MS = 60_000;
+    private static final long VALIDATE_AFTER_IDLE_MS = 30_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 30_000;
+    private static final int BORROW_SITE_DEPTH = 32;       // Stack frames kept for a leak report
+
+    private static final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private static final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private static final Semaphore permits = new Semaphore(MAX_POOL_SIZE, true);
+
+    private static final AtomicLong created = new AtomicLong();
+    private static final AtomicLong destroyed = new AtomicLong();
+    private static final AtomicLong borrowCount = new AtomicLong();
+    private static final AtomicLong borrowTimeouts = new AtomicLong();
+    private static final AtomicLong leaksDetected = new AtomicLong();
+    private static final AtomicLong totalWaitNanos = new AtomicLong();
+
+    private static final List<Runnable> shutdownTasks = new CopyOnWriteArrayList<>();
+    private static final AtomicBoolean shutdownStarted = new AtomicBoolean();
+
+    private static final StackWalker walker = StackWalker.getInstance();
+    private static volatile boolean recordBorrowSites = false;
+
+    private static volatile ScheduledExecutorService housekeeper;
+    private static volatile boolean shutdown = false;
+    private static boolean shutdownHookRegistered = false;
+
+    /**
+     * Snapshot of the connection pool state.
+     *
+     * @param total          physical connections currently open
+     * @param idle           connections waiting in the pool
+     * @param active         connections currently borrowed
+     * @param waiting        threads waiting for a connection
+     * @param created        physical connections opened since startup
+     * @param destroyed      physical connections closed since startup
+     * @param borrows        successful borrows since startup
+     * @param timeouts       borrows that gave up after the borrow timeout
+     * @param leaks          borrowed connections held past the leak threshold
+     * @param avgWaitMicros  average time spent waiting for a connection
+     */
+    public record PoolStats(int total, int idle, int active, int waiting, long created, long destroyed,
+                            long borrows, long timeouts, long leaks, long avgWaitMicros) {
+        @Override
+        public String toString() {
+            return "Pool: total=" + total + ", idle=" + idle + ", active=" + active + ", waiting=" + waiting +
+                   " | created=" + created + ", destroyed=" + destroyed + ", borrows=" + borrows +
+                   ", timeouts=" + timeouts + ", leaks=" + leaks + ", avg wait=" + avgWaitMicros + "us";
+        }
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new physical connection if the pool
+     * is below its maximum size and waiting up to the borrow timeout for one to free up
+     * otherwise. Closing the returned connection returns it to the pool.
+     *
+     * @return                 a pooled connection
+     * @throws SQLException    if no connection could be obtained in time or the database is unreachable
+     */
+    public static Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        if (housekeeper == null) {
+            startHousekeeper();
+        }
+
+        // One stack walk serves both the metrics caller and, when recorded, the leak report
+        String caller;
+        List<StackWalker.StackFrame> borrowSite = null;
+        if (recordBorrowSites) {
+            borrowSite = walker.walk(frames -> frames.limit(BORROW_SITE_DEPTH).toList());
+            caller = RepositoryMetrics.callerOf(borrowSite);
+        } else {
+            caller = RepositoryMetrics.callerOf();
+        }
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                RepositoryMetrics.record(caller, System.nanoTime() - waitStart, true);
+                throw new SQLException("Timed out after " + BORROW_TIMEOUT_MS + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            RepositoryMetrics.record(caller, System.nanoTime() - waitStart, true);
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(openPhysical());
+                created.incrementAndGet();
+            }
+            pooled.markBorrowed(caller, borrowSite, waitStart);
+            borrowed.add(pooled);
+            borrowCount.incrementAndGet();
+            return pooled.proxy();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            RepositoryMetrics.record(caller, System.nanoTime() - waitStart, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool statistics.
+     *
+     * @return the current pool statistics
+     */
+    public static PoolStats getPoolStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        int active = borrowed.size();
+        long borrows = borrowCount.get();
+        long avgWait = borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get()) / borrows;
+        return new PoolStats(idleCount + active, idleCount, active, permits.getQueueLength(),
+            created.get(), destroyed.get(), borrows, borrowTimeouts.get(), leaksDetected.get(), avgWait);
+    }
+
+    /**
+     * Sets whether each borrow records the stack it was made from, so that a leak report
+     * shows exactly where the connection was taken. Off by default, since it costs a
+     * deeper stack walk on every borrow; leaks are still counted and reported with the
+     * borrowing repository method either way.
+     *
+     * @param enabled whether to record borrow sites
+     */
+    public static void setRecordBorrowSites(boolean enabled) {
+        recordBorrowSites = enabled;
+    }
+
+    /**
+     * Returns the most connections the pool will have open at once.
+     *
+     * @return the maximum pool size
+     */
+    public static int getMaxPoolSize() {
+        return MAX_POOL_SIZE;
+    }
+
+    /**
+     * Registers a task to run when the pool shuts down, before connections stop being
+     * handed out. Used by components that must write buffered data on exit.
+     *
+     * @param task the task to run
+     */
+    public static void runBeforeShutdown(Runnable task) {
+        shutdownTasks.add(task);
+        registerShutdownHook();
+    }
+
     /**
-     * Establishes a connection to the PostgreSQL database.
-     * 
-     * @return a Connection object if successful, or null otherwise
+     * Runs the registered shutdown tasks, then closes every idle connection and stops
+     * handing out new ones. Borrowed connections are closed as they are returned.
      */
-    public static Connection getConnection() {
+    public static void shutdown() {
+        if (!shutdownStarted.compareAndSet(false, true)) {
+            return;
+        }
+        for (Runnable task : shutdownTasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.out.println("Error running database shutdown task: ");
+                e.printStackTrace();
+            }
+        }
+
+        shutdown = true;
+        synchronized (DatabaseConnection.class) {
+            if (housekeeper != null) {
+                housekeeper.shutdownNow();
+            }
+        }
+        synchronized (idle) {
+            while (!idle.isEmpty()) {
+                destroy(idle.poll());
+            }
+        }
+    }
+
+    private static Connection openPhysical() throws SQLException {
         try {
             Class.forName("org.postgresql.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
-        } catch (ClassNotFoundException | SQLException e) {
-            System.out.println("Error connecting to database: ");
-            e.printStackTrace();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("PostgreSQL driver not found", e);
+        }
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+
+    private static PooledConnection takeValidIdle() {
+        while (true) {
+            PooledConnection candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            if (candidate.isUsable()) {
+                return candidate;
+            }
+            destroy(candidate);
+        }
+    }
+
+    private static void release(PooledConnection pooled) {
+        RepositoryMetrics.record(pooled.caller, System.nanoTime() - pooled.borrowStartNanos, pooled.failed);
+        borrowed.remove(pooled);
+
+        // A cancelled borrower may still be interrupted, which would break the connection's socket
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (shutdown || !pooled.reset()) {
+                destroy(pooled);
+            } else {
+                synchronized (idle) {
+                    // Most recently used first, so the tail ages out under light load
+                    idle.offerFirst(pooled);
+                }
+            }
+        } finally {
+            permits.release();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void destroy(PooledConnection pooled) {
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Already broken; nothing more to do
+        }
+        destroyed.incrementAndGet();
+    }
+
+    private static synchronized void startHousekeeper() {
+        if (housekeeper != null) {
+            return;
+        }
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(DatabaseConnection::housekeep,
+            HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        registerShutdownHook();
+    }
+
+    private static synchronized void registerShutdownHook() {
+        if (!shutdownHookRegistered) {
+            shutdownHookRegistered = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnection::shutdown, "db-pool-shutdown"));
+        }
+    }
+
+    private static void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Evict connections idle past the timeout, keeping the minimum pool size warm
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() + borrowed.size() > MIN_POOL_SIZE) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturned > IDLE_TIMEOUT_MS) {
+                    it.remove();
+                    destroy(pooled);
+                }
+            }
+        }
+
+        // Top the pool back up to its minimum size
+        while (!shutdown && getPoolStats().total() < MIN_POOL_SIZE && permits.tryAcquire()) {
+            try {
+                PooledConnection pooled = new PooledConnection(openPhysical());
+                created.incrementAndGet();
+                synchronized (idle) {
+                    idle.offerLast(pooled);
+                }
+            } catch (SQLException e) {
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+
+        // Report connections that have been held for too long
+        for (PooledConnection pooled : borrowed) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > LEAK_DETECTION_THRESHOLD_MS) {
+                pooled.leakReported = true;
+                leaksDetected.incrementAndGet();
+                List<StackWalker.StackFrame> site = pooled.borrowSite;
+                System.out.println("Possible connection leak: connection held for " + (now - pooled.borrowedAt) + " ms by " +
+                    (pooled.caller != null ? pooled.caller : "a non-repository caller") + (site != null ? ", borrowed at:" : ""));
+                if (site != null) {
+                    for (StackWalker.StackFrame frame : site) {
+                        System.out.println("\tat " + frame.toStackTraceElement());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A physical connection plus the bookkeeping the pool needs for it.
+     */
+    private static final class PooledConnection {
+        private final Connection physical;
+        private volatile long borrowedAt;
+        private volatile long lastReturned;
+        private volatile boolean leakReported;
+        private volatile List<StackWalker.StackFrame> borrowSite;
+
+        // The current borrower, for RepositoryMetrics
+        private volatile String caller;
+        private volatile long borrowStartNanos;
+        private volatile boolean failed;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.lastReturned = System.currentTimeMillis();
+        }
+
+        void markBorrowed(String caller, List<StackWalker.StackFrame> borrowSite, long startNanos) {
+            leakReported = false;
+            borrowedAt = System.currentTimeMillis();
+            this.borrowSite = borrowSite;
+            this.caller = caller;
+            this.borrowStartNanos = startNanos;
+            this.failed = false;
+        }
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, new Lease(this));
+        }
+
+        boolean isUsable() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (System.currentTimeMillis() - lastReturned < VALIDATE_AFTER_IDLE_MS) {
+                    return true;
+                }
+                return physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Restores the default session state so the next borrower starts clean.
+         *
+         * @return true if the connection can go back into the pool, or false otherwise
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                // A failed call may have been a broken socket, e.g. from interrupting a cancelled query
+                if (failed && !physical.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly()) {
+                    physical.setReadOnly(false);
+                }
+                physical.clearWarnings();
+                lastReturned = System.currentTimeMillis();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The handle given to a single borrower. Closing it returns the connection to the pool;
+     * any later use of the same handle fails rather than touching the next borrower's session.
+     */
+    private static final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+
+        // A lock rather than synchronized, so a virtual thread blocked in a query does not pin its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean closed;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            lock.lock();
+            try {
+                return call(proxyInstance, method, args);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Object call(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxyInstance == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxyInstance);
+                }
+                case "toString" -> {
+                    return "Pooled(" + pooled.physical + ")";
+                }
+                default -> {
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        Object result = method.invoke(pooled.physical, args);
+                        if (result instanceof Statement statement) {
+                            // Prepared and callable statements are created from their SQL
+                            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                            return WatchedStatement.wrap(statement, method.getReturnType(), sql, pooled.caller, this::noteFailure);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        noteFailure(e.getCause());
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+
+        private void noteFailure(Throwable cause) {
+            if (cause instanceof SQLException) {
+                pooled.failed = true;
+            }
         }
-        
-        return null;
     }
 }
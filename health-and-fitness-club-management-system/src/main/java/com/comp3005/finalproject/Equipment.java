@@ -0,0 +1,15 @@
+package com.comp3005.finalproject;
+
+/**
+ * An equipment item.
+ *
+ * @param equipmentId   the equipment ID
+ * @param roomId        the room ID, or null if unassigned
+ * @param name          the equipment name
+ * @param equipmentType the equipment type
+ * @param status        the operational status (Operational, OutOfOrder)
+ * @param roomName      the room name, or null if unassigned
+ */
+public record Equipment(int equipmentId, Integer roomId, String name, String equipmentType, String status,
+                        String roomName) {
+}
@@ -0,0 +1,18 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+
+/**
+ * A maintenance issue reported against an equipment item.
+ *
+ * @param issueId       the issue ID
+ * @param equipmentId   the equipment ID
+ * @param equipmentName the equipment name, or null if not loaded
+ * @param reportedAt    when the issue was reported
+ * @param description   a description of the issue
+ * @param status        the issue status (Open, InProgress, Resolved)
+ * @param resolvedAt    when the issue was resolved, or null if unresolved
+ */
+public record EquipmentIssue(int issueId, int equipmentId, String equipmentName, LocalDateTime reportedAt,
+                             String description, String status, LocalDateTime resolvedAt) {
+}
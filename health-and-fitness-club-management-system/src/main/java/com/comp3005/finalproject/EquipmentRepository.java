@@ -6,8 +6,10 @@ import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Handles database operations related to equipment.
@@ -16,28 +18,20 @@ public class EquipmentRepository {
     /**
      * Retrieves all equipment items.
      * 
-     * @return a list of equipment records, or empty if none exist
+     * @return a list of equipment items, or empty if none exist
      */
-    public List<String> getAllEquipment() {
-        List<String> equipmentList = new ArrayList<>();
+    public List<Equipment> getAllEquipment() {
+        List<Equipment> equipmentList = new ArrayList<>();
         String sql =
-            "SELECT e.equipment_id, e.name, e.equipment_type, e.status, e.room_id, r.name AS room_name " +
+            "SELECT e.equipment_id, e.name, e.equipment_type, e.status, e.room_id, NULL AS room_name " +
             "FROM equipment e " +
-            "LEFT JOIN room r ON e.room_id = r.room_id " +
             "ORDER BY e.equipment_id";
 
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                String row =
-                    "Equipment " + rs.getInt("equipment_id") + " - " +
-                    rs.getString("name") + " (" + rs.getString("equipment_type") + ") - " +
-                    "Status: " + rs.getString("status") + " - " +
-                    "Room: " + (rs.getObject("room_id") == null
-                        ? "Unassigned"
-                        : rs.getInt("room_id") + " (" + rs.getString("room_name") + ")");
-                equipmentList.add(row);
+                equipmentList.add(mapEquipment(rs));
             }
         } catch (SQLException e) {
             System.out.println("Error retrieving equipment: ");
@@ -47,14 +41,48 @@ public class EquipmentRepository {
         return equipmentList;
     }
 
+    /**
+     * Retrieves one page of equipment items, ordered by ID. Each page is a range scan on the
+     * primary key starting after the previous page's last ID.
+     *
+     * @param after    the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of equipment items on the page
+     * @return         the page of equipment items, empty if none remain
+     */
+    public Page<Equipment> getEquipmentPage(PageCursor after, int pageSize) {
+        List<Equipment> rows = new ArrayList<>();
+        String sql =
+            "SELECT e.equipment_id, e.name, e.equipment_type, e.status, e.room_id, NULL AS room_name " +
+            "FROM equipment e " +
+            "WHERE e.equipment_id > ? " +
+            "ORDER BY e.equipment_id " +
+            "LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, after == null ? 0 : after.lastId());
+            // One extra row tells us whether there is another page
+            pstmt.setInt(2, pageSize + 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapEquipment(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving equipment page: ");
+            e.printStackTrace();
+        }
+
+        return Page.of(rows, pageSize, row -> PageCursor.afterId(row.equipmentId()));
+    }
+
     /**
      * Retrieves a single equipment item by ID.
      * 
      * @param equipmentId the equipment ID
-     * @return            a list of the equipment record, or empty if none exist
+     * @return            the equipment item, or empty if none exist
      */
-    public List<String> getEquipmentById(int equipmentId) {
-        List<String> equipment = new ArrayList<>();
+    public Optional<Equipment> getEquipmentById(int equipmentId) {
         String sql =
             "SELECT e.equipment_id, e.name, e.equipment_type, e.status, e.room_id, r.name AS room_name " +
             "FROM equipment e " +
@@ -66,14 +94,7 @@ public class EquipmentRepository {
             pstmt.setInt(1, equipmentId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    String row =
-                        "Equipment " + rs.getInt("equipment_id") + " - " +
-                        rs.getString("name") + " (" + rs.getString("equipment_type") + ") - " +
-                        "Status: " + rs.getString("status") + " - " +
-                        "Room: " + (rs.getObject("room_id") == null
-                            ? "Unassigned"
-                            : rs.getInt("room_id") + " (" + rs.getString("room_name") + ")");
-                    equipment.add(row);
+                    return Optional.of(mapEquipment(rs));
                 }
             }
         } catch (SQLException e) {
@@ -81,7 +102,7 @@ public class EquipmentRepository {
             e.printStackTrace();
         }
 
-        return equipment;
+        return Optional.empty();
     }
 
     /**
@@ -90,8 +111,9 @@ public class EquipmentRepository {
      * @param roomId        the room ID
      * @param name          the equipment name
      * @param equipmentType the equipment type
+     * @return              the result
      */
-    public void addEquipment(Integer roomId, String name, String equipmentType) {
+    public WriteResult addEquipment(Integer roomId, String name, String equipmentType) {
         String sql = "INSERT INTO equipment (room_id, name, equipment_type) VALUES (?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -105,11 +127,13 @@ public class EquipmentRepository {
             pstmt.setString(2, name);
             pstmt.setString(3, equipmentType);
             pstmt.executeUpdate();
-            System.out.println("Equipment added successfully!");
+            return WriteResult.SAVED;
         } catch (SQLException e) {
             System.out.println("Error adding equipment: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
@@ -117,8 +141,9 @@ public class EquipmentRepository {
      * 
      * @param equipmentId the equipment ID
      * @param status      the new status (Operational, OutOfOrder)
+     * @return            the result
      */
-    public void updateEquipmentStatus(int equipmentId, String status) {
+    public WriteResult updateEquipmentStatus(int equipmentId, String status) {
         String sql = "UPDATE equipment SET status = ? WHERE equipment_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -127,15 +152,13 @@ public class EquipmentRepository {
             pstmt.setInt(2, equipmentId);
 
             int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("Equipment status updated successfully!");
-            } else {
-                System.out.println("No equipment found with ID: " + equipmentId);
-            }
+            return rows > 0 ? WriteResult.SAVED : WriteResult.NOT_FOUND;
         } catch (SQLException e) {
             System.out.println("Error updating equipment status: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
     
     /**
@@ -144,8 +167,9 @@ public class EquipmentRepository {
      * @param equipmentId the equipment  ID
      * @param adminId     the ID of the admin reporting the issue
      * @param description a description of the issue
+     * @return            the result
      */
-    public void addEquipmentIssue(int equipmentId, int adminId, String description) {
+    public WriteResult addEquipmentIssue(int equipmentId, int adminId, String description) {
         String sql = "INSERT INTO equipment_issue (equipment_id, reported_by_admin_id, description) VALUES (?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -154,11 +178,13 @@ public class EquipmentRepository {
             pstmt.setInt(2, adminId);
             pstmt.setString(3, description);
             pstmt.executeUpdate();
-            System.out.println("Equipment issue logged successfully!");
+            return WriteResult.SAVED;
         } catch (SQLException e) {
             System.out.println("Error logging equipment issue: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
@@ -167,8 +193,9 @@ public class EquipmentRepository {
      * @param issueId    the issue ID
      * @param status     the new status (Open, InProgress, Resolved)
      * @param resolvedAt the resolution timestamp (YYYY-MM-DD HH:MM:SS), or null if not resolved
+     * @return           the result
      */
-    public void updateEquipmentIssueStatus(int issueId, String status, String resolvedAt) {
+    public WriteResult updateEquipmentIssueStatus(int issueId, String status, String resolvedAt) {
         String sql = "UPDATE equipment_issue SET status = ?, resolved_at = ? WHERE issue_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -184,24 +211,22 @@ public class EquipmentRepository {
             pstmt.setInt(3, issueId);
 
             int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("Equipment issue status updated successfully!");
-            } else {
-                System.out.println("No equipment issue found with ID: " + issueId);
-            }
+            return rows > 0 ? WriteResult.SAVED : WriteResult.NOT_FOUND;
         } catch (SQLException e) {
             System.out.println("Error updating equipment issue status: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
     
     /**
      * Retrieves all open equipment issues.
      * 
-     * @return a list of open equipment issue records, or empty if none exist
+     * @return a list of open equipment issues, or empty if none exist
      */
-    public List<String> getOpenEquipmentIssues() {
-        List<String> issues = new ArrayList<>();
+    public List<EquipmentIssue> getOpenEquipmentIssues() {
+        List<EquipmentIssue> issues = new ArrayList<>();
         String sql =
             "SELECT ei.issue_id, ei.equipment_id, e.name AS equipment_name, ei.reported_at, ei.status, ei.description, ei.resolved_at " +
             "FROM equipment_issue ei " +
@@ -213,14 +238,7 @@ public class EquipmentRepository {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                String row =
-                    "Issue " + rs.getInt("issue_id") + " - " +
-                    "Equipment " + rs.getInt("equipment_id") + " (" + rs.getString("equipment_name") + ") - " +
-                    "Reported: " + rs.getTimestamp("reported_at") + " - " +
-                    "Status: " + rs.getString("status") + " - " +
-                    "Description: " + rs.getString("description") + " - " +
-                    "Resolved at: " + rs.getTimestamp("resolved_at");
-                issues.add(row);
+                issues.add(mapIssue(rs));
             }
         } catch (SQLException e) {
             System.out.println("Error retrieving open equipment issues: ");
@@ -234,12 +252,12 @@ public class EquipmentRepository {
      * Retrieves all issues for a specific equipment item.
      * 
      * @param equipmentId the equipment ID
-     * @return            a list of issue records for the equipment, or empty if none exist
+     * @return            a list of issues for the equipment, or empty if none exist
      */
-    public List<String> getIssuesForEquipment(int equipmentId) {
-        List<String> issues = new ArrayList<>();
+    public List<EquipmentIssue> getIssuesForEquipment(int equipmentId) {
+        List<EquipmentIssue> issues = new ArrayList<>();
         String sql =
-            "SELECT issue_id, reported_at, status, description, resolved_at " +
+            "SELECT issue_id, equipment_id, NULL AS equipment_name, reported_at, status, description, resolved_at " +
             "FROM equipment_issue " +
             "WHERE equipment_id = ? " +
             "ORDER BY reported_at DESC";
@@ -249,13 +267,7 @@ public class EquipmentRepository {
             pstmt.setInt(1, equipmentId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String row =
-                        "Issue " + rs.getInt("issue_id") + " - " +
-                        "Reported: " + rs.getTimestamp("reported_at") + " - " +
-                        "Status: " + rs.getString("status") + " - " +
-                        "Description: " + rs.getString("description") + " - " +
-                        "Resolved at: " + rs.getTimestamp("resolved_at");
-                    issues.add(row);
+                    issues.add(mapIssue(rs));
                 }
             }
         } catch (SQLException e) {
@@ -265,4 +277,25 @@ public class EquipmentRepository {
 
         return issues;
     }
+
+    private static Equipment mapEquipment(ResultSet rs) throws SQLException {
+        return new Equipment(
+            rs.getInt("equipment_id"),
+            rs.getObject("room_id", Integer.class),
+            rs.getString("name"),
+            rs.getString("equipment_type"),
+            rs.getString("status"),
+            rs.getString("room_name"));
+    }
+
+    private static EquipmentIssue mapIssue(ResultSet rs) throws SQLException {
+        return new EquipmentIssue(
+            rs.getInt("issue_id"),
+            rs.getInt("equipment_id"),
+            rs.getString("equipment_name"),
+            rs.getObject("reported_at", LocalDateTime.class),
+            rs.getString("description"),
+            rs.getString("status"),
+            rs.getObject("resolved_at", LocalDateTime.class));
+    }
 }
@@ -0,0 +1,365 @@
+package com.comp3005.finalproject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries of one composite read side by side, each on a virtual
+ * thread of its own and so on a pooled connection of its own, in the shape of the JDK's
+ * structured concurrency (which is still a preview API in Java 21):
+ *
+ * <pre>
+ * try (FanOut fanOut = new FanOut("TrainerService.getSchedule")) {
+ *     FanOut.Branch&lt;List&lt;PtSession&gt;&gt; sessions = fanOut.fork("ptSessions", () -&gt; ...);
+ *     FanOut.Branch&lt;List&lt;GroupClass&gt;&gt; classes = fanOut.fork("classes", () -&gt; ...);
+ *     fanOut.join();
+ *     return new TrainerSchedule(trainerId, sessions.get(), classes.get());
+ * }
+ * </pre>
+ *
+ * The first branch to throw, or to return a result its stop condition matches, cancels
+ * its siblings by interrupting them: join() returns or rethrows at once rather than
+ * waiting for work whose result no longer matters, and close() waits for the interrupted
+ * branches to finish so none outlives the block. Every branch's elapsed time, and how
+ * often it was cancelled, is recorded per scope and branch name for the diagnostics menu.
+ *
+ * A fan-out has at most MAX_BRANCHES branches, so a caller that runs one holds at most
+ * that many pooled connections at once. ServiceExecutor sizes its permits by it.
+ */
+public final class FanOut implements AutoCloseable {
+    /**
+     * The most branches one fan-out may start.
+     */
+    public static final int MAX_BRANCHES = 3;
+
+    private static final ThreadFactory THREADS = Thread.ofVirtual().name("fan-out-", 0).factory();
+    private static final ConcurrentHashMap<String, BranchStats> stats = new ConcurrentHashMap<>();
+
+    private final String scope;
+
+    // A lock rather than synchronized, so a virtual thread waiting in join() leaves its carrier free
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition branchFinished = lock.newCondition();
+    private final List<Branch<?>> branches = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+    private int running;
+    private boolean cancelled;
+    private RuntimeException failure;
+    private Error error;
+    private long elapsedNanos = -1;
+
+    /**
+     * What became of a branch.
+     */
+    public enum State {
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+
+    /**
+     * How long one branch of a finished fan-out took.
+     *
+     * @param branch       the branch name
+     * @param state        what became of the branch
+     * @param elapsedNanos the time from the fork to the branch finishing
+     */
+    public record BranchTiming(String branch, State state, long elapsedNanos) {
+    }
+
+    /**
+     * One query running as part of a fan-out.
+     */
+    public static final class Branch<T> {
+        private final String name;
+        private final Predicate<? super T> stopWhen;
+        private final BranchStats branchStats;
+        private Thread thread;
+        private volatile State state = State.RUNNING;
+        private volatile T result;
+        private volatile long elapsedNanos;
+
+        private Branch(String name, Predicate<? super T> stopWhen, BranchStats branchStats) {
+            this.name = name;
+            this.stopWhen = stopWhen;
+            this.branchStats = branchStats;
+        }
+
+        /**
+         * Returns the branch's result.
+         *
+         * @return                       the result
+         * @throws IllegalStateException if the branch did not succeed
+         */
+        public T get() {
+            if (state != State.SUCCEEDED) {
+                throw new IllegalStateException("Branch " + name + " did not succeed: " + state);
+            }
+            return result;
+        }
+
+        /**
+         * Returns what became of the branch.
+         *
+         * @return the branch state
+         */
+        public State state() {
+            return state;
+        }
+    }
+
+    /**
+     * Timing of one branch across every fan-out with its scope name, in microseconds.
+     */
+    public static final class BranchStats {
+        private final String scope;
+        private final String branch;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder cancellations = new LongAdder();
+
+        BranchStats(String scope, String branch) {
+            this.scope = scope;
+            this.branch = branch;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public String getBranch() {
+            return branch;
+        }
+
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency.snapshot();
+        }
+
+        public long getCancellations() {
+            return cancellations.sum();
+        }
+    }
+
+    /**
+     * Opens a fan-out.
+     *
+     * @param scope the composite operation, e.g. "TrainerService.getSchedule"
+     */
+    public FanOut(String scope) {
+        this.scope = scope;
+    }
+
+    /**
+     * Starts a branch.
+     *
+     * @param name the branch name, unique within the fan-out
+     * @param task the query to run
+     * @return     the branch, whose result is available after join()
+     */
+    public <T> Branch<T> fork(String name, Supplier<T> task) {
+        return fork(name, task, null);
+    }
+
+    /**
+     * Starts a branch that cancels its siblings if it returns a result that makes theirs
+     * unnecessary, such as a conflict.
+     *
+     * @param name                   the branch name, unique within the fan-out
+     * @param task                   the query to run
+     * @param stopWhen               matches a result that should cancel the other branches, or null
+     * @return                       the branch, whose result is available after join()
+     * @throws IllegalStateException if the fan-out has been joined or already has MAX_BRANCHES branches
+     */
+    public <T> Branch<T> fork(String name, Supplier<T> task, Predicate<? super T> stopWhen) {
+        Branch<T> branch = new Branch<>(name, stopWhen,
+            stats.computeIfAbsent(scope + "/" + name, key -> new BranchStats(scope, name)));
+        lock.lock();
+        try {
+            if (elapsedNanos >= 0) {
+                throw new IllegalStateException("Fan-out " + scope + " has already been joined");
+            }
+            if (branches.size() == MAX_BRANCHES) {
+                throw new IllegalStateException("Fan-out " + scope + " already has " + MAX_BRANCHES + " branches");
+            }
+            branches.add(branch);
+            running++;
+            branch.thread = THREADS.newThread(() -> run(branch, task));
+            branch.thread.start();
+        } finally {
+            lock.unlock();
+        }
+        return branch;
+    }
+
+    /**
+     * Waits for every branch to finish, or for the first to fail or match its stop
+     * condition. Branches that were cancelled have no result.
+     *
+     * @throws RuntimeException      the exception of the first branch that failed
+     * @throws CancellationException if the calling thread was interrupted while waiting
+     */
+    public void join() {
+        lock.lock();
+        try {
+            try {
+                while (running > 0 && !cancelled) {
+                    branchFinished.await();
+                }
+            } catch (InterruptedException e) {
+                cancelRunning();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for " + scope);
+            } finally {
+                elapsedNanos = System.nanoTime() - startNanos;
+            }
+
+            if (error != null) {
+                throw error;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how long each branch took, and the whole fan-out as "total". Branches still
+     * running are reported as running, with the time so far.
+     *
+     * @return the branch timings in fork order, followed by the total
+     */
+    public List<BranchTiming> getTimings() {
+        lock.lock();
+        try {
+            List<BranchTiming> timings = new ArrayList<>();
+            long now = System.nanoTime();
+            for (Branch<?> branch : branches) {
+                State state = branch.state;
+                timings.add(new BranchTiming(branch.name, state, state == State.RUNNING ? now - startNanos : branch.elapsedNanos));
+            }
+            State total = failure != null || error != null ? State.FAILED
+                : cancelled ? State.CANCELLED
+                : running > 0 ? State.RUNNING
+                : State.SUCCEEDED;
+            timings.add(new BranchTiming("total", total, elapsedNanos >= 0 ? elapsedNanos : now - startNanos));
+            return timings;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels any branches still running and waits for them to finish.
+     */
+    @Override
+    public void close() {
+        List<Thread> threads;
+        lock.lock();
+        try {
+            if (running > 0) {
+                cancelRunning();
+            }
+            threads = branches.stream().map(b -> b.thread).toList();
+        } finally {
+            lock.unlock();
+        }
+
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the branch timings of every fan-out run so far.
+     *
+     * @return the branches ordered by scope and branch name
+     */
+    public static List<BranchStats> getBranchStats() {
+        return stats.values().stream()
+            .sorted(Comparator.comparing(BranchStats::getScope).thenComparing(BranchStats::getBranch))
+            .toList();
+    }
+
+    /**
+     * Clears the branch timings of every fan-out.
+     */
+    public static void resetStats() {
+        for (BranchStats branchStats : stats.values()) {
+            branchStats.latency.reset();
+            branchStats.cancellations.reset();
+        }
+    }
+
+    private <T> void run(Branch<T> branch, Supplier<T> task) {
+        T result = null;
+        Throwable thrown = null;
+        try {
+            result = task.get();
+        } catch (RuntimeException | Error e) {
+            thrown = e;
+        }
+
+        lock.lock();
+        try {
+            branch.elapsedNanos = System.nanoTime() - startNanos;
+            running--;
+            if (cancelled) {
+                // Whatever it returned or threw came after its siblings had stopped caring
+                branch.state = State.CANCELLED;
+                branch.branchStats.cancellations.increment();
+            } else if (thrown != null) {
+                branch.state = State.FAILED;
+                if (thrown instanceof Error e) {
+                    error = e;
+                } else {
+                    failure = (RuntimeException) thrown;
+                }
+                cancelRunning();
+            } else {
+                branch.result = result;
+                branch.state = State.SUCCEEDED;
+                if (branch.stopWhen != null && branch.stopWhen.test(result)) {
+                    cancelRunning();
+                }
+            }
+            branch.branchStats.latency.record(branch.elapsedNanos);
+            branchFinished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Callers hold the lock
+    private void cancelRunning() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        for (Branch<?> branch : branches) {
+            if (branch.state == State.RUNNING) {
+                branch.thread.interrupt();
+            }
+        }
+    }
+}
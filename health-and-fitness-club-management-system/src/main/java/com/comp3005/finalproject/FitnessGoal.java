@@ -0,0 +1,19 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDate;
+
+/**
+ * A fitness goal set by a member.
+ *
+ * @param goalId      the fitness goal ID
+ * @param memberId    the member's ID
+ * @param goalType    the type of fitness goal
+ * @param targetValue the numeric target value
+ * @param unit        the unit of the target value
+ * @param startDate   the date the goal was set
+ * @param targetDate  the target completion date, or null if not set
+ * @param status      the goal status (Active, Completed, Cancelled)
+ */
+public record FitnessGoal(int goalId, int memberId, String goalType, double targetValue, String unit,
+                          LocalDate startDate, LocalDate targetDate, String status) {
+}
@@ -0,0 +1,32 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+
+/**
+ * A scheduled group fitness class.
+ *
+ * @param classId     the group fitness class ID
+ * @param trainerId   the trainer's ID
+ * @param roomId      the room ID
+ * @param name        the class name
+ * @param description the class description, or null if not set
+ * @param startTime   the start time
+ * @param endTime     the end time
+ * @param capacity    the class capacity
+ * @param seatsTaken  the number of members registered
+ * @param status      the class status (Scheduled, Cancelled, Completed)
+ * @param trainerName the trainer's full name, or null if not loaded
+ * @param roomName    the room name, or null if not loaded
+ */
+public record GroupClass(int classId, int trainerId, int roomId, String name, String description,
+                         LocalDateTime startTime, LocalDateTime endTime, int capacity, int seatsTaken, String status,
+                         String trainerName, String roomName) {
+    /**
+     * Returns the number of seats still open.
+     *
+     * @return the remaining seats, never negative
+     */
+    public int seatsRemaining() {
+        return Math.max(0, capacity - seatsTaken);
+    }
+}
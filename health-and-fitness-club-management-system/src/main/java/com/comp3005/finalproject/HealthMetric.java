@@ -0,0 +1,18 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single health metric reading for a member.
+ *
+ * @param metricId    the health metric ID
+ * @param memberId    the member's ID
+ * @param measureTime when the reading was taken
+ * @param height      the member's height
+ * @param weight      the member's weight
+ * @param heartRate   the member's heart rate
+ * @param bodyFat     the member's body fat percentage
+ */
+public record HealthMetric(int metricId, int memberId, LocalDateTime measureTime, double height, double weight,
+                           int heartRate, double bodyFat) {
+}
@@ -0,0 +1,330 @@
+package com.comp3005.finalproject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Buffers health metric readings and writes them to health_metric in JDBC batches.
+ *
+ * Readings go into a bounded queue. A single flusher thread writes a batch once it
+ * reaches the batch size or the oldest reading has waited for the maximum delay.
+ * When the queue is full, submitters block until the flusher catches up, so a burst
+ * of readings slows producers down instead of exhausting memory. Closing the ingestor,
+ * or shutting down the connection pool, writes everything still queued.
+ *
+ * A batch that fails on a lost connection or a deadlock is retried. A batch the database
+ * rejects for its data is split until the bad readings are isolated, so only those are lost.
+ */
+public final class HealthMetricIngestor implements AutoCloseable {
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long DEFAULT_MAX_DELAY_MS = 1_000;
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 200;
+    private static final long IDLE_POLL_MS = 100;
+
+    private final BlockingQueue<HealthMetricReading> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Thread flusher;
+
+    // Submitters hold the read lock; close() takes the write lock so nothing is queued after the final drain
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed = false;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder backpressureWaits = new LongAdder();
+    private final LongAdder backpressureNanos = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    /**
+     * Snapshot of the ingestor's counters.
+     *
+     * @param submitted          readings accepted
+     * @param written            readings written to the database
+     * @param failed             readings the database rejected, or that could not be written after every retry
+     * @param queued             readings waiting to be written
+     * @param batches            batches written
+     * @param backpressureWaits  submits that had to wait for queue space
+     * @param backpressureMillis total time submitters spent waiting for queue space
+     * @param avgFlushMillis     average time to write a batch
+     * @param maxFlushMillis     longest time to write a batch
+     */
+    public record IngestStats(long submitted, long written, long failed, int queued, long batches,
+                              long backpressureWaits, long backpressureMillis, double avgFlushMillis,
+                              double maxFlushMillis) {
+    }
+
+    public HealthMetricIngestor() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY_MS);
+    }
+
+    /**
+     * Creates an ingestor and starts its flusher thread.
+     *
+     * @param queueCapacity the maximum number of readings buffered before submitters block
+     * @param batchSize     the number of readings written per batch
+     * @param maxDelayMs    the longest a reading waits before its batch is written
+     */
+    public HealthMetricIngestor(int queueCapacity, int batchSize, long maxDelayMs) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.flusher = new Thread(this::runFlusher, "health-metric-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        DatabaseConnection.runBeforeShutdown(this::close);
+    }
+
+    /**
+     * Queues a reading, waiting for space if the queue is full.
+     *
+     * @param reading the reading to write
+     * @throws InterruptedException if interrupted while waiting for space
+     * @throws IllegalStateException if the ingestor has been closed
+     */
+    public void submit(HealthMetricReading reading) throws InterruptedException {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Health metric ingestor is closed");
+            }
+            if (!queue.offer(reading)) {
+                long waitStart = System.nanoTime();
+                backpressureWaits.increment();
+                queue.put(reading);
+                backpressureNanos.add(System.nanoTime() - waitStart);
+            }
+            submitted.increment();
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Queues every reading from a stream, waiting for space as needed.
+     *
+     * @param readings the readings to write
+     * @throws InterruptedException if interrupted while waiting for space
+     */
+    public void submitAll(Stream<HealthMetricReading> readings) throws InterruptedException {
+        Iterator<HealthMetricReading> it = readings.iterator();
+        while (it.hasNext()) {
+            submit(it.next());
+        }
+    }
+
+    /**
+     * Returns a snapshot of the ingestor's counters.
+     *
+     * @return the current statistics
+     */
+    public IngestStats getStats() {
+        long batchCount = batches.sum();
+        double avgFlush = batchCount == 0 ? 0 : flushNanos.sum() / 1e6 / batchCount;
+        return new IngestStats(submitted.sum(), written.sum(), failed.sum(), queue.size(), batchCount,
+            backpressureWaits.sum(), TimeUnit.NANOSECONDS.toMillis(backpressureNanos.sum()),
+            avgFlush, maxFlushNanos.get() / 1e6);
+    }
+
+    /**
+     * Stops accepting readings and writes everything still queued before returning.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // The flusher exits once the queue is empty, but drain here as well in case it died
+        List<HealthMetricReading> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int i = 0; i < rest.size(); i += batchSize) {
+            flush(rest.subList(i, Math.min(rest.size(), i + batchSize)));
+        }
+    }
+
+    private void runFlusher() {
+        List<HealthMetricReading> batch = new ArrayList<>(batchSize);
+
+        while (true) {
+            try {
+                HealthMetricReading first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+
+                // Fill the batch until it is full or the first reading has waited long enough
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || closed) {
+                        break;
+                    }
+                    HealthMetricReading next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Nothing interrupts the flusher on purpose; keep going until closed
+                if (closed) {
+                    flush(batch);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void flush(List<HealthMetricReading> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        writeOrSplit(batch);
+        long elapsed = System.nanoTime() - start;
+        flushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        batches.increment();
+    }
+
+    /**
+     * Writes a batch. A batch the database rejects for its data is split in half and each
+     * half written separately, until the readings that cannot be written are isolated, so
+     * one bad reading does not take the good ones in its batch down with it.
+     */
+    private void writeOrSplit(List<HealthMetricReading> batch) {
+        SQLException error = writeWithRetry(batch);
+        if (error == null) {
+            written.add(batch.size());
+            return;
+        }
+
+        if (isTransient(error) || batch.size() == 1) {
+            failed.add(batch.size());
+            if (batch.size() == 1) {
+                System.out.println("Error writing health metric reading for member " + batch.get(0).memberId() + ": ");
+            } else {
+                System.out.println("Error writing " + batch.size() + " health metric readings: ");
+            }
+            error.printStackTrace();
+            return;
+        }
+
+        int mid = batch.size() / 2;
+        writeOrSplit(batch.subList(0, mid));
+        writeOrSplit(batch.subList(mid, batch.size()));
+    }
+
+    /**
+     * Writes a batch in one transaction, retrying failures that may succeed a moment later.
+     *
+     * @return the error that stopped the write, or null if it succeeded
+     */
+    private SQLException writeWithRetry(List<HealthMetricReading> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(batch);
+                return null;
+            } catch (SQLException e) {
+                if (!isTransient(e) || attempt == MAX_FLUSH_ATTEMPTS) {
+                    return e;
+                }
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return e;
+                }
+            }
+        }
+    }
+
+    private void insert(List<HealthMetricReading> batch) throws SQLException {
+        String sql =
+            "INSERT INTO health_metric (member_id, measure_time, height, weight, heart_rate, body_fat) " +
+            "VALUES (?, COALESCE(?, CURRENT_TIMESTAMP), ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (HealthMetricReading r : batch) {
+                    pstmt.setInt(1, r.memberId());
+                    pstmt.setTimestamp(2, r.measureTime() == null ? null : Timestamp.valueOf(r.measureTime()));
+                    setNullable(pstmt, 3, r.height(), Types.NUMERIC);
+                    setNullable(pstmt, 4, r.weight(), Types.NUMERIC);
+                    setNullable(pstmt, 5, r.heartRate(), Types.INTEGER);
+                    setNullable(pstmt, 6, r.bodyFat(), Types.NUMERIC);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a failed write is worth retrying as it is. SQLSTATE class 08 is a
+     * lost connection and class 40 a serialization failure or deadlock; a borrow that
+     * timed out in the pool has no SQLSTATE at all. Anything else, such as an unknown
+     * member or a failed CHECK, will fail the same way every time.
+     */
+    private static boolean isTransient(SQLException e) {
+        // A failed batch reports the underlying error as its next exception
+        String state = null;
+        for (SQLException cause = e; cause != null && state == null; cause = cause.getNextException()) {
+            state = cause.getSQLState();
+        }
+        return state == null || state.startsWith("08") || state.startsWith("40");
+    }
+
+    private static void setNullable(PreparedStatement pstmt, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            pstmt.setNull(index, sqlType);
+        } else {
+            pstmt.setObject(index, value, sqlType);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+
+/**
+ * A health metric reading waiting to be written, typically synced from a member's wearable.
+ * Devices usually report only some values, so each measurement is optional.
+ *
+ * @param memberId    the member's ID
+ * @param measureTime when the reading was taken, or null to use the time it is written
+ * @param height      the member's height, or null if not measured
+ * @param weight      the member's weight, or null if not measured
+ * @param heartRate   the member's heart rate, or null if not measured
+ * @param bodyFat     the member's body fat percentage, or null if not measured
+ */
+public record HealthMetricReading(int memberId, LocalDateTime measureTime, Double height, Double weight,
+                                  Integer heartRate, Double bodyFat) {
+}
@@ -0,0 +1,27 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDate;
+
+/**
+ * A club member.
+ *
+ * @param memberId  the member's ID
+ * @param firstName the member's first name
+ * @param lastName  the member's last name
+ * @param dob       the member's date of birth
+ * @param gender    the member's gender (Male, Female, Other)
+ * @param email     the member's email address
+ * @param phone     the member's phone number, or null if not provided
+ * @param joinDate  the date the member joined
+ */
+public record Member(int memberId, String firstName, String lastName, LocalDate dob, String gender,
+                     String email, String phone, LocalDate joinDate) {
+    /**
+     * Returns the member's full name.
+     *
+     * @return the first and last name separated by a space
+     */
+    public String fullName() {
+        return firstName + " " + lastName;
+    }
+}
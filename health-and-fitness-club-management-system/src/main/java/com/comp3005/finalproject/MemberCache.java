@@ -0,0 +1,207 @@
+package com.comp3005.finalproject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Least-recently-used cache of members in front of MemberRepository.
+ *
+ * The cache is bounded by an estimate of the heap its members take up, not by a count,
+ * so long names and emails cannot push it past its budget. Member writes made through
+ * MemberService invalidate the member. Lookups of IDs that do not exist go to the
+ * database every time, so newly added members need no invalidation.
+ */
+public class MemberCache {
+    public static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    // Rough per-entry cost of the map entry, the Integer key, the Member, and its two LocalDates
+    private static final int ENTRY_OVERHEAD_BYTES = 200;
+    // Rough cost of a String object and its array header, on top of one byte per character
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final MemberRepository memberRepository;
+    private final long maxBytes;
+
+    // A lock rather than synchronized, so a virtual thread waiting for it leaves its carrier free
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Access-ordered, so iteration starts at the least recently used member
+    private final LinkedHashMap<Integer, Member> members = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    // Bumped on every invalidation so results read before it are not cached
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public MemberCache(MemberRepository memberRepository) {
+        this(memberRepository, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates a member cache.
+     *
+     * @param memberRepository the repository to load members from
+     * @param maxBytes         the estimated heap the cached members may take up
+     */
+    public MemberCache(MemberRepository memberRepository, long maxBytes) {
+        this.memberRepository = memberRepository;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Retrieves a member by ID, loading it from the database on a miss.
+     *
+     * @param memberId the member's ID
+     * @return         the member, or empty if none exist
+     */
+    public Optional<Member> getMember(int memberId) {
+        long version;
+        lock.lock();
+        try {
+            Member cached = members.get(memberId);
+            if (cached != null) {
+                hits++;
+                return Optional.of(cached);
+            }
+            misses++;
+            version = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        Optional<Member> loaded = memberRepository.getMemberById(memberId);
+        if (loaded.isPresent()) {
+            lock.lock();
+            try {
+                if (generation == version) {
+                    put(loaded.get());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops a cached member. Call after the member is changed.
+     *
+     * @param memberId the member's ID
+     */
+    public void invalidate(int memberId) {
+        lock.lock();
+        try {
+            generation++;
+            Member removed = members.remove(memberId);
+            if (removed != null) {
+                usedBytes -= estimateBytes(removed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every cached member.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            members.clear();
+            usedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how often a lookup was served from the cache.
+     *
+     * @return the cache hit ratio between 0 and 1, or 0 before any lookups
+     */
+    public double getHitRatio() {
+        lock.lock();
+        try {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many members were evicted to stay within the heap budget.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        lock.lock();
+        try {
+            return evictions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached members.
+     *
+     * @return the member count
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return members.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated heap taken up by the cached members.
+     *
+     * @return the estimate in bytes
+     */
+    public long getUsedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Callers hold the lock
+    private void put(Member member) {
+        Member previous = members.put(member.memberId(), member);
+        if (previous != null) {
+            usedBytes -= estimateBytes(previous);
+        }
+        usedBytes += estimateBytes(member);
+
+        Iterator<Map.Entry<Integer, Member>> eldest = members.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            Member evicted = eldest.next().getValue();
+            eldest.remove();
+            usedBytes -= estimateBytes(evicted);
+            evictions++;
+        }
+    }
+
+    private static long estimateBytes(Member m) {
+        return ENTRY_OVERHEAD_BYTES
+            + stringBytes(m.firstName()) + stringBytes(m.lastName()) + stringBytes(m.gender())
+            + stringBytes(m.email()) + stringBytes(m.phone());
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : STRING_OVERHEAD_BYTES + s.length();
+    }
+}
@@ -0,0 +1,32 @@
+package com.comp3005.finalproject;
+
+import java.util.List;
+
+/**
+ * The outcome of a bulk member import.
+ *
+ * @param rowsRead      the number of data rows read from the file
+ * @param rowsImported  the number of members created
+ * @param errors        the rejected rows, in file order
+ * @param elapsedMillis the total time taken by the import
+ */
+public record MemberImportResult(long rowsRead, long rowsImported, List<RowError> errors, long elapsedMillis) {
+    /**
+     * A row that could not be imported.
+     *
+     * @param line   the line number in the file, counting the header as line 1
+     * @param email  the email on the row, or null if missing
+     * @param reason why the row was rejected
+     */
+    public record RowError(long line, String email, String reason) {
+    }
+
+    /**
+     * Returns the import rate.
+     *
+     * @return rows read per second
+     */
+    public double rowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead * 1000.0 : rowsRead * 1000.0 / elapsedMillis;
+    }
+}
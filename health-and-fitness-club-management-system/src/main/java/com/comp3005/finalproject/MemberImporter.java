@@ -0,0 +1,149 @@
+package com.comp3005.finalproject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Bulk-loads members from CSV using PostgreSQL COPY.
+ *
+ * The file is streamed into a temporary staging table, validated with set-based
+ * statements, and merged into member in a single transaction. Rows that fail
+ * validation or collide with an existing email are reported individually; every
+ * other row is imported.
+ *
+ * Expected CSV layout, with a header row:
+ *     first_name,last_name,dob,gender,email,phone
+ */
+public class MemberImporter {
+    // Validation steps, applied in order; each only looks at rows that have not failed yet
+    private static final String[] VALIDATIONS = {
+        "UPDATE member_import SET error = 'missing first or last name' " +
+        "WHERE error IS NULL AND (first_name IS NULL OR first_name = '' OR last_name IS NULL OR last_name = '')",
+
+        "UPDATE member_import SET error = 'invalid date of birth (expected YYYY-MM-DD)' " +
+        "WHERE error IS NULL AND (dob IS NULL OR dob !~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}$')",
+
+        // CASE branches run in order, so the casts only see rows that passed the format check
+        // and make_date only sees a valid year and month
+        "UPDATE member_import SET error = 'invalid date of birth' " +
+        "WHERE CASE " +
+        "    WHEN error IS NOT NULL THEN FALSE " +
+        "    WHEN substr(dob, 1, 4)::int < 1900 OR substr(dob, 6, 2)::int NOT BETWEEN 1 AND 12 THEN TRUE " +
+        "    ELSE substr(dob, 9, 2)::int < 1 " +
+        "        OR substr(dob, 9, 2)::int > extract(day FROM make_date(substr(dob, 1, 4)::int, substr(dob, 6, 2)::int, 1) + interval '1 month - 1 day') " +
+        "END",
+
+        "UPDATE member_import SET error = 'date of birth is in the future' " +
+        "WHERE CASE WHEN error IS NULL THEN dob::date > CURRENT_DATE ELSE FALSE END",
+
+        "UPDATE member_import SET error = 'invalid gender (expected Male, Female, or Other)' " +
+        "WHERE error IS NULL AND (gender IS NULL OR gender NOT IN ('Male', 'Female', 'Other'))",
+
+        "UPDATE member_import SET error = 'invalid email' " +
+        "WHERE error IS NULL AND (email IS NULL OR email !~ '^[^@[:space:]]+@[^@[:space:]]+\\.[^@[:space:]]+$')",
+
+        "UPDATE member_import s SET error = 'duplicate email in file' " +
+        "FROM (SELECT line_no, row_number() OVER (PARTITION BY email ORDER BY line_no) AS rn " +
+        "      FROM member_import WHERE error IS NULL) d " +
+        "WHERE s.line_no = d.line_no AND d.rn > 1",
+
+        "UPDATE member_import s SET error = 'email already registered' " +
+        "WHERE error IS NULL AND EXISTS (SELECT 1 FROM member m WHERE m.email = s.email)"
+    };
+
+    /**
+     * Imports members from a CSV stream.
+     *
+     * @param csv the CSV content, including the header row
+     * @return    the import result, or empty if the import failed as a whole
+     */
+    public Optional<MemberImportResult> importMembers(Reader csv) {
+        long start = System.nanoTime();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                MemberImportResult result = runImport(conn, csv, start);
+                conn.commit();
+                return Optional.of(result);
+            } catch (SQLException | IOException e) {
+                conn.rollback();
+                System.out.println("Error importing members: ");
+                e.printStackTrace();
+            }
+        } catch (SQLException e) {
+            System.out.println("Error importing members: ");
+            e.printStackTrace();
+        }
+
+        return Optional.empty();
+    }
+
+    private MemberImportResult runImport(Connection conn, Reader csv, long start) throws SQLException, IOException {
+        try (Statement stmt = conn.createStatement()) {
+            // Everything is staged as text so COPY never rejects the whole file over one bad value
+            stmt.execute(
+                "CREATE TEMP TABLE member_import (" +
+                "    line_no    BIGSERIAL, " +
+                "    first_name TEXT, " +
+                "    last_name  TEXT, " +
+                "    dob        TEXT, " +
+                "    gender     TEXT, " +
+                "    email      TEXT, " +
+                "    phone      TEXT, " +
+                "    error      TEXT" +
+                ") ON COMMIT DROP");
+        }
+
+        CopyManager copy = conn.unwrap(PGConnection.class).getCopyAPI();
+        long rowsRead = copy.copyIn(
+            "COPY member_import (first_name, last_name, dob, gender, email, phone) " +
+            "FROM STDIN WITH (FORMAT csv, HEADER true)", csv);
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(
+                "UPDATE member_import SET first_name = btrim(first_name), last_name = btrim(last_name), " +
+                "dob = btrim(dob), gender = btrim(gender), email = btrim(email), phone = NULLIF(btrim(phone), '')");
+            for (String validation : VALIDATIONS) {
+                stmt.executeUpdate(validation);
+            }
+
+            // Rows that lose a race with a concurrent registration are reported rather than failing the import
+            stmt.executeUpdate(
+                "WITH inserted AS ( " +
+                "    INSERT INTO member (first_name, last_name, dob, gender, email, phone) " +
+                "    SELECT first_name, last_name, dob::date, gender, email, phone " +
+                "    FROM member_import WHERE error IS NULL ORDER BY line_no " +
+                "    ON CONFLICT (email) DO NOTHING " +
+                "    RETURNING email " +
+                ") " +
+                "UPDATE member_import s SET error = 'email already registered' " +
+                "WHERE s.error IS NULL AND NOT EXISTS (SELECT 1 FROM inserted i WHERE i.email = s.email)");
+        }
+
+        List<MemberImportResult.RowError> errors = new ArrayList<>();
+        String sql = "SELECT line_no, email, error FROM member_import WHERE error IS NOT NULL ORDER BY line_no";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                // line_no counts data rows; the header is line 1 of the file
+                errors.add(new MemberImportResult.RowError(
+                    rs.getLong("line_no") + 1, rs.getString("email"), rs.getString("error")));
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new MemberImportResult(rowsRead, rowsRead - errors.size(), errors, elapsedMillis);
+    }
+}
@@ -0,0 +1,13 @@
+package com.comp3005.finalproject;
+
+import java.util.List;
+
+/**
+ * A member together with their fitness goals and latest health metric.
+ *
+ * @param member       the member
+ * @param goals        the member's fitness goals, most recent first
+ * @param latestMetric the member's most recent health metric, or null if none exist
+ */
+public record MemberProfile(Member member, List<FitnessGoal> goals, HealthMetric latestMetric) {
+}
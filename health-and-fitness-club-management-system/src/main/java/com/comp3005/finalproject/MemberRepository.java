@@ -5,34 +5,40 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * Handles database operations related to members.
  */
 public class MemberRepository {
+    // Rows fetched per round trip when streaming a member's health history
+    private static final int HEALTH_METRIC_FETCH_SIZE = 500;
+    // Java's \s and PostgreSQL's \s in the generated column both match [ \t\n\r\f\v]
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     /**
      * Retrieves all members.
      * 
-     * @return a list of member records, or empty if none exist
+     * @return a list of members, or empty if none exist
      */
-    public List<String> getAllMembers() {
-        List<String> members = new ArrayList<>();
+    public List<Member> getAllMembers() {
+        List<Member> members = new ArrayList<>();
         String sql = "SELECT * FROM member ORDER BY member_id";
 
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                String row =
-                    rs.getInt("member_id") + " - " +
-                    rs.getString("first_name") + " " +
-                    rs.getString("last_name") + " - " +
-                    rs.getString("email") + " - " +
-                    rs.getDate("dob") + " - " +
-                    rs.getString("gender");
-                members.add(row);
+                members.add(mapMember(rs));
             }
         } catch (SQLException e) {
             System.out.println("Error retrieving members: ");
@@ -42,14 +48,47 @@ public class MemberRepository {
         return members;
     }
 
+    /**
+     * Retrieves one page of members, ordered by ID. Each page is a range scan on the
+     * primary key starting after the previous page's last ID.
+     *
+     * @param after    the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of members on the page
+     * @return         the page of members, empty if none remain
+     */
+    public Page<Member> getMembersPage(PageCursor after, int pageSize) {
+        List<Member> rows = new ArrayList<>();
+        String sql =
+            "SELECT * FROM member " +
+            "WHERE member_id > ? " +
+            "ORDER BY member_id " +
+            "LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, after == null ? 0 : after.lastId());
+            // One extra row tells us whether there is another page
+            pstmt.setInt(2, pageSize + 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapMember(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving members page: ");
+            e.printStackTrace();
+        }
+
+        return Page.of(rows, pageSize, row -> PageCursor.afterId(row.memberId()));
+    }
+
     /**
      * Retrieves a member based on their member ID.
      *
      * @param memberId the member's ID
-     * @return         a list of the member's details, or empty if none exist
+     * @return         the member, or empty if none exist
      */
-    public List<String> getMemberById(int memberId) {
-        List<String> member = new ArrayList<>();
+    public Optional<Member> getMemberById(int memberId) {
         String sql = "SELECT * FROM member WHERE member_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -57,15 +96,7 @@ public class MemberRepository {
             pstmt.setInt(1, memberId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    String row =
-                        rs.getInt("member_id") + " - " +
-                        rs.getString("first_name") + " " +
-                        rs.getString("last_name") + " - " +
-                        rs.getString("email") + " - " +
-                        rs.getDate("dob") + " - " +
-                        rs.getString("gender") + " - " +
-                        rs.getString("phone");
-                    member.add(row);
+                    return Optional.of(mapMember(rs));
                 }
             }
         } catch (SQLException e) {
@@ -73,7 +104,127 @@ public class MemberRepository {
             e.printStackTrace();
         }
         
-        return member;
+        return Optional.empty();
+    }
+
+    /**
+     * Retrieves members whose full name matches exactly, ignoring case and extra whitespace.
+     *
+     * @param fullName the member's full name
+     * @return         a list of matching members, or empty if none exist
+     */
+    public List<Member> findMembersByName(String fullName) {
+        List<Member> members = new ArrayList<>();
+        String sql = "SELECT * FROM member WHERE full_name_normalized = ? ORDER BY member_id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, normalizeName(fullName));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    members.add(mapMember(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error searching members by name: ");
+            e.printStackTrace();
+        }
+
+        return members;
+    }
+
+    /**
+     * Retrieves members whose full name starts with the given text, ignoring case and extra whitespace.
+     *
+     * @param prefix the beginning of the member's full name
+     * @param limit  the maximum number of members to return
+     * @return       a list of matching members ordered by name, or empty if none exist
+     */
+    public List<Member> searchMembersByNamePrefix(String prefix, int limit) {
+        List<Member> members = new ArrayList<>();
+        String sql =
+            "SELECT * FROM member " +
+            "WHERE full_name_normalized LIKE ? ESCAPE '\\' " +
+            "ORDER BY full_name_normalized, member_id " +
+            "LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, escapeLike(normalizeName(prefix)) + "%");
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    members.add(mapMember(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error searching members by name prefix: ");
+            e.printStackTrace();
+        }
+
+        return members;
+    }
+
+    /**
+     * Retrieves members whose full name is similar to the given text, using trigram similarity
+     * so that typos and partial names still match.
+     *
+     * @param name  the approximate full name
+     * @param limit the maximum number of members to return
+     * @return      a list of similar members, closest match first, or empty if none exist
+     */
+    public List<Member> searchMembersByNameFuzzy(String name, int limit) {
+        List<Member> members = new ArrayList<>();
+        String normalized = normalizeName(name);
+        String sql =
+            "SELECT *, similarity(full_name_normalized, ?) AS score FROM member " +
+            "WHERE full_name_normalized % ? " +
+            "ORDER BY score DESC, member_id " +
+            "LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, normalized);
+            pstmt.setString(2, normalized);
+            pstmt.setInt(3, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    members.add(mapMember(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error searching members by similar name: ");
+            e.printStackTrace();
+        }
+
+        return members;
+    }
+
+    /**
+     * Normalizes a full name the same way as the member.full_name_normalized column:
+     * runs of whitespace collapsed to one space, then leading and trailing spaces removed,
+     * then lower-cased.
+     *
+     * @param name the name to normalize
+     * @return     the normalized name
+     */
+    public static String normalizeName(String name) {
+        String collapsed = WHITESPACE.matcher(name).replaceAll(" ");
+        // btrim() only strips spaces, unlike String.trim(), which strips every control character
+        int start = 0;
+        int end = collapsed.length();
+        while (start < end && collapsed.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && collapsed.charAt(end - 1) == ' ') {
+            end--;
+        }
+        // Not the default locale, under which Turkish would lower "I" to a dotless "ı"
+        return collapsed.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     /**
@@ -85,8 +236,9 @@ public class MemberRepository {
      * @param gender    the member's gender (Male, Female, Other)
      * @param email     the member's email address
      * @param phone     the member's phone number
+     * @return          the result
      */
-    public void addMember(String firstName, String lastName, String dob, String gender, String email, String phone) {
+    public WriteResult addMember(String firstName, String lastName, String dob, String gender, String email, String phone) {
         String sql = "INSERT INTO member (first_name, last_name, dob, gender, email, phone) VALUES (?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -98,11 +250,13 @@ public class MemberRepository {
             pstmt.setString(5, email);
             pstmt.setString(6, phone);
             pstmt.executeUpdate();
-            System.out.println("Member added successfully!");
+            return WriteResult.SAVED;
         } catch (SQLException e) {
             System.out.println("Error adding member: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
@@ -115,8 +269,9 @@ public class MemberRepository {
      * @param gender    the member's gender (Male, Female, Other)
      * @param email     the member's email address
      * @param phone     the member's phone number
+     * @return          the result
      */
-    public void updateMember(int memberId, String firstName, String lastName, String dob, String gender, String email, String phone) {
+    public WriteResult updateMember(int memberId, String firstName, String lastName, String dob, String gender, String email, String phone) {
         String sql = "UPDATE member SET first_name = ?, last_name = ?, dob = ?, gender = ?, email = ?, phone = ? WHERE member_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -130,15 +285,13 @@ public class MemberRepository {
             pstmt.setInt(7, memberId);
 
             int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("Member details updated successfully!");
-            } else {
-                System.out.println("No member found with ID: " + memberId);
-            }
+            return rows > 0 ? WriteResult.SAVED : WriteResult.NOT_FOUND;
         } catch (SQLException e) {
             System.out.println("Error updating member details: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
@@ -149,8 +302,9 @@ public class MemberRepository {
      * @param targetValue the numeric target value for the goal
      * @param unit        the unit associated with the target value
      * @param targetDate  the target completion date for the goal, or null if not specified
+     * @return            the result
      */
-    public void addFitnessGoal(int memberId, String goalType, Double targetValue, String unit, String targetDate) {
+    public WriteResult addFitnessGoal(int memberId, String goalType, Double targetValue, String unit, String targetDate) {
         String sql = "INSERT INTO fitness_goal (member_id, goal_type, target_value, unit, target_date) VALUES (?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -167,11 +321,13 @@ public class MemberRepository {
             }
 
             pstmt.executeUpdate();
-            System.out.println("Fitness goal added successfully!");
+            return WriteResult.SAVED;
         } catch (SQLException e) {
             System.out.println("Error adding fitness goal: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
@@ -179,8 +335,9 @@ public class MemberRepository {
      * 
      * @param goalId the fitness goal ID
      * @param status the new status value (Active, Completed, Cancelled)
+     * @return       the result
      */
-    public void updateFitnessGoalStatus(int goalId, String status) {
+    public WriteResult updateFitnessGoalStatus(int goalId, String status) {
         String sql = "UPDATE fitness_goal SET status = ? WHERE goal_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -189,25 +346,23 @@ public class MemberRepository {
             pstmt.setInt(2, goalId);
 
             int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("Fitness goal status updated successfully!");
-            } else {
-                System.out.println("No fitness goal found with ID: " + goalId);
-            }
+            return rows > 0 ? WriteResult.SAVED : WriteResult.NOT_FOUND;
         } catch (SQLException e) {
             System.out.println("Error updating fitness goal status: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
      *  Retrieves all fitness goals for a member.
      *  
      * @param memberId the member's ID
-     * @return         a list of fitness goal records, or empty if none exist
+     * @return         a list of fitness goals, or empty if none exist
      */
-    public List<String> getFitnessGoalsForMember(int memberId) {
-        List<String> goals = new ArrayList<>();
+    public List<FitnessGoal> getFitnessGoalsForMember(int memberId) {
+        List<FitnessGoal> goals = new ArrayList<>();
         String sql = "SELECT * FROM fitness_goal WHERE member_id = ? ORDER BY start_date DESC";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -215,14 +370,7 @@ public class MemberRepository {
             pstmt.setInt(1, memberId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String row =
-                        "Goal " + rs.getInt("goal_id") + " - " +
-                        rs.getString("goal_type") + " " +
-                        rs.getDouble("target_value") + " " +
-                        rs.getString("unit") + " - " +
-                        "status: " + rs.getString("status") + " - " +
-                        "start: " + rs.getDate("start_date") + ", target: " + rs.getDate("target_date");
-                    goals.add(row);
+                    goals.add(mapFitnessGoal(rs));
                 }
             }
         } catch (SQLException e) {
@@ -241,8 +389,9 @@ public class MemberRepository {
      * @param weight    the member's weight
      * @param heartRate the member's heart rate
      * @param bodyFat   the member's body fat percentage
+     * @return          the result
      */
-    public void addHealthMetric(int memberId, double height, double weight, int heartRate, double bodyFat) {
+    public WriteResult addHealthMetric(int memberId, double height, double weight, int heartRate, double bodyFat) {
         String sql = "INSERT INTO health_metric (member_id, height, weight, heart_rate, body_fat) VALUES (?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -253,21 +402,23 @@ public class MemberRepository {
             pstmt.setInt(4, heartRate);
             pstmt.setDouble(5, bodyFat);
             pstmt.executeUpdate();
-            System.out.println("Health metric added successfully!");
+            return WriteResult.SAVED;
         } catch (SQLException e) {
             System.out.println("Error adding health metric: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
      * Retrieves all health metric entries for a member.
      * 
      * @param memberId the member's ID
-     * @return         a list of health metric records, or empty if none exist
+     * @return         a list of health metrics, most recent first, or empty if none exist
      */
-    public List<String> getHealthMetricsForMember(int memberId) {
-        List<String> metrics = new ArrayList<>();
+    public List<HealthMetric> getHealthMetricsForMember(int memberId) {
+        List<HealthMetric> metrics = new ArrayList<>();
         String sql = "SELECT * FROM health_metric WHERE member_id = ? ORDER BY measure_time DESC";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -275,13 +426,7 @@ public class MemberRepository {
             pstmt.setInt(1, memberId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String row =
-                        rs.getTimestamp("measure_time") + " - " +
-                        "H: " + rs.getDouble("height") +
-                        ", W: " + rs.getDouble("weight") +
-                        ", HR: " + rs.getInt("heart_rate") +
-                        ", BF: " + rs.getDouble("body_fat");
-                    metrics.add(row);
+                    metrics.add(mapHealthMetric(rs));
                 }
             }
         } catch (SQLException e) {
@@ -292,14 +437,61 @@ public class MemberRepository {
         return metrics;
     }
 
+    /**
+     * Streams a member's health metrics to a consumer, most recent first, optionally limited
+     * to a time window. Rows are fetched through a server-side cursor in chunks of
+     * HEALTH_METRIC_FETCH_SIZE, so memory use does not grow with the length of the history.
+     *
+     * @param memberId the member's ID
+     * @param from     the earliest measure time to include, or null for no lower bound
+     * @param to       the measure time to stop before, or null for no upper bound
+     * @param consumer receives each health metric in order
+     * @return         the number of health metrics delivered, or -1 if the query failed
+     */
+    public long streamHealthMetricsForMember(int memberId, LocalDateTime from, LocalDateTime to,
+                                             Consumer<HealthMetric> consumer) {
+        String sql =
+            "SELECT * FROM health_metric " +
+            "WHERE member_id = ? " +
+            "  AND (?::timestamp IS NULL OR measure_time >= ?::timestamp) " +
+            "  AND (?::timestamp IS NULL OR measure_time < ?::timestamp) " +
+            "ORDER BY measure_time DESC";
+        long count = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // The driver only uses a cursor inside a transaction; otherwise it buffers every row
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setFetchSize(HEALTH_METRIC_FETCH_SIZE);
+                pstmt.setInt(1, memberId);
+                pstmt.setObject(2, from);
+                pstmt.setObject(3, from);
+                pstmt.setObject(4, to);
+                pstmt.setObject(5, to);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapHealthMetric(rs));
+                        count++;
+                    }
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            System.out.println("Error streaming health metrics: ");
+            e.printStackTrace();
+            return -1;
+        }
+
+        return count;
+    }
+
     /**
      * Retrieves the latest health metric entry for a member.
      * 
      * @param memberId the member's ID
-     * @return         a list of the most recent health metric record, or empty if none exist
+     * @return         the most recent health metric, or empty if none exist
      */
-    public List<String> getLatestHealthMetric(int memberId) {
-        List<String> metrics = new ArrayList<>();
+    public Optional<HealthMetric> getLatestHealthMetric(int memberId) {
         String sql = "SELECT * FROM health_metric WHERE member_id = ? ORDER BY measure_time DESC LIMIT 1";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -307,13 +499,7 @@ public class MemberRepository {
             pstmt.setInt(1, memberId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    String row =
-                        rs.getTimestamp("measure_time") + " - " +
-                        "H: " + rs.getDouble("height") +
-                        ", W: " + rs.getDouble("weight") +
-                        ", HR: " + rs.getInt("heart_rate") +
-                        ", BF: " + rs.getDouble("body_fat");
-                    metrics.add(row);
+                    return Optional.of(mapHealthMetric(rs));
                 }
             }
         } catch (SQLException e) {
@@ -321,6 +507,154 @@ public class MemberRepository {
             e.printStackTrace();
         }
         
-        return metrics;
+        return Optional.empty();
+    }
+
+    /**
+     * Retrieves a member together with their fitness goals and latest health metric in one query.
+     *
+     * @param memberId the member's ID
+     * @return         the member's profile, or empty if none exist
+     */
+    public Optional<MemberProfile> getMemberProfile(int memberId) {
+        List<MemberProfile> profiles = getMemberProfiles(List.of(memberId));
+        return profiles.isEmpty() ? Optional.empty() : Optional.of(profiles.get(0));
+    }
+
+    /**
+     * Retrieves several members together with their fitness goals and latest health metrics in one query.
+     *
+     * @param memberIds the members' IDs
+     * @return          the profiles ordered by member ID, or empty if none exist
+     */
+    public List<MemberProfile> getMemberProfiles(Collection<Integer> memberIds) {
+        List<MemberProfile> profiles = new ArrayList<>();
+        if (memberIds.isEmpty()) {
+            return profiles;
+        }
+
+        String sql =
+            "SELECT m.*, " +
+            "       hm.metric_id, hm.measure_time, hm.height, hm.weight, hm.heart_rate, hm.body_fat, " +
+            "       fg.goal_id, fg.goal_type, fg.target_value, fg.unit, fg.start_date, fg.target_date, fg.status " +
+            "FROM member m " +
+            "LEFT JOIN LATERAL ( " +
+            "    SELECT * FROM health_metric h " +
+            "    WHERE h.member_id = m.member_id " +
+            "    ORDER BY h.measure_time DESC LIMIT 1 " +
+            ") hm ON TRUE " +
+            "LEFT JOIN fitness_goal fg ON fg.member_id = m.member_id " +
+            "WHERE m.member_id = ANY (?) " +
+            "ORDER BY m.member_id, fg.start_date DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setArray(1, conn.createArrayOf("integer", memberIds.toArray()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                // One row per goal (or one row if none); fold them back into a profile per member
+                Member member = null;
+                HealthMetric latestMetric = null;
+                List<FitnessGoal> goals = null;
+                while (rs.next()) {
+                    int memberId = rs.getInt("member_id");
+                    if (member == null || member.memberId() != memberId) {
+                        if (member != null) {
+                            profiles.add(new MemberProfile(member, goals, latestMetric));
+                        }
+                        member = mapMember(rs);
+                        latestMetric = rs.getObject("metric_id") == null ? null : mapHealthMetric(rs);
+                        goals = new ArrayList<>();
+                    }
+                    if (rs.getObject("goal_id") != null) {
+                        goals.add(mapFitnessGoal(rs));
+                    }
+                }
+                if (member != null) {
+                    profiles.add(new MemberProfile(member, goals, latestMetric));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving member profiles: ");
+            e.printStackTrace();
+        }
+
+        return profiles;
+    }
+
+    /**
+     * Retrieves the times a member is already committed, from their PT sessions and the
+     * group classes they are registered for, that overlap a time range.
+     * 
+     * @param memberId the member's ID
+     * @param from     the start of the range
+     * @param to       the end of the range
+     * @return         the busy times sorted by start time, or empty if none exist
+     */
+    public List<TimeRange> getMemberBusyTimes(int memberId, LocalDateTime from, LocalDateTime to) {
+        List<TimeRange> busy = new ArrayList<>();
+        String sql =
+            "SELECT session_start AS start_time, session_end AS end_time FROM pt_session " +
+            "WHERE member_id = ? AND status <> 'Cancelled' AND session_start < ? AND session_end > ? " +
+            "UNION ALL " +
+            "SELECT gc.start_time, gc.end_time FROM class_registration cr " +
+            "JOIN group_class gc ON cr.class_id = gc.class_id " +
+            "WHERE cr.member_id = ? AND gc.status <> 'Cancelled' AND gc.start_time < ? AND gc.end_time > ? " +
+            "ORDER BY start_time, end_time";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < 2; i++) {
+                pstmt.setInt(3 * i + 1, memberId);
+                pstmt.setTimestamp(3 * i + 2, Timestamp.valueOf(to));
+                pstmt.setTimestamp(3 * i + 3, Timestamp.valueOf(from));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    busy.add(new TimeRange(
+                        rs.getObject("start_time", LocalDateTime.class),
+                        rs.getObject("end_time", LocalDateTime.class)));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving member busy times: ");
+            e.printStackTrace();
+        }
+
+        return busy;
+    }
+
+    private static Member mapMember(ResultSet rs) throws SQLException {
+        return new Member(
+            rs.getInt("member_id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getObject("dob", LocalDate.class),
+            rs.getString("gender"),
+            rs.getString("email"),
+            rs.getString("phone"),
+            rs.getObject("join_date", LocalDate.class));
+    }
+
+    private static FitnessGoal mapFitnessGoal(ResultSet rs) throws SQLException {
+        return new FitnessGoal(
+            rs.getInt("goal_id"),
+            rs.getInt("member_id"),
+            rs.getString("goal_type"),
+            rs.getDouble("target_value"),
+            rs.getString("unit"),
+            rs.getObject("start_date", LocalDate.class),
+            rs.getObject("target_date", LocalDate.class),
+            rs.getString("status"));
+    }
+
+    private static HealthMetric mapHealthMetric(ResultSet rs) throws SQLException {
+        return new HealthMetric(
+            rs.getInt("metric_id"),
+            rs.getInt("member_id"),
+            rs.getObject("measure_time", LocalDateTime.class),
+            rs.getDouble("height"),
+            rs.getDouble("weight"),
+            rs.getInt("heart_rate"),
+            rs.getDouble("body_fat"));
     }
 }
@@ -1,25 +1,49 @@
 package com.comp3005.finalproject;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Handles member-facing operations using the member-related repositories.
  */
 public class MemberService {
     private final MemberRepository memberRepository;
+    private final MemberCache memberCache;
     private final PtSessionRepository ptSessionRepository;
     private final ClassRepository classRepository;
+    private final TrainerAvailabilityEngine availabilityEngine;
+    private final ReferenceDataCache referenceData;
+    private final SlotFinder slotFinder;
+    private final UpcomingClassFeed classFeed;
+    private final HealthMetricIngestor metricIngestor;
 
     public MemberService() {
         this.memberRepository = new MemberRepository();
+        this.memberCache = new MemberCache(memberRepository);
         this.ptSessionRepository = new PtSessionRepository();
         this.classRepository = new ClassRepository();
+        this.availabilityEngine = new TrainerAvailabilityEngine();
+        this.referenceData = new ReferenceDataCache();
+        this.slotFinder = new SlotFinder(availabilityEngine, referenceData);
+        this.classFeed = new UpcomingClassFeed(classRepository, referenceData);
+        this.metricIngestor = new HealthMetricIngestor();
     }
 
-    public MemberService(MemberRepository memberRepository, PtSessionRepository ptSessionRepository, ClassRepository classRepository) {
+    public MemberService(MemberRepository memberRepository, PtSessionRepository ptSessionRepository, ClassRepository classRepository,
+                         TrainerAvailabilityEngine availabilityEngine, ReferenceDataCache referenceData, MemberCache memberCache,
+                         UpcomingClassFeed classFeed, HealthMetricIngestor metricIngestor) {
         this.memberRepository = memberRepository;
+        this.memberCache = memberCache;
         this.ptSessionRepository = ptSessionRepository;
         this.classRepository = classRepository;
+        this.availabilityEngine = availabilityEngine;
+        this.referenceData = referenceData;
+        this.slotFinder = new SlotFinder(availabilityEngine, referenceData);
+        this.classFeed = classFeed;
+        this.metricIngestor = metricIngestor;
     }
 
     /**
@@ -31,9 +55,20 @@ public class MemberService {
      * @param gender    the member's gender
      * @param email     the member's email address
      * @param phone     the member's phone number
+     * @return          the result
      */
-    public void registerMember(String firstName, String lastName, String dob, String gender, String email, String phone) {
-        memberRepository.addMember(firstName, lastName, dob, gender, email, phone);
+    public WriteResult registerMember(String firstName, String lastName, String dob, String gender, String email, String phone) {
+        return memberRepository.addMember(firstName, lastName, dob, gender, email, phone);
+    }
+
+    /**
+     * Retrieves a member's profile details.
+     * 
+     * @param memberId the member's ID
+     * @return         the member, or empty if none exist
+     */
+    public Optional<Member> getProfile(int memberId) {
+        return memberCache.getMember(memberId);
     }
 
     /**
@@ -46,9 +81,12 @@ public class MemberService {
      * @param gender    the member's gender
      * @param email     the member's email address
      * @param phone     the member's phone number
+     * @return          the result
      */
-    public void updateProfile(int memberId, String firstName, String lastName, String dob, String gender, String email, String phone) {
-        memberRepository.updateMember(memberId, firstName, lastName, dob, gender, email, phone);
+    public WriteResult updateProfile(int memberId, String firstName, String lastName, String dob, String gender, String email, String phone) {
+        WriteResult result = memberRepository.updateMember(memberId, firstName, lastName, dob, gender, email, phone);
+        memberCache.invalidate(memberId);
+        return result;
     }
 
     /**
@@ -59,9 +97,10 @@ public class MemberService {
      * @param targetValue the numeric target value
      * @param unit        the unit of the target value
      * @param targetDate  the target completion date (YYYY-MM-DD), or null if not set
+     * @return            the result
      */
-    public void addFitnessGoal(int memberId, String goalType, Double targetValue, String unit, String targetDate) {
-        memberRepository.addFitnessGoal(memberId, goalType, targetValue, unit, targetDate);
+    public WriteResult addFitnessGoal(int memberId, String goalType, Double targetValue, String unit, String targetDate) {
+        return memberRepository.addFitnessGoal(memberId, goalType, targetValue, unit, targetDate);
     }
 
     /**
@@ -69,9 +108,10 @@ public class MemberService {
      * 
      * @param goalId the goal ID
      * @param status the new status (Active, Completed, Cancelled)
+     * @return       the result
      */
-    public void updateFitnessGoalStatus(int goalId, String status) {
-        memberRepository.updateFitnessGoalStatus(goalId, status);
+    public WriteResult updateFitnessGoalStatus(int goalId, String status) {
+        return memberRepository.updateFitnessGoalStatus(goalId, status);
     }
 
     /**
@@ -82,59 +122,101 @@ public class MemberService {
      * @param weight    the member's weight
      * @param heartRate the member's heart rate
      * @param bodyFat   the member's body fat percentage
+     * @return          the result
      */
-    public void addHealthMetric(int memberId, double height, double weight, int heartRate, double bodyFat) {
-        memberRepository.addHealthMetric(memberId, height, weight, heartRate, bodyFat);
+    public WriteResult addHealthMetric(int memberId, double height, double weight, int heartRate, double bodyFat) {
+        return memberRepository.addHealthMetric(memberId, height, weight, heartRate, bodyFat);
     }
 
     /**
-     * Displays all health metric records for a member.
+     * Queues health metric readings synced from members' wearables. They are written in
+     * batches shortly afterwards, so a sync of many readings costs a few round trips
+     * instead of one per reading.
      * 
-     * @param memberId the member's ID
+     * @param readings the readings, each of which may leave out any measurement
+     * @return         the number of readings queued, which is less than all of them only if interrupted
      */
-    public void showHealthHistory(int memberId) {
-        List<String> metrics = memberRepository.getHealthMetricsForMember(memberId);
-        if (metrics.isEmpty()) {
-            System.out.println("No health metrics found for member ID: " + memberId);
-            return;
+    public int syncHealthMetrics(List<HealthMetricReading> readings) {
+        int queued = 0;
+        try {
+            for (HealthMetricReading reading : readings) {
+                metricIngestor.submit(reading);
+                queued++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        return queued;
+    }
 
-        System.out.println("Health history for member ID: " + memberId);
-        for (String m : metrics) {
-            System.out.println(m);
-        }
+    /**
+     * Returns the counters of the health metric ingestion pipeline.
+     * 
+     * @return the current statistics
+     */
+    public HealthMetricIngestor.IngestStats getHealthMetricSyncStats() {
+        return metricIngestor.getStats();
     }
 
     /**
-     * Schedules a personal training session for a member.
+     * Retrieves all health metric records for a member.
+     * 
+     * @param memberId the member's ID
+     * @return         the member's health metrics, most recent first
+     */
+    public List<HealthMetric> getHealthHistory(int memberId) {
+        return memberRepository.getHealthMetricsForMember(memberId);
+    }
+
+    /**
+     * Streams a member's health metrics, most recent first, without loading the whole
+     * history into memory.
+     * 
+     * @param memberId the member's ID
+     * @param from     the earliest measure time to include, or null for no lower bound
+     * @param to       the measure time to stop before, or null for no upper bound
+     * @param consumer receives each health metric in order
+     * @return         the number of health metrics delivered, or -1 if the query failed
+     */
+    public long forEachHealthMetric(int memberId, LocalDateTime from, LocalDateTime to, Consumer<HealthMetric> consumer) {
+        return memberRepository.streamHealthMetricsForMember(memberId, from, to, consumer);
+    }
+
+    /**
+     * Schedules a personal training session for a member. The member, trainer, and room
+     * conflict checks happen in the database as part of the insert.
      * 
      * @param memberId     the member's ID
      * @param trainerId    the trainer's ID
      * @param roomId       the room ID
      * @param sessionStart the start time (YYYY-MM-DD HH:MM:SS)
      * @param sessionEnd   the end time (YYYY-MM-DD HH:MM:SS)
+     * @return             the booking result
      */
-    public void schedulePtSession(int memberId, int trainerId, int roomId, String sessionStart, String sessionEnd) {
-        boolean memberConflict = ptSessionRepository.hasMemberSessionConflict(memberId, sessionStart, sessionEnd, null);
-        boolean trainerConflict = ptSessionRepository.hasTrainerSessionConflict(trainerId, sessionStart, sessionEnd, null);
-        boolean roomConflict = ptSessionRepository.hasRoomSessionConflict(roomId, sessionStart, sessionEnd, null);
-
-        if (memberConflict) {
-            System.out.println("Cannot book session: Member already has a session in this time range.");
-            return;
-        }
-
-        if (trainerConflict) {
-            System.out.println("Cannot book session: Trainer already has a session in this time range.");
-            return;
-        }
-
-        if (roomConflict) {
-            System.out.println("Cannot book session: Room is already booked in this time range.");
-            return;
+    public PtBookingResult schedulePtSession(int memberId, int trainerId, int roomId, String sessionStart, String sessionEnd) {
+        PtBookingResult result = ptSessionRepository.addPtSession(memberId, trainerId, roomId, sessionStart, sessionEnd);
+        if (result.isBooked()) {
+            availabilityEngine.invalidate(trainerId);
         }
+        return result;
+    }
 
-        ptSessionRepository.addPtSession(memberId, trainerId, roomId, sessionStart, sessionEnd);
+    /**
+     * Finds the earliest times a member could book a personal training session, so they
+     * do not have to guess times and retry on conflicts.
+     * 
+     * @param memberId  the member's ID
+     * @param trainerId the preferred trainer, or null for any trainer
+     * @param roomId    the preferred room, or null for any room
+     * @param duration  the session length
+     * @param from      the start of the search window
+     * @param to        the end of the search window
+     * @param limit     the maximum number of slots to return
+     * @return          the bookable slots, earliest first
+     */
+    public List<PtSlot> findPtSlots(int memberId, Integer trainerId, Integer roomId, Duration duration,
+                                    LocalDateTime from, LocalDateTime to, int limit) {
+        return slotFinder.findEarliestSlots(memberId, trainerId, roomId, duration, from, to, limit);
     }
 
     /**
@@ -146,55 +228,50 @@ public class MemberService {
      * @param roomId       the room ID
      * @param sessionStart the start time (YYYY-MM-DD HH:MM:SS)
      * @param sessionEnd   the end time (YYYY-MM-DD HH:MM:SS)
+     * @return             the booking result
      */
-    public void reschedulePtSession(int sessionId, int memberId, int trainerId, int roomId, String sessionStart, String sessionEnd) {
-        boolean memberConflict = ptSessionRepository.hasMemberSessionConflict(memberId, sessionStart, sessionEnd, sessionId);
-        boolean trainerConflict = ptSessionRepository.hasTrainerSessionConflict(trainerId, sessionStart, sessionEnd, sessionId);
-        boolean roomConflict = ptSessionRepository.hasRoomSessionConflict(roomId, sessionStart, sessionEnd, sessionId);
-
-        if (memberConflict) {
-            System.out.println("Cannot reschedule: Member already has a session in this time range.");
-            return;
-        }
-
-        if (trainerConflict) {
-            System.out.println("Cannot reschedule: Trainer already has a session in this time range.");
-            return;
+    public PtBookingResult reschedulePtSession(int sessionId, int memberId, int trainerId, int roomId, String sessionStart, String sessionEnd) {
+        PtBookingResult result =
+            ptSessionRepository.reschedulePtSession(sessionId, memberId, trainerId, roomId, sessionStart, sessionEnd);
+        if (result.isBooked()) {
+            // The session may have moved away from another trainer, who is now free again
+            availabilityEngine.invalidateAll();
         }
-
-        if (roomConflict) {
-            System.out.println("Cannot reschedule: Room is already booked in this time range.");
-            return;
-        }
-
-        ptSessionRepository.updatePtSessionTime(sessionId, sessionStart, sessionEnd);
+        return result;
     }
 
     /**
      * Cancels a personal training session.
      * 
      * @param sessionId the session ID
+     * @return          the result
      */
-    public void cancelPtSession(int sessionId) {
-        ptSessionRepository.updatePtSessionStatus(sessionId, "Cancelled");
+    public WriteResult cancelPtSession(int sessionId) {
+        WriteResult result = ptSessionRepository.updatePtSessionStatus(sessionId, "Cancelled");
+        if (result == WriteResult.SAVED) {
+            availabilityEngine.invalidateAll();
+        }
+        return result;
     }
 
     /**
-     * Displays all PT sessions for a member.
+     * Retrieves all PT sessions for a member.
      * 
      * @param memberId the member's ID
+     * @return         the member's PT sessions
      */
-    public void showPtSessions(int memberId) {
-        List<String> sessions = ptSessionRepository.getPtSessionsForMember(memberId);
-        if (sessions.isEmpty()) {
-            System.out.println("No PT sessions found for member ID: " + memberId);
-            return;
-        }
+    public List<PtSession> getPtSessions(int memberId) {
+        return ptSessionRepository.getPtSessionsForMember(memberId).stream().map(referenceData::withNames).toList();
+    }
 
-        System.out.println("PT sessions for member ID: " + memberId);
-        for (String s : sessions) {
-            System.out.println(s);
-        }
+    /**
+     * Retrieves the scheduled group classes that have not started yet, with their
+     * remaining seats. Served from memory.
+     * 
+     * @return the upcoming classes in start time order
+     */
+    public List<GroupClass> getUpcomingClasses() {
+        return classFeed.getUpcomingClasses();
     }
 
     /**
@@ -202,36 +279,26 @@ public class MemberService {
      * 
      * @param memberId the member's ID
      * @param classId  the class ID
+     * @return         the registration result
      */
-    public void registerForClass(int memberId, int classId) {
-        if (classRepository.isMemberRegisteredForClass(memberId, classId)) {
-            System.out.println("Member is already registered for this class.");
-            return;
+    public RegistrationResult registerForClass(int memberId, int classId) {
+        RegistrationResult result =
+            classRepository.registerMemberForClass(memberId, classId, seatsTaken -> classFeed.seatTaken(classId, seatsTaken));
+        switch (result) {
+            // The feed may still be showing seats or a class other processes have since changed
+            case FULL, NOT_FOUND, NOT_SCHEDULED -> classFeed.classChanged(classId);
+            default -> { }
         }
-
-        if (classRepository.isClassFull(classId)) {
-            System.out.println("Cannot register: class is already full.");
-            return;
-        }
-
-        classRepository.registerMemberForClass(memberId, classId);
+        return result;
     }
 
     /**
-     * Displays all class registrations for a member.
+     * Retrieves all class registrations for a member.
      * 
      * @param memberId the member's ID
+     * @return         the group fitness classes the member is registered for
      */
-    public void showClassRegistrations(int memberId) {
-        List<String> registrations = classRepository.getRegistrationsForMember(memberId);
-        if (registrations.isEmpty()) {
-            System.out.println("No class registrations found for member ID: " + memberId);
-            return;
-        }
-
-        System.out.println("Class registrations for member ID: " + memberId);
-        for (String r : registrations) {
-            System.out.println(r);
-        }
+    public List<GroupClass> getClassRegistrations(int memberId) {
+        return classRepository.getRegistrationsForMember(memberId);
     }
 }
@@ -0,0 +1,51 @@
+package com.comp3005.finalproject;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * @param items the rows on this page, in listing order
+ * @param next  the cursor for the following page, or null if this is the last page
+ * @param <T>   the row type
+ */
+public record Page<T>(List<T> items, PageCursor next) {
+    /**
+     * Builds a page from rows fetched with a limit of pageSize + 1. The extra row only
+     * signals that another page exists and is dropped.
+     *
+     * @param rows     the fetched rows
+     * @param pageSize the requested page size
+     * @param cursorOf creates the cursor pointing after a given row
+     * @param <T>      the row type
+     * @return         the page
+     */
+    public static <T> Page<T> of(List<T> rows, int pageSize, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new Page<>(items, cursorOf.apply(items.get(pageSize - 1)));
+    }
+
+    /**
+     * Transforms the rows on this page, keeping its cursor.
+     *
+     * @param mapper transforms one row
+     * @param <R>    the new row type
+     * @return       the transformed page
+     */
+    public <R> Page<R> map(Function<T, R> mapper) {
+        return new Page<>(items.stream().map(mapper).toList(), next);
+    }
+
+    /**
+     * Returns whether another page follows this one.
+     *
+     * @return true if there is a next page, or false otherwise
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+}
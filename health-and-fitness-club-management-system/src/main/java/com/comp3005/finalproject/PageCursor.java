@@ -0,0 +1,25 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks where a page of results ended, so the next page can seek past it instead of
+ * skipping rows with OFFSET.
+ *
+ * Listings ordered by ID only use lastId. Listings ordered by time use lastTime and
+ * break ties with lastId.
+ *
+ * @param lastTime the sort time of the last row on the page, or null for ID-ordered listings
+ * @param lastId   the ID of the last row on the page
+ */
+public record PageCursor(LocalDateTime lastTime, int lastId) {
+    /**
+     * Creates a cursor for a listing ordered by ID.
+     *
+     * @param lastId the ID of the last row on the page
+     * @return       the cursor
+     */
+    public static PageCursor afterId(int lastId) {
+        return new PageCursor(null, lastId);
+    }
+}
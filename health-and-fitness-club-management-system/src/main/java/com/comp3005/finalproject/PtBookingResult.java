@@ -0,0 +1,47 @@
+package com.comp3005.finalproject;
+
+/**
+ * The outcome of booking or rescheduling a personal training session.
+ *
+ * @param status    what happened to the booking
+ * @param sessionId the booked session's ID, or 0 if nothing was booked
+ */
+public record PtBookingResult(Status status, int sessionId) {
+    /**
+     * Possible booking outcomes. The conflict values name the resource that was already taken.
+     */
+    public enum Status {
+        BOOKED,
+        MEMBER_CONFLICT,
+        TRAINER_CONFLICT,
+        ROOM_CONFLICT,
+        NOT_FOUND,
+        ERROR
+    }
+
+    public static PtBookingResult booked(int sessionId) {
+        return new PtBookingResult(Status.BOOKED, sessionId);
+    }
+
+    public static PtBookingResult of(Status status) {
+        return new PtBookingResult(status, 0);
+    }
+
+    /**
+     * Returns whether the session was booked.
+     *
+     * @return true if booked, or false otherwise
+     */
+    public boolean isBooked() {
+        return status == Status.BOOKED;
+    }
+
+    /**
+     * Returns whether the booking was rejected because of an overlapping session.
+     *
+     * @return true if a member, trainer, or room conflict occurred, or false otherwise
+     */
+    public boolean isConflict() {
+        return status == Status.MEMBER_CONFLICT || status == Status.TRAINER_CONFLICT || status == Status.ROOM_CONFLICT;
+    }
+}
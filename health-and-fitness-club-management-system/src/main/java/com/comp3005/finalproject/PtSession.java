@@ -0,0 +1,22 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+
+/**
+ * A personal training session.
+ *
+ * @param sessionId    the session ID
+ * @param memberId     the member's ID
+ * @param trainerId    the trainer's ID
+ * @param roomId       the room ID
+ * @param sessionStart the start time
+ * @param sessionEnd   the end time
+ * @param status       the session status (Booked, Cancelled, Completed)
+ * @param memberName   the member's full name, or null if not loaded
+ * @param trainerName  the trainer's full name, or null if not loaded
+ * @param roomName     the room name, or null if not loaded
+ */
+public record PtSession(int sessionId, int memberId, int trainerId, int roomId, LocalDateTime sessionStart,
+                        LocalDateTime sessionEnd, String status, String memberName, String trainerName,
+                        String roomName) {
+}
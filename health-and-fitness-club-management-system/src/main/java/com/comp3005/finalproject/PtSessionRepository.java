@@ -5,66 +5,234 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+
+import org.postgresql.util.PSQLException;
 
 /**
  * Handles database operations related to personal training sessions.
  */
 public class PtSessionRepository {
+    // Exclusion constraints on pt_session (see DDL.sql) that reject overlapping bookings
+    private static final String MEMBER_OVERLAP_CONSTRAINT = "pt_session_member_no_overlap";
+    private static final String TRAINER_OVERLAP_CONSTRAINT = "pt_session_trainer_no_overlap";
+    private static final String ROOM_OVERLAP_CONSTRAINT = "pt_session_room_no_overlap";
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private final ScheduleIndex scheduleIndex;
+
+    public PtSessionRepository() {
+        this(null);
+    }
+
+    /**
+     * Creates a repository that keeps an in-memory session index up to date as sessions
+     * change, and uses it to turn away bookings that clash with a session it knows about.
+     * Such a clash is re-read by primary key before the booking is refused; everything
+     * else is left to the database. Call rebuildScheduleIndex() to load it.
+     *
+     * @param scheduleIndex the index to use, or null to always go to the database
+     */
+    public PtSessionRepository(ScheduleIndex scheduleIndex) {
+        this.scheduleIndex = scheduleIndex;
+    }
+
     /**
-     * Adds a personal training session.
+     * Reloads the schedule index with every active session that has not ended yet.
+     * Does nothing if this repository has no index.
+     */
+    public void rebuildScheduleIndex() {
+        if (scheduleIndex == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String sql =
+            "SELECT ps.*, NULL AS member_name, NULL AS trainer_name, NULL AS room_name " +
+            "FROM pt_session ps " +
+            "WHERE ps.status <> 'Cancelled' AND ps.session_end > ?";
+        List<PtSession> sessions = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(now));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sessions.add(mapPtSession(rs));
+                }
+            }
+            scheduleIndex.load(sessions, now);
+        } catch (SQLException e) {
+            System.out.println("Error loading schedule index: ");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Adds a personal training session. Overlaps with the member's, trainer's, or room's
+     * other sessions are rejected by the database as part of the insert, and the trainer's
+     * and room's group classes and the classes the member is registered for are checked in
+     * the same transaction. The locks, the check, and the insert go to the database in one
+     * round trip. A clash with a session in the schedule index is confirmed by primary key
+     * and turned away without taking any locks.
      * 
      * @param memberId  the member's ID
      * @param trainerId the trainer's ID
      * @param roomId    the room ID
      * @param startTime the start time (YYYY-MM-DD HH:MM:SS)
      * @param endTime   the end time (YYYY-MM-DD HH:MM:SS)
+     * @return          the booking result, including the new session ID or the resource that conflicted
      */
-    public void addPtSession(int memberId, int trainerId, int roomId, String startTime, String endTime) {
-        String sql = "INSERT INTO pt_session (member_id, trainer_id, room_id, session_start, session_end) VALUES (?, ?, ?, ?, ?)";
+    public PtBookingResult addPtSession(int memberId, int trainerId, int roomId, String startTime, String endTime) {
+        LocalDateTime start = Timestamp.valueOf(startTime).toLocalDateTime();
+        LocalDateTime end = Timestamp.valueOf(endTime).toLocalDateTime();
+
+        // The insert only runs when the calendar check finds nothing; the final row carries
+        // either the new session ID or the clash
+        String sql =
+            CalendarRepository.LOCK_QUERY + "; " +
+            "WITH clash AS (" + CalendarRepository.CONFLICT_QUERY + "), " +
+            "inserted AS (" +
+            "INSERT INTO pt_session (member_id, trainer_id, room_id, session_start, session_end) " +
+            "SELECT ?::integer, ?::integer, ?::integer, ?::timestamp, ?::timestamp WHERE NOT EXISTS (SELECT 1 FROM clash) " +
+            "RETURNING pt_session_id) " +
+            "SELECT (SELECT pt_session_id FROM inserted) AS new_session_id, clash.* " +
+            "FROM (VALUES (1)) AS result LEFT JOIN clash ON true";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, memberId);
-            pstmt.setInt(2, trainerId);
-            pstmt.setInt(3, roomId);
-            pstmt.setTimestamp(4, Timestamp.valueOf(startTime));
-            pstmt.setTimestamp(5, Timestamp.valueOf(endTime));
-            pstmt.executeUpdate();
-            System.out.println("PT session booked successfully!");
+            Optional<PtSession> knownClash = findKnownConflict(conn, memberId, trainerId, roomId, start, end, null);
+            if (knownClash.isPresent()) {
+                return PtBookingResult.of(toConflict(knownClash.get(), memberId, trainerId));
+            }
+
+            int index = CalendarRepository.setLockParameters(pstmt, 1, trainerId, roomId);
+            index = CalendarRepository.setConflictParameters(pstmt, index, memberId, trainerId, roomId, start, end, null, null);
+            pstmt.setInt(index++, memberId);
+            pstmt.setInt(index++, trainerId);
+            pstmt.setInt(index++, roomId);
+            pstmt.setTimestamp(index++, Timestamp.valueOf(start));
+            pstmt.setTimestamp(index, Timestamp.valueOf(end));
+
+            // Under autocommit both statements run in one implicit transaction, so the locks are
+            // held until the insert commits. The check gets its own snapshot, taken after the locks.
+            pstmt.execute();
+            pstmt.getMoreResults();
+            CalendarEntry clash = null;
+            int sessionId;
+            try (ResultSet rs = pstmt.getResultSet()) {
+                rs.next();
+                if (rs.getString("kind") != null) {
+                    clash = CalendarRepository.mapEntry(rs);
+                }
+                sessionId = rs.getInt("new_session_id");
+            }
+
+            if (clash != null) {
+                indexClash(conn, clash);
+                return PtBookingResult.of(toConflict(clash, trainerId, roomId));
+            }
+            if (scheduleIndex != null) {
+                scheduleIndex.put(new PtSession(sessionId, memberId, trainerId, roomId, start, end, "Booked", null, null, null));
+            }
+            return PtBookingResult.booked(sessionId);
         } catch (SQLException e) {
+            PtBookingResult conflict = toConflict(e);
+            if (conflict != null) {
+                return conflict;
+            }
             System.out.println("Error booking PT session: ");
             e.printStackTrace();
         }
+
+        return PtBookingResult.of(PtBookingResult.Status.ERROR);
     }
 
     /**
-     * Updates the time range of a personal training session.
+     * Moves a member's personal training session to a new time, trainer, and room.
+     * Overlaps are rejected by the database as part of the update, and the trainer's and
+     * room's group classes and the classes the member is registered for are checked in the
+     * same transaction. The locks, the check, and the update go to the database in one round
+     * trip. A clash with a session in the schedule index is confirmed by primary key and
+     * turned away without taking any locks.
      * 
      * @param sessionId the session ID
+     * @param memberId  the member's ID
+     * @param trainerId the trainer's ID
+     * @param roomId    the room ID
      * @param startTime the new start time (YYYY-MM-DD HH:MM:SS)
      * @param endTime   the new end time (YYYY-MM-DD HH:MM:SS)
+     * @return          the booking result, including the resource that conflicted if any
      */
-    public void updatePtSessionTime(int sessionId, String startTime, String endTime) {
-        String sql = "UPDATE pt_session SET session_start = ?, session_end = ? WHERE pt_session_id = ?";
+    public PtBookingResult reschedulePtSession(int sessionId, int memberId, int trainerId, int roomId, String startTime, String endTime) {
+        LocalDateTime start = Timestamp.valueOf(startTime).toLocalDateTime();
+        LocalDateTime end = Timestamp.valueOf(endTime).toLocalDateTime();
+
+        // Same shape as addPtSession(): the update only runs when the calendar check finds
+        // nothing, and the final row carries either the session's status or the clash
+        String sql =
+            CalendarRepository.LOCK_QUERY + "; " +
+            "WITH clash AS (" + CalendarRepository.CONFLICT_QUERY + "), " +
+            "updated AS (" +
+            "UPDATE pt_session SET trainer_id = ?::integer, room_id = ?::integer, " +
+            "session_start = ?::timestamp, session_end = ?::timestamp " +
+            "WHERE pt_session_id = ? AND member_id = ? AND NOT EXISTS (SELECT 1 FROM clash) " +
+            "RETURNING status) " +
+            "SELECT (SELECT status FROM updated) AS new_status, clash.* " +
+            "FROM (VALUES (1)) AS result LEFT JOIN clash ON true";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setTimestamp(1, Timestamp.valueOf(startTime));
-            pstmt.setTimestamp(2, Timestamp.valueOf(endTime));
-            pstmt.setInt(3, sessionId);
-
-            int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("PT session rescheduled successfully!");
-            } else {
-                System.out.println("No PT session found with ID: " + sessionId);
+            Optional<PtSession> knownClash = findKnownConflict(conn, memberId, trainerId, roomId, start, end, sessionId);
+            if (knownClash.isPresent()) {
+                return PtBookingResult.of(toConflict(knownClash.get(), memberId, trainerId));
+            }
+
+            int index = CalendarRepository.setLockParameters(pstmt, 1, trainerId, roomId);
+            index = CalendarRepository.setConflictParameters(pstmt, index, memberId, trainerId, roomId, start, end, sessionId, null);
+            pstmt.setInt(index++, trainerId);
+            pstmt.setInt(index++, roomId);
+            pstmt.setTimestamp(index++, Timestamp.valueOf(start));
+            pstmt.setTimestamp(index++, Timestamp.valueOf(end));
+            pstmt.setInt(index++, sessionId);
+            pstmt.setInt(index, memberId);
+
+            pstmt.execute();
+            pstmt.getMoreResults();
+            CalendarEntry clash = null;
+            String status;
+            try (ResultSet rs = pstmt.getResultSet()) {
+                rs.next();
+                if (rs.getString("kind") != null) {
+                    clash = CalendarRepository.mapEntry(rs);
+                }
+                status = rs.getString("new_status");
             }
+
+            if (clash != null) {
+                indexClash(conn, clash);
+                return PtBookingResult.of(toConflict(clash, trainerId, roomId));
+            }
+            if (status == null) {
+                return PtBookingResult.of(PtBookingResult.Status.NOT_FOUND);
+            }
+            if (scheduleIndex != null) {
+                scheduleIndex.put(new PtSession(sessionId, memberId, trainerId, roomId, start, end, status, null, null, null));
+            }
+            return PtBookingResult.booked(sessionId);
         } catch (SQLException e) {
+            PtBookingResult conflict = toConflict(e);
+            if (conflict != null) {
+                return conflict;
+            }
             System.out.println("Error rescheduling PT session: ");
             e.printStackTrace();
         }
+
+        return PtBookingResult.of(PtBookingResult.Status.ERROR);
     }
 
     /**
@@ -72,40 +240,47 @@ public class PtSessionRepository {
      * 
      * @param sessionId the session ID
      * @param status    the new status (Booked, Cancelled, Completed)
+     * @return          the result
      */
-    public void updatePtSessionStatus(int sessionId, String status) {
-        String sql = "UPDATE pt_session SET status = ? WHERE pt_session_id = ?";
+    public WriteResult updatePtSessionStatus(int sessionId, String status) {
+        // The updated row comes back with the update, so the index needs no second read
+        String sql =
+            "UPDATE pt_session ps SET status = ? WHERE ps.pt_session_id = ? " +
+            "RETURNING ps.*, NULL AS member_name, NULL AS trainer_name, NULL AS room_name";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, status);
             pstmt.setInt(2, sessionId);
 
-            int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("PT session status updated successfully!");
-            } else {
-                System.out.println("No PT session found with ID: " + sessionId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return WriteResult.NOT_FOUND;
+                }
+                if (scheduleIndex != null) {
+                    scheduleIndex.put(mapPtSession(rs));
+                }
             }
+            return WriteResult.SAVED;
         } catch (SQLException e) {
             System.out.println("Error updating PT session status: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
      * Retrieves all PT sessions for a member.
      * 
      * @param memberId the member's ID
-     * @return         a list of PT session records, or empty if none exist
+     * @return         a list of PT sessions, or empty if none exist
      */
-    public List<String> getPtSessionsForMember(int memberId) {
-        List<String> sessions = new ArrayList<>();
+    public List<PtSession> getPtSessionsForMember(int memberId) {
+        List<PtSession> sessions = new ArrayList<>();
         String sql =
-            "SELECT ps.pt_session_id, ps.session_start, ps.session_end, ps.status, t.first_name, t.last_name, r.name AS room_name " +
+            "SELECT ps.*, NULL AS member_name, NULL AS trainer_name, NULL AS room_name " +
             "FROM pt_session ps " +
-            "JOIN trainer t ON ps.trainer_id = t.trainer_id " +
-            "JOIN room r ON ps.room_id = r.room_id " +
             "WHERE ps.member_id = ? " +
             "ORDER BY ps.session_start";
 
@@ -114,14 +289,7 @@ public class PtSessionRepository {
             pstmt.setInt(1, memberId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String row =
-                        "Session " + rs.getInt("pt_session_id") + " - " +
-                        rs.getTimestamp("session_start") + " to " +
-                        rs.getTimestamp("session_end") + " - " +
-                        rs.getString("status") + " - " +
-                        "Trainer: " + rs.getString("first_name") + " " + rs.getString("last_name") + " - " +
-                        "Room: " + rs.getString("room_name");
-                    sessions.add(row);
+                    sessions.add(mapPtSession(rs));
                 }
             }
         } catch (SQLException e) {
@@ -136,12 +304,12 @@ public class PtSessionRepository {
      * Retrieves upcoming personal training sessions for a trainer.
      * 
      * @param trainerId the trainer's ID
-     * @return          a list of upcoming PT session records, or empty if none exist
+     * @return          a list of upcoming PT sessions, or empty if none exist
      */
-    public List<String> getPtSessionsForTrainer(int trainerId) {
-        List<String> sessions = new ArrayList<>();
+    public List<PtSession> getPtSessionsForTrainer(int trainerId) {
+        List<PtSession> sessions = new ArrayList<>();
         String sql =
-            "SELECT ps.pt_session_id, ps.session_start, ps.session_end, ps.status, m.first_name, m.last_name " +
+            "SELECT ps.*, m.first_name || ' ' || m.last_name AS member_name, NULL AS trainer_name, NULL AS room_name " +
             "FROM pt_session ps " +
             "JOIN member m ON ps.member_id = m.member_id " +
             "WHERE ps.trainer_id = ? AND ps.session_start >= NOW() " +
@@ -153,15 +321,7 @@ public class PtSessionRepository {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String row =
-                        "Session " + rs.getInt("pt_session_id") + " - " +
-                        rs.getTimestamp("session_start") + " to " +
-                        rs.getTimestamp("session_end") + " - " +
-                        rs.getString("status") + " - " +
-                        "Member: " + rs.getString("first_name") + " " +
-                        rs.getString("last_name");
-
-                    sessions.add(row);
+                    sessions.add(mapPtSession(rs));
                 }
             }
         } catch (SQLException e) {
@@ -173,131 +333,160 @@ public class PtSessionRepository {
     }
 
     /**
-     * Checks for overlapping PT sessions for a member.
+     * Retrieves a personal training session by ID.
      * 
-     * @param memberId  the member's ID
-     * @param startTime the proposed start time (YYYY-MM-DD HH:MM:SS)
-     * @param endTime   the proposed end time (YYYY-MM-DD HH:MM:SS)
-     * @param excludeId the session ID to exclude from the check, or null if none
-     * @return          true if a conflict exists, or false otherwise
+     * @param sessionId the session ID
+     * @return          the session, without member, trainer, or room names, or empty if none exist
      */
-    public boolean hasMemberSessionConflict(int memberId, String startTime, String endTime, Integer excludeId) {
-        String sql =
-            "SELECT COUNT(*) FROM pt_session " +
-            "WHERE member_id = ? " +
-            "  AND session_start < ? " +
-            "  AND session_end > ? " +
-            "  AND (? IS NULL OR pt_session_id <> ?)";
+    public Optional<PtSession> getPtSessionById(int sessionId) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return getPtSessionById(conn, sessionId);
+        } catch (SQLException e) {
+            System.out.println("Error retrieving PT session by ID: ");
+            e.printStackTrace();
+        }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, memberId);
-            pstmt.setTimestamp(2, Timestamp.valueOf(endTime));
-            pstmt.setTimestamp(3, Timestamp.valueOf(startTime));
-            if (excludeId != null) {
-                pstmt.setInt(4, excludeId);
-                pstmt.setInt(5, excludeId);
-            } else {
-                pstmt.setNull(4, java.sql.Types.INTEGER);
-                pstmt.setNull(5, java.sql.Types.INTEGER);
-            }
+        return Optional.empty();
+    }
+
+    private static Optional<PtSession> getPtSessionById(Connection conn, int sessionId) throws SQLException {
+        String sql = "SELECT ps.*, NULL AS member_name, NULL AS trainer_name, NULL AS room_name FROM pt_session ps WHERE ps.pt_session_id = ?";
 
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, sessionId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                    return Optional.of(mapPtSession(rs));
                 }
             }
-        } catch (SQLException e) {
-            System.out.println("Error checking member session conflict: ");
-            e.printStackTrace();
         }
-        
-        return false;
+
+        return Optional.empty();
     }
 
     /**
-     * Checks for overlapping PT sessions for a trainer.
+     * Looks for a session in the schedule index that would clash with a booking and, if
+     * there is one, re-reads it on the booking's connection. A miss costs no round trip;
+     * the database checks the booking as part of the write anyway.
      * 
+     * @param conn      the booking's connection
+     * @param memberId  the member's ID
      * @param trainerId the trainer's ID
-     * @param startTime the proposed start time (YYYY-MM-DD HH:MM:SS)
-     * @param endTime   the proposed end time (YYYY-MM-DD HH:MM:SS)
-     * @param excludeId the session ID to exclude from the check, or null if none
-     * @return          true if a conflict exists, or false otherwise
+     * @param roomId    the room ID
+     * @param start     the start time
+     * @param end       the end time
+     * @param excludeId the session being rescheduled, or null for a new booking
+     * @return          the clashing session as the database has it, or empty if the index
+     *                  knows of none or its entry was stale
+     * @throws SQLException if the session cannot be re-read
      */
-    public boolean hasTrainerSessionConflict(int trainerId, String startTime, String endTime, Integer excludeId) {
-        String sql =
-            "SELECT COUNT(*) FROM pt_session " +
-            "WHERE trainer_id = ? " +
-            "  AND session_start < ? " +
-            "  AND session_end > ? " +
-            "  AND (? IS NULL OR pt_session_id <> ?)";
+    private Optional<PtSession> findKnownConflict(Connection conn, int memberId, int trainerId, int roomId,
+                                                  LocalDateTime start, LocalDateTime end, Integer excludeId)
+            throws SQLException {
+        if (scheduleIndex == null) {
+            return Optional.empty();
+        }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, trainerId);
-            pstmt.setTimestamp(2, Timestamp.valueOf(endTime));
-            pstmt.setTimestamp(3, Timestamp.valueOf(startTime));
-            if (excludeId != null) {
-                pstmt.setInt(4, excludeId);
-                pstmt.setInt(5, excludeId);
-            } else {
-                pstmt.setNull(4, java.sql.Types.INTEGER);
-                pstmt.setNull(5, java.sql.Types.INTEGER);
-            }
+        Optional<PtSession> indexed = scheduleIndex.findConflict(memberId, trainerId, roomId, start, end, excludeId);
+        if (indexed.isEmpty()) {
+            return Optional.empty();
+        }
+        return refreshIndexedSession(conn, indexed.get().sessionId())
+            .filter(s -> !"Cancelled".equals(s.status()))
+            .filter(s -> s.sessionStart().isBefore(end) && start.isBefore(s.sessionEnd()))
+            .filter(s -> s.memberId() == memberId || s.trainerId() == trainerId || s.roomId() == roomId);
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-        } catch (SQLException e) {
-            System.out.println("Error checking trainer session conflict: ");
-            e.printStackTrace();
+    /**
+     * Indexes the PT session a booking clashed with in the database, which the index
+     * missed, most likely because another process booked it.
+     * 
+     * @param conn  the booking's connection
+     * @param clash the clashing calendar entry
+     * @throws SQLException if the session cannot be re-read
+     */
+    private void indexClash(Connection conn, CalendarEntry clash) throws SQLException {
+        if (scheduleIndex != null && clash.kind() == CalendarEntry.Kind.PT_SESSION) {
+            refreshIndexedSession(conn, clash.id());
         }
-        
-        return false;
     }
 
     /**
-     * Checks for overlapping PT sessions for a room.
+     * Re-reads a session so the schedule index matches the database. Runs on the caller's
+     * connection, so it never needs a second one from the pool.
      * 
-     * @param roomId    the room ID
-     * @param startTime the start time (YYYY-MM-DD HH:MM:SS)
-     * @param endTime   the end time (YYYY-MM-DD HH:MM:SS)
-     * @param excludeId the session ID to exclude from the check, or null if none
-     * @return          true if a conflict exists, or false otherwise
+     * @param conn      the connection to read on
+     * @param sessionId the session ID
+     * @return          the session as the database has it, or empty if it no longer exists
+     * @throws SQLException if the session cannot be read
      */
-    public boolean hasRoomSessionConflict(int roomId, String startTime, String endTime, Integer excludeId) {
-        String sql =
-            "SELECT COUNT(*) FROM pt_session " +
-            "WHERE room_id = ? " +
-            "  AND session_start < ? " +
-            "  AND session_end > ? " +
-            "  AND (? IS NULL OR pt_session_id <> ?)";
+    private Optional<PtSession> refreshIndexedSession(Connection conn, int sessionId) throws SQLException {
+        Optional<PtSession> session = getPtSessionById(conn, sessionId);
+        if (session.isPresent()) {
+            scheduleIndex.put(session.get());
+        } else {
+            scheduleIndex.remove(sessionId);
+        }
+        return session;
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, roomId);
-            pstmt.setTimestamp(2, Timestamp.valueOf(endTime));
-            pstmt.setTimestamp(3, Timestamp.valueOf(startTime));
-            if (excludeId != null) {
-                pstmt.setInt(4, excludeId);
-                pstmt.setInt(5, excludeId);
-            } else {
-                pstmt.setNull(4, java.sql.Types.INTEGER);
-                pstmt.setNull(5, java.sql.Types.INTEGER);
-            }
+    private static PtSession mapPtSession(ResultSet rs) throws SQLException {
+        return new PtSession(
+            rs.getInt("pt_session_id"),
+            rs.getInt("member_id"),
+            rs.getInt("trainer_id"),
+            rs.getInt("room_id"),
+            rs.getObject("session_start", LocalDateTime.class),
+            rs.getObject("session_end", LocalDateTime.class),
+            rs.getString("status"),
+            rs.getString("member_name"),
+            rs.getString("trainer_name"),
+            rs.getString("room_name"));
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-        } catch (SQLException e) {
-            System.out.println("Error checking room session conflict: ");
-            e.printStackTrace();
+    private static PtBookingResult.Status toConflict(PtSession clash, int memberId, int trainerId) {
+        if (clash.memberId() == memberId) {
+            return PtBookingResult.Status.MEMBER_CONFLICT;
         }
-        
-        return false;
+        return clash.trainerId() == trainerId ? PtBookingResult.Status.TRAINER_CONFLICT : PtBookingResult.Status.ROOM_CONFLICT;
+    }
+
+    private static PtBookingResult.Status toConflict(CalendarEntry clash, int trainerId, int roomId) {
+        if (clash.trainerId() == trainerId) {
+            return PtBookingResult.Status.TRAINER_CONFLICT;
+        }
+        if (clash.roomId() == roomId) {
+            return PtBookingResult.Status.ROOM_CONFLICT;
+        }
+        // Only a class the member is registered for can clash on neither
+        return PtBookingResult.Status.MEMBER_CONFLICT;
+    }
+
+    /**
+     * Maps an exclusion constraint violation to the resource that was double-booked.
+     * 
+     * @param e the exception raised by the insert or update
+     * @return  the conflict result, or null if the exception is not an overlap
+     */
+    private static PtBookingResult toConflict(SQLException e) {
+        if (!EXCLUSION_VIOLATION.equals(e.getSQLState())) {
+            return null;
+        }
+
+        String constraint = null;
+        if (e instanceof PSQLException pe && pe.getServerErrorMessage() != null) {
+            constraint = pe.getServerErrorMessage().getConstraint();
+        }
+
+        if (MEMBER_OVERLAP_CONSTRAINT.equals(constraint)) {
+            return PtBookingResult.of(PtBookingResult.Status.MEMBER_CONFLICT);
+        }
+        if (TRAINER_OVERLAP_CONSTRAINT.equals(constraint)) {
+            return PtBookingResult.of(PtBookingResult.Status.TRAINER_CONFLICT);
+        }
+        if (ROOM_OVERLAP_CONSTRAINT.equals(constraint)) {
+            return PtBookingResult.of(PtBookingResult.Status.ROOM_CONFLICT);
+        }
+        return null;
     }
 }
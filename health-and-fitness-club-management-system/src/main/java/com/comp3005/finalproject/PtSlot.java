@@ -0,0 +1,15 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bookable personal training slot: the trainer is available and unbooked, and the
+ * room and member are both free, for the whole time.
+ *
+ * @param trainerId the trainer's ID
+ * @param roomId    the room ID
+ * @param start     the start time
+ * @param end       the end time
+ */
+public record PtSlot(int trainerId, int roomId, LocalDateTime start, LocalDateTime end) {
+}
@@ -0,0 +1,252 @@
+package com.comp3005.finalproject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Read-through cache of rooms and trainers, which change far less often than they are read.
+ *
+ * Listings load sessions, classes, and equipment without joining the room and trainer
+ * tables, and services fill in the names from here. Rooms and trainers are cached by ID
+ * and as full lists. Room writes made through AdminService invalidate the rooms; anything
+ * else, including changes made by other processes, is picked up once entries are older
+ * than CACHE_TTL_MS.
+ */
+public class ReferenceDataCache {
+    private static final long CACHE_TTL_MS = 300_000;
+    private static final int MAX_CACHED_ENTRIES = 10_000;
+
+    private record Cached<T>(T value, long loadedAt) {
+    }
+
+    private final RoomRepository roomRepository;
+    private final TrainerRepository trainerRepository;
+    private final Map<Integer, Cached<Room>> rooms = new ConcurrentHashMap<>();
+    private final Map<Integer, Cached<Trainer>> trainers = new ConcurrentHashMap<>();
+    private volatile Cached<List<Room>> allRooms;
+    private volatile Cached<List<Trainer>> allTrainers;
+
+    // Bumped on every invalidation so results read before it are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ReferenceDataCache() {
+        this(new RoomRepository(), new TrainerRepository());
+    }
+
+    public ReferenceDataCache(RoomRepository roomRepository, TrainerRepository trainerRepository) {
+        this.roomRepository = roomRepository;
+        this.trainerRepository = trainerRepository;
+    }
+
+    /**
+     * Retrieves a room by ID.
+     *
+     * @param roomId the room ID
+     * @return       the room, or empty if none exist
+     */
+    public Optional<Room> getRoom(int roomId) {
+        return lookup(rooms, roomId, roomRepository::getRoomById);
+    }
+
+    /**
+     * Retrieves a trainer by ID.
+     *
+     * @param trainerId the trainer's ID
+     * @return          the trainer, or empty if none exist
+     */
+    public Optional<Trainer> getTrainer(int trainerId) {
+        return lookup(trainers, trainerId, trainerRepository::getTrainerById);
+    }
+
+    /**
+     * Retrieves all rooms.
+     *
+     * @return the rooms ordered by ID, or empty if none exist
+     */
+    public List<Room> getAllRooms() {
+        Cached<List<Room>> cached = allRooms;
+        if (isFresh(cached)) {
+            hits.incrementAndGet();
+            return cached.value();
+        }
+
+        misses.incrementAndGet();
+        long version = generation.get();
+        List<Room> loaded = List.copyOf(roomRepository.getAllRooms());
+        if (generation.get() == version) {
+            allRooms = new Cached<>(loaded, System.currentTimeMillis());
+        }
+        return loaded;
+    }
+
+    /**
+     * Retrieves all trainers.
+     *
+     * @return the trainers, or empty if none exist
+     */
+    public List<Trainer> getAllTrainers() {
+        Cached<List<Trainer>> cached = allTrainers;
+        if (isFresh(cached)) {
+            hits.incrementAndGet();
+            return cached.value();
+        }
+
+        misses.incrementAndGet();
+        long version = generation.get();
+        List<Trainer> loaded = List.copyOf(trainerRepository.getAllTrainers());
+        if (generation.get() == version) {
+            allTrainers = new Cached<>(loaded, System.currentTimeMillis());
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the name of a room.
+     *
+     * @param roomId the room ID
+     * @return       the room name, or null if there is no such room
+     */
+    public String roomName(int roomId) {
+        return getRoom(roomId).map(Room::name).orElse(null);
+    }
+
+    /**
+     * Returns the full name of a trainer.
+     *
+     * @param trainerId the trainer's ID
+     * @return          the trainer's full name, or null if there is no such trainer
+     */
+    public String trainerName(int trainerId) {
+        return getTrainer(trainerId).map(Trainer::fullName).orElse(null);
+    }
+
+    /**
+     * Fills in the trainer and room names of a PT session, keeping its member name.
+     *
+     * @param s the PT session
+     * @return  the session with names resolved
+     */
+    public PtSession withNames(PtSession s) {
+        return new PtSession(s.sessionId(), s.memberId(), s.trainerId(), s.roomId(), s.sessionStart(), s.sessionEnd(),
+            s.status(), s.memberName(), trainerName(s.trainerId()), roomName(s.roomId()));
+    }
+
+    /**
+     * Fills in the trainer and room names of a group fitness class.
+     *
+     * @param c the group fitness class
+     * @return  the class with names resolved
+     */
+    public GroupClass withNames(GroupClass c) {
+        return new GroupClass(c.classId(), c.trainerId(), c.roomId(), c.name(), c.description(), c.startTime(),
+            c.endTime(), c.capacity(), c.seatsTaken(), c.status(), trainerName(c.trainerId()), roomName(c.roomId()));
+    }
+
+    /**
+     * Fills in the room name of an equipment item.
+     *
+     * @param e the equipment item
+     * @return  the item with its room name resolved, or unchanged if it is unassigned
+     */
+    public Equipment withNames(Equipment e) {
+        if (e.roomId() == null) {
+            return e;
+        }
+        return new Equipment(e.equipmentId(), e.roomId(), e.name(), e.equipmentType(), e.status(), roomName(e.roomId()));
+    }
+
+    /**
+     * Drops a cached room and the room list. Call after a room is changed.
+     *
+     * @param roomId the room ID
+     */
+    public void invalidateRoom(int roomId) {
+        generation.incrementAndGet();
+        rooms.remove(roomId);
+        allRooms = null;
+    }
+
+    /**
+     * Drops every cached room. Call after a room is added or removed.
+     */
+    public void invalidateRooms() {
+        generation.incrementAndGet();
+        rooms.clear();
+        allRooms = null;
+    }
+
+    /**
+     * Drops a cached trainer and the trainer list. Call after a trainer is changed.
+     *
+     * @param trainerId the trainer's ID
+     */
+    public void invalidateTrainer(int trainerId) {
+        generation.incrementAndGet();
+        trainers.remove(trainerId);
+        allTrainers = null;
+    }
+
+    /**
+     * Returns how many lookups were served from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many lookups went to the database.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns how often a lookup was served from the cache.
+     *
+     * @return the cache hit ratio between 0 and 1, or 0 before any lookups
+     */
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private <T> Optional<T> lookup(Map<Integer, Cached<T>> cache, int id, IntFunction<Optional<T>> loader) {
+        Cached<T> cached = cache.get(id);
+        if (isFresh(cached)) {
+            hits.incrementAndGet();
+            return Optional.of(cached.value());
+        }
+
+        misses.incrementAndGet();
+        long version = generation.get();
+        Optional<T> loaded = loader.apply(id);
+        // Missing IDs are not cached, since the repositories also report errors as empty
+        if (loaded.isPresent() && generation.get() == version) {
+            long now = System.currentTimeMillis();
+            if (cache.size() >= MAX_CACHED_ENTRIES) {
+                cache.values().removeIf(c -> now - c.loadedAt() >= CACHE_TTL_MS);
+                if (cache.size() >= MAX_CACHED_ENTRIES) {
+                    cache.clear();
+                }
+            }
+            cache.put(id, new Cached<>(loaded.get(), now));
+        }
+        return loaded;
+    }
+
+    private static boolean isFresh(Cached<?> cached) {
+        return cached != null && System.currentTimeMillis() - cached.loadedAt() < CACHE_TTL_MS;
+    }
+}
@@ -0,0 +1,13 @@
+package com.comp3005.finalproject;
+
+/**
+ * The outcome of registering a member for a group fitness class.
+ */
+public enum RegistrationResult {
+    REGISTERED,
+    FULL,
+    DUPLICATE,
+    NOT_FOUND,
+    NOT_SCHEDULED,
+    ERROR
+}
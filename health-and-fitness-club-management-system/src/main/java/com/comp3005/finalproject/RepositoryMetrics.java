@@ -0,0 +1,239 @@
+package com.comp3005.finalproject;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Call counts, error counts, and latency histograms for every repository method.
+ *
+ * The repositories are not touched: DatabaseConnection attributes each borrowed
+ * connection to the repository method that borrowed it and reports the time from the
+ * borrow, including any wait for the pool, to the connection's return, which with the
+ * repositories' try-with-resources blocks covers the whole method. A call counts as an
+ * error if any JDBC call on its connection or statements threw, even though the
+ * repository caught the exception and returned an empty result.
+ *
+ * Each method is also registered as an MXBean named
+ * com.comp3005.finalproject:type=RepositoryMethod,repository=...,method=..., for viewing
+ * in JConsole or any other JMX client.
+ */
+public final class RepositoryMetrics {
+    private static final String JMX_DOMAIN = "com.comp3005.finalproject";
+    private static final int CALLER_SEARCH_DEPTH = 8;
+
+    private static final ConcurrentHashMap<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private static final StackWalker walker = StackWalker.getInstance();
+
+    private RepositoryMetrics() {
+    }
+
+    /**
+     * The metrics of one repository method as seen over JMX. Times are in microseconds.
+     */
+    public interface MethodStatsMXBean {
+        String getRepository();
+
+        String getMethod();
+
+        long getCalls();
+
+        long getErrors();
+
+        long getMeanMicros();
+
+        long getP50Micros();
+
+        long getP90Micros();
+
+        long getP99Micros();
+
+        long getP999Micros();
+
+        long getMaxMicros();
+
+        void reset();
+    }
+
+    /**
+     * The metrics of one repository method.
+     */
+    public static final class MethodStats implements MethodStatsMXBean {
+        private final String repository;
+        private final String method;
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        MethodStats(String repository, String method) {
+            this.repository = repository;
+            this.method = method;
+        }
+
+        void record(long elapsedNanos, boolean failed) {
+            latency.record(elapsedNanos);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        /**
+         * Returns the latency distribution of this method's calls.
+         *
+         * @return the latency snapshot, in microseconds
+         */
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency.snapshot();
+        }
+
+        @Override
+        public String getRepository() {
+            return repository;
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public long getCalls() {
+            return latency.snapshot().count();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public long getMeanMicros() {
+            return latency.snapshot().mean();
+        }
+
+        @Override
+        public long getP50Micros() {
+            return latency.snapshot().p50();
+        }
+
+        @Override
+        public long getP90Micros() {
+            return latency.snapshot().p90();
+        }
+
+        @Override
+        public long getP99Micros() {
+            return latency.snapshot().p99();
+        }
+
+        @Override
+        public long getP999Micros() {
+            return latency.snapshot().p999();
+        }
+
+        @Override
+        public long getMaxMicros() {
+            return latency.snapshot().max();
+        }
+
+        @Override
+        public void reset() {
+            latency.reset();
+            errors.reset();
+        }
+    }
+
+    /**
+     * Returns the metrics of every repository method called so far.
+     *
+     * @return the methods ordered by repository and method name
+     */
+    public static List<MethodStats> getMethodStats() {
+        return methods.values().stream()
+            .sorted(Comparator.comparing(MethodStats::getRepository).thenComparing(MethodStats::getMethod))
+            .toList();
+    }
+
+    /**
+     * Clears the metrics of every repository method.
+     */
+    public static void reset() {
+        for (MethodStats stats : methods.values()) {
+            stats.reset();
+        }
+    }
+
+    /**
+     * Finds the repository method that is borrowing a connection, by looking for the
+     * nearest class on the call stack whose name ends in Repository.
+     *
+     * @return "Repository.method", or null if the caller is not a repository
+     */
+    static String callerOf() {
+        return walker.walk(RepositoryMetrics::callerOf);
+    }
+
+    /**
+     * Finds the repository method that is borrowing a connection in frames the caller
+     * has already walked, so that the stack is only walked once.
+     *
+     * @param frames the borrowing thread's stack, innermost frame first
+     * @return       "Repository.method", or null if the caller is not a repository
+     */
+    static String callerOf(List<StackWalker.StackFrame> frames) {
+        return callerOf(frames.stream());
+    }
+
+    private static String callerOf(Stream<StackWalker.StackFrame> frames) {
+        Optional<String> caller = frames
+            .limit(CALLER_SEARCH_DEPTH)
+            .filter(f -> f.getClassName().endsWith("Repository"))
+            .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1) + "." + f.getMethodName())
+            .findFirst();
+        return caller.orElse(null);
+    }
+
+    /**
+     * Records one repository call.
+     *
+     * @param caller       the method, as returned by callerOf, or null to record nothing
+     * @param elapsedNanos the time the call held its connection, including the wait for it
+     * @param failed       whether a JDBC call made by the method threw
+     */
+    static void record(String caller, long elapsedNanos, boolean failed) {
+        if (caller == null) {
+            return;
+        }
+
+        MethodStats stats = methods.get(caller);
+        if (stats == null) {
+            stats = register(caller);
+        }
+        stats.record(elapsedNanos, failed);
+    }
+
+    private static MethodStats register(String caller) {
+        int dot = caller.indexOf('.');
+        MethodStats created = new MethodStats(caller.substring(0, dot), caller.substring(dot + 1));
+        MethodStats existing = methods.putIfAbsent(caller, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=RepositoryMethod,repository=" +
+                created.getRepository() + ",method=" + created.getMethod());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(created, name);
+        } catch (JMException e) {
+            System.out.println("Error registering repository metrics with JMX: ");
+            e.printStackTrace();
+        }
+        return created;
+    }
+}
@@ -0,0 +1,11 @@
+package com.comp3005.finalproject;
+
+/**
+ * A room used for sessions and classes.
+ *
+ * @param roomId   the room ID
+ * @param name     the room name
+ * @param capacity the room capacity
+ */
+public record Room(int roomId, String name, int capacity) {
+}
@@ -7,6 +7,7 @@ import java.sql.Statement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Handles database operations related to rooms.
@@ -15,21 +16,17 @@ public class RoomRepository {
     /**
      * Retrieves all rooms.
      * 
-     * @return a list of room records, or empty if none exist
+     * @return a list of rooms, or empty if none exist
      */
-    public List<String> getAllRooms() {
-        List<String> rooms = new ArrayList<>();
+    public List<Room> getAllRooms() {
+        List<Room> rooms = new ArrayList<>();
         String sql = "SELECT * FROM room ORDER BY room_id";
 
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                String row =
-                    "Room " + rs.getInt("room_id") + " - " +
-                    rs.getString("name") + " - " +
-                    "Capacity: " + rs.getInt("capacity");
-                rooms.add(row);
+                rooms.add(mapRoom(rs));
             }
         } catch (SQLException e) {
             System.out.println("Error retrieving rooms: ");
@@ -39,14 +36,47 @@ public class RoomRepository {
         return rooms;
     }
 
+    /**
+     * Retrieves one page of rooms, ordered by ID. Each page is a range scan on the
+     * primary key starting after the previous page's last ID.
+     *
+     * @param after    the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of rooms on the page
+     * @return         the page of rooms, empty if none remain
+     */
+    public Page<Room> getRoomsPage(PageCursor after, int pageSize) {
+        List<Room> rows = new ArrayList<>();
+        String sql =
+            "SELECT * FROM room " +
+            "WHERE room_id > ? " +
+            "ORDER BY room_id " +
+            "LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, after == null ? 0 : after.lastId());
+            // One extra row tells us whether there is another page
+            pstmt.setInt(2, pageSize + 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapRoom(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving rooms page: ");
+            e.printStackTrace();
+        }
+
+        return Page.of(rows, pageSize, row -> PageCursor.afterId(row.roomId()));
+    }
+
     /**
      * Retrieves a room by ID.
      * 
      * @param roomId the room ID
-     * @return       a list of the room details, or empty if none exist
+     * @return       the room, or empty if none exist
      */
-    public List<String> getRoomById(int roomId) {
-        List<String> room = new ArrayList<>();
+    public Optional<Room> getRoomById(int roomId) {
         String sql = "SELECT * FROM room WHERE room_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -54,11 +84,7 @@ public class RoomRepository {
             pstmt.setInt(1, roomId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    String row =
-                        "Room " + rs.getInt("room_id") + " - " +
-                        rs.getString("name") + " - " +
-                        "Capacity: " + rs.getInt("capacity");
-                    room.add(row);
+                    return Optional.of(mapRoom(rs));
                 }
             }
         } catch (SQLException e) {
@@ -66,7 +92,7 @@ public class RoomRepository {
             e.printStackTrace();
         }
 
-        return room;
+        return Optional.empty();
     }
 
     /**
@@ -74,8 +100,9 @@ public class RoomRepository {
      * 
      * @param name     the room name
      * @param capacity the room capacity
+     * @return         the result
      */
-    public void addRoom(String name, int capacity) {
+    public WriteResult addRoom(String name, int capacity) {
         String sql = "INSERT INTO room (name, capacity) VALUES (?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -83,11 +110,13 @@ public class RoomRepository {
             pstmt.setString(1, name);
             pstmt.setInt(2, capacity);
             pstmt.executeUpdate();
-            System.out.println("Room added successfully!");
+            return WriteResult.SAVED;
         } catch (SQLException e) {
             System.out.println("Error adding room: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
@@ -95,8 +124,9 @@ public class RoomRepository {
      * 
      * @param roomId      the room ID
      * @param newCapacity the new room capacity
+     * @return            the result
      */
-    public void updateRoomCapacity(int roomId, int newCapacity) {
+    public WriteResult updateRoomCapacity(int roomId, int newCapacity) {
         String sql = "UPDATE room SET capacity = ? WHERE room_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -105,15 +135,13 @@ public class RoomRepository {
             pstmt.setInt(2, roomId);
 
             int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("Room capacity updated successfully!");
-            } else {
-                System.out.println("No room found with ID: " + roomId);
-            }
+            return rows > 0 ? WriteResult.SAVED : WriteResult.NOT_FOUND;
         } catch (SQLException e) {
             System.out.println("Error updating room capacity: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
@@ -121,8 +149,9 @@ public class RoomRepository {
      * 
      * @param roomId  the room ID
      * @param newName the new room name
+     * @return        the result
      */
-    public void updateRoomName(int roomId, String newName) {
+    public WriteResult updateRoomName(int roomId, String newName) {
         String sql = "UPDATE room SET name = ? WHERE room_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -131,14 +160,16 @@ public class RoomRepository {
             pstmt.setInt(2, roomId);
 
             int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("Room name updated successfully!");
-            } else {
-                System.out.println("No room found with ID: " + roomId);
-            }
+            return rows > 0 ? WriteResult.SAVED : WriteResult.NOT_FOUND;
         } catch (SQLException e) {
             System.out.println("Error updating room name: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
+    }
+
+    private static Room mapRoom(ResultSet rs) throws SQLException {
+        return new Room(rs.getInt("room_id"), rs.getString("name"), rs.getInt("capacity"));
     }
 }
@@ -0,0 +1,257 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of active personal training sessions, keyed by member, trainer, and room,
+ * so that busy times can be read and known clashes turned away without a database round trip.
+ *
+ * The pt_session exclusion constraints keep each member's, trainer's, and room's active
+ * sessions disjoint. Sessions for one key can therefore be kept in a map sorted by start
+ * time: the only session that can overlap [start, end) is the last one starting before
+ * end, so every overlap check is a single O(log n) lookup.
+ *
+ * The database stays authoritative. The index only covers sessions that end after the time
+ * it was loaded from, and it only sees changes made through this process; a booking it lets
+ * through can still be rejected by the database, and a clash it reports is re-read by
+ * primary key before a booking is turned away.
+ */
+public class ScheduleIndex {
+    private final Map<Integer, NavigableMap<LocalDateTime, PtSession>> byMember = new HashMap<>();
+    private final Map<Integer, NavigableMap<LocalDateTime, PtSession>> byTrainer = new HashMap<>();
+    private final Map<Integer, NavigableMap<LocalDateTime, PtSession>> byRoom = new HashMap<>();
+    private final Map<Integer, PtSession> bySession = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private LocalDateTime coversFrom = LocalDateTime.MAX;
+
+    /**
+     * Replaces the index contents.
+     *
+     * @param sessions   the active sessions ending after coversFrom
+     * @param coversFrom the time from which the index holds every active session
+     */
+    public void load(Collection<PtSession> sessions, LocalDateTime coversFrom) {
+        lock.writeLock().lock();
+        try {
+            byMember.clear();
+            byTrainer.clear();
+            byRoom.clear();
+            bySession.clear();
+            for (PtSession s : sessions) {
+                add(s);
+            }
+            this.coversFrom = coversFrom;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records a session, replacing any earlier version with the same ID. Cancelled
+     * sessions are removed instead.
+     *
+     * @param session the session as it now stands in the database
+     */
+    public void put(PtSession session) {
+        lock.writeLock().lock();
+        try {
+            removeSession(session.sessionId());
+            if (!"Cancelled".equals(session.status())) {
+                add(session);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a session from the index.
+     *
+     * @param sessionId the session ID
+     */
+    public void remove(int sessionId) {
+        lock.writeLock().lock();
+        try {
+            removeSession(sessionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the indexed session with the given ID.
+     *
+     * @param sessionId the session ID
+     * @return          the session, or empty if it is not indexed
+     */
+    public Optional<PtSession> get(int sessionId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(bySession.get(sessionId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks for an indexed session that would clash with a proposed booking.
+     *
+     * @param memberId  the member's ID
+     * @param trainerId the trainer's ID
+     * @param roomId    the room ID
+     * @param start     the proposed start time
+     * @param end       the proposed end time
+     * @param excludeId the session being rescheduled, or null for a new booking
+     * @return          the clashing session, checked in member, trainer, room order, or empty
+     *                  if none is known
+     */
+    public Optional<PtSession> findConflict(int memberId, int trainerId, int roomId,
+                                            LocalDateTime start, LocalDateTime end, Integer excludeId) {
+        lock.readLock().lock();
+        try {
+            // Sessions that ended before coversFrom were never loaded and could overlap this range
+            if (start.isBefore(coversFrom)) {
+                return Optional.empty();
+            }
+            PtSession clash = overlapping(byMember.get(memberId), start, end, excludeId);
+            if (clash == null) {
+                clash = overlapping(byTrainer.get(trainerId), start, end, excludeId);
+            }
+            if (clash == null) {
+                clash = overlapping(byRoom.get(roomId), start, end, excludeId);
+            }
+            return Optional.ofNullable(clash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the index holds every active session that overlaps a range starting
+     * at the given time.
+     *
+     * @param from the start of the range
+     * @return     true if the index has been loaded from this time or earlier, or false otherwise
+     */
+    public boolean covers(LocalDateTime from) {
+        lock.readLock().lock();
+        try {
+            return !from.isBefore(coversFrom);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a trainer's indexed sessions that overlap a time range.
+     *
+     * @param trainerId the trainer's ID
+     * @param from      the start of the range
+     * @param to        the end of the range
+     * @return          the sessions ordered by start time, or empty if none exist
+     */
+    public List<PtSession> getTrainerSessions(int trainerId, LocalDateTime from, LocalDateTime to) {
+        return sessionsBetween(byTrainer, trainerId, from, to);
+    }
+
+    /**
+     * Returns a room's indexed sessions that overlap a time range.
+     *
+     * @param roomId the room ID
+     * @param from   the start of the range
+     * @param to     the end of the range
+     * @return       the sessions ordered by start time, or empty if none exist
+     */
+    public List<PtSession> getRoomSessions(int roomId, LocalDateTime from, LocalDateTime to) {
+        return sessionsBetween(byRoom, roomId, from, to);
+    }
+
+    /**
+     * Returns the number of indexed sessions.
+     *
+     * @return the session count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bySession.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<PtSession> sessionsBetween(Map<Integer, NavigableMap<LocalDateTime, PtSession>> index, int key,
+                                            LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDateTime, PtSession> sessions = index.get(key);
+            if (sessions == null) {
+                return List.of();
+            }
+
+            // A session that started before the range may still run into it
+            LocalDateTime first = sessions.floorKey(from);
+            if (first == null || !sessions.get(first).sessionEnd().isAfter(from)) {
+                first = from;
+            }
+            return new ArrayList<>(sessions.subMap(first, true, to, false).values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static PtSession overlapping(NavigableMap<LocalDateTime, PtSession> sessions,
+                                         LocalDateTime start, LocalDateTime end, Integer excludeId) {
+        if (sessions == null) {
+            return null;
+        }
+
+        // Sessions are disjoint, so only the last one starting before end can reach past start.
+        // When that one is being rescheduled, the one before it is the next candidate.
+        Map.Entry<LocalDateTime, PtSession> entry = sessions.lowerEntry(end);
+        if (entry != null && excludeId != null && entry.getValue().sessionId() == excludeId) {
+            entry = sessions.lowerEntry(entry.getKey());
+        }
+        if (entry != null && entry.getValue().sessionEnd().isAfter(start)) {
+            return entry.getValue();
+        }
+        return null;
+    }
+
+    private void add(PtSession s) {
+        bySession.put(s.sessionId(), s);
+        byMember.computeIfAbsent(s.memberId(), k -> new TreeMap<>()).put(s.sessionStart(), s);
+        byTrainer.computeIfAbsent(s.trainerId(), k -> new TreeMap<>()).put(s.sessionStart(), s);
+        byRoom.computeIfAbsent(s.roomId(), k -> new TreeMap<>()).put(s.sessionStart(), s);
+    }
+
+    private void removeSession(int sessionId) {
+        PtSession s = bySession.remove(sessionId);
+        if (s == null) {
+            return;
+        }
+        removeFrom(byMember, s.memberId(), s);
+        removeFrom(byTrainer, s.trainerId(), s);
+        removeFrom(byRoom, s.roomId(), s);
+    }
+
+    private static void removeFrom(Map<Integer, NavigableMap<LocalDateTime, PtSession>> index, int key, PtSession s) {
+        NavigableMap<LocalDateTime, PtSession> sessions = index.get(key);
+        if (sessions == null) {
+            return;
+        }
+        sessions.remove(s.sessionStart(), s);
+        if (sessions.isEmpty()) {
+            index.remove(key);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.comp3005.finalproject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies versioned schema migrations on top of the schema created by DDL.sql.
+ *
+ * Migrations are SQL scripts under db/migration on the classpath, named
+ * V{version}__{description}.sql and listed in MIGRATIONS in the order they apply. Each
+ * runs in its own transaction and is recorded in schema_migration with a SHA-256
+ * checksum of its text. A migration that has been applied is never run again, and one
+ * whose text has changed since it was applied stops the migration, so a shipped script
+ * must never be edited; add a new one instead.
+ */
+public class SchemaMigrator {
+    private static final String MIGRATION_PATH = "/db/migration/";
+    private static final List<String> MIGRATIONS = List.of(
+        "V1__performance_indexes.sql",
+        "V2__pt_session_no_overlap.sql",
+        "V3__group_class_seats_taken.sql",
+        "V4__member_name_search.sql",
+        "V5__group_class_calendar_indexes.sql",
+        "V6__class_registration_seat_release.sql");
+
+    // Advisory lock namespace for pg_advisory_lock(namespace, id), apart from CalendarRepository's
+    private static final int MIGRATION_LOCK = 3;
+
+    private record Migration(int version, String description, String script, String checksum) {
+    }
+
+    /**
+     * Applies every migration that has not been applied yet. Concurrent callers, such as
+     * two instances starting together, wait for each other.
+     *
+     * @return true if the schema is up to date, or false if a migration failed or an applied
+     *         migration has changed
+     */
+    public boolean migrate() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT pg_advisory_lock(" + MIGRATION_LOCK + ", 0)");
+            }
+            try {
+                return migrate(conn);
+            } finally {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT pg_advisory_unlock(" + MIGRATION_LOCK + ", 0)");
+                }
+            }
+        } catch (SQLException | IOException e) {
+            System.out.println("Error applying schema migrations: ");
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    private boolean migrate(Connection conn) throws SQLException, IOException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(
+                "CREATE TABLE IF NOT EXISTS schema_migration (" +
+                "    version     INTEGER PRIMARY KEY, " +
+                "    description TEXT NOT NULL, " +
+                "    checksum    TEXT NOT NULL, " +
+                "    applied_at  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP" +
+                ")");
+        }
+
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_migration")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+
+        for (String file : MIGRATIONS) {
+            Migration migration = load(file);
+            String checksum = applied.get(migration.version());
+            if (checksum != null) {
+                if (!checksum.equals(migration.checksum())) {
+                    System.out.println("Migration " + file + " has changed since it was applied; refusing to continue.");
+                    return false;
+                }
+                continue;
+            }
+
+            apply(conn, migration);
+            System.out.println("Applied migration V" + migration.version() + " (" + migration.description() + ")");
+        }
+        return true;
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        String sql = "INSERT INTO schema_migration (version, description, checksum) VALUES (?, ?, ?)";
+
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(migration.script());
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, migration.version());
+                pstmt.setString(2, migration.description());
+                pstmt.setString(3, migration.checksum());
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static Migration load(String file) throws IOException {
+        String script;
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(MIGRATION_PATH + file)) {
+            if (in == null) {
+                throw new IOException("Migration not found on the classpath: " + MIGRATION_PATH + file);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // V12__add_indexes.sql -> version 12, description "add indexes"
+        int separator = file.indexOf("__");
+        int version = Integer.parseInt(file.substring(1, separator));
+        String description = file.substring(separator + 2, file.length() - ".sql".length()).replace('_', ' ');
+        return new Migration(version, description, script, sha256(script));
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
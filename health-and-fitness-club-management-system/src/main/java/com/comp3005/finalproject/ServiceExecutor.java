@@ -0,0 +1,111 @@
+package com.comp3005.finalproject;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs service calls for the async services, each on a virtual thread of its own.
+ *
+ * Virtual threads are cheap enough to give every caller one, but database connections
+ * are not. Only as many calls run at once as the pool can serve; the rest park on a fair
+ * semaphore, in arrival order, without holding a connection or a platform thread.
+ * Without the limit, thousands of callers would all queue inside the pool and most would
+ * hit its borrow timeout instead of simply waiting their turn.
+ *
+ * A call can fan out into up to FanOut.MAX_BRANCHES queries, each on a connection of its
+ * own, so by default each permit stands for that many connections.
+ */
+public final class ServiceExecutor implements AutoCloseable {
+    private final ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("service-", 0).factory());
+    private final Semaphore permits;
+    private final int maxConcurrent;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Snapshot of the executor state.
+     *
+     * @param maxConcurrent calls allowed to run at once
+     * @param running       calls currently running
+     * @param waiting       calls waiting for their turn
+     * @param completed     calls that returned since startup
+     * @param failed        calls that threw since startup
+     */
+    public record Stats(int maxConcurrent, int running, int waiting, long completed, long failed) {
+        @Override
+        public String toString() {
+            return "Service calls: running=" + running + "/" + maxConcurrent + ", waiting=" + waiting +
+                   ", completed=" + completed + ", failed=" + failed;
+        }
+    }
+
+    /**
+     * Creates an executor that runs as many calls at once as the connection pool can serve,
+     * even if every one of them fans out.
+     */
+    public ServiceExecutor() {
+        this(Math.max(1, DatabaseConnection.getMaxPoolSize() / FanOut.MAX_BRANCHES));
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param maxConcurrent the most calls to run at once
+     */
+    public ServiceExecutor(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Runs a service call on a new virtual thread once a permit is free.
+     *
+     * @param call the blocking service call
+     * @return     a future completed with the call's result, or exceptionally with what it threw
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting to run a service call");
+            }
+            try {
+                T result = call.get();
+                completed.increment();
+                return result;
+            } catch (RuntimeException | Error e) {
+                failed.increment();
+                throw e;
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Returns a snapshot of the executor statistics.
+     *
+     * @return the current statistics
+     */
+    public Stats getStats() {
+        return new Stats(maxConcurrent, maxConcurrent - permits.availablePermits(), permits.getQueueLength(),
+            completed.sum(), failed.sum());
+    }
+
+    /**
+     * Stops accepting calls and waits for the submitted ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,159 @@
+package com.comp3005.finalproject;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the earliest times a member could book a personal training session.
+ *
+ * Busy times are fetched once per kind of resource for the whole search window: one query
+ * for the member, one for every candidate room, and the free times of every candidate
+ * trainer from the availability engine in one batch. The three are fetched at the same time, and if the member turns out
+ * to have no free time the other two are cancelled. Each is turned into a sorted list of
+ * free ranges, and the lists are intersected with a two-pointer sweep, so no database round
+ * trips happen per candidate time. When the calendar has a schedule index, room and trainer
+ * PT sessions come from it and only group classes are queried.
+ */
+public class SlotFinder {
+    // Suggested start times are rounded up to this many minutes
+    private static final int SLOT_ALIGNMENT_MINUTES = 15;
+
+    private final TrainerAvailabilityEngine availabilityEngine;
+    private final ReferenceDataCache referenceData;
+    private final MemberRepository memberRepository;
+    private final CalendarRepository calendarRepository;
+
+    public SlotFinder(TrainerAvailabilityEngine availabilityEngine, ReferenceDataCache referenceData) {
+        this(availabilityEngine, referenceData, new MemberRepository(), availabilityEngine.getCalendarRepository());
+    }
+
+    public SlotFinder(TrainerAvailabilityEngine availabilityEngine, ReferenceDataCache referenceData,
+                      MemberRepository memberRepository, CalendarRepository calendarRepository) {
+        this.availabilityEngine = availabilityEngine;
+        this.referenceData = referenceData;
+        this.memberRepository = memberRepository;
+        this.calendarRepository = calendarRepository;
+    }
+
+    /**
+     * Finds the earliest bookable slots in a window. Each suggested start time is offered
+     * once per trainer, with the lowest-numbered free room.
+     *
+     * @param memberId  the member's ID
+     * @param trainerId the preferred trainer, or null for any trainer
+     * @param roomId    the preferred room, or null for any room
+     * @param duration  the session length
+     * @param from      the start of the search window
+     * @param to        the end of the search window
+     * @param limit     the maximum number of slots to return
+     * @return          the slots in start time order, or empty if none fit
+     */
+    public List<PtSlot> findEarliestSlots(int memberId, Integer trainerId, Integer roomId, Duration duration,
+                                          LocalDateTime from, LocalDateTime to, int limit) {
+        TimeRange window = new TimeRange(from, to);
+
+        List<Integer> trainerIds = trainerId != null
+            ? List.of(trainerId)
+            : referenceData.getAllTrainers().stream().map(Trainer::trainerId).toList();
+        List<Integer> roomIds = roomId != null
+            ? List.of(roomId)
+            : referenceData.getAllRooms().stream().map(Room::roomId).sorted().toList();
+        if (trainerIds.isEmpty() || roomIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<TimeRange> memberFree;
+        Map<Integer, List<TimeRange>> roomBusy;
+        Map<Integer, List<TimeRange>> trainerAvailable;
+        try (FanOut fanOut = new FanOut("SlotFinder.findEarliestSlots")) {
+            FanOut.Branch<List<TimeRange>> member = fanOut.fork("member",
+                () -> TimeRange.subtract(List.of(window), memberRepository.getMemberBusyTimes(memberId, from, to)),
+                List::isEmpty);
+            FanOut.Branch<Map<Integer, List<TimeRange>>> rooms = fanOut.fork("rooms",
+                () -> calendarRepository.getRoomBusyTimes(roomIds, from, to));
+            FanOut.Branch<Map<Integer, List<TimeRange>>> trainers = fanOut.fork("trainers",
+                () -> availabilityEngine.getFreeTimes(trainerIds, from, to));
+            fanOut.join();
+
+            memberFree = member.get();
+            if (memberFree.isEmpty()) {
+                return List.of();
+            }
+            roomBusy = rooms.get();
+            trainerAvailable = trainers.get();
+        }
+
+        List<List<TimeRange>> roomFree = new ArrayList<>();
+        for (int id : roomIds) {
+            List<TimeRange> busy = roomBusy.getOrDefault(id, List.of());
+            roomFree.add(TimeRange.subtract(List.of(window), busy));
+        }
+
+        List<PtSlot> candidates = new ArrayList<>();
+        for (int t : trainerIds) {
+            List<TimeRange> trainerFree = TimeRange.intersect(memberFree, trainerAvailable.get(t));
+            if (trainerFree.isEmpty()) {
+                continue;
+            }
+            for (int r = 0; r < roomIds.size(); r++) {
+                addEarliestSlots(candidates, t, roomIds.get(r), TimeRange.intersect(trainerFree, roomFree.get(r)),
+                    duration, limit);
+            }
+        }
+
+        candidates.sort(Comparator.comparing(PtSlot::start)
+            .thenComparingInt(PtSlot::trainerId)
+            .thenComparingInt(PtSlot::roomId));
+
+        // Keep one room per trainer and start time; rooms are in ID order so the first wins
+        record TrainerStart(int trainerId, LocalDateTime start) {
+        }
+        List<PtSlot> slots = new ArrayList<>();
+        Set<TrainerStart> seen = new HashSet<>();
+        for (PtSlot slot : candidates) {
+            if (slots.size() == limit) {
+                break;
+            }
+            if (seen.add(new TrainerStart(slot.trainerId(), slot.start()))) {
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Adds up to limit aligned slots of the given duration, earliest first, from a trainer and
+     * room's shared free ranges. Later slots in the same range follow back to back.
+     */
+    private static void addEarliestSlots(List<PtSlot> slots, int trainerId, int roomId, List<TimeRange> free,
+                                         Duration duration, int limit) {
+        int added = 0;
+        for (TimeRange range : free) {
+            LocalDateTime start = alignUp(range.start());
+            while (added < limit && !start.plus(duration).isAfter(range.end())) {
+                slots.add(new PtSlot(trainerId, roomId, start, start.plus(duration)));
+                start = start.plus(duration);
+                added++;
+            }
+            if (added == limit) {
+                return;
+            }
+        }
+    }
+
+    private static LocalDateTime alignUp(LocalDateTime time) {
+        LocalDateTime truncated = time.truncatedTo(ChronoUnit.HOURS);
+        long minutes = ChronoUnit.MINUTES.between(truncated, time);
+        long aligned = (minutes + SLOT_ALIGNMENT_MINUTES - 1) / SLOT_ALIGNMENT_MINUTES * SLOT_ALIGNMENT_MINUTES;
+        LocalDateTime result = truncated.plusMinutes(aligned);
+        // Seconds past an aligned minute still push the start to the next boundary
+        return result.isBefore(time) ? result.plusMinutes(SLOT_ALIGNMENT_MINUTES) : result;
+    }
+}
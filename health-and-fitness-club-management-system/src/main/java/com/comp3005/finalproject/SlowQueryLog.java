@@ -0,0 +1,310 @@
+package com.comp3005.finalproject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs statements that run longer than a threshold, with the query plan that explains why.
+ *
+ * WatchedStatement reports every slow execution with its SQL, bind parameters, row count,
+ * elapsed time, and the repository method that ran it. Reports are queued and written by
+ * a single background thread, which also re-runs the statement under EXPLAIN on a
+ * connection of its own and appends the plan. Queries are explained with ANALYZE and
+ * BUFFERS inside a read-only transaction that is rolled back; statements that change
+ * data or take locks get a plain EXPLAIN, so capturing a plan never repeats a write.
+ *
+ * So the log never adds load to a database that is already slow, plans are captured for
+ * at most MAX_EXPLAINS_PER_MINUTE statements a minute, the same SQL is explained at most
+ * once every EXPLAIN_REPEAT_INTERVAL, only one plan is captured at a time, and reports are
+ * dropped when the queue is full. Entries go to logs/slow-queries.log, which rolls over
+ * at MAX_FILE_BYTES and keeps MAX_FILES old files.
+ */
+public final class SlowQueryLog {
+    public static final long DEFAULT_THRESHOLD_MS = 200;
+
+    private static final Path LOG_FILE = Path.of("logs", "slow-queries.log");
+    private static final long MAX_FILE_BYTES = 10L * 1024 * 1024;
+    private static final int MAX_FILES = 5;
+
+    private static final int QUEUE_CAPACITY = 256;
+    private static final int MAX_EXPLAINS_PER_MINUTE = 6;
+    private static final Duration EXPLAIN_REPEAT_INTERVAL = Duration.ofMinutes(10);
+    private static final int EXPLAIN_TIMEOUT_MS = 10_000;
+    private static final int MAX_PARAMETER_CHARS = 200;
+
+    private static volatile long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_THRESHOLD_MS);
+
+    private static final BlockingQueue<SlowQuery> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final LongAdder logged = new LongAdder();
+    private static final LongAdder explained = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+    private static volatile Thread worker;
+
+    // Only touched by the worker thread
+    private static final Deque<Long> recentExplains = new ArrayDeque<>();
+    private static final Map<String, Long> lastExplainedAt = new HashMap<>();
+
+    private SlowQueryLog() {
+    }
+
+    /**
+     * One bind parameter, as the setter call that set it.
+     *
+     * @param setter the PreparedStatement setter, e.g. setInt
+     * @param args   the setter's arguments, starting with the parameter index
+     */
+    record Parameter(Method setter, Object[] args) {
+        @Override
+        public String toString() {
+            if (setter.getName().equals("setNull") || args[1] == null) {
+                return "NULL";
+            }
+            String value = String.valueOf(args[1]);
+            if (value.length() > MAX_PARAMETER_CHARS) {
+                value = value.substring(0, MAX_PARAMETER_CHARS) + "...";
+            }
+            return args[1] instanceof Number || args[1] instanceof Boolean ? value : "'" + value + "'";
+        }
+    }
+
+    /**
+     * A slow statement execution.
+     *
+     * @param caller       the repository method that ran it, or null
+     * @param sql          the SQL text
+     * @param parameters   the bind parameters in order, with null for any never set
+     * @param rows         the rows returned or changed, or -1 if unknown
+     * @param elapsedNanos the execution time
+     */
+    record SlowQuery(String caller, String sql, List<Parameter> parameters, long rows, long elapsedNanos) {
+        SlowQuery withRows(long rows) {
+            return new SlowQuery(caller, sql, parameters, rows, elapsedNanos);
+        }
+    }
+
+    /**
+     * Counts of slow statements since startup.
+     *
+     * @param logged    slow statements written to the log
+     * @param explained slow statements whose plan was captured
+     * @param dropped   slow statements not logged because the queue was full
+     */
+    public record Stats(long logged, long explained, long dropped) {
+        @Override
+        public String toString() {
+            return "Slow queries: logged=" + logged + ", explained=" + explained + ", dropped=" + dropped +
+                   " (threshold " + getThresholdMillis() + " ms, log " + LOG_FILE + ")";
+        }
+    }
+
+    /**
+     * Sets how long a statement may run before it is logged.
+     *
+     * @param threshold the threshold
+     */
+    public static void setThreshold(Duration threshold) {
+        thresholdNanos = threshold.toNanos();
+    }
+
+    /**
+     * Returns how long a statement may run before it is logged.
+     *
+     * @return the threshold in milliseconds
+     */
+    public static long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * Returns the slow statement counts since startup.
+     *
+     * @return the counts
+     */
+    public static Stats getStats() {
+        return new Stats(logged.sum(), explained.sum(), dropped.sum());
+    }
+
+    static boolean isSlow(long elapsedNanos) {
+        // The worker's own EXPLAIN ANALYZE runs are as slow as what they explain
+        return elapsedNanos >= thresholdNanos && Thread.currentThread() != worker;
+    }
+
+    static void report(SlowQuery query) {
+        if (query.sql() == null) {
+            return;
+        }
+        if (worker == null) {
+            startWorker();
+        }
+        if (!queue.offer(query)) {
+            dropped.increment();
+        }
+    }
+
+    private static synchronized void startWorker() {
+        if (worker != null) {
+            return;
+        }
+
+        Thread thread = new Thread(SlowQueryLog::drain, "slow-query-log");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+
+        // Whatever is still queued at exit is written, without plans
+        DatabaseConnection.runBeforeShutdown(() -> {
+            SlowQuery query;
+            while ((query = queue.poll()) != null) {
+                write(query, "(plan not captured: shutting down)");
+            }
+        });
+    }
+
+    private static void drain() {
+        while (true) {
+            SlowQuery query;
+            try {
+                query = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            write(query, plan(query));
+        }
+    }
+
+    private static String plan(SlowQuery query) {
+        long now = System.currentTimeMillis();
+        Long last = lastExplainedAt.get(query.sql());
+        if (last != null && now - last < EXPLAIN_REPEAT_INTERVAL.toMillis()) {
+            return "(plan not captured: same SQL explained " + (now - last) / 1000 + " s ago)";
+        }
+        while (!recentExplains.isEmpty() && now - recentExplains.peekFirst() >= 60_000) {
+            recentExplains.pollFirst();
+        }
+        if (recentExplains.size() >= MAX_EXPLAINS_PER_MINUTE) {
+            return "(plan not captured: rate limit of " + MAX_EXPLAINS_PER_MINUTE + " a minute reached)";
+        }
+
+        String verb = query.sql().stripLeading().split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+        String lowerSql = query.sql().toLowerCase(Locale.ROOT);
+        boolean readOnly = (verb.equals("SELECT") || verb.equals("WITH"))
+            && !lowerSql.contains("for update") && !lowerSql.contains("pg_advisory")
+            && !lowerSql.matches("(?s).*\\b(insert|update|delete)\\b.*");
+        boolean explainable = readOnly || verb.equals("INSERT") || verb.equals("UPDATE") || verb.equals("DELETE")
+            || verb.equals("WITH");
+        if (!explainable) {
+            return "(plan not captured: " + verb + " statements cannot be explained)";
+        }
+
+        recentExplains.addLast(now);
+        if (lastExplainedAt.size() > 1_000) {
+            lastExplainedAt.clear();
+        }
+        lastExplainedAt.put(query.sql(), now);
+
+        String explain = readOnly ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    if (readOnly) {
+                        stmt.execute("SET TRANSACTION READ ONLY");
+                    }
+                    stmt.execute("SET LOCAL statement_timeout = " + EXPLAIN_TIMEOUT_MS);
+                }
+                StringBuilder plan = new StringBuilder(readOnly ? "" : "(statement changes data; plan without ANALYZE)\n");
+                try (PreparedStatement pstmt = conn.prepareStatement(explain + query.sql())) {
+                    for (Parameter parameter : query.parameters()) {
+                        if (parameter != null) {
+                            parameter.setter().invoke(pstmt, parameter.args());
+                        }
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            plan.append(rs.getString(1)).append('\n');
+                        }
+                    }
+                }
+                explained.increment();
+                return plan.toString();
+            } finally {
+                conn.rollback();
+            }
+        } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
+            Throwable cause = e instanceof InvocationTargetException ite ? ite.getCause() : e;
+            return "(plan not captured: " + cause.getMessage() + ")";
+        }
+    }
+
+    private static synchronized void write(SlowQuery query, String plan) {
+        StringBuilder entry = new StringBuilder();
+        entry.append(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS)).append(" slow query ")
+            .append(TimeUnit.NANOSECONDS.toMillis(query.elapsedNanos())).append(" ms, ")
+            .append(query.rows() < 0 ? "unknown" : String.valueOf(query.rows())).append(" rows")
+            .append(query.caller() == null ? "" : ", " + query.caller()).append('\n')
+            .append("  SQL: ").append(query.sql().replaceAll("\\s+", " ").strip()).append('\n');
+        if (!query.parameters().isEmpty()) {
+            entry.append("  Parameters: ").append(query.parameters()).append('\n');
+        }
+        entry.append("  Plan:\n");
+        for (String line : plan.split("\n")) {
+            entry.append("    ").append(line).append('\n');
+        }
+        entry.append('\n');
+
+        try {
+            Files.createDirectories(LOG_FILE.getParent());
+            if (Files.exists(LOG_FILE) && Files.size(LOG_FILE) >= MAX_FILE_BYTES) {
+                roll();
+            }
+            try (Writer out = Files.newBufferedWriter(LOG_FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(entry.toString());
+            }
+            logged.increment();
+        } catch (IOException e) {
+            System.out.println("Error writing slow query log: ");
+            e.printStackTrace();
+        }
+    }
+
+    // slow-queries.log becomes slow-queries.log.1, .1 becomes .2, and so on; the oldest is deleted
+    private static void roll() throws IOException {
+        Files.deleteIfExists(rolled(MAX_FILES));
+        for (int i = MAX_FILES - 1; i >= 1; i--) {
+            if (Files.exists(rolled(i))) {
+                Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(LOG_FILE, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Path rolled(int generation) {
+        return LOG_FILE.resolveSibling(LOG_FILE.getFileName() + "." + generation);
+    }
+}
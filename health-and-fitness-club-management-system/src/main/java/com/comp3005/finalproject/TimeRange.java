@@ -0,0 +1,144 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A half-open time range [start, end).
+ *
+ * The static helpers work on lists sorted by start time and walk them once, so combining
+ * a trainer's availability with their bookings is linear in the number of ranges.
+ *
+ * @param start the start of the range, inclusive
+ * @param end   the end of the range, exclusive
+ */
+public record TimeRange(LocalDateTime start, LocalDateTime end) {
+    public static final Comparator<TimeRange> BY_START =
+        Comparator.comparing(TimeRange::start).thenComparing(TimeRange::end);
+
+    /**
+     * Checks whether this range shares any time with another.
+     *
+     * @param other the other range
+     * @return      true if the ranges overlap, or false otherwise
+     */
+    public boolean overlaps(TimeRange other) {
+        return start.isBefore(other.end) && other.start.isBefore(end);
+    }
+
+    /**
+     * Checks whether this range covers another completely.
+     *
+     * @param other the other range
+     * @return      true if the other range lies within this one, or false otherwise
+     */
+    public boolean contains(TimeRange other) {
+        return !other.start.isBefore(start) && !other.end.isAfter(end);
+    }
+
+    /**
+     * Merges overlapping and touching ranges.
+     *
+     * @param ranges the ranges, sorted by start time
+     * @return       the merged ranges, sorted and disjoint
+     */
+    public static List<TimeRange> merge(List<TimeRange> ranges) {
+        List<TimeRange> merged = new ArrayList<>();
+        for (TimeRange r : ranges) {
+            if (!merged.isEmpty() && !r.start.isAfter(merged.get(merged.size() - 1).end)) {
+                TimeRange last = merged.remove(merged.size() - 1);
+                merged.add(new TimeRange(last.start, r.end.isAfter(last.end) ? r.end : last.end));
+            } else {
+                merged.add(r);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Removes every busy range from a set of free ranges.
+     *
+     * @param free the free ranges, sorted and disjoint
+     * @param busy the busy ranges, sorted by start time
+     * @return     what is left of the free ranges, sorted and disjoint
+     */
+    public static List<TimeRange> subtract(List<TimeRange> free, List<TimeRange> busy) {
+        List<TimeRange> result = new ArrayList<>();
+        int b = 0;
+
+        for (TimeRange f : free) {
+            LocalDateTime cursor = f.start;
+
+            // Busy ranges that end before this free range cannot affect it or any later one
+            while (b < busy.size() && !busy.get(b).end.isAfter(cursor)) {
+                b++;
+            }
+
+            for (int i = b; i < busy.size() && busy.get(i).start.isBefore(f.end); i++) {
+                TimeRange taken = busy.get(i);
+                if (taken.start.isAfter(cursor)) {
+                    result.add(new TimeRange(cursor, taken.start));
+                }
+                if (taken.end.isAfter(cursor)) {
+                    cursor = taken.end;
+                }
+            }
+            if (cursor.isBefore(f.end)) {
+                result.add(new TimeRange(cursor, f.end));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the times covered by both sets of ranges.
+     *
+     * @param a the first ranges, sorted and disjoint
+     * @param b the second ranges, sorted and disjoint
+     * @return  the common ranges, sorted and disjoint
+     */
+    public static List<TimeRange> intersect(List<TimeRange> a, List<TimeRange> b) {
+        List<TimeRange> result = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+
+        while (i < a.size() && j < b.size()) {
+            TimeRange x = a.get(i);
+            TimeRange y = b.get(j);
+            LocalDateTime start = x.start.isAfter(y.start) ? x.start : y.start;
+            LocalDateTime end = x.end.isBefore(y.end) ? x.end : y.end;
+            if (start.isBefore(end)) {
+                result.add(new TimeRange(start, end));
+            }
+
+            // Whichever range ends first cannot overlap anything further along the other list
+            if (x.end.isBefore(y.end)) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keeps only the parts of the ranges that fall within a window.
+     *
+     * @param ranges the ranges, sorted by start time
+     * @param window the window to clip to
+     * @return       the clipped ranges, in the same order
+     */
+    public static List<TimeRange> clip(List<TimeRange> ranges, TimeRange window) {
+        List<TimeRange> result = new ArrayList<>();
+        for (TimeRange r : ranges) {
+            if (r.overlaps(window)) {
+                result.add(new TimeRange(
+                    r.start.isBefore(window.start) ? window.start : r.start,
+                    r.end.isAfter(window.end) ? window.end : r.end));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package com.comp3005.finalproject;
+
+/**
+ * A personal trainer.
+ *
+ * @param trainerId the trainer's ID
+ * @param firstName the trainer's first name
+ * @param lastName  the trainer's last name
+ * @param email     the trainer's email address
+ * @param phone     the trainer's phone number, or null if not provided
+ */
+public record Trainer(int trainerId, String firstName, String lastName, String email, String phone) {
+    /**
+     * Returns the trainer's full name.
+     *
+     * @return the first and last name separated by a space
+     */
+    public String fullName() {
+        return firstName + " " + lastName;
+    }
+}
@@ -0,0 +1,16 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+
+/**
+ * A time slot during which a trainer is available.
+ *
+ * @param availabilityId the availability time slot's ID
+ * @param trainerId      the trainer's ID
+ * @param startTime      the start time
+ * @param endTime        the end time
+ * @param recurring      true if the slot repeats weekly, or false otherwise
+ */
+public record TrainerAvailability(int availabilityId, int trainerId, LocalDateTime startTime, LocalDateTime endTime,
+                                  boolean recurring) {
+}
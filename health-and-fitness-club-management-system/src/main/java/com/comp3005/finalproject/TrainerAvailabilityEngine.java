@@ -0,0 +1,379 @@
+package com.comp3005.finalproject;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Works out when trainers are actually free: their one-off and weekly recurring
+ * availability, minus their PT sessions and group classes.
+ *
+ * A recurring slot repeats every week from its first occurrence onwards, so it is
+ * expanded only over the weeks a caller asks about. The free times of each
+ * (trainer, week) are cached once computed; adding or removing availability, or booking
+ * the trainer, should invalidate the trainer. Cached data also expires after
+ * CACHE_TTL_MS so changes made by other processes are picked up.
+ */
+public class TrainerAvailabilityEngine {
+    private static final Duration WEEK = Duration.ofDays(7);
+    private static final long CACHE_TTL_MS = 60_000;
+    private static final int MAX_CACHED_WEEKS = 5_000;
+
+    private record WeekKey(int trainerId, LocalDate weekStart) {
+    }
+
+    private record CachedWeek(List<TimeRange> free, long loadedAt) {
+    }
+
+    private record CachedSlots(List<TrainerAvailability> slots, long loadedAt) {
+    }
+
+    private final TrainerRepository trainerRepository;
+    private final CalendarRepository calendarRepository;
+    private final Map<Integer, CachedSlots> slotsByTrainer = new ConcurrentHashMap<>();
+    private final Map<WeekKey, CachedWeek> weeks = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so results computed from data read before it are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TrainerAvailabilityEngine() {
+        this(new TrainerRepository(), new CalendarRepository());
+    }
+
+    public TrainerAvailabilityEngine(TrainerRepository trainerRepository, CalendarRepository calendarRepository) {
+        this.trainerRepository = trainerRepository;
+        this.calendarRepository = calendarRepository;
+    }
+
+    /**
+     * Returns the calendar bookings are read from, so that searches built on this engine
+     * see the same bookings it does.
+     *
+     * @return the calendar repository
+     */
+    CalendarRepository getCalendarRepository() {
+        return calendarRepository;
+    }
+
+    /**
+     * Checks whether a trainer is available and unbooked for the whole of a time range.
+     * Answered from the cache when the range's week has been computed.
+     *
+     * @param trainerId the trainer's ID
+     * @param start     the start of the range
+     * @param end       the end of the range
+     * @return          true if the trainer is free throughout, or false otherwise
+     */
+    public boolean isAvailable(int trainerId, LocalDateTime start, LocalDateTime end) {
+        TimeRange wanted = new TimeRange(start, end);
+        List<TimeRange> free = weekStart(start).equals(weekStart(end.minusNanos(1)))
+            ? freeInWeek(trainerId, weekStart(start))
+            : getFreeTimes(trainerId, start, end);
+
+        // Free ranges are disjoint and sorted, so only the last one starting at or before start can cover it
+        int lo = 0;
+        int hi = free.size() - 1;
+        int candidate = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (free.get(mid).start().isAfter(start)) {
+                hi = mid - 1;
+            } else {
+                candidate = mid;
+                lo = mid + 1;
+            }
+        }
+        return candidate >= 0 && free.get(candidate).contains(wanted);
+    }
+
+    /**
+     * Returns the times within a window when a trainer is available and unbooked.
+     *
+     * @param trainerId the trainer's ID
+     * @param from      the start of the window
+     * @param to        the end of the window
+     * @return          the free times, sorted and disjoint, or empty if there are none
+     */
+    public List<TimeRange> getFreeTimes(int trainerId, LocalDateTime from, LocalDateTime to) {
+        List<TimeRange> free = new ArrayList<>();
+        for (LocalDate week = weekStart(from); week.atStartOfDay().isBefore(to); week = week.plusWeeks(1)) {
+            free.addAll(freeInWeek(trainerId, week));
+        }
+        // Ranges either side of a week boundary join back up here
+        return TimeRange.clip(TimeRange.merge(free), new TimeRange(from, to));
+    }
+
+    /**
+     * Returns the times within a window when each of several trainers is available and
+     * unbooked. Trainers whose weeks are all cached are answered from the cache; the rest
+     * are computed together, with one query for their availability and one for their
+     * bookings, rather than a round of queries per trainer.
+     *
+     * @param trainerIds the trainers' IDs
+     * @param from       the start of the window
+     * @param to         the end of the window
+     * @return           the free times of every trainer, sorted and disjoint
+     */
+    public Map<Integer, List<TimeRange>> getFreeTimes(Collection<Integer> trainerIds, LocalDateTime from, LocalDateTime to) {
+        List<LocalDate> weekStarts = new ArrayList<>();
+        for (LocalDate week = weekStart(from); week.atStartOfDay().isBefore(to); week = week.plusWeeks(1)) {
+            weekStarts.add(week);
+        }
+
+        Map<Integer, List<TimeRange>> free = new HashMap<>();
+        List<Integer> uncached = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int trainerId : trainerIds) {
+            List<TimeRange> cachedFree = new ArrayList<>();
+            for (LocalDate week : weekStarts) {
+                CachedWeek cached = weeks.get(new WeekKey(trainerId, week));
+                if (cached == null || now - cached.loadedAt() >= CACHE_TTL_MS) {
+                    cachedFree = null;
+                    break;
+                }
+                cachedFree.addAll(cached.free());
+            }
+            if (cachedFree != null) {
+                hits.addAndGet(weekStarts.size());
+                free.put(trainerId, cachedFree);
+            } else {
+                misses.addAndGet(weekStarts.size());
+                uncached.add(trainerId);
+            }
+        }
+
+        if (!uncached.isEmpty()) {
+            long version = generation.get();
+            LocalDateTime windowStart = weekStarts.get(0).atStartOfDay();
+            LocalDateTime windowEnd = weekStarts.get(weekStarts.size() - 1).atStartOfDay().plus(WEEK);
+            Map<Integer, List<TrainerAvailability>> slots = slotsFor(uncached);
+            Map<Integer, List<TimeRange>> busy = calendarRepository.getTrainerBusyTimes(uncached, windowStart, windowEnd);
+
+            for (int trainerId : uncached) {
+                List<TrainerAvailability> trainerSlots = slots.getOrDefault(trainerId, List.of());
+                List<TimeRange> trainerBusy = busy.getOrDefault(trainerId, List.of());
+                List<TimeRange> trainerFree = new ArrayList<>();
+                for (LocalDate week : weekStarts) {
+                    LocalDateTime weekFrom = week.atStartOfDay();
+                    LocalDateTime weekTo = weekFrom.plus(WEEK);
+                    TimeRange weekRange = new TimeRange(weekFrom, weekTo);
+                    List<TimeRange> available = TimeRange.clip(TimeRange.merge(expand(trainerSlots, weekFrom, weekTo)), weekRange);
+                    List<TimeRange> weekFree = available.isEmpty()
+                        ? List.of()
+                        : Collections.unmodifiableList(TimeRange.subtract(available, trainerBusy));
+                    cacheWeek(new WeekKey(trainerId, week), weekFree, version, now);
+                    trainerFree.addAll(weekFree);
+                }
+                free.put(trainerId, trainerFree);
+            }
+        }
+
+        TimeRange window = new TimeRange(from, to);
+        free.replaceAll((trainerId, ranges) -> TimeRange.clip(TimeRange.merge(ranges), window));
+        return free;
+    }
+
+    /**
+     * Returns a trainer's availability within a window, with recurring slots expanded
+     * but bookings not taken into account.
+     *
+     * @param trainerId the trainer's ID
+     * @param from      the start of the window
+     * @param to        the end of the window
+     * @return          the available times, sorted and disjoint
+     */
+    public List<TimeRange> getAvailableTimes(int trainerId, LocalDateTime from, LocalDateTime to) {
+        return TimeRange.clip(TimeRange.merge(expand(slotsFor(trainerId), from, to)), new TimeRange(from, to));
+    }
+
+    /**
+     * Finds a trainer's availability slots that overlap a proposed slot in any week.
+     * Each existing slot is expanded across the proposed slot, and a recurring proposed
+     * slot is also expanded across each existing slot, so a weekly slot is caught clashing
+     * with one that starts weeks later.
+     *
+     * @param trainerId the trainer's ID
+     * @param start     the start of the proposed slot
+     * @param end       the end of the proposed slot
+     * @param recurring true if the proposed slot repeats weekly, or false otherwise
+     * @return          the overlapping slots, or empty if none exist
+     */
+    public List<TrainerAvailability> findOverlappingSlots(int trainerId, LocalDateTime start, LocalDateTime end,
+                                                          boolean recurring) {
+        TrainerAvailability wanted = new TrainerAvailability(0, trainerId, start, end, recurring);
+        List<TrainerAvailability> overlapping = new ArrayList<>();
+        for (TrainerAvailability slot : slotsFor(trainerId)) {
+            if (occursDuring(slot, wanted) || occursDuring(wanted, slot)) {
+                overlapping.add(slot);
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Drops everything cached for a trainer. Call after their availability or bookings change.
+     *
+     * @param trainerId the trainer's ID
+     */
+    public void invalidate(int trainerId) {
+        generation.incrementAndGet();
+        slotsByTrainer.remove(trainerId);
+        weeks.keySet().removeIf(key -> key.trainerId() == trainerId);
+    }
+
+    /**
+     * Drops everything cached for every trainer.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        slotsByTrainer.clear();
+        weeks.clear();
+    }
+
+    /**
+     * Returns how often a week was served from the cache.
+     *
+     * @return the cache hit ratio between 0 and 1, or 0 before any lookups
+     */
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private List<TimeRange> freeInWeek(int trainerId, LocalDate weekStart) {
+        WeekKey key = new WeekKey(trainerId, weekStart);
+        CachedWeek cached = weeks.get(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.loadedAt() < CACHE_TTL_MS) {
+            hits.incrementAndGet();
+            return cached.free();
+        }
+
+        misses.incrementAndGet();
+        long version = generation.get();
+        LocalDateTime from = weekStart.atStartOfDay();
+        LocalDateTime to = from.plus(WEEK);
+
+        List<TimeRange> available = getAvailableTimes(trainerId, from, to);
+        List<TimeRange> free = available.isEmpty()
+            ? List.of()
+            : Collections.unmodifiableList(TimeRange.subtract(available, calendarRepository.getTrainerBusyTimes(trainerId, from, to)));
+
+        cacheWeek(key, free, version, now);
+        return free;
+    }
+
+    // Skipped if the trainer was invalidated while the week was being computed
+    private void cacheWeek(WeekKey key, List<TimeRange> free, long version, long now) {
+        if (generation.get() != version) {
+            return;
+        }
+        if (weeks.size() >= MAX_CACHED_WEEKS) {
+            weeks.values().removeIf(w -> now - w.loadedAt() >= CACHE_TTL_MS);
+            if (weeks.size() >= MAX_CACHED_WEEKS) {
+                weeks.clear();
+            }
+        }
+        weeks.put(key, new CachedWeek(free, now));
+    }
+
+    private List<TrainerAvailability> slotsFor(int trainerId) {
+        long now = System.currentTimeMillis();
+        CachedSlots cached = slotsByTrainer.get(trainerId);
+        if (cached != null && now - cached.loadedAt() < CACHE_TTL_MS) {
+            return cached.slots();
+        }
+
+        long version = generation.get();
+        List<TrainerAvailability> slots = List.copyOf(trainerRepository.getTrainerAvailability(trainerId));
+        if (generation.get() == version) {
+            slotsByTrainer.put(trainerId, new CachedSlots(slots, now));
+        }
+        return slots;
+    }
+
+    private Map<Integer, List<TrainerAvailability>> slotsFor(Collection<Integer> trainerIds) {
+        long now = System.currentTimeMillis();
+        Map<Integer, List<TrainerAvailability>> slots = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int trainerId : trainerIds) {
+            CachedSlots cached = slotsByTrainer.get(trainerId);
+            if (cached != null && now - cached.loadedAt() < CACHE_TTL_MS) {
+                slots.put(trainerId, cached.slots());
+            } else {
+                missing.add(trainerId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return slots;
+        }
+
+        long version = generation.get();
+        Map<Integer, List<TrainerAvailability>> loaded = trainerRepository.getTrainerAvailability(missing);
+        for (int trainerId : missing) {
+            List<TrainerAvailability> trainerSlots = List.copyOf(loaded.getOrDefault(trainerId, List.of()));
+            slots.put(trainerId, trainerSlots);
+            if (generation.get() == version) {
+                slotsByTrainer.put(trainerId, new CachedSlots(trainerSlots, now));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Expands slots into their occurrences that overlap a window. One-off slots occur once;
+     * recurring slots occur every seven days starting from their own start time.
+     */
+    private static List<TimeRange> expand(List<TrainerAvailability> slots, LocalDateTime from, LocalDateTime to) {
+        List<TimeRange> occurrences = new ArrayList<>();
+        for (TrainerAvailability slot : slots) {
+            if (!slot.recurring()) {
+                if (slot.startTime().isBefore(to) && slot.endTime().isAfter(from)) {
+                    occurrences.add(new TimeRange(slot.startTime(), slot.endTime()));
+                }
+                continue;
+            }
+
+            // Skip straight to the first occurrence that could still be running at from
+            long firstWeek = 0;
+            if (slot.endTime().isBefore(from)) {
+                firstWeek = Duration.between(slot.endTime(), from).toSeconds() / WEEK.toSeconds();
+            }
+            for (long w = firstWeek; ; w++) {
+                LocalDateTime start = slot.startTime().plusWeeks(w);
+                if (!start.isBefore(to)) {
+                    break;
+                }
+                LocalDateTime end = slot.endTime().plusWeeks(w);
+                if (end.isAfter(from)) {
+                    occurrences.add(new TimeRange(start, end));
+                }
+            }
+        }
+        occurrences.sort(TimeRange.BY_START);
+        return occurrences;
+    }
+
+    private static boolean occursDuring(TrainerAvailability slot, TrainerAvailability other) {
+        // expand() only returns occurrences that overlap the window
+        return !expand(List.of(slot), other.startTime(), other.endTime()).isEmpty();
+    }
+
+    private static LocalDate weekStart(LocalDateTime time) {
+        return time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
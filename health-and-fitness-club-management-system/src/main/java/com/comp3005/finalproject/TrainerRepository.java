@@ -1,13 +1,19 @@
 package com.comp3005.finalproject;
 
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Handles database operations related to trainers.
@@ -16,23 +22,17 @@ public class TrainerRepository {
     /**
      * Retrieves all trainers.
      * 
-     * @return a list of trainer records, or empty if none exist
+     * @return a list of trainers, or empty if none exist
      */
-    public List<String> getAllTrainers() {
-        List<String> trainers = new ArrayList<>();
+    public List<Trainer> getAllTrainers() {
+        List<Trainer> trainers = new ArrayList<>();
         String sql = "SELECT * FROM trainer ORDER BY trainer_id";
 
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                String row =
-                    rs.getInt("trainer_id") + " - " +
-                    rs.getString("first_name") + " " +
-                    rs.getString("last_name") + " - " +
-                    rs.getString("email") + " - " +
-                    rs.getString("phone");
-                trainers.add(row);
+                trainers.add(mapTrainer(rs));
             }
         } catch (SQLException e) {
             System.out.println("Error retrieving trainers: ");
@@ -42,14 +42,47 @@ public class TrainerRepository {
         return trainers;
     }
 
+    /**
+     * Retrieves one page of trainers, ordered by ID. Each page is a range scan on the
+     * primary key starting after the previous page's last ID.
+     *
+     * @param after    the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of trainers on the page
+     * @return         the page of trainers, empty if none remain
+     */
+    public Page<Trainer> getTrainersPage(PageCursor after, int pageSize) {
+        List<Trainer> rows = new ArrayList<>();
+        String sql =
+            "SELECT * FROM trainer " +
+            "WHERE trainer_id > ? " +
+            "ORDER BY trainer_id " +
+            "LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, after == null ? 0 : after.lastId());
+            // One extra row tells us whether there is another page
+            pstmt.setInt(2, pageSize + 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapTrainer(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving trainers page: ");
+            e.printStackTrace();
+        }
+
+        return Page.of(rows, pageSize, row -> PageCursor.afterId(row.trainerId()));
+    }
+
     /**
      * Retrieves a trainer based on their trainer ID.
      * 
      * @param trainerId the trainer's ID
-     * @return          a list of a trainer's records, or empty if none exist
+     * @return          the trainer, or empty if none exist
      */
-    public List<String> getTrainerById(int trainerId) {
-        List<String> trainer = new ArrayList<>();
+    public Optional<Trainer> getTrainerById(int trainerId) {
         String sql = "SELECT * FROM trainer WHERE trainer_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -57,13 +90,7 @@ public class TrainerRepository {
             pstmt.setInt(1, trainerId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    String row =
-                        rs.getInt("trainer_id") + " - " +
-                        rs.getString("first_name") + " " +
-                        rs.getString("last_name") + " - " +
-                        rs.getString("email") + " - " +
-                        rs.getString("phone");
-                    trainer.add(row);
+                    return Optional.of(mapTrainer(rs));
                 }
             }
         } catch (SQLException e) {
@@ -71,7 +98,7 @@ public class TrainerRepository {
             e.printStackTrace();
         }
         
-        return trainer;
+        return Optional.empty();
     }
 
     /**
@@ -81,8 +108,9 @@ public class TrainerRepository {
      * @param startTime   the start time of the availability (YYYY-MM-DD HH:MM:SS)
      * @param endTime     the end time of the availability (YYYY-MM-DD HH:MM:SS)
      * @param isRecurring whether the availability recurs weekly (True, False)
+     * @return            the result
      */
-    public void addTrainerAvailability(int trainerId, String startTime, String endTime, boolean isRecurring) {
+    public WriteResult addTrainerAvailability(int trainerId, String startTime, String endTime, boolean isRecurring) {
         String sql = "INSERT INTO trainer_availability (trainer_id, start_time, end_time, is_recurring) VALUES (?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -92,44 +120,45 @@ public class TrainerRepository {
             pstmt.setTimestamp(3, Timestamp.valueOf(endTime));
             pstmt.setBoolean(4, isRecurring);
             pstmt.executeUpdate();
-            System.out.println("Trainer availability added successfully!");
+            return WriteResult.SAVED;
         } catch (SQLException e) {
             System.out.println("Error adding trainer availability: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
      * Deletes an availability time slot.
      * 
      * @param availabilityId the availability time slot's ID
+     * @return               the result
      */
-    public void deleteTrainerAvailability(int availabilityId) {
+    public WriteResult deleteTrainerAvailability(int availabilityId) {
         String sql = "DELETE FROM trainer_availability WHERE availability_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, availabilityId);
             int rows = pstmt.executeUpdate();
-            if (rows > 0) {
-                System.out.println("Trainer availability deleted successfully!");
-            } else {
-                System.out.println("No availability found with ID: " + availabilityId);
-            }
+            return rows > 0 ? WriteResult.SAVED : WriteResult.NOT_FOUND;
         } catch (SQLException e) {
             System.out.println("Error deleting trainer availability: ");
             e.printStackTrace();
         }
+
+        return WriteResult.ERROR;
     }
 
     /**
      * Retrieves all availability time slots.
      * 
      * @param trainerId the trainer's ID
-     * @return          a list of availability records, or empty if none exist
+     * @return          a list of availability time slots, or empty if none exist
      */
-    public List<String> getTrainerAvailability(int trainerId) {
-        List<String> slots = new ArrayList<>();
+    public List<TrainerAvailability> getTrainerAvailability(int trainerId) {
+        List<TrainerAvailability> slots = new ArrayList<>();
         String sql = "SELECT * FROM trainer_availability WHERE trainer_id = ? ORDER BY start_time";
 
         try (Connection conn = DatabaseConnection.getConnection();
@@ -137,12 +166,7 @@ public class TrainerRepository {
             pstmt.setInt(1, trainerId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String row =
-                        rs.getInt("availability_id") + " - " +
-                        rs.getTimestamp("start_time") + " to " +
-                        rs.getTimestamp("end_time") + " - " +
-                        "recurring: " + rs.getBoolean("is_recurring");
-                    slots.add(row);
+                    slots.add(mapAvailability(rs));
                 }
             }
         } catch (SQLException e) {
@@ -153,18 +177,46 @@ public class TrainerRepository {
         return slots;
     }
 
+    /**
+     * Retrieves all availability time slots of several trainers.
+     * 
+     * @param trainerIds the trainers' IDs
+     * @return           the slots of each trainer sorted by start time; trainers with none are absent
+     */
+    public Map<Integer, List<TrainerAvailability>> getTrainerAvailability(Collection<Integer> trainerIds) {
+        Map<Integer, List<TrainerAvailability>> slots = new HashMap<>();
+        String sql = "SELECT * FROM trainer_availability WHERE trainer_id = ANY(?) ORDER BY trainer_id, start_time";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Array ids = conn.createArrayOf("integer", trainerIds.toArray());
+            pstmt.setArray(1, ids);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    TrainerAvailability slot = mapAvailability(rs);
+                    slots.computeIfAbsent(slot.trainerId(), k -> new ArrayList<>()).add(slot);
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving trainer availability: ");
+            e.printStackTrace();
+        }
+
+        return slots;
+    }
+
     /**
      * Retrieves all availability time slots within a time range.
      * 
      * @param trainerId the trainer's ID
      * @param startTime the start time of the availability (YYYY-MM-DD HH:MM:SS)
      * @param endTime   the end time of the availability (YYYY-MM-DD HH:MM:SS)
-     * @return          a list of availability records within a time range, or empty if none exist
+     * @return          a list of availability time slots within a time range, or empty if none exist
      */
-    public List<String> getTrainerAvailabilityInRange(int trainerId, String startTime, String endTime) {
-        List<String> slots = new ArrayList<>();
+    public List<TrainerAvailability> getTrainerAvailabilityInRange(int trainerId, String startTime, String endTime) {
+        List<TrainerAvailability> slots = new ArrayList<>();
         String sql =
-            "SELECT availability_id, start_time, end_time, is_recurring " +
+            "SELECT availability_id, trainer_id, start_time, end_time, is_recurring " +
             "FROM trainer_availability " +
             "WHERE trainer_id = ? " +
             "  AND start_time < ? " +
@@ -179,12 +231,7 @@ public class TrainerRepository {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String row =
-                        "Availability " + rs.getInt("availability_id") + " - " +
-                        rs.getTimestamp("start_time") + " to " +
-                        rs.getTimestamp("end_time") + " - " +
-                        "recurring: " + rs.getBoolean("is_recurring");
-                    slots.add(row);
+                    slots.add(mapAvailability(rs));
                 }
             }
         } catch (SQLException e) {
@@ -194,4 +241,22 @@ public class TrainerRepository {
         
         return slots;
     }
+
+    private static Trainer mapTrainer(ResultSet rs) throws SQLException {
+        return new Trainer(
+            rs.getInt("trainer_id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"),
+            rs.getString("phone"));
+    }
+
+    private static TrainerAvailability mapAvailability(ResultSet rs) throws SQLException {
+        return new TrainerAvailability(
+            rs.getInt("availability_id"),
+            rs.getInt("trainer_id"),
+            rs.getObject("start_time", LocalDateTime.class),
+            rs.getObject("end_time", LocalDateTime.class),
+            rs.getBoolean("is_recurring"));
+    }
 }
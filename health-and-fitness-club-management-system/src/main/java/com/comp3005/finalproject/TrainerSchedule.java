@@ -0,0 +1,13 @@
+package com.comp3005.finalproject;
+
+import java.util.List;
+
+/**
+ * The upcoming schedule for a trainer.
+ *
+ * @param trainerId  the trainer's ID
+ * @param ptSessions the trainer's upcoming PT sessions
+ * @param classes    the trainer's group fitness classes
+ */
+public record TrainerSchedule(int trainerId, List<PtSession> ptSessions, List<GroupClass> classes) {
+}
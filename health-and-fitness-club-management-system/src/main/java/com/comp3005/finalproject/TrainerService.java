@@ -1,5 +1,7 @@
 package com.comp3005.finalproject;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -10,168 +12,149 @@ public class TrainerService {
     private final PtSessionRepository ptSessionRepository;
     private final ClassRepository classRepository;
     private final MemberRepository memberRepository;
+    private final TrainerAvailabilityEngine availabilityEngine;
+    private final ReferenceDataCache referenceData;
 
     public TrainerService() {
         this.trainerRepository = new TrainerRepository();
         this.ptSessionRepository = new PtSessionRepository();
         this.classRepository = new ClassRepository();
         this.memberRepository = new MemberRepository();
+        this.availabilityEngine = new TrainerAvailabilityEngine(trainerRepository, new CalendarRepository());
+        this.referenceData = new ReferenceDataCache(new RoomRepository(), trainerRepository);
     }
 
-    public TrainerService(TrainerRepository trainerRepository, PtSessionRepository ptSessionRepository, ClassRepository classRepository, MemberRepository memberRepository) {
+    public TrainerService(TrainerRepository trainerRepository, PtSessionRepository ptSessionRepository, ClassRepository classRepository, MemberRepository memberRepository,
+                          TrainerAvailabilityEngine availabilityEngine, ReferenceDataCache referenceData) {
         this.trainerRepository = trainerRepository;
         this.ptSessionRepository = ptSessionRepository;
         this.classRepository = classRepository;
         this.memberRepository = memberRepository;
+        this.availabilityEngine = availabilityEngine;
+        this.referenceData = referenceData;
     }
 
     /**
-     * Adds an availability time slot for a trainer.
+     * Adds an availability time slot for a trainer, unless it overlaps an existing one,
+     * including any week's occurrence of a recurring slot.
      * 
      * @param trainerId   the trainer's ID
      * @param startTime   the start time (YYYY-MM-DD HH:MM:SS)
      * @param endTime     the end time (YYYY-MM-DD HH:MM:SS)
      * @param isRecurring true if this availability repeats, or false otherwise
+     * @return            the result of the add, including the overlapping time slots that prevented it
      */
-    public void addAvailability(int trainerId, String startTime, String endTime, boolean isRecurring) {
-        List<String> overlapping =
-            trainerRepository.getTrainerAvailabilityInRange(trainerId, startTime, endTime);
+    public AvailabilityResult addAvailability(int trainerId, String startTime, String endTime, boolean isRecurring) {
+        List<TrainerAvailability> overlapping = availabilityEngine.findOverlappingSlots(trainerId,
+            Timestamp.valueOf(startTime).toLocalDateTime(), Timestamp.valueOf(endTime).toLocalDateTime(), isRecurring);
 
         if (!overlapping.isEmpty()) {
-            System.out.println("Cannot add availability: Overlapping availability already exists.");
-            for (String slot : overlapping) {
-                System.out.println("  " + slot);
-            }
-            return;
+            return AvailabilityResult.overlapping(overlapping);
         }
 
-        trainerRepository.addTrainerAvailability(trainerId, startTime, endTime, isRecurring);
+        WriteResult result = trainerRepository.addTrainerAvailability(trainerId, startTime, endTime, isRecurring);
+        if (result == WriteResult.SAVED) {
+            availabilityEngine.invalidate(trainerId);
+        }
+        return AvailabilityResult.written(result);
     }
 
     /**
      * Removes an availability time slot for a trainer.
      * 
      * @param availabilityId
+     * @return               the result
      */
-    public void removeAvailability(int availabilityId) {
-        trainerRepository.deleteTrainerAvailability(availabilityId);
+    public WriteResult removeAvailability(int availabilityId) {
+        WriteResult result = trainerRepository.deleteTrainerAvailability(availabilityId);
+        if (result == WriteResult.SAVED) {
+            availabilityEngine.invalidateAll();
+        }
+        return result;
     }
 
     /**
-     * Displays all availability windows for a trainer.
+     * Checks whether a trainer is available, and not already booked, for a whole time range.
+     * Recurring availability is taken into account.
      * 
      * @param trainerId the trainer's ID
+     * @param start     the start of the range
+     * @param end       the end of the range
+     * @return          true if the trainer is free throughout, or false otherwise
      */
-    public void showAvailability(int trainerId) {
-        List<String> slots = trainerRepository.getTrainerAvailability(trainerId);
-        if (slots.isEmpty()) {
-            System.out.println("No availability found for trainer ID: " + trainerId);
-            return;
-        }
-
-        System.out.println("Availability for trainer ID: " + trainerId);
-        for (String slot : slots) {
-            System.out.println(slot);
-        }
+    public boolean isAvailable(int trainerId, LocalDateTime start, LocalDateTime end) {
+        return availabilityEngine.isAvailable(trainerId, start, end);
     }
 
     /**
-     * Displays the upcoming schedule for a trainer.
+     * Retrieves the times a trainer is available and not booked within a window.
      * 
      * @param trainerId the trainer's ID
+     * @param from      the start of the window
+     * @param to        the end of the window
+     * @return          the free times in order, or empty if there are none
      */
-    public void showSchedule(int trainerId) {
-        List<String> ptSessions = ptSessionRepository.getPtSessionsForTrainer(trainerId);
-        List<String> classes    = classRepository.getClassesForTrainer(trainerId);
-
-        System.out.println("Schedule for trainer ID: " + trainerId);
+    public List<TimeRange> getFreeTimes(int trainerId, LocalDateTime from, LocalDateTime to) {
+        return availabilityEngine.getFreeTimes(trainerId, from, to);
+    }
 
-        System.out.println("Personal Training Sessions:");
-        if (ptSessions.isEmpty()) {
-            System.out.println("  (none)");
-        } else {
-            for (String s : ptSessions) {
-                System.out.println("  " + s);
-            }
-        }
+    /**
+     * Retrieves all availability windows for a trainer.
+     * 
+     * @param trainerId the trainer's ID
+     * @return          the trainer's availability time slots
+     */
+    public List<TrainerAvailability> getAvailability(int trainerId) {
+        return trainerRepository.getTrainerAvailability(trainerId);
+    }
 
-        System.out.println("Group Classes:");
-        if (classes.isEmpty()) {
-            System.out.println("  (none)");
-        } else {
-            for (String c : classes) {
-                System.out.println("  " + c);
-            }
+    /**
+     * Retrieves the upcoming schedule for a trainer. The PT sessions and group classes are
+     * queried at the same time.
+     * 
+     * @param trainerId the trainer's ID
+     * @return          the trainer's upcoming PT sessions and group classes
+     */
+    public TrainerSchedule getSchedule(int trainerId) {
+        try (FanOut fanOut = new FanOut("TrainerService.getSchedule")) {
+            FanOut.Branch<List<PtSession>> ptSessions =
+                fanOut.fork("ptSessions", () -> ptSessionRepository.getPtSessionsForTrainer(trainerId));
+            FanOut.Branch<List<GroupClass>> classes = fanOut.fork("classes",
+                () -> classRepository.getClassesForTrainer(trainerId).stream().map(referenceData::withNames).toList());
+            fanOut.join();
+            return new TrainerSchedule(trainerId, ptSessions.get(), classes.get());
         }
     }
 
     /**
-     * Looks up a member by their full name and displays their profile,
-     * fitness goals, and latest health metric. This operation is read-only.
+     * Looks up members by their full name along with their fitness goals and
+     * latest health metric. This operation is read-only.
      * 
      * @param name the member's full name
+     * @return     the profiles of every member with that name, or empty if none exist
      */
-    public void lookupMemberByName(String name) {
-        List<String> allMembers = memberRepository.getAllMembers();
-        if (allMembers.isEmpty()) {
-            System.out.println("No members found in the system.");
-            return;
-        }
-
-        // Normalize the input full name
-        String normalizedInput = name.trim().replaceAll("\\s+", " ").toLowerCase();
-        boolean anyMatch = false;
-
-        for (String memberRow : allMembers) {
-            // Format: "member_id - first last - email - dob - gender"
-            String[] parts = memberRow.split(" - ");
-            if (parts.length < 2) {
-                continue;
-            }
-
-            String memberName = parts[1];  // "first last"
-            String normalizedMemberName = memberName.trim().replaceAll("\\s+", " ").toLowerCase();
-
-            if (normalizedMemberName.equals(normalizedInput)) {
-                anyMatch = true;
-
-                int memberId = -1;
-                try {
-                    memberId = Integer.parseInt(parts[0].trim());
-                } catch (NumberFormatException e) {
-                    System.out.println("Warning: could not parse member ID from row: " + memberRow);
-                    continue;
-                }
+    public List<MemberProfile> lookupMemberByName(String name) {
+        List<Integer> memberIds = memberRepository.findMembersByName(name).stream()
+            .map(Member::memberId)
+            .toList();
 
-                System.out.println("--------------------------------------------------");
-                System.out.println("Member: " + memberRow);
-
-                // Fitness goals (read-only)
-                List<String> goals = memberRepository.getFitnessGoalsForMember(memberId);
-                if (goals.isEmpty()) {
-                    System.out.println("  Fitness goals: none");
-                } else {
-                    System.out.println("  Fitness goals:");
-                    for (String g : goals) {
-                        System.out.println("    " + g);
-                    }
-                }
-
-                // Latest health metric (read-only)
-                List<String> latestMetric = memberRepository.getLatestHealthMetric(memberId);
-                if (latestMetric.isEmpty()) {
-                    System.out.println("  Latest health metric: none");
-                } else {
-                    System.out.println("  Latest health metric:");
-                    for (String m : latestMetric) {
-                        System.out.println("    " + m);
-                    }
-                }
-            }
-        }
+        // Goals and latest metrics for every match come back in a single query
+        return memberRepository.getMemberProfiles(memberIds);
+    }
 
-        if (!anyMatch) {
-            System.out.println("No members found with full name: " + name);
+    /**
+     * Suggests members whose names start with or closely resemble the given name,
+     * for when an exact lookup finds nothing.
+     * 
+     * @param name  the approximate member name
+     * @param limit the maximum number of suggestions
+     * @return      the suggested members, or empty if none exist
+     */
+    public List<Member> suggestMembers(String name, int limit) {
+        List<Member> suggestions = memberRepository.searchMembersByNamePrefix(name, limit);
+        if (suggestions.isEmpty()) {
+            suggestions = memberRepository.searchMembersByNameFuzzy(name, limit);
         }
+        return suggestions;
     }
 }
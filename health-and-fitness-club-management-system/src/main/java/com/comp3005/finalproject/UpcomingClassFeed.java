@@ -0,0 +1,150 @@
+package com.comp3005.finalproject;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory feed of upcoming scheduled group fitness classes with their remaining seats,
+ * so the class list members browse before registering is served without a query.
+ *
+ * The feed is loaded with one query and then kept current incrementally: a registration
+ * made through MemberService reports the class's new seat count here, and a class edit
+ * reloads just that class. Loads happen under the lock, and a reported seat count never
+ * lowers the one shown, so a registration that raced with a reload is counted once.
+ * The whole feed is reloaded once it is older than REFRESH_INTERVAL_MS, which picks
+ * up registrations and edits made by other processes.
+ */
+public class UpcomingClassFeed {
+    private static final long REFRESH_INTERVAL_MS = 300_000;
+    private static final Comparator<GroupClass> BY_START =
+        Comparator.comparing(GroupClass::startTime).thenComparingInt(GroupClass::classId);
+
+    private record Snapshot(List<GroupClass> classes, long loadedAt) {
+    }
+
+    private final ClassRepository classRepository;
+    private final ReferenceDataCache referenceData;
+
+    // Replaced as a whole on every change, so readers never need the lock
+    private volatile Snapshot snapshot;
+
+    // A lock rather than synchronized, so virtual threads waiting on a reload do not pin their carriers
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public UpcomingClassFeed(ClassRepository classRepository, ReferenceDataCache referenceData) {
+        this.classRepository = classRepository;
+        this.referenceData = referenceData;
+    }
+
+    /**
+     * Returns the scheduled classes that have not started yet.
+     *
+     * @return the classes in start time order with trainer and room names, or empty if none exist
+     */
+    public List<GroupClass> getUpcomingClasses() {
+        Snapshot current = snapshot;
+        if (current == null || System.currentTimeMillis() - current.loadedAt() >= REFRESH_INTERVAL_MS) {
+            current = reload();
+        }
+
+        // Classes that started since the feed was loaded drop off the front
+        List<GroupClass> classes = current.classes();
+        LocalDateTime now = LocalDateTime.now();
+        int first = 0;
+        while (first < classes.size() && classes.get(first).startTime().isBefore(now)) {
+            first++;
+        }
+        return classes.subList(first, classes.size());
+    }
+
+    /**
+     * Records a seat taken by a successful registration.
+     *
+     * @param classId    the group fitness class ID
+     * @param seatsTaken the class's seats_taken right after the registration
+     */
+    public void seatTaken(int classId, int seatsTaken) {
+        lock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+
+            List<GroupClass> classes = new ArrayList<>(current.classes());
+            for (int i = 0; i < classes.size(); i++) {
+                GroupClass c = classes.get(i);
+                // A reload that already saw this registration shows as many seats or more
+                if (c.classId() == classId && seatsTaken > c.seatsTaken()) {
+                    classes.set(i, new GroupClass(c.classId(), c.trainerId(), c.roomId(), c.name(), c.description(),
+                        c.startTime(), c.endTime(), c.capacity(), seatsTaken, c.status(), c.trainerName(),
+                        c.roomName()));
+                    snapshot = new Snapshot(List.copyOf(classes), current.loadedAt());
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reloads one class after it was edited, cancelled, or found out of date.
+     *
+     * @param classId the group fitness class ID
+     */
+    public void classChanged(int classId) {
+        lock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+
+            // Loaded under the lock, so no seatTaken() can land between the read and the swap
+            Optional<GroupClass> loaded = classRepository.getClassById(classId).map(referenceData::withNames);
+            List<GroupClass> classes = new ArrayList<>(current.classes());
+            classes.removeIf(c -> c.classId() == classId);
+            loaded.filter(c -> c.status().equals("Scheduled") && !c.startTime().isBefore(LocalDateTime.now()))
+                .ifPresent(classes::add);
+            classes.sort(BY_START);
+            snapshot = new Snapshot(List.copyOf(classes), current.loadedAt());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the feed so the next read reloads it. Call after a class is added.
+     */
+    public void invalidate() {
+        lock.lock();
+        try {
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Snapshot reload() {
+        lock.lock();
+        try {
+            // Another reader may have reloaded while this one waited for the lock
+            Snapshot current = snapshot;
+            if (current != null && System.currentTimeMillis() - current.loadedAt() < REFRESH_INTERVAL_MS) {
+                return current;
+            }
+
+            List<GroupClass> classes = classRepository.getUpcomingClasses().stream().map(referenceData::withNames).toList();
+            current = new Snapshot(classes, System.currentTimeMillis());
+            snapshot = current;
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.comp3005.finalproject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The handle given out for every statement created on a pooled connection.
+ *
+ * It reports JDBC failures to the connection's lease, for RepositoryMetrics, and times
+ * every execution. Executions slower than the SlowQueryLog threshold are reported along
+ * with the statement's bind parameters and row count. For a query, the rows are counted
+ * as the caller reads them and the report is made once the result set is closed, so fast
+ * queries pay for nothing but the timing.
+ */
+final class WatchedStatement implements InvocationHandler {
+    private static final Set<String> EXECUTE_METHODS =
+        Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final Statement statement;
+    private final String preparedSql;
+    private final String caller;
+    private final Consumer<Throwable> onFailure;
+
+    // Bind parameters as set, replayed by the slow query log to EXPLAIN the statement
+    private final List<SlowQueryLog.Parameter> parameters = new ArrayList<>();
+
+    // A slow query whose rows are still being read
+    private SlowQueryLog.SlowQuery pendingReport;
+    private long pendingRows;
+
+    private WatchedStatement(Statement statement, String preparedSql, String caller, Consumer<Throwable> onFailure) {
+        this.statement = statement;
+        this.preparedSql = preparedSql;
+        this.caller = caller;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * Wraps a statement.
+     *
+     * @param statement   the driver's statement
+     * @param type        the statement interface to expose
+     * @param preparedSql the SQL the statement was prepared with, or null for a plain Statement
+     * @param caller      the repository method that borrowed the connection, or null
+     * @param onFailure   told about every exception a JDBC call throws
+     * @return            the wrapped statement
+     */
+    static Object wrap(Statement statement, Class<?> type, String preparedSql, String caller, Consumer<Throwable> onFailure) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { type },
+            new WatchedStatement(statement, preparedSql, caller, onFailure));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+            recordParameter(index, method, args);
+        } else if (name.equals("clearParameters")) {
+            parameters.clear();
+        } else if (name.equals("close")) {
+            flushPendingReport();
+        }
+
+        if (!EXECUTE_METHODS.contains(name)) {
+            return call(method, args);
+        }
+
+        flushPendingReport();
+        long start = System.nanoTime();
+        Object result = call(method, args);
+        long elapsed = System.nanoTime() - start;
+        if (!SlowQueryLog.isSlow(elapsed)) {
+            return result;
+        }
+
+        // Statement.execute(sql) and friends carry their SQL; prepared statements were given theirs up front
+        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+        SlowQueryLog.SlowQuery report = new SlowQueryLog.SlowQuery(caller, sql, List.copyOf(parameters), -1, elapsed);
+        if (result instanceof ResultSet resultSet) {
+            pendingReport = report;
+            pendingRows = 0;
+            return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                (rsProxy, rsMethod, rsArgs) -> {
+                    Object value = call(resultSet, rsMethod, rsArgs);
+                    if (rsMethod.getName().equals("next") && Boolean.TRUE.equals(value)) {
+                        pendingRows++;
+                    } else if (rsMethod.getName().equals("close")) {
+                        flushPendingReport();
+                    }
+                    return value;
+                });
+        }
+
+        SlowQueryLog.report(report.withRows(rowCount(result)));
+        return result;
+    }
+
+    private void recordParameter(int index, Method setter, Object[] args) {
+        while (parameters.size() < index) {
+            parameters.add(null);
+        }
+        parameters.set(index - 1, new SlowQueryLog.Parameter(setter, args.clone()));
+    }
+
+    private long rowCount(Object result) throws SQLException {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(0, count);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            long total = 0;
+            for (long count : counts) {
+                total += Math.max(0, count);
+            }
+            return total;
+        }
+        // execute() returned false, so the statement reported an update count
+        if (Boolean.FALSE.equals(result)) {
+            return statement.getUpdateCount();
+        }
+        return -1;
+    }
+
+    private void flushPendingReport() {
+        if (pendingReport != null) {
+            SlowQueryLog.report(pendingReport.withRows(pendingRows));
+            pendingReport = null;
+        }
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        return call(statement, method, args);
+    }
+
+    private Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            onFailure.accept(e.getCause());
+            throw e.getCause();
+        }
+    }
+}
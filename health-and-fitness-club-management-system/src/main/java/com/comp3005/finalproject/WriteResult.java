@@ -0,0 +1,10 @@
+package com.comp3005.finalproject;
+
+/**
+ * The outcome of adding, updating, or removing a single row.
+ */
+public enum WriteResult {
+    SAVED,
+    NOT_FOUND,
+    ERROR
+}
@@ -0,0 +1,30 @@
+/*
+    Indexes behind the repository queries. DDL.sql already creates some of these on a
+    fresh database; IF NOT EXISTS lets this run against both fresh and older schemas.
+*/
+
+-- Member PT sessions in time order, and active-session loading for the schedule index
+CREATE INDEX IF NOT EXISTS idx_pt_session_member_time ON pt_session (member_id, session_start);
+CREATE INDEX IF NOT EXISTS idx_pt_session_room_time ON pt_session (room_id, session_start);
+CREATE INDEX IF NOT EXISTS idx_pt_session_trainer_time ON pt_session (trainer_id, session_start);
+CREATE INDEX IF NOT EXISTS idx_pt_session_active_end ON pt_session (session_end) WHERE status <> 'Cancelled';
+
+-- Health history and latest metric per member
+CREATE INDEX IF NOT EXISTS idx_health_metric_member_time ON health_metric (member_id, measure_time DESC);
+
+-- Fitness goals per member, newest first
+CREATE INDEX IF NOT EXISTS idx_fitness_goal_member_start ON fitness_goal (member_id, start_date DESC);
+
+-- A member's class registrations (the UNIQUE (class_id, member_id) index leads with class_id)
+CREATE INDEX IF NOT EXISTS idx_class_registration_member ON class_registration (member_id);
+
+-- Class listings, upcoming classes, and a trainer's classes
+CREATE INDEX IF NOT EXISTS idx_group_class_start ON group_class (start_time, class_id);
+CREATE INDEX IF NOT EXISTS idx_group_class_trainer_start ON group_class (trainer_id, start_time);
+
+-- A trainer's availability slots
+CREATE INDEX IF NOT EXISTS idx_trainer_availability_trainer_start ON trainer_availability (trainer_id, start_time);
+
+-- Open issues, newest first, and the issues of one equipment item
+CREATE INDEX IF NOT EXISTS idx_equipment_issue_open ON equipment_issue (reported_at DESC) WHERE status <> 'Resolved';
+CREATE INDEX IF NOT EXISTS idx_equipment_issue_equipment ON equipment_issue (equipment_id, reported_at DESC);
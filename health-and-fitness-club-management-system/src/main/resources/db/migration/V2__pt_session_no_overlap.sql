@@ -0,0 +1,29 @@
+/*
+    Exclusion constraints that stop a member, trainer, or room from having two active PT
+    sessions that overlap. DDL.sql already creates them on a fresh database. On an older
+    one, any overlapping active sessions must be cancelled or moved first, or adding the
+    constraint fails and the application refuses to start.
+*/
+
+-- Allows plain equality columns in the GiST exclusion constraints
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'pt_session_member_no_overlap') THEN
+        ALTER TABLE pt_session ADD CONSTRAINT pt_session_member_no_overlap
+            EXCLUDE USING gist (member_id WITH =, tsrange(session_start, session_end) WITH &&)
+            WHERE (status <> 'Cancelled');
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'pt_session_trainer_no_overlap') THEN
+        ALTER TABLE pt_session ADD CONSTRAINT pt_session_trainer_no_overlap
+            EXCLUDE USING gist (trainer_id WITH =, tsrange(session_start, session_end) WITH &&)
+            WHERE (status <> 'Cancelled');
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'pt_session_room_no_overlap') THEN
+        ALTER TABLE pt_session ADD CONSTRAINT pt_session_room_no_overlap
+            EXCLUDE USING gist (room_id WITH =, tsrange(session_start, session_end) WITH &&)
+            WHERE (status <> 'Cancelled');
+    END IF;
+END
+$$;
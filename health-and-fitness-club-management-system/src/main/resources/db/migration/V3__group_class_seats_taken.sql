@@ -0,0 +1,14 @@
+/*
+    Seat counter that class registration reserves against atomically. DDL.sql already
+    creates the column on a fresh database; on an older one it is added and filled in from
+    the existing registrations.
+*/
+
+ALTER TABLE group_class
+    ADD COLUMN IF NOT EXISTS seats_taken INTEGER NOT NULL DEFAULT 0 CHECK (seats_taken >= 0);
+
+-- Kept equal to the class's registration count
+UPDATE group_class gc
+SET seats_taken = r.taken
+FROM (SELECT class_id, COUNT(*) AS taken FROM class_registration GROUP BY class_id) r
+WHERE gc.class_id = r.class_id AND gc.seats_taken <> r.taken;
@@ -0,0 +1,15 @@
+/*
+    Normalized full name behind member name search, with its prefix and trigram indexes.
+    DDL.sql already creates these on a fresh database.
+*/
+
+-- Trigram operators for fuzzy member name search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Lower-cased full name with runs of whitespace collapsed
+ALTER TABLE member
+    ADD COLUMN IF NOT EXISTS full_name_normalized TEXT GENERATED ALWAYS AS
+        (lower(btrim(regexp_replace(first_name || ' ' || last_name, '\s+', ' ', 'g')))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_member_full_name ON member (full_name_normalized text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_member_full_name_trgm ON member USING gin (full_name_normalized gin_trgm_ops);
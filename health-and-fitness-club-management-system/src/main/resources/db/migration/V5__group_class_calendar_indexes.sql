@@ -0,0 +1,13 @@
+/*
+    Indexes behind the calendar conflict checks, which look up a trainer's or room's active
+    classes by time range the same way the pt_session exclusion constraints do for
+    sessions. DDL.sql already creates them on a fresh database.
+*/
+
+-- Allows plain equality columns in the GiST indexes
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE INDEX IF NOT EXISTS idx_group_class_trainer_time ON group_class USING gist (trainer_id, tsrange(start_time, end_time))
+    WHERE status <> 'Cancelled';
+CREATE INDEX IF NOT EXISTS idx_group_class_room_time ON group_class USING gist (room_id, tsrange(start_time, end_time))
+    WHERE status <> 'Cancelled';
@@ -0,0 +1,23 @@
+/*
+    Gives a seat back whenever a registration is deleted, including through the member and
+    group_class cascades, so seats_taken stays equal to the registration count. Registering
+    still takes the seat in ClassRepository. DDL.sql already creates the trigger on a fresh
+    database.
+*/
+
+CREATE OR REPLACE FUNCTION release_class_seat() RETURNS trigger AS $$
+BEGIN
+    UPDATE group_class SET seats_taken = seats_taken - 1 WHERE class_id = OLD.class_id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS class_registration_release_seat ON class_registration;
+CREATE TRIGGER class_registration_release_seat
+    AFTER DELETE ON class_registration
+    FOR EACH ROW EXECUTE FUNCTION release_class_seat();
+
+-- Counters left too high by registrations deleted before the trigger existed
+UPDATE group_class gc
+SET seats_taken = (SELECT COUNT(*) FROM class_registration cr WHERE cr.class_id = gc.class_id)
+WHERE gc.seats_taken <> (SELECT COUNT(*) FROM class_registration cr WHERE cr.class_id = gc.class_id);